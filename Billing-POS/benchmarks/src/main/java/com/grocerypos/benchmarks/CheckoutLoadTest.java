@@ -0,0 +1,459 @@
+package com.grocerypos.benchmarks;
+
+import com.grocerypos.dao.BillSequenceDAO;
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.CartTotals;
+import com.grocerypos.model.Item;
+import com.grocerypos.service.BillNumberService;
+import com.grocerypos.service.CheckoutService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Drives CheckoutService, the path behind CashierPanel.processCheckout (bill insert, stock
+ * decrement, inventory movements, sales rollup), from N simulated lanes at once against an
+ * embedded H2 database in MySQL mode. Each lane is its own terminal with its own bill number
+ * sequence and checks out back to back, with no think time. The journal is switched off so
+ * every checkout goes to the database.
+ * Reports throughput, p50/p99/p999 latency, deadlocks, lock wait timeouts and retries.
+ * Usage: CheckoutLoadTest [--lanes=20] [--seconds=30] [--warmup=5] [--skus=5000]
+ *        [--basket=geometric:12 | uniform:1:40 | fixed:10] [--popularity=zipf:1.0 | uniform] [--seed=42]
+ */
+public class CheckoutLoadTest {
+
+    private static final int MAX_BASKET = 200;
+    private static final int START_STOCK = 1_000_000_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int lanes = Integer.parseInt(options.getOrDefault("lanes", "20"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "5"));
+        int skus = Integer.parseInt(options.getOrDefault("skus", "5000"));
+        String basket = options.getOrDefault("basket", "geometric:12");
+        String popularity = options.getOrDefault("popularity", "zipf:1.0");
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        if (lanes < 1 || lanes > 99) {
+            throw new IllegalArgumentException("--lanes must be between 1 and 99 (terminal ids are L01..L99)");
+        }
+
+        // Must happen before anything touches DBUtil
+        configureEmbeddedDatabase(lanes);
+
+        System.out.println("Creating schema and " + skus + " items...");
+        createSchema();
+        int[] itemIds = seedItems(skus);
+        BigDecimal[][] prices = loadPrices(itemIds);
+        int[] cashierIds = loadCashiers();
+
+        BasketSize basketSize = BasketSize.parse(basket);
+        SkuPicker skuPicker = SkuPicker.parse(popularity, skus);
+        CheckoutService checkoutService = new CheckoutService();
+
+        long warmupEnd = System.nanoTime() + warmupSeconds * 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Lane> laneList = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            Lane lane = new Lane(i, checkoutService, new BillNumberService(new BillSequenceDAO(), "S01",
+                String.format("L%02d", i + 1), 50), cashierIds[i % cashierIds.length], itemIds, prices,
+                basketSize, skuPicker, new Random(seed + i), start, warmupEnd, end);
+            laneList.add(lane);
+            lane.start();
+        }
+
+        System.out.println(String.format("Running %d lanes: %d s warm-up, %d s measured, basket %s, popularity %s",
+            lanes, warmupSeconds, seconds, basket, popularity));
+        start.countDown();
+        sleepUntil(warmupEnd);
+        long retriesBefore = CheckoutService.getRetryCount();
+        long deadlocksBefore = CheckoutService.getDeadlockCount();
+        long timeoutsBefore = CheckoutService.getLockWaitTimeoutCount();
+        for (Lane lane : laneList) {
+            lane.join();
+        }
+
+        report(laneList, seconds, CheckoutService.getRetryCount() - retriesBefore,
+            CheckoutService.getDeadlockCount() - deadlocksBefore, CheckoutService.getLockWaitTimeoutCount() - timeoutsBefore);
+        checkConsistency(itemIds.length);
+        System.out.println(DBUtil.getPoolStats());
+        System.exit(0);
+    }
+
+    /**
+     * Point DBUtil at an in-memory H2 database in MySQL mode; explicit -D settings still win
+     */
+    private static void configureEmbeddedDatabase(int lanes) {
+        setDefault("db.driver", "org.h2.Driver");
+        // Row lock waits of up to 10 s, in the region of InnoDB's; deadlocks are still detected at once
+        setDefault("db.url", "jdbc:h2:mem:checkout_load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        setDefault("db.username", "sa");
+        setDefault("db.password", "");
+        // Connector/J options H2 does not understand
+        setDefault("db.statementCache.serverPrepare", "false");
+        setDefault("db.rewriteBatchedStatements", "false");
+        // One connection per lane plus room for bill number prefetches
+        setDefault("db.pool.maxActive", String.valueOf(lanes + 4));
+        setDefault("db.pool.maxIdle", String.valueOf(lanes + 4));
+        setDefault("journal.enabled", "false");
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    /**
+     * Run the application's schema.sql, adapted where H2 differs from MySQL
+     */
+    private static void createSchema() throws SQLException, IOException {
+        String schema;
+        try (InputStream input = DBUtil.class.getClassLoader().getResourceAsStream("schema.sql")) {
+            if (input == null) {
+                throw new IOException("schema.sql not found on the class path");
+            }
+            schema = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try (Connection connection = DBUtil.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : schema.split(";")) {
+                sql = sql.replaceAll("(?m)--.*$", "").trim();
+                if (sql.isEmpty() || sql.startsWith("CREATE DATABASE") || sql.startsWith("USE ")) {
+                    continue;
+                }
+                // H2 index names are unique per schema, MySQL's per table
+                statement.execute(sql.replaceAll("INDEX \\w+ \\(", "INDEX ("));
+            }
+        }
+    }
+
+    private static int[] seedItems(int count) throws SQLException {
+        List<Item> catalog = Fixtures.catalog(count);
+        try (Connection connection = DBUtil.getConnection(false);
+             PreparedStatement statement = connection.prepareStatement(
+                 "INSERT INTO items (barcode, name, price, cost_price, gst_percentage, stock_quantity, category) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (Item item : catalog) {
+                statement.setString(1, item.getBarcode());
+                statement.setString(2, item.getName());
+                statement.setBigDecimal(3, item.getPrice());
+                statement.setBigDecimal(4, item.getPrice());
+                statement.setBigDecimal(5, item.getGstPercentage());
+                statement.setInt(6, START_STOCK);
+                statement.setString(7, item.getCategory());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            connection.commit();
+            connection.setAutoCommit(true);
+        }
+        try (Connection connection = DBUtil.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM items ORDER BY id")) {
+            int[] ids = new int[count];
+            int i = 0;
+            while (resultSet.next() && i < count) {
+                ids[i++] = resultSet.getInt(1);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Price and GST rate per item, indexed like itemIds
+     */
+    private static BigDecimal[][] loadPrices(int[] itemIds) throws SQLException {
+        Map<Integer, BigDecimal[]> byId = new HashMap<>();
+        try (Connection connection = DBUtil.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, price, gst_percentage FROM items")) {
+            while (resultSet.next()) {
+                byId.put(resultSet.getInt(1), new BigDecimal[] {resultSet.getBigDecimal(2), resultSet.getBigDecimal(3)});
+            }
+        }
+        BigDecimal[][] prices = new BigDecimal[itemIds.length][];
+        for (int i = 0; i < itemIds.length; i++) {
+            prices[i] = byId.get(itemIds[i]);
+        }
+        return prices;
+    }
+
+    private static int[] loadCashiers() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection connection = DBUtil.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM users ORDER BY id")) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getInt(1));
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new SQLException("schema.sql created no users");
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void report(List<Lane> lanes, int seconds, long retries, long deadlocks, long lockWaitTimeouts) {
+        int total = 0;
+        int failed = 0;
+        long retried = 0;
+        double[] phaseMillis = new double[6];
+        Map<String, Integer> failuresByState = new TreeMap<>();
+        for (Lane lane : lanes) {
+            total += lane.count;
+            failed += lane.failed;
+            retried += lane.retried;
+            for (int i = 0; i < phaseMillis.length; i++) {
+                phaseMillis[i] += lane.phaseMillis[i];
+            }
+            lane.failuresByState.forEach((state, count) -> failuresByState.merge(state, count, Integer::sum));
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (Lane lane : lanes) {
+            System.arraycopy(lane.latencies, 0, latencies, offset, lane.count);
+            offset += lane.count;
+        }
+        Arrays.sort(latencies);
+
+        System.out.println();
+        System.out.println(String.format("Checkouts: %d in %d s = %.1f/s (%d failed)", total, seconds, (double) total / seconds, failed));
+        if (total > 0) {
+            System.out.println(String.format("Latency ms: p50 %.2f  p99 %.2f  p999 %.2f  max %.2f",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[total - 1] / 1_000_000.0));
+            System.out.println(String.format("Phase means ms: lock %.2f  bill %.2f  stock %.2f  movements %.2f  rollup %.2f  commit %.2f",
+                phaseMillis[0] / total, phaseMillis[1] / total, phaseMillis[2] / total,
+                phaseMillis[3] / total, phaseMillis[4] / total, phaseMillis[5] / total));
+        }
+        System.out.println(String.format("Deadlocks: %d  lock wait timeouts: %d  retries: %d  checkouts that needed a retry: %d",
+            deadlocks, lockWaitTimeouts, retries, retried));
+        if (!failuresByState.isEmpty()) {
+            System.out.println("Failures by SQLState: " + failuresByState);
+        }
+    }
+
+    /**
+     * Every unit sold must have left stock exactly once
+     */
+    private static void checkConsistency(int itemCount) throws SQLException {
+        try (Connection connection = DBUtil.getConnection();
+             Statement statement = connection.createStatement()) {
+            long sold = queryLong(statement, "SELECT COALESCE(SUM(quantity), 0) FROM bill_items");
+            long stockDrop = (long) START_STOCK * itemCount - queryLong(statement, "SELECT COALESCE(SUM(stock_quantity), 0) FROM items");
+            long moved = -queryLong(statement, "SELECT COALESCE(SUM(quantity_change), 0) FROM inventory_movements");
+            System.out.println(String.format("Consistency: %d units billed, %d taken from stock, %d in movements%s",
+                sold, stockDrop, moved, sold == stockDrop && sold == moved ? "" : "  MISMATCH"));
+        }
+    }
+
+    private static long queryLong(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            Thread.sleep(Math.max(1, remaining / 1_000_000));
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    /**
+     * One simulated cashier lane checking out back to back
+     */
+    private static final class Lane extends Thread {
+        private final CheckoutService checkoutService;
+        private final BillNumberService billNumbers;
+        private final int cashierId;
+        private final int[] itemIds;
+        private final BigDecimal[][] prices;
+        private final BasketSize basketSize;
+        private final SkuPicker skuPicker;
+        private final Random random;
+        private final CountDownLatch start;
+        private final long warmupEnd;
+        private final long end;
+
+        // Measured after the warm-up only
+        private long[] latencies = new long[4096];
+        private int count;
+        private int failed;
+        private int retried;
+        private final double[] phaseMillis = new double[6];
+        private final Map<String, Integer> failuresByState = new HashMap<>();
+
+        Lane(int index, CheckoutService checkoutService, BillNumberService billNumbers, int cashierId, int[] itemIds,
+             BigDecimal[][] prices, BasketSize basketSize, SkuPicker skuPicker, Random random, CountDownLatch start,
+             long warmupEnd, long end) {
+            super("checkout-lane-" + (index + 1));
+            this.checkoutService = checkoutService;
+            this.billNumbers = billNumbers;
+            this.cashierId = cashierId;
+            this.itemIds = itemIds;
+            this.prices = prices;
+            this.basketSize = basketSize;
+            this.skuPicker = skuPicker;
+            this.random = random;
+            this.start = start;
+            this.warmupEnd = warmupEnd;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            while (System.nanoTime() < end) {
+                Bill bill;
+                try {
+                    bill = createBill();
+                } catch (SQLException e) {
+                    System.err.println(getName() + ": no bill number: " + e.getMessage());
+                    continue;
+                }
+                long begin = System.nanoTime();
+                boolean measured = begin >= warmupEnd;
+                try {
+                    CheckoutService.CheckoutResult result = checkoutService.checkout(bill);
+                    if (measured) {
+                        record(System.nanoTime() - begin, result);
+                    }
+                } catch (SQLException e) {
+                    if (measured) {
+                        failed++;
+                        failuresByState.merge(String.valueOf(e.getSQLState()), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        /**
+         * A basket built the way the cashier panel builds one: lines with totals, then the bill from the cart totals
+         */
+        private Bill createBill() throws SQLException {
+            int lines = basketSize.next(random);
+            List<BillItem> items = new ArrayList<>(lines);
+            CartTotals totals = new CartTotals();
+            for (int i = 0; i < lines; i++) {
+                int sku = skuPicker.next(random);
+                BillItem line = new BillItem(0, itemIds[sku], 1 + random.nextInt(3), prices[sku][0], prices[sku][1]);
+                items.add(line);
+                totals.add(line);
+            }
+            Bill bill = new Bill(billNumbers.next(), cashierId);
+            bill.setTotals(totals);
+            bill.setPaymentMethod(Bill.PaymentMethod.values()[random.nextInt(Bill.PaymentMethod.values().length)]);
+            bill.setBillItems(items);
+            return bill;
+        }
+
+        private void record(long nanos, CheckoutService.CheckoutResult result) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            if (result.getAttempts() > 1) {
+                retried++;
+            }
+            phaseMillis[0] += result.getLockMillis();
+            phaseMillis[1] += result.getBillMillis();
+            phaseMillis[2] += result.getStockMillis();
+            phaseMillis[3] += result.getMovementMillis();
+            phaseMillis[4] += result.getRollupMillis();
+            phaseMillis[5] += result.getCommitMillis();
+        }
+    }
+
+    /**
+     * Lines per basket: geometric:MEAN (many small baskets, a long tail of big ones), uniform:MIN:MAX or fixed:N
+     */
+    private interface BasketSize {
+        int next(Random random);
+
+        static BasketSize parse(String spec) {
+            String[] parts = spec.split(":");
+            switch (parts[0]) {
+                case "geometric":
+                    double p = 1.0 / Double.parseDouble(parts[1]);
+                    return random -> Math.min(MAX_BASKET, 1 + (int) (Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+                case "uniform":
+                    int min = Integer.parseInt(parts[1]);
+                    int max = Integer.parseInt(parts[2]);
+                    return random -> min + random.nextInt(max - min + 1);
+                case "fixed":
+                    int lines = Integer.parseInt(parts[1]);
+                    return random -> lines;
+                default:
+                    throw new IllegalArgumentException("Unknown basket distribution " + spec);
+            }
+        }
+    }
+
+    /**
+     * Which SKU a line is: zipf:S (a few best sellers on most bills, the lock hot spots) or uniform
+     */
+    private interface SkuPicker {
+        int next(Random random);
+
+        static SkuPicker parse(String spec, int skus) {
+            String[] parts = spec.split(":");
+            switch (parts[0]) {
+                case "uniform":
+                    return random -> random.nextInt(skus);
+                case "zipf":
+                    double exponent = parts.length > 1 ? Double.parseDouble(parts[1]) : 1.0;
+                    double[] cumulative = new double[skus];
+                    double sum = 0;
+                    for (int rank = 0; rank < skus; rank++) {
+                        sum += 1.0 / Math.pow(rank + 1, exponent);
+                        cumulative[rank] = sum;
+                    }
+                    double total = sum;
+                    return random -> {
+                        int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                        return Math.min(skus - 1, index >= 0 ? index : -index - 1);
+                    };
+                default:
+                    throw new IllegalArgumentException("Unknown popularity distribution " + spec);
+            }
+        }
+    }
+}
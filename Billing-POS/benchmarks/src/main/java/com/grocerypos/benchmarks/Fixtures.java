@@ -0,0 +1,202 @@
+package com.grocerypos.benchmarks;
+
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.Item;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic catalogs, carts and result sets shared by the benchmarks. Everything is seeded,
+ * so every run measures the same data. Result sets are in-memory CachedRowSets: the numbers
+ * isolate mapping from the driver and the network.
+ */
+public final class Fixtures {
+
+    private static final String[] BRANDS = {"Aashirvaad", "Tata", "Fortune", "Amul", "Britannia", "Haldiram", "Patanjali",
+        "Daawat", "India Gate", "MDH", "Everest", "Parle", "Nestle", "Dabur", "Mother Dairy", "Saffola"};
+    private static final String[] PRODUCTS = {"Basmati Rice", "Sona Masoori Rice", "Toor Dal", "Moong Dal", "Chana Dal",
+        "Atta", "Maida", "Sugar", "Salt", "Sunflower Oil", "Mustard Oil", "Ghee", "Butter", "Paneer", "Curd",
+        "Turmeric Powder", "Chilli Powder", "Garam Masala", "Biscuits", "Namkeen", "Tea", "Coffee", "Poha", "Rava"};
+    private static final String[] SIZES = {"100g", "200g", "500g", "1kg", "2kg", "5kg", "500ml", "1L"};
+    private static final String[] CATEGORIES = {"Grains", "Pulses", "Oils", "Dairy", "Spices", "Snacks", "Beverages"};
+    private static final String[] GST_RATES = {"0.00", "5.00", "12.00", "18.00"};
+
+    // SELECT * column order; the scan projection (ItemDAO.SCAN_COLUMNS) is the same without description
+    private static final String[] ITEM_COLUMNS = {"id", "barcode", "name", "description", "price", "cost_price",
+        "gst_percentage", "stock_quantity", "min_stock_level", "unit", "category", "is_active", "created_at", "updated_at"};
+    private static final int[] ITEM_TYPES = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.DECIMAL, Types.DECIMAL,
+        Types.DECIMAL, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.TIMESTAMP, Types.TIMESTAMP};
+    private static final String DESCRIPTION = "Premium quality product sourced from trusted farms, cleaned, sorted and packed hygienically. "
+        + "Store in a cool, dry place away from direct sunlight. Best before twelve months from packaging.";
+
+    // Column order of BillDAO.BILL_COLUMNS and BillDAO.BILL_ITEM_COLUMNS
+    private static final String[] BILL_COLUMNS = {"id", "bill_number", "customer_name", "customer_phone", "subtotal",
+        "discount_amount", "gst_amount", "total_amount", "payment_method", "payment_status", "cashier_id", "created_at", "updated_at"};
+    private static final int[] BILL_TYPES = {Types.INTEGER, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.DECIMAL,
+        Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.TIMESTAMP, Types.TIMESTAMP};
+    private static final String[] BILL_ITEM_COLUMNS = {"id", "bill_id", "item_id", "name", "barcode", "quantity", "unit_price",
+        "discount_percentage", "discount_amount", "gst_percentage", "gst_amount", "line_total", "created_at"};
+    private static final int[] BILL_ITEM_TYPES = {Types.INTEGER, Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.VARCHAR,
+        Types.INTEGER, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.DECIMAL, Types.TIMESTAMP};
+
+    private Fixtures() {
+    }
+
+    /**
+     * A catalog of brand/product/size names like the ones a store actually stocks
+     */
+    public static List<Item> catalog(int count) {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(count);
+        for (int id = 1; id <= count; id++) {
+            Item item = new Item(String.format("890%010d", id),
+                BRANDS[random.nextInt(BRANDS.length)] + " " + PRODUCTS[random.nextInt(PRODUCTS.length)] + " " + SIZES[random.nextInt(SIZES.length)],
+                BigDecimal.valueOf(1000 + random.nextInt(50_000), 2), new BigDecimal(GST_RATES[random.nextInt(GST_RATES.length)]));
+            item.setId(id);
+            item.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            items.add(item);
+        }
+        return items;
+    }
+
+    /**
+     * Cart lines with calculated totals; one in four carries a line discount
+     */
+    public static List<BillItem> cartLines(int count) {
+        Random random = new Random(7);
+        List<Item> catalog = catalog(count);
+        List<BillItem> lines = new ArrayList<>(count);
+        for (Item item : catalog) {
+            BillItem line = new BillItem(0, item.getId(), 1 + random.nextInt(5), item.getPrice(), item.getGstPercentage());
+            line.setItemName(item.getName());
+            line.setItemBarcode(item.getBarcode());
+            if (random.nextInt(4) == 0) {
+                line.setDiscountPercentageAndRecalculate(BigDecimal.valueOf(5 + random.nextInt(10)));
+            }
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    /**
+     * Item rows as SELECT * returned them (withDescription) or as the scan projection returns them
+     */
+    public static CachedRowSet itemRows(int rows, boolean withDescription) throws SQLException {
+        CachedRowSet rowSet = empty(withDescription ? ITEM_COLUMNS : without(ITEM_COLUMNS, 3),
+            withDescription ? ITEM_TYPES : without(ITEM_TYPES, 3));
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int id = 1; id <= rows; id++) {
+            rowSet.moveToInsertRow();
+            int column = 1;
+            rowSet.updateInt(column++, id);
+            rowSet.updateString(column++, String.format("890%010d", id));
+            rowSet.updateString(column++, "Item " + id);
+            if (withDescription) {
+                rowSet.updateString(column++, DESCRIPTION);
+            }
+            rowSet.updateBigDecimal(column++, new BigDecimal("49.50"));
+            rowSet.updateBigDecimal(column++, new BigDecimal("41.00"));
+            rowSet.updateBigDecimal(column++, new BigDecimal("5.00"));
+            rowSet.updateInt(column++, 100);
+            rowSet.updateInt(column++, 5);
+            rowSet.updateString(column++, "pcs");
+            rowSet.updateString(column++, "Grains");
+            rowSet.updateBoolean(column++, true);
+            rowSet.updateTimestamp(column++, now);
+            rowSet.updateTimestamp(column, now);
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        return rowSet;
+    }
+
+    /**
+     * Bill header rows in BILL_COLUMNS order
+     */
+    public static CachedRowSet billRows(int rows) throws SQLException {
+        CachedRowSet rowSet = empty(BILL_COLUMNS, BILL_TYPES);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int id = 1; id <= rows; id++) {
+            rowSet.moveToInsertRow();
+            rowSet.updateInt(1, id);
+            rowSet.updateString(2, String.format("S01-T01-261018-%05d", id % 100_000));
+            rowSet.updateString(3, id % 3 == 0 ? null : "Customer " + id);
+            rowSet.updateString(4, id % 3 == 0 ? null : "98765" + String.format("%05d", id % 100_000));
+            rowSet.updateBigDecimal(5, new BigDecimal("412.80"));
+            rowSet.updateBigDecimal(6, new BigDecimal("0.00"));
+            rowSet.updateBigDecimal(7, new BigDecimal("38.42"));
+            rowSet.updateBigDecimal(8, new BigDecimal("451.22"));
+            rowSet.updateString(9, id % 2 == 0 ? "UPI" : "CASH");
+            rowSet.updateString(10, "COMPLETED");
+            rowSet.updateInt(11, 1);
+            rowSet.updateTimestamp(12, now);
+            rowSet.updateTimestamp(13, now);
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        return rowSet;
+    }
+
+    /**
+     * Bill line rows in BILL_ITEM_COLUMNS order
+     */
+    public static CachedRowSet billItemRows(int rows) throws SQLException {
+        CachedRowSet rowSet = empty(BILL_ITEM_COLUMNS, BILL_ITEM_TYPES);
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (int id = 1; id <= rows; id++) {
+            rowSet.moveToInsertRow();
+            rowSet.updateInt(1, id);
+            rowSet.updateInt(2, 1 + id / 8);
+            rowSet.updateInt(3, id);
+            rowSet.updateString(4, "Item " + id);
+            rowSet.updateString(5, String.format("890%010d", id));
+            rowSet.updateInt(6, 2);
+            rowSet.updateBigDecimal(7, new BigDecimal("49.50"));
+            rowSet.updateBigDecimal(8, new BigDecimal("0.00"));
+            rowSet.updateBigDecimal(9, new BigDecimal("0.00"));
+            rowSet.updateBigDecimal(10, new BigDecimal("5.00"));
+            rowSet.updateBigDecimal(11, new BigDecimal("4.95"));
+            rowSet.updateBigDecimal(12, new BigDecimal("103.95"));
+            rowSet.updateTimestamp(13, now);
+            rowSet.insertRow();
+            rowSet.moveToCurrentRow();
+        }
+        return rowSet;
+    }
+
+    private static CachedRowSet empty(String[] columns, int[] types) throws SQLException {
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            metaData.setColumnName(i + 1, columns[i]);
+            metaData.setColumnLabel(i + 1, columns[i]);
+            metaData.setColumnType(i + 1, types[i]);
+        }
+        CachedRowSet rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        rowSet.setMetaData(metaData);
+        return rowSet;
+    }
+
+    private static String[] without(String[] values, int index) {
+        String[] result = new String[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    private static int[] without(int[] values, int index) {
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of BillDAO's positional mapping of bill headers and bill lines
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BillMapperBenchmark {
+    private static final int ROWS = 1000;
+
+    private final BillDAO billDAO = new BillDAO();
+    private CachedRowSet bills;
+    private CachedRowSet billItems;
+
+    @Setup
+    public void setUp() throws SQLException {
+        bills = Fixtures.billRows(ROWS);
+        billItems = Fixtures.billItemRows(ROWS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapBill(Blackhole blackhole) throws SQLException {
+        bills.beforeFirst();
+        while (bills.next()) {
+            blackhole.consume(billDAO.mapResultSetToBill(bills));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapBillItem(Blackhole blackhole) throws SQLException {
+        billItems.beforeFirst();
+        while (billItems.next()) {
+            blackhole.consume(billDAO.mapResultSetToBillItem(billItems));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.benchmarks.Fixtures;
+import com.grocerypos.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.sql.rowset.CachedRowSet;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-row cost of mapping item rows: ItemMapper over the scan projection against the by-name
+ * mapping of a SELECT * row (description included) that ItemDAO used before it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ItemMapperBenchmark {
+    private static final int ROWS = 1000;
+
+    private CachedRowSet selectAll;
+    private CachedRowSet scan;
+
+    @Setup
+    public void setUp() throws SQLException {
+        selectAll = Fixtures.itemRows(ROWS, true);
+        scan = Fixtures.itemRows(ROWS, false);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapper(Blackhole blackhole) throws SQLException {
+        scan.beforeFirst();
+        ItemMapper mapper = new ItemMapper(scan);
+        while (scan.next()) {
+            blackhole.consume(mapper.map(scan));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void legacyByName(Blackhole blackhole) throws SQLException {
+        selectAll.beforeFirst();
+        while (selectAll.next()) {
+            blackhole.consume(legacyMap(selectAll));
+        }
+    }
+
+    /**
+     * The mapping ItemDAO used before ItemMapper, kept here as the baseline
+     */
+    private static Item legacyMap(ResultSet resultSet) throws SQLException {
+        Item item = new Item();
+        item.setId(resultSet.getInt("id"));
+        item.setBarcode(resultSet.getString("barcode"));
+        item.setName(resultSet.getString("name"));
+        item.setDescription(resultSet.getString("description"));
+        item.setPrice(resultSet.getBigDecimal("price") != null ? resultSet.getBigDecimal("price") : BigDecimal.ZERO);
+        item.setCostPrice(resultSet.getBigDecimal("cost_price") != null ? resultSet.getBigDecimal("cost_price") : BigDecimal.ZERO);
+        item.setGstPercentage(resultSet.getBigDecimal("gst_percentage") != null ? resultSet.getBigDecimal("gst_percentage") : BigDecimal.ZERO);
+        item.setStockQuantity(resultSet.getInt("stock_quantity"));
+        item.setMinStockLevel(resultSet.getInt("min_stock_level"));
+        item.setUnit(resultSet.getString("unit") != null ? resultSet.getString("unit") : "pcs");
+        item.setCategory(resultSet.getString("category"));
+        item.setActive(resultSet.getBoolean("is_active"));
+        Timestamp createdAt = resultSet.getTimestamp("created_at");
+        if (createdAt != null) {
+            item.setCreatedAt(createdAt.toLocalDateTime());
+        }
+        Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+        if (updatedAt != null) {
+            item.setUpdatedAt(updatedAt.toLocalDateTime());
+        }
+        return item;
+    }
+}
@@ -0,0 +1,60 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.benchmarks.Fixtures;
+import com.grocerypos.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ItemSearchIndex lookups over a synthetic catalog. typeahead replays a query keystroke by
+ * keystroke, the way the cashier's autocomplete issues it; search runs the whole query once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemSearchBenchmark {
+
+    @Param({"50000"})
+    public int catalogSize;
+
+    @Param({"basmati", "amul butter", "garam masala", "890123", "oil 1l"})
+    public String query;
+
+    private ItemSearchIndex index;
+    private List<Item> catalog;
+
+    @Setup
+    public void setUp() {
+        catalog = Fixtures.catalog(catalogSize);
+        index = new ItemSearchIndex();
+        index.rebuild(catalog);
+    }
+
+    @Benchmark
+    public List<ItemSearchIndex.Hit> search() {
+        return index.search(query, 10);
+    }
+
+    @Benchmark
+    public void typeahead(Blackhole blackhole) {
+        for (int length = 1; length <= query.length(); length++) {
+            blackhole.consume(index.search(query.substring(0, length), 10));
+        }
+    }
+}
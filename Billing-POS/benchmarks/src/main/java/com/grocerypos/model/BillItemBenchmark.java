@@ -0,0 +1,57 @@
+package com.grocerypos.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recalculating one bill line, as every quantity or discount edit in the cart does
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BillItemBenchmark {
+
+    private BillItem line;
+    private int quantity;
+
+    @Setup
+    public void setUp() {
+        line = new BillItem(0, 1, 3, new BigDecimal("149.75"), new BigDecimal("18.00"));
+        line.setDiscountPercentageAndRecalculate(new BigDecimal("7.50"));
+    }
+
+    @Benchmark
+    public long calculateTotals() {
+        line.calculateTotals();
+        return line.getLineTotalPaise();
+    }
+
+    @Benchmark
+    public long setQuantityAndRecalculate() {
+        quantity = quantity % 9 + 1;
+        line.setQuantityAndRecalculate(quantity);
+        return line.getLineTotalPaise();
+    }
+
+    /**
+     * The BigDecimal view the UI and the DAO read back after a recalculation
+     */
+    @Benchmark
+    public BigDecimal lineTotalAsBigDecimal() {
+        return line.getLineTotal();
+    }
+}
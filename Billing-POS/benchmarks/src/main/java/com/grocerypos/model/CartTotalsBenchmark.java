@@ -0,0 +1,64 @@
+package com.grocerypos.model;
+
+import com.grocerypos.benchmarks.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart total upkeep after a quantity change: the running CartTotals update against summing
+ * every line again, which is what the cart did before totals were kept incrementally
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CartTotalsBenchmark {
+
+    @Param({"10", "50", "200"})
+    public int lines;
+
+    private List<BillItem> cart;
+    private CartTotals totals;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        cart = Fixtures.cartLines(lines);
+        totals = new CartTotals();
+        for (BillItem line : cart) {
+            totals.add(line);
+        }
+    }
+
+    @Benchmark
+    public long incrementalUpdate() {
+        BillItem line = cart.get(next++ % lines);
+        totals.setQuantity(line, line.getQuantity() % 9 + 1);
+        return totals.getTotalPaise();
+    }
+
+    @Benchmark
+    public long fullRecompute() {
+        BillItem line = cart.get(next++ % lines);
+        line.setQuantityAndRecalculate(line.getQuantity() % 9 + 1);
+        totals.clear();
+        for (BillItem item : cart) {
+            totals.add(item);
+        }
+        return totals.getTotalPaise();
+    }
+}
@@ -0,0 +1,54 @@
+package com.grocerypos.service;
+
+import com.grocerypos.benchmarks.Fixtures;
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.CartTotals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of laying out the till receipt for carts of typical and large size
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ReceiptFormatterBenchmark {
+
+    @Param({"5", "30"})
+    public int lines;
+
+    private List<BillItem> cart;
+    private CartTotals totals;
+    private LocalDateTime printedAt;
+
+    @Setup
+    public void setUp() {
+        cart = Fixtures.cartLines(lines);
+        totals = new CartTotals();
+        for (BillItem line : cart) {
+            totals.add(line);
+        }
+        printedAt = LocalDateTime.of(2026, 10, 18, 17, 45);
+    }
+
+    @Benchmark
+    public String format() {
+        return ReceiptFormatter.format("S01-T01-261018-00042", printedAt, "Cashier", cart, totals);
+    }
+}
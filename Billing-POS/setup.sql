@@ -39,7 +39,8 @@ CREATE TABLE IF NOT EXISTS items (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_barcode (barcode),
     INDEX idx_name (name),
-    INDEX idx_category (category)
+    INDEX idx_category (category),
+    INDEX idx_active_name (is_active, name)
 );
 
 -- Create bills table
@@ -60,7 +61,9 @@ CREATE TABLE IF NOT EXISTS bills (
     FOREIGN KEY (cashier_id) REFERENCES users(id),
     INDEX idx_bill_number (bill_number),
     INDEX idx_created_at (created_at),
-    INDEX idx_cashier (cashier_id)
+    INDEX idx_cashier (cashier_id),
+    INDEX idx_created_cashier (created_at, cashier_id),
+    INDEX idx_created_payment (created_at, payment_method)
 );
 
 -- Create bill_items table
@@ -102,6 +105,30 @@ CREATE TABLE IF NOT EXISTS inventory_movements (
     INDEX idx_created_at (created_at)
 );
 
+-- Create daily_sales_rollup table
+CREATE TABLE IF NOT EXISTS daily_sales_rollup (
+    sale_date DATE NOT NULL,
+    cashier_id INT NOT NULL,
+    payment_method ENUM('CASH', 'CARD', 'UPI', 'ONLINE') NOT NULL,
+    bill_count INT NOT NULL DEFAULT 0,
+    gross_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    gst_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    discount_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (sale_date, cashier_id, payment_method),
+    FOREIGN KEY (cashier_id) REFERENCES users(id)
+);
+
+-- Create bill_sequences table
+CREATE TABLE IF NOT EXISTS bill_sequences (
+    store_code VARCHAR(6) NOT NULL,
+    terminal_id VARCHAR(6) NOT NULL,
+    sale_date DATE NOT NULL,
+    next_value INT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (store_code, terminal_id, sale_date)
+);
+
 -- Create categories table
 CREATE TABLE IF NOT EXISTS categories (
     id INT AUTO_INCREMENT PRIMARY KEY,
@@ -3,10 +3,19 @@ package com.grocerypos;
 // import removed: FlatLightLaf not directly used
 import com.grocerypos.ui.components.GlassSidebar;
 import com.grocerypos.ui.components.MacTopBar;
+import com.grocerypos.dao.BillDAO;
+import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.dao.ItemCatalog;
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.UserDAO;
 import com.grocerypos.database.DBUtil;
+import com.grocerypos.metrics.FlightRecording;
+import com.grocerypos.metrics.MetricsRegistry;
+import com.grocerypos.service.JournalReplayer;
 import com.grocerypos.ui.panels.*;
 import com.grocerypos.ui.BillingWindow;
 import com.grocerypos.ui.components.ToastNotification;
+import com.grocerypos.util.EdtWatchdog;
 import com.grocerypos.util.SessionManager;
 import com.grocerypos.util.ThemeManager;
 
@@ -25,6 +34,13 @@ public class Application extends JFrame {
     // Deprecated user label; status bar provides feedback
     // private JLabel userLabel;
     private JLabel statusLabel;
+    private JLabel inputLatencyLabel;
+    private JLabel journalAlertLabel;
+    private JournalReplayer journalReplayer;
+    private long reportedDeadLetters;
+    // Worst input latency (ms) shown in amber from this, and in red from the next
+    private static final long SLOW_INPUT_MILLIS = 100;
+    private static final long FROZEN_INPUT_MILLIS = 500;
     
     // Panels
     private LoginPanel loginPanel;
@@ -54,6 +70,7 @@ public class Application extends JFrame {
         try {
             System.out.println("Initializing database...");
             DBUtil.initializeDatabase();
+            DBUtil.warmUpStatementCache(ItemDAO.class, BillDAO.class, UserDAO.class, InventoryMovementDAO.class);
             System.out.println("Database initialized successfully!");
         } catch (Exception e) {
             System.err.println("Failed to initialize database: " + e.getMessage());
@@ -62,6 +79,16 @@ public class Application extends JFrame {
                 "Database Error", JOptionPane.ERROR_MESSAGE);
             System.exit(1);
         }
+
+        // Keep the item catalog resident so barcode scans skip the database
+        try {
+            ItemCatalog.getInstance().load();
+        } catch (Exception e) {
+            System.err.println("Failed to load item catalog, lookups will query the database: " + e.getMessage());
+        }
+
+        // Replay sales journaled before a restart even if no cashier screen is opened this session
+        journalReplayer = JournalReplayer.startShared();
     }
 
     private void setupUI() {
@@ -168,12 +195,57 @@ public class Application extends JFrame {
         versionLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
         versionLabel.setForeground(Color.GRAY);
         
+        JPanel eastPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        eastPanel.setOpaque(false);
+        
         statusBar.add(statusLabel, BorderLayout.WEST);
-        statusBar.add(versionLabel, BorderLayout.EAST);
+        statusBar.add(eastPanel, BorderLayout.EAST);
+
+        if (journalReplayer != null) {
+            journalAlertLabel = new JLabel();
+            journalAlertLabel.setBorder(BorderFactory.createEmptyBorder(5, 10, 5, 10));
+            journalAlertLabel.setForeground(new Color(220, 38, 38));
+            journalAlertLabel.setVisible(false);
+            eastPanel.add(journalAlertLabel);
+            new Timer(2000, e -> checkDeadLetters()).start();
+        }
+        eastPanel.add(versionLabel);
+
+        if (Boolean.parseBoolean(DBUtil.getProperty("ui.latencyReadout", "true"))) {
+            inputLatencyLabel = new JLabel();
+            inputLatencyLabel.setHorizontalAlignment(SwingConstants.RIGHT);
+            inputLatencyLabel.setToolTipText("Worst delay between a key press or click and its handling in the last minute");
+            statusBar.add(inputLatencyLabel, BorderLayout.CENTER);
+            updateInputLatency();
+            new Timer(1000, e -> updateInputLatency()).start();
+        }
         
         add(statusBar, BorderLayout.SOUTH);
     }
 
+    private void updateInputLatency() {
+        long worst = EdtWatchdog.getWorstInputLatencyMillis();
+        inputLatencyLabel.setText(worst < 0 ? "Input lag (1 min): -" : "Input lag (1 min): " + worst + " ms");
+        inputLatencyLabel.setForeground(worst >= FROZEN_INPUT_MILLIS ? new Color(220, 38, 38)
+            : worst >= SLOW_INPUT_MILLIS ? new Color(217, 119, 6) : Color.GRAY);
+    }
+
+    /**
+     * Alert once for every journaled sale the database refused, and keep the count in the status bar
+     */
+    private void checkDeadLetters() {
+        long deadLetters = journalReplayer.getDeadLetteredCount();
+        if (deadLetters == reportedDeadLetters) {
+            return;
+        }
+        reportedDeadLetters = deadLetters;
+        journalAlertLabel.setText(deadLetters + (deadLetters == 1 ? " sale" : " sales") + " not saved to the database");
+        journalAlertLabel.setToolTipText("Set aside in " + journalReplayer.getDeadLetterLog());
+        journalAlertLabel.setVisible(true);
+        ToastNotification.showError(this, "A journaled sale could not be saved to the database.\nDetails: "
+            + journalReplayer.getDeadLetterLog());
+    }
+
     private void setupEventHandlers() {
         // Global shortcuts for quick access
         JRootPane root = getRootPane();
@@ -190,6 +262,36 @@ public class Application extends JFrame {
             },
                 KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_P, java.awt.event.InputEvent.CTRL_DOWN_MASK),
                 JComponent.WHEN_IN_FOCUSED_WINDOW);
+            root.registerKeyboardAction(e -> dumpMetrics(),
+                KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_M,
+                    java.awt.event.InputEvent.CTRL_DOWN_MASK | java.awt.event.InputEvent.SHIFT_DOWN_MASK),
+                JComponent.WHEN_IN_FOCUSED_WINDOW);
+            root.registerKeyboardAction(e -> dumpFlightRecording(),
+                KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_J,
+                    java.awt.event.InputEvent.CTRL_DOWN_MASK | java.awt.event.InputEvent.SHIFT_DOWN_MASK),
+                JComponent.WHEN_IN_FOCUSED_WINDOW);
+        }
+    }
+
+    /**
+     * Append the current query latency figures to the metrics file
+     */
+    private void dumpMetrics() {
+        try {
+            ToastNotification.showInfo(this, "Query metrics written to " + MetricsRegistry.shared().dump());
+        } catch (java.io.IOException e) {
+            ToastNotification.showError(this, "Failed to write metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save the flight recording buffer, e.g. right after a lane stalled
+     */
+    private void dumpFlightRecording() {
+        try {
+            ToastNotification.showInfo(this, "Flight recording saved to " + FlightRecording.dump());
+        } catch (java.io.IOException e) {
+            ToastNotification.showError(this, "Failed to save flight recording: " + e.getMessage());
         }
     }
 
@@ -294,6 +396,15 @@ public class Application extends JFrame {
         // Initialize theme manager
         ThemeManager.initialize();
 
+        // Measure Event Dispatch Thread dispatch and input latency, and report anything that holds it long enough for the till to stutter
+        EdtWatchdog.install(DBUtil.getIntProperty("ui.edtWatchdogThreshold", 50));
+
+        // Write query latency histograms to the metrics file every metrics.dumpInterval seconds
+        MetricsRegistry.shared().start();
+
+        // Keep a rolling Flight Recorder buffer when jfr.continuous is set
+        FlightRecording.start();
+
         // Set application properties
         System.setProperty("apple.laf.useScreenMenuBar", "true");
         System.setProperty("com.apple.mrj.application.apple.menu.about.name", "Grocery POS");
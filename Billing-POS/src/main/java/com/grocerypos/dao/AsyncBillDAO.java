@@ -0,0 +1,31 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.model.Bill;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over BillDAO for UI code; every call runs on the DataExecutor
+ */
+public class AsyncBillDAO {
+    private final BillDAO billDAO;
+
+    public AsyncBillDAO() {
+        this(new BillDAO());
+    }
+
+    public AsyncBillDAO(BillDAO billDAO) {
+        this.billDAO = billDAO;
+    }
+
+    public CompletableFuture<List<Bill>> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return DataExecutor.supply(() -> billDAO.findByDateRange(startDate, endDate));
+    }
+
+    public CompletableFuture<List<Bill>> findHeadersByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        return DataExecutor.supply(() -> billDAO.findHeadersByDateRange(startDate, endDate));
+    }
+}
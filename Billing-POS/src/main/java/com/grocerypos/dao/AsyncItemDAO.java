@@ -0,0 +1,58 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.model.Item;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over ItemDAO for UI code; every call runs on the DataExecutor
+ */
+public class AsyncItemDAO {
+    private final ItemDAO itemDAO;
+
+    public AsyncItemDAO() {
+        this(new ItemDAO());
+    }
+
+    public AsyncItemDAO(ItemDAO itemDAO) {
+        this.itemDAO = itemDAO;
+    }
+
+    public CompletableFuture<Item> findById(int id) {
+        return DataExecutor.supply(() -> itemDAO.findById(id));
+    }
+
+    public CompletableFuture<Item> findDetailById(int id) {
+        return DataExecutor.supply(() -> itemDAO.findDetailById(id));
+    }
+
+    public CompletableFuture<Item> findByBarcode(String barcode) {
+        return DataExecutor.supply(() -> itemDAO.findByBarcode(barcode));
+    }
+
+    public CompletableFuture<List<Item>> findAll() {
+        return DataExecutor.supply(itemDAO::findAll);
+    }
+
+    public CompletableFuture<List<Item>> searchByName(String namePattern) {
+        return DataExecutor.supply(() -> itemDAO.searchByName(namePattern));
+    }
+
+    public CompletableFuture<List<Item>> findByNamePattern(String pattern) {
+        return DataExecutor.supply(() -> itemDAO.findByNamePattern(pattern));
+    }
+
+    public CompletableFuture<List<Item>> findLowStockItems() {
+        return DataExecutor.supply(itemDAO::findLowStockItems);
+    }
+
+    public CompletableFuture<Boolean> delete(int id) {
+        return DataExecutor.supply(() -> itemDAO.delete(id));
+    }
+
+    public CompletableFuture<List<String>> getAllCategories() {
+        return DataExecutor.supply(itemDAO::getAllCategories);
+    }
+}
@@ -1,14 +1,20 @@
 package com.grocerypos.dao;
 
 import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+import com.grocerypos.metrics.DaoMetrics;
 import com.grocerypos.model.Bill;
 import com.grocerypos.model.BillItem;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for Bill entity
@@ -17,8 +23,8 @@ public class BillDAO {
     
     private static final String INSERT_BILL = 
         "INSERT INTO bills (bill_number, customer_name, customer_phone, subtotal, " +
-        "discount_amount, gst_amount, total_amount, payment_method, payment_status, cashier_id) " +
-        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        "discount_amount, gst_amount, total_amount, payment_method, payment_status, cashier_id, created_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, COALESCE(?, CURRENT_TIMESTAMP))";
     
     private static final String INSERT_BILL_ITEM = 
         "INSERT INTO bill_items (bill_id, item_id, quantity, unit_price, discount_percentage, " +
@@ -30,69 +36,123 @@ public class BillDAO {
         "gst_amount=?, total_amount=?, payment_method=?, payment_status=?, " +
         "updated_at=CURRENT_TIMESTAMP WHERE id=?";
     
-    private static final String FIND_BY_ID = "SELECT * FROM bills WHERE id=?";
+    // mapResultSetToBill and mapResultSetToBillItem read these projections by position
+    private static final String BILL_COLUMNS =
+        "b.id, b.bill_number, b.customer_name, b.customer_phone, b.subtotal, b.discount_amount, b.gst_amount, " +
+        "b.total_amount, b.payment_method, b.payment_status, b.cashier_id, b.created_at, b.updated_at";
     
-    private static final String FIND_BY_BILL_NUMBER = "SELECT * FROM bills WHERE bill_number=?";
+    private static final int BILL_COLUMN_COUNT = 13;
     
-    private static final String FIND_ALL = "SELECT * FROM bills ORDER BY created_at DESC";
+    private static final String BILL_ITEM_COLUMNS =
+        "bi.id, bi.bill_id, bi.item_id, i.name, i.barcode, bi.quantity, bi.unit_price, bi.discount_percentage, " +
+        "bi.discount_amount, bi.gst_percentage, bi.gst_amount, bi.line_total, bi.created_at";
     
-    private static final String FIND_BY_DATE_RANGE = 
-        "SELECT * FROM bills WHERE DATE(created_at) BETWEEN ? AND ? ORDER BY created_at DESC";
+    private static final String FIND_BY_ID = "SELECT " + BILL_COLUMNS + " FROM bills b WHERE b.id=?";
+    
+    private static final String FIND_BY_BILL_NUMBER = "SELECT " + BILL_COLUMNS + " FROM bills b WHERE b.bill_number=?";
+    
+    private static final String EXISTS_BY_BILL_NUMBER = "SELECT 1 FROM bills WHERE bill_number=?";
+    
+    private static final String FIND_ALL = "SELECT " + BILL_COLUMNS + " FROM bills b ORDER BY b.created_at DESC";
+    
+    // Time-window queries are package-private so QueryPlanCheck can EXPLAIN them
+    static final String FIND_BY_DATE_RANGE = 
+        "SELECT " + BILL_COLUMNS + " FROM bills b WHERE b.created_at >= ? AND b.created_at < ? ORDER BY b.created_at DESC";
     
     private static final String FIND_BY_CASHIER = 
-        "SELECT * FROM bills WHERE cashier_id=? ORDER BY created_at DESC";
+        "SELECT " + BILL_COLUMNS + " FROM bills b WHERE b.cashier_id=? ORDER BY b.created_at DESC";
     
     private static final String FIND_BILL_ITEMS = 
-        "SELECT bi.*, i.name as item_name, i.barcode as item_barcode " +
+        "SELECT " + BILL_ITEM_COLUMNS + " " +
         "FROM bill_items bi " +
         "JOIN items i ON bi.item_id = i.id " +
         "WHERE bi.bill_id=?";
     
+    private static final String FIND_ITEMS_FOR_BILLS = 
+        "SELECT " + BILL_ITEM_COLUMNS + " " +
+        "FROM bill_items bi " +
+        "JOIN items i ON bi.item_id = i.id " +
+        "WHERE bi.bill_id IN (%s) ORDER BY bi.bill_id, bi.id";
+    
+    static final String FIND_HEADERS_BY_DATE_RANGE = 
+        "SELECT " + BILL_COLUMNS + ", (SELECT COALESCE(SUM(bi.quantity), 0) FROM bill_items bi WHERE bi.bill_id = b.id) as total_items " +
+        "FROM bills b WHERE b.created_at >= ? AND b.created_at < ? ORDER BY b.created_at DESC";
+    
     private static final String DELETE_BILL_ITEMS = "DELETE FROM bill_items WHERE bill_id=?";
     
+    // Read from the rollup maintained at checkout rather than scanning the day's bills
     private static final String GET_DAILY_SALES = 
-        "SELECT DATE(created_at) as sale_date, COUNT(*) as total_bills, " +
-        "SUM(total_amount) as total_sales " +
-        "FROM bills WHERE DATE(created_at) = ?";
+        "SELECT COALESCE(SUM(bill_count), 0) as total_bills, COALESCE(SUM(gross_amount), 0) as total_sales " +
+        "FROM daily_sales_rollup WHERE sale_date = ?";
     
-    private static final String GET_SALES_BY_MONTH = 
-        "SELECT MONTH(created_at) as month, YEAR(created_at) as year, " +
-        "COUNT(*) as total_bills, SUM(total_amount) as total_sales " +
-        "FROM bills WHERE MONTH(created_at) = ? AND YEAR(created_at) = ?";
+    static final String FIND_TOP_SELLING_ITEMS = 
+        "SELECT i.name as item_name, SUM(bi.quantity) as quantity_sold " +
+        "FROM bills b JOIN bill_items bi ON bi.bill_id = b.id JOIN items i ON i.id = bi.item_id " +
+        "WHERE b.created_at >= ? AND b.created_at < ? " +
+        "GROUP BY bi.item_id, i.name ORDER BY quantity_sold DESC LIMIT ?";
+    
+    static final String FIND_UNITS_SOLD_SINCE = 
+        "SELECT bi.item_id, SUM(bi.quantity) as quantity_sold " +
+        "FROM bills b JOIN bill_items bi ON bi.bill_id = b.id " +
+        "WHERE b.created_at >= ? GROUP BY bi.item_id";
+    
+    static final String GET_SALES_BY_MONTH = 
+        "SELECT COUNT(*) as total_bills, COALESCE(SUM(total_amount), 0) as total_sales " +
+        "FROM bills WHERE created_at >= ? AND created_at < ?";
+
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.registerReturningKeys(INSERT_BILL);
+        StatementCache.register(INSERT_BILL_ITEM, UPDATE_BILL, FIND_BY_ID, FIND_BY_BILL_NUMBER, EXISTS_BY_BILL_NUMBER, FIND_ALL,
+            FIND_BY_DATE_RANGE, FIND_BY_CASHIER, FIND_BILL_ITEMS, FIND_HEADERS_BY_DATE_RANGE, DELETE_BILL_ITEMS, GET_DAILY_SALES,
+            GET_SALES_BY_MONTH, FIND_TOP_SELLING_ITEMS, FIND_UNITS_SOLD_SINCE);
+    }
 
     /**
      * Insert a new bill with items
      */
     public int insertBill(Bill bill) throws SQLException {
-        Connection connection = null;
-        try {
-            connection = DBUtil.getConnection(false); // Disable auto-commit
-            connection.setAutoCommit(false);
+        return DaoMetrics.time("BillDAO.insertBill", () -> {
+            Connection connection = null;
+            try {
+                connection = DBUtil.getConnection(false); // Disable auto-commit
+                connection.setAutoCommit(false);
             
+                int billId = insertBill(bill, connection);
+            
+                connection.commit();
+                return billId;
+            
+            } catch (SQLException e) {
+                if (connection != null) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (connection != null) {
+                    connection.setAutoCommit(true);
+                    connection.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Insert a bill with items on the caller's connection; the caller owns the transaction
+     */
+    public int insertBill(Bill bill, Connection connection) throws SQLException {
+        return DaoMetrics.time("BillDAO.insertBill(connection)", () -> {
             // Insert bill
             int billId = insertBillOnly(bill, connection);
             bill.setId(billId);
-            
+        
             // Insert bill items
             for (BillItem billItem : bill.getBillItems()) {
                 billItem.setBillId(billId);
-                insertBillItem(billItem, connection);
             }
-            
-            connection.commit();
+            insertBillItems(bill.getBillItems(), connection);
             return billId;
-            
-        } catch (SQLException e) {
-            if (connection != null) {
-                connection.rollback();
-            }
-            throw e;
-        } finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
-                connection.close();
-            }
-        }
+        });
     }
 
     /**
@@ -111,6 +171,8 @@ public class BillDAO {
             statement.setString(8, bill.getPaymentMethod().name());
             statement.setString(9, bill.getPaymentStatus().name());
             statement.setInt(10, bill.getCashierId());
+            // Set for journaled sales so a late replay keeps the time of sale
+            statement.setTimestamp(11, bill.getCreatedAt() != null ? Timestamp.valueOf(bill.getCreatedAt()) : null);
             
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
@@ -128,22 +190,27 @@ public class BillDAO {
     }
 
     /**
-     * Insert bill item
+     * Insert bill items as one JDBC batch (sent as a single multi-row INSERT by the driver)
      */
-    private void insertBillItem(BillItem billItem, Connection connection) throws SQLException {
+    private void insertBillItems(List<BillItem> billItems, Connection connection) throws SQLException {
+        if (billItems.isEmpty()) {
+            return;
+        }
         try (PreparedStatement statement = connection.prepareStatement(INSERT_BILL_ITEM)) {
+            for (BillItem billItem : billItems) {
+                statement.setInt(1, billItem.getBillId());
+                statement.setInt(2, billItem.getItemId());
+                statement.setInt(3, billItem.getQuantity());
+                statement.setBigDecimal(4, billItem.getUnitPrice());
+                statement.setBigDecimal(5, billItem.getDiscountPercentage());
+                statement.setBigDecimal(6, billItem.getDiscountAmount());
+                statement.setBigDecimal(7, billItem.getGstPercentage());
+                statement.setBigDecimal(8, billItem.getGstAmount());
+                statement.setBigDecimal(9, billItem.getLineTotal());
+                statement.addBatch();
+            }
             
-            statement.setInt(1, billItem.getBillId());
-            statement.setInt(2, billItem.getItemId());
-            statement.setInt(3, billItem.getQuantity());
-            statement.setBigDecimal(4, billItem.getUnitPrice());
-            statement.setBigDecimal(5, billItem.getDiscountPercentage());
-            statement.setBigDecimal(6, billItem.getDiscountAmount());
-            statement.setBigDecimal(7, billItem.getGstPercentage());
-            statement.setBigDecimal(8, billItem.getGstAmount());
-            statement.setBigDecimal(9, billItem.getLineTotal());
-            
-            statement.executeUpdate();
+            statement.executeBatch();
         }
     }
 
@@ -151,170 +218,228 @@ public class BillDAO {
      * Update an existing bill
      */
     public boolean updateBill(Bill bill) throws SQLException {
-        Connection connection = null;
-        try {
-            connection = DBUtil.getConnection(false);
-            connection.setAutoCommit(false);
-            
-            // Update bill
-            try (PreparedStatement statement = connection.prepareStatement(UPDATE_BILL)) {
-                statement.setString(1, bill.getCustomerName());
-                statement.setString(2, bill.getCustomerPhone());
-                statement.setBigDecimal(3, bill.getSubtotal());
-                statement.setBigDecimal(4, bill.getDiscountAmount());
-                statement.setBigDecimal(5, bill.getGstAmount());
-                statement.setBigDecimal(6, bill.getTotalAmount());
-                statement.setString(7, bill.getPaymentMethod().name());
-                statement.setString(8, bill.getPaymentStatus().name());
-                statement.setInt(9, bill.getId());
+        return DaoMetrics.time("BillDAO.updateBill", () -> {
+            Connection connection = null;
+            try {
+                connection = DBUtil.getConnection(false);
+                connection.setAutoCommit(false);
+            
+                // Update bill
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_BILL)) {
+                    statement.setString(1, bill.getCustomerName());
+                    statement.setString(2, bill.getCustomerPhone());
+                    statement.setBigDecimal(3, bill.getSubtotal());
+                    statement.setBigDecimal(4, bill.getDiscountAmount());
+                    statement.setBigDecimal(5, bill.getGstAmount());
+                    statement.setBigDecimal(6, bill.getTotalAmount());
+                    statement.setString(7, bill.getPaymentMethod().name());
+                    statement.setString(8, bill.getPaymentStatus().name());
+                    statement.setInt(9, bill.getId());
                 
-                statement.executeUpdate();
-            }
+                    statement.executeUpdate();
+                }
             
-            // Delete existing bill items
-            try (PreparedStatement statement = connection.prepareStatement(DELETE_BILL_ITEMS)) {
-                statement.setInt(1, bill.getId());
-                statement.executeUpdate();
-            }
+                // Delete existing bill items
+                try (PreparedStatement statement = connection.prepareStatement(DELETE_BILL_ITEMS)) {
+                    statement.setInt(1, bill.getId());
+                    statement.executeUpdate();
+                }
             
-            // Insert new bill items
-            for (BillItem billItem : bill.getBillItems()) {
-                billItem.setBillId(bill.getId());
-                insertBillItem(billItem, connection);
-            }
+                // Insert new bill items
+                for (BillItem billItem : bill.getBillItems()) {
+                    billItem.setBillId(bill.getId());
+                }
+                insertBillItems(bill.getBillItems(), connection);
             
-            connection.commit();
-            return true;
+                connection.commit();
+                return true;
             
-        } catch (SQLException e) {
-            if (connection != null) {
-                connection.rollback();
-            }
-            throw e;
-        } finally {
-            if (connection != null) {
-                connection.setAutoCommit(true);
-                connection.close();
+            } catch (SQLException e) {
+                if (connection != null) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (connection != null) {
+                    connection.setAutoCommit(true);
+                    connection.close();
+                }
             }
-        }
+        });
     }
 
     /**
      * Find bill by ID
      */
     public Bill findById(int id) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
+        return DaoMetrics.time("BillDAO.findById", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
             
-            statement.setInt(1, id);
+                statement.setInt(1, id);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    Bill bill = mapResultSetToBill(resultSet);
-                    bill.setBillItems(findBillItems(id));
-                    return bill;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        Bill bill = mapResultSetToBill(resultSet);
+                        bill.setBillItems(findBillItems(connection, id));
+                        return bill;
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
     }
 
     /**
      * Find bill by bill number
      */
     public Bill findByBillNumber(String billNumber) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_BILL_NUMBER)) {
+        return DaoMetrics.time("BillDAO.findByBillNumber", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_BILL_NUMBER)) {
             
-            statement.setString(1, billNumber);
+                statement.setString(1, billNumber);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    Bill bill = mapResultSetToBill(resultSet);
-                    bill.setBillItems(findBillItems(bill.getId()));
-                    return bill;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        Bill bill = mapResultSetToBill(resultSet);
+                        bill.setBillItems(findBillItems(connection, bill.getId()));
+                        return bill;
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
+    }
+
+    /**
+     * Whether a bill with this number has been saved
+     */
+    public boolean existsByBillNumber(String billNumber) throws SQLException {
+        return DaoMetrics.time("BillDAO.existsByBillNumber", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(EXISTS_BY_BILL_NUMBER)) {
+            
+                statement.setString(1, billNumber);
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next();
+                }
+            }
+        });
     }
 
     /**
      * Find all bills
      */
     public List<Bill> findAll() throws SQLException {
-        List<Bill> bills = new ArrayList<>();
+        return DaoMetrics.time("BillDAO.findAll", () -> {
+            List<Bill> bills = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_ALL);
-             ResultSet resultSet = statement.executeQuery()) {
-            
-            while (resultSet.next()) {
-                Bill bill = mapResultSetToBill(resultSet);
-                bill.setBillItems(findBillItems(bill.getId()));
-                bills.add(bill);
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_ALL);
+                 ResultSet resultSet = statement.executeQuery()) {
+            
+                while (resultSet.next()) {
+                    bills.add(mapResultSetToBill(resultSet));
+                }
+                loadBillItems(connection, bills);
             }
-        }
         
-        return bills;
+            return bills;
+        });
     }
 
     /**
-     * Find bills by date range
+     * Find bills created in [startDate, endDate)
      */
     public List<Bill> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws SQLException {
-        List<Bill> bills = new ArrayList<>();
+        return DaoMetrics.time("BillDAO.findByDateRange", () -> {
+            List<Bill> bills = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_DATE_RANGE)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_DATE_RANGE)) {
             
-            statement.setDate(1, Date.valueOf(startDate.toLocalDate()));
-            statement.setDate(2, Date.valueOf(endDate.toLocalDate()));
+                statement.setTimestamp(1, Timestamp.valueOf(startDate));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate));
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    Bill bill = mapResultSetToBill(resultSet);
-                    bill.setBillItems(findBillItems(bill.getId()));
-                    bills.add(bill);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        bills.add(mapResultSetToBill(resultSet));
+                    }
                 }
+                loadBillItems(connection, bills);
             }
-        }
         
-        return bills;
+            return bills;
+        });
+    }
+
+    /**
+     * Find bills created in [startDate, endDate) without loading their items; getTotalItems() still works
+     */
+    public List<Bill> findHeadersByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws SQLException {
+        return DaoMetrics.time("BillDAO.findHeadersByDateRange", () -> {
+            List<Bill> bills = new ArrayList<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_HEADERS_BY_DATE_RANGE)) {
+            
+                statement.setTimestamp(1, Timestamp.valueOf(startDate));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate));
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        Bill bill = mapResultSetToBill(resultSet);
+                        bill.setTotalItems(resultSet.getInt(BILL_COLUMN_COUNT + 1));
+                        bills.add(bill);
+                    }
+                }
+            }
+        
+            return bills;
+        });
     }
 
     /**
      * Find bills by cashier
      */
     public List<Bill> findByCashier(int cashierId) throws SQLException {
-        List<Bill> bills = new ArrayList<>();
+        return DaoMetrics.time("BillDAO.findByCashier", () -> {
+            List<Bill> bills = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_CASHIER)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_CASHIER)) {
             
-            statement.setInt(1, cashierId);
+                statement.setInt(1, cashierId);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    Bill bill = mapResultSetToBill(resultSet);
-                    bill.setBillItems(findBillItems(bill.getId()));
-                    bills.add(bill);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        bills.add(mapResultSetToBill(resultSet));
+                    }
                 }
+                loadBillItems(connection, bills);
             }
-        }
         
-        return bills;
+            return bills;
+        });
     }
 
     /**
      * Find bill items for a specific bill
      */
     public List<BillItem> findBillItems(int billId) throws SQLException {
+        return DaoMetrics.time("BillDAO.findBillItems", () -> {
+            try (Connection connection = DBUtil.getConnection()) {
+                return findBillItems(connection, billId);
+            }
+        });
+    }
+
+    private List<BillItem> findBillItems(Connection connection, int billId) throws SQLException {
         List<BillItem> billItems = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BILL_ITEMS)) {
-            
+        try (PreparedStatement statement = connection.prepareStatement(FIND_BILL_ITEMS)) {
             statement.setInt(1, billId);
             
             try (ResultSet resultSet = statement.executeQuery()) {
@@ -327,51 +452,156 @@ public class BillDAO {
         return billItems;
     }
 
+    /**
+     * Load the items of all given bills with IN-batched queries and attach them to their bills
+     */
+    private void loadBillItems(Connection connection, List<Bill> bills) throws SQLException {
+        Map<Integer, Bill> billsById = new HashMap<>();
+        for (Bill bill : bills) {
+            bill.setBillItems(new ArrayList<>());
+            billsById.put(bill.getId(), bill);
+        }
+        
+        for (int from = 0; from < bills.size(); from += InLists.MAX_SIZE) {
+            List<Bill> chunk = bills.subList(from, Math.min(from + InLists.MAX_SIZE, bills.size()));
+            int size = InLists.size(chunk.size());
+            
+            try (PreparedStatement statement = connection.prepareStatement(String.format(FIND_ITEMS_FOR_BILLS, InLists.placeholders(size)))) {
+                for (int i = 0; i < size; i++) {
+                    // Pad with the last id; duplicates in an IN list are harmless
+                    statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)).getId());
+                }
+                
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        BillItem billItem = mapResultSetToBillItem(resultSet);
+                        billsById.get(billItem.getBillId()).getBillItems().add(billItem);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Get daily sales summary
      */
     public Object[] getDailySales(java.sql.Date date) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(GET_DAILY_SALES)) {
+        return DaoMetrics.time("BillDAO.getDailySales", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(GET_DAILY_SALES)) {
             
-            statement.setDate(1, date);
+                statement.setDate(1, date);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return new Object[]{
-                        resultSet.getDate("sale_date"),
-                        resultSet.getInt("total_bills"),
-                        resultSet.getBigDecimal("total_sales")
-                    };
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return new Object[]{
+                            date,
+                            resultSet.getInt("total_bills"),
+                            resultSet.getBigDecimal("total_sales")
+                        };
+                    }
+                    return new Object[]{date, 0, BigDecimal.ZERO};
                 }
-                return new Object[]{date, 0, BigDecimal.ZERO};
             }
-        }
+        });
+    }
+
+    /**
+     * Best-selling items by quantity for bills created in [startDate, endDate), most sold first
+     */
+    public Map<String, Integer> findTopSellingItems(LocalDateTime startDate, LocalDateTime endDate, int limit) throws SQLException {
+        return DaoMetrics.time("BillDAO.findTopSellingItems", () -> {
+            Map<String, Integer> quantityByName = new LinkedHashMap<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_TOP_SELLING_ITEMS)) {
+            
+                statement.setTimestamp(1, Timestamp.valueOf(startDate));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate));
+                statement.setInt(3, limit);
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        quantityByName.put(resultSet.getString("item_name"), resultSet.getInt("quantity_sold"));
+                    }
+                }
+            }
+        
+            return quantityByName;
+        });
+    }
+
+    /**
+     * Units sold per item id since the given time
+     */
+    public Map<Integer, Integer> findUnitsSoldSince(LocalDateTime since) throws SQLException {
+        return DaoMetrics.time("BillDAO.findUnitsSoldSince", () -> {
+            Map<Integer, Integer> unitsById = new HashMap<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_UNITS_SOLD_SINCE)) {
+            
+                statement.setTimestamp(1, Timestamp.valueOf(since));
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        unitsById.put(resultSet.getInt("item_id"), resultSet.getInt("quantity_sold"));
+                    }
+                }
+            }
+        
+            return unitsById;
+        });
+    }
+
+    /**
+     * Get monthly sales summary
+     */
+    public Object[] getMonthlySales(YearMonth month) throws SQLException {
+        return DaoMetrics.time("BillDAO.getMonthlySales", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(GET_SALES_BY_MONTH)) {
+            
+                statement.setTimestamp(1, Timestamp.valueOf(month.atDay(1).atStartOfDay()));
+                statement.setTimestamp(2, Timestamp.valueOf(month.plusMonths(1).atDay(1).atStartOfDay()));
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return new Object[]{
+                            month,
+                            resultSet.getInt("total_bills"),
+                            resultSet.getBigDecimal("total_sales")
+                        };
+                    }
+                    return new Object[]{month, 0, BigDecimal.ZERO};
+                }
+            }
+        });
     }
 
     /**
-     * Map ResultSet to Bill object
+     * Map a BILL_COLUMNS row to a Bill object; package-private for the mapping benchmarks
      */
-    private Bill mapResultSetToBill(ResultSet resultSet) throws SQLException {
+    Bill mapResultSetToBill(ResultSet resultSet) throws SQLException {
         Bill bill = new Bill();
-        bill.setId(resultSet.getInt("id"));
-        bill.setBillNumber(resultSet.getString("bill_number"));
-        bill.setCustomerName(resultSet.getString("customer_name"));
-        bill.setCustomerPhone(resultSet.getString("customer_phone"));
-        bill.setSubtotal(resultSet.getBigDecimal("subtotal"));
-        bill.setDiscountAmount(resultSet.getBigDecimal("discount_amount"));
-        bill.setGstAmount(resultSet.getBigDecimal("gst_amount"));
-        bill.setTotalAmount(resultSet.getBigDecimal("total_amount"));
-        bill.setPaymentMethod(Bill.PaymentMethod.valueOf(resultSet.getString("payment_method")));
-        bill.setPaymentStatus(Bill.PaymentStatus.valueOf(resultSet.getString("payment_status")));
-        bill.setCashierId(resultSet.getInt("cashier_id"));
+        bill.setId(resultSet.getInt(1));
+        bill.setBillNumber(resultSet.getString(2));
+        bill.setCustomerName(resultSet.getString(3));
+        bill.setCustomerPhone(resultSet.getString(4));
+        bill.setSubtotal(resultSet.getBigDecimal(5));
+        bill.setDiscountAmount(resultSet.getBigDecimal(6));
+        bill.setGstAmount(resultSet.getBigDecimal(7));
+        bill.setTotalAmount(resultSet.getBigDecimal(8));
+        bill.setPaymentMethod(Bill.PaymentMethod.valueOf(resultSet.getString(9)));
+        bill.setPaymentStatus(Bill.PaymentStatus.valueOf(resultSet.getString(10)));
+        bill.setCashierId(resultSet.getInt(11));
         
-        Timestamp createdAt = resultSet.getTimestamp("created_at");
+        Timestamp createdAt = resultSet.getTimestamp(12);
         if (createdAt != null) {
             bill.setCreatedAt(createdAt.toLocalDateTime());
         }
         
-        Timestamp updatedAt = resultSet.getTimestamp("updated_at");
+        Timestamp updatedAt = resultSet.getTimestamp(13);
         if (updatedAt != null) {
             bill.setUpdatedAt(updatedAt.toLocalDateTime());
         }
@@ -380,24 +610,24 @@ public class BillDAO {
     }
 
     /**
-     * Map ResultSet to BillItem object
+     * Map a BILL_ITEM_COLUMNS row to a BillItem object
      */
-    private BillItem mapResultSetToBillItem(ResultSet resultSet) throws SQLException {
+    BillItem mapResultSetToBillItem(ResultSet resultSet) throws SQLException {
         BillItem billItem = new BillItem();
-        billItem.setId(resultSet.getInt("id"));
-        billItem.setBillId(resultSet.getInt("bill_id"));
-        billItem.setItemId(resultSet.getInt("item_id"));
-        billItem.setItemName(resultSet.getString("item_name"));
-        billItem.setItemBarcode(resultSet.getString("item_barcode"));
-        billItem.setQuantity(resultSet.getInt("quantity"));
-        billItem.setUnitPrice(resultSet.getBigDecimal("unit_price"));
-        billItem.setDiscountPercentage(resultSet.getBigDecimal("discount_percentage"));
-        billItem.setDiscountAmount(resultSet.getBigDecimal("discount_amount"));
-        billItem.setGstPercentage(resultSet.getBigDecimal("gst_percentage"));
-        billItem.setGstAmount(resultSet.getBigDecimal("gst_amount"));
-        billItem.setLineTotal(resultSet.getBigDecimal("line_total"));
+        billItem.setId(resultSet.getInt(1));
+        billItem.setBillId(resultSet.getInt(2));
+        billItem.setItemId(resultSet.getInt(3));
+        billItem.setItemName(resultSet.getString(4));
+        billItem.setItemBarcode(resultSet.getString(5));
+        billItem.setQuantity(resultSet.getInt(6));
+        billItem.setUnitPrice(resultSet.getBigDecimal(7));
+        billItem.setDiscountPercentage(resultSet.getBigDecimal(8));
+        billItem.setDiscountAmount(resultSet.getBigDecimal(9));
+        billItem.setGstPercentage(resultSet.getBigDecimal(10));
+        billItem.setGstAmount(resultSet.getBigDecimal(11));
+        billItem.setLineTotal(resultSet.getBigDecimal(12));
         
-        Timestamp createdAt = resultSet.getTimestamp("created_at");
+        Timestamp createdAt = resultSet.getTimestamp(13);
         if (createdAt != null) {
             billItem.setCreatedAt(createdAt.toLocalDateTime());
         }
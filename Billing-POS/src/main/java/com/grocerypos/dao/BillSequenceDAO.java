@@ -0,0 +1,65 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Data Access Object for the bill_sequences table: one counter row per store, terminal and day,
+ * from which bill numbers are handed out in blocks.
+ */
+public class BillSequenceDAO {
+
+    private static final String RESERVE_BLOCK =
+        "INSERT INTO bill_sequences (store_code, terminal_id, sale_date, next_value) VALUES (?, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE next_value = next_value + ?";
+
+    private static final String FIND_NEXT_VALUE =
+        "SELECT next_value FROM bill_sequences WHERE store_code=? AND terminal_id=? AND sale_date=?";
+
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.register(RESERVE_BLOCK, FIND_NEXT_VALUE);
+    }
+
+    /**
+     * Reserve the next blockSize sequence values for the terminal's day; returns the first.
+     * The counter row stays locked until commit, so concurrent callers get disjoint blocks.
+     */
+    public int allocateBlock(String storeCode, String terminalId, LocalDate saleDate, int blockSize) throws SQLException {
+        Connection connection = DBUtil.getConnection(false);
+        try {
+            try (PreparedStatement statement = connection.prepareStatement(RESERVE_BLOCK)) {
+                statement.setString(1, storeCode);
+                statement.setString(2, terminalId);
+                statement.setDate(3, Date.valueOf(saleDate));
+                statement.setInt(4, 1 + blockSize);
+                statement.setInt(5, blockSize);
+                statement.executeUpdate();
+            }
+
+            int nextValue;
+            try (PreparedStatement statement = connection.prepareStatement(FIND_NEXT_VALUE)) {
+                statement.setString(1, storeCode);
+                statement.setString(2, terminalId);
+                statement.setDate(3, Date.valueOf(saleDate));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (!resultSet.next()) {
+                        throw new SQLException("Bill sequence row for " + storeCode + "/" + terminalId + " was not created");
+                    }
+                    nextValue = resultSet.getInt(1);
+                }
+            }
+
+            connection.commit();
+            return nextValue - blockSize;
+        } catch (SQLException | RuntimeException e) {
+            DBUtil.rollback(connection, e);
+            throw e;
+        } finally {
+            DBUtil.endTransaction(connection);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Typo-tolerant companion to ItemSearchIndex, over the words of item names.
+ * A query word matches a name word that starts with it, sounds the same under
+ * phoneticKey (spelling variants common in Indian product names: paneer/panir/panner,
+ * jeera/zeera, dhania/dhaniya), or is within a small edit distance of it or of its
+ * beginning. Every query word must match; results are ranked by total distance, then
+ * by units sold recently, then by name. Writers are serialised by the owner (ItemCatalog).
+ */
+class FuzzyItemIndex {
+    // Words shorter than this only match as typed; a one- or two-letter typo could be anything
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final int PHONETIC_COST = 1;
+
+    private static final int[] NO_IDS = new int[0];
+
+    private final ConcurrentSkipListMap<String, int[]> idsByWord = new ConcurrentSkipListMap<>();
+    private final Map<String, Set<String>> wordsByPhonetic = new ConcurrentHashMap<>();
+    private final Map<Character, Set<String>> wordsByInitial = new ConcurrentHashMap<>();
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * The indexed name of one item and its distinct words
+     */
+    private static final class Entry {
+        final String name;
+        final String[] words;
+
+        Entry(String name) {
+            this.name = name;
+            this.words = name.isEmpty() ? new String[0] : new LinkedHashSet<>(Arrays.asList(name.split(" "))).toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Candidate item with its total distance over all query words
+     */
+    private static final class Candidate {
+        final int id;
+        final int cost;
+        final int unitsSold;
+        final String name;
+
+        Candidate(int id, int cost, int unitsSold, String name) {
+            this.id = id;
+            this.cost = cost;
+            this.unitsSold = unitsSold;
+            this.name = name;
+        }
+    }
+
+    private static final Comparator<Candidate> BEST_FIRST = Comparator.comparingInt((Candidate candidate) -> candidate.cost)
+        .thenComparing(Comparator.comparingInt((Candidate candidate) -> candidate.unitsSold).reversed())
+        .thenComparing(candidate -> candidate.name)
+        .thenComparingInt(candidate -> candidate.id);
+
+    /**
+     * Replace the whole index from a full catalog load
+     */
+    void rebuild(Collection<Item> items) {
+        Map<String, List<Integer>> ids = new HashMap<>();
+        entries.clear();
+        for (Item item : items) {
+            Entry entry = new Entry(ItemSearchIndex.normalize(item.getName()));
+            entries.put(item.getId(), entry);
+            for (String word : entry.words) {
+                ids.computeIfAbsent(word, k -> new ArrayList<>()).add(item.getId());
+            }
+        }
+
+        idsByWord.clear();
+        wordsByPhonetic.clear();
+        wordsByInitial.clear();
+        for (Map.Entry<String, List<Integer>> word : ids.entrySet()) {
+            int[] sorted = word.getValue().stream().mapToInt(Integer::intValue).sorted().toArray();
+            idsByWord.put(word.getKey(), sorted);
+            addWord(word.getKey());
+        }
+    }
+
+    void put(Item item) {
+        Entry entry = new Entry(ItemSearchIndex.normalize(item.getName()));
+        Entry previous = entries.put(item.getId(), entry);
+        if (previous != null) {
+            if (previous.name.equals(entry.name)) {
+                return;
+            }
+            unpost(item.getId(), previous);
+        }
+        for (String word : entry.words) {
+            int[] current = idsByWord.get(word);
+            if (current == null) {
+                idsByWord.put(word, new int[]{item.getId()});
+                addWord(word);
+            } else if (Arrays.binarySearch(current, item.getId()) < 0) {
+                int[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = item.getId();
+                Arrays.sort(updated);
+                idsByWord.put(word, updated);
+            }
+        }
+    }
+
+    void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unpost(id, previous);
+        }
+    }
+
+    /**
+     * Ids of the best matches, best first; unitsSold gives recent sales for an item id
+     */
+    List<Integer> search(String query, int limit, IntUnaryOperator unitsSold) {
+        String normalized = ItemSearchIndex.normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String[] terms = normalized.split(" ");
+
+        // Distance of every matching vocabulary word, per query word
+        List<Map<String, Integer>> costs = new ArrayList<>(terms.length);
+        int driver = 0;
+        int driverSize = Integer.MAX_VALUE;
+        for (int t = 0; t < terms.length; t++) {
+            Map<String, Integer> matches = matchWords(terms[t]);
+            if (matches.isEmpty()) {
+                return Collections.emptyList();
+            }
+            costs.add(matches);
+            int size = 0;
+            for (String word : matches.keySet()) {
+                size += idsByWord.getOrDefault(word, NO_IDS).length;
+            }
+            if (size < driverSize) {
+                driver = t;
+                driverSize = size;
+            }
+        }
+
+        // Items reachable from the most selective query word, checked against the others. Its words
+        // are walked cheapest first, so the first time an item is seen is at its best distance
+        List<Map.Entry<String, Integer>> driverWords = new ArrayList<>(costs.get(driver).entrySet());
+        driverWords.sort(Map.Entry.comparingByValue());
+        Set<Integer> seen = new HashSet<>();
+        PriorityQueue<Candidate> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (Map.Entry<String, Integer> match : driverWords) {
+            // Later words cost more, so they cannot beat a full set of hits at this distance or better
+            if (best.size() == limit && best.peek().cost < match.getValue()) {
+                break;
+            }
+            for (int id : idsByWord.getOrDefault(match.getKey(), NO_IDS)) {
+                Entry entry = entries.get(id);
+                if (entry == null || !seen.add(id)) {
+                    continue;
+                }
+                int total = match.getValue();
+                for (int t = 0; t < terms.length && total >= 0; t++) {
+                    if (t != driver) {
+                        int cost = bestCost(entry, costs.get(t));
+                        total = cost < 0 ? -1 : total + cost;
+                    }
+                }
+                if (total < 0 || (best.size() == limit && best.peek().cost < total)) {
+                    continue;
+                }
+                Candidate candidate = new Candidate(id, total, unitsSold.applyAsInt(id), entry.name);
+                if (best.size() < limit) {
+                    best.add(candidate);
+                } else if (BEST_FIRST.compare(candidate, best.peek()) < 0) {
+                    best.poll();
+                    best.add(candidate);
+                }
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(BEST_FIRST);
+        List<Integer> ids = new ArrayList<>(ranked.size());
+        for (Candidate candidate : ranked) {
+            ids.add(candidate.id);
+        }
+        return ids;
+    }
+
+    /**
+     * Vocabulary words matching one query word, with their distance (0 for a plain prefix)
+     */
+    private Map<String, Integer> matchWords(String term) {
+        Map<String, Integer> matches = new HashMap<>();
+        for (String word : idsByWord.subMap(term, true, term + Character.MAX_VALUE, false).keySet()) {
+            matches.put(word, 0);
+        }
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return matches;
+        }
+
+        for (String word : wordsByPhonetic.getOrDefault(phoneticKey(term), Collections.emptySet())) {
+            matches.merge(word, PHONETIC_COST, Math::min);
+        }
+
+        int maxDistance = term.length() <= 4 ? 1 : 2;
+        int[][] rows = new int[3][term.length() + 1];
+        Set<String> sameInitial = wordsByInitial.getOrDefault(term.charAt(0), Collections.emptySet());
+        for (String word : sameInitial) {
+            if (matches.containsKey(word) && matches.get(word) == 0) {
+                continue;
+            }
+            int distance = Integer.MAX_VALUE;
+            if (Math.abs(word.length() - term.length()) <= maxDistance) {
+                distance = distance(word, word.length(), term, maxDistance, rows);
+            }
+            if (word.length() > term.length()) {
+                // The cashier may still be typing: compare with the same length of the word
+                distance = Math.min(distance, distance(word, term.length(), term, maxDistance, rows));
+            }
+            if (distance <= maxDistance) {
+                matches.merge(word, distance, Math::min);
+            }
+        }
+        return matches;
+    }
+
+    private static int bestCost(Entry entry, Map<String, Integer> costs) {
+        int best = -1;
+        for (String word : entry.words) {
+            Integer cost = costs.get(word);
+            if (cost != null && (best < 0 || cost < best)) {
+                best = cost;
+            }
+        }
+        return best;
+    }
+
+    private void addWord(String word) {
+        wordsByPhonetic.computeIfAbsent(phoneticKey(word), k -> ConcurrentHashMap.newKeySet()).add(word);
+        wordsByInitial.computeIfAbsent(word.charAt(0), k -> ConcurrentHashMap.newKeySet()).add(word);
+    }
+
+    private void unpost(int id, Entry entry) {
+        for (String word : entry.words) {
+            int[] current = idsByWord.get(word);
+            int position = current == null ? -1 : Arrays.binarySearch(current, id);
+            if (position < 0) {
+                continue;
+            }
+            if (current.length == 1) {
+                idsByWord.remove(word);
+                removeFrom(wordsByPhonetic, phoneticKey(word), word);
+                removeFrom(wordsByInitial, word.charAt(0), word);
+            } else {
+                int[] updated = new int[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, position);
+                System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+                idsByWord.put(word, updated);
+            }
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Set<String>> words, K key, String word) {
+        Set<String> set = words.get(key);
+        if (set != null) {
+            set.remove(word);
+            if (set.isEmpty()) {
+                words.remove(key, set);
+            }
+        }
+    }
+
+    /**
+     * Optimal string alignment distance (an adjacent swap costs 1) between the first aLength
+     * characters of a and all of b, or max + 1 once it must exceed max; rows is scratch space
+     * of three arrays of at least b.length() + 1
+     */
+    static int distance(String a, int aLength, String b, int max, int[][] rows) {
+        int[] previousRow = rows[0];
+        int[] row = rows[1];
+        int[] current = rows[2];
+        for (int j = 0; j <= b.length(); j++) {
+            row[j] = j;
+        }
+        for (int i = 1; i <= aLength; i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(row[j] + 1, current[j - 1] + 1), row[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousRow[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousRow;
+            previousRow = row;
+            row = current;
+            current = recycled;
+        }
+        return Math.min(row[b.length()], max + 1);
+    }
+
+    /**
+     * Sound-alike key for a romanised Indian word: aspirates and doubled letters collapse
+     * (dh/d, kh/k, nn/n), long and short vowels merge (ee/i/e, oo/u, aa/a), c/k/q, z/j, w/v
+     * and ph/f are merged, a silent h is dropped and so is a trailing a (rajma/rajmah/rajm)
+     */
+    static String phoneticKey(String word) {
+        StringBuilder key = new StringBuilder(word.length());
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            char next = i + 1 < word.length() ? word.charAt(i + 1) : 0;
+            char mapped;
+            switch (c) {
+                case 'p':
+                    mapped = next == 'h' ? 'f' : 'p';
+                    break;
+                case 'c':
+                    // ch is its own sound (chana); any other c is hard (coffee)
+                    mapped = next == 'h' ? 'c' : 'k';
+                    break;
+                case 'q':
+                    mapped = 'k';
+                    break;
+                case 'z':
+                    mapped = 'j';
+                    break;
+                case 'w':
+                    mapped = 'v';
+                    break;
+                case 'y':
+                case 'e':
+                    mapped = 'i';
+                    break;
+                case 'o':
+                    mapped = next == 'o' || next == 'u' ? 'u' : 'o';
+                    break;
+                case 'h':
+                    // Kept only at the start of a word (haldi); otherwise it is an aspirate or silent
+                    mapped = i == 0 ? 'h' : 0;
+                    break;
+                default:
+                    mapped = c;
+            }
+            if (mapped == 0) {
+                continue;
+            }
+            if (key.length() == 0 || key.charAt(key.length() - 1) != mapped) {
+                key.append(mapped);
+            }
+            if ((c == 'o' && mapped == 'u') || (c == 'p' && mapped == 'f') || (c == 'c' && next == 'h')) {
+                // The second letter of oo, ou, ph and ch is part of this sound
+                i++;
+            }
+        }
+        if (key.length() > 3 && key.charAt(key.length() - 1) == 'a') {
+            key.setLength(key.length() - 1);
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package com.grocerypos.dao;
+
+/**
+ * Helpers for SQL IN (...) lists built from a variable number of ids.
+ * Lists are padded to a few fixed sizes so the prepared statement cache
+ * only ever sees a handful of distinct SQL strings per query.
+ */
+final class InLists {
+    private static final int[] SIZES = {1, 8, 32, 128, 500};
+
+    static final int MAX_SIZE = SIZES[SIZES.length - 1];
+
+    private InLists() {
+    }
+
+    /**
+     * Padded IN-list size for this many ids (at most MAX_SIZE)
+     */
+    static int size(int count) {
+        for (int size : SIZES) {
+            if (count <= size) {
+                return size;
+            }
+        }
+        return MAX_SIZE;
+    }
+
+    /**
+     * Comma separated "?" placeholders
+     */
+    static String placeholders(int count) {
+        StringBuilder builder = new StringBuilder(count * 2);
+        for (int i = 0; i < count; i++) {
+            builder.append(i == 0 ? "?" : ",?");
+        }
+        return builder.toString();
+    }
+}
@@ -1,6 +1,8 @@
 package com.grocerypos.dao;
 
 import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+import com.grocerypos.metrics.DaoMetrics;
 import com.grocerypos.model.InventoryMovement;
 
 import java.sql.*;
@@ -32,12 +34,16 @@ public class InventoryMovementDAO {
         "JOIN users u ON im.user_id = u.id " +
         "WHERE im.movement_type=? ORDER BY im.created_at DESC";
     
-    private static final String FIND_BY_DATE_RANGE = 
+    // Rows per executeBatch when inserting many movements
+    private static final int BATCH_SIZE = 500;
+    
+    // Package-private so QueryPlanCheck can EXPLAIN it
+    static final String FIND_BY_DATE_RANGE = 
         "SELECT im.*, i.name as item_name, u.full_name as user_name " +
         "FROM inventory_movements im " +
         "JOIN items i ON im.item_id = i.id " +
         "JOIN users u ON im.user_id = u.id " +
-        "WHERE DATE(im.created_at) BETWEEN ? AND ? ORDER BY im.created_at DESC";
+        "WHERE im.created_at >= ? AND im.created_at < ? ORDER BY im.created_at DESC";
     
     private static final String FIND_ALL = 
         "SELECT im.*, i.name as item_name, u.full_name as user_name " +
@@ -53,144 +59,218 @@ public class InventoryMovementDAO {
         "JOIN users u ON im.user_id = u.id " +
         "WHERE im.reference_id=? AND im.reference_type=? ORDER BY im.created_at DESC";
 
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.registerReturningKeys(INSERT_MOVEMENT);
+        StatementCache.register(INSERT_MOVEMENT, FIND_BY_ITEM, FIND_BY_MOVEMENT_TYPE, FIND_BY_DATE_RANGE, FIND_ALL, FIND_BY_REFERENCE);
+    }
+
     /**
      * Insert a new inventory movement
      */
     public int insert(InventoryMovement movement) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(INSERT_MOVEMENT, Statement.RETURN_GENERATED_KEYS)) {
+        return DaoMetrics.time("InventoryMovementDAO.insert", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INSERT_MOVEMENT, Statement.RETURN_GENERATED_KEYS)) {
             
-            statement.setInt(1, movement.getItemId());
-            statement.setString(2, movement.getMovementType().name());
-            statement.setInt(3, movement.getQuantityChange());
-            statement.setInt(4, movement.getPreviousStock());
-            statement.setInt(5, movement.getNewStock());
-            statement.setObject(6, movement.getReferenceId());
-            statement.setString(7, movement.getReferenceType() != null ? movement.getReferenceType().name() : null);
-            statement.setString(8, movement.getNotes());
-            statement.setInt(9, movement.getUserId());
+                statement.setInt(1, movement.getItemId());
+                statement.setString(2, movement.getMovementType().name());
+                statement.setInt(3, movement.getQuantityChange());
+                statement.setInt(4, movement.getPreviousStock());
+                statement.setInt(5, movement.getNewStock());
+                statement.setObject(6, movement.getReferenceId());
+                statement.setString(7, movement.getReferenceType() != null ? movement.getReferenceType().name() : null);
+                statement.setString(8, movement.getNotes());
+                statement.setInt(9, movement.getUserId());
+            
+                int affectedRows = statement.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating inventory movement failed, no rows affected.");
+                }
             
-            int affectedRows = statement.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating inventory movement failed, no rows affected.");
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getInt(1);
+                    } else {
+                        throw new SQLException("Creating inventory movement failed, no ID obtained.");
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Insert movements in one transaction, as JDBC batches of BATCH_SIZE rows
+     */
+    public void insertAll(List<InventoryMovement> movements) throws SQLException {
+        DaoMetrics.run("InventoryMovementDAO.insertAll", () -> {
+            if (movements.isEmpty()) {
+                return;
+            }
+            Connection connection = DBUtil.getConnection(false);
+            try {
+                insertAll(movements, connection);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                DBUtil.rollback(connection, e);
+                throw e;
+            } finally {
+                DBUtil.endTransaction(connection);
             }
+        });
+    }
+
+    /**
+     * Insert movements as batches on the caller's connection; the caller owns the transaction
+     */
+    public void insertAll(List<InventoryMovement> movements, Connection connection) throws SQLException {
+        DaoMetrics.run("InventoryMovementDAO.insertAll(connection)", () -> {
+            if (movements.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_MOVEMENT)) {
+                int pending = 0;
+                for (InventoryMovement movement : movements) {
+                    statement.setInt(1, movement.getItemId());
+                    statement.setString(2, movement.getMovementType().name());
+                    statement.setInt(3, movement.getQuantityChange());
+                    statement.setInt(4, movement.getPreviousStock());
+                    statement.setInt(5, movement.getNewStock());
+                    statement.setObject(6, movement.getReferenceId());
+                    statement.setString(7, movement.getReferenceType() != null ? movement.getReferenceType().name() : null);
+                    statement.setString(8, movement.getNotes());
+                    statement.setInt(9, movement.getUserId());
+                    statement.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
             
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating inventory movement failed, no ID obtained.");
+                if (pending > 0) {
+                    statement.executeBatch();
                 }
             }
-        }
+        });
     }
 
     /**
      * Find movements by item ID
      */
     public List<InventoryMovement> findByItem(int itemId) throws SQLException {
-        List<InventoryMovement> movements = new ArrayList<>();
+        return DaoMetrics.time("InventoryMovementDAO.findByItem", () -> {
+            List<InventoryMovement> movements = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_ITEM)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ITEM)) {
             
-            statement.setInt(1, itemId);
+                statement.setInt(1, itemId);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    movements.add(mapResultSetToMovement(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        movements.add(mapResultSetToMovement(resultSet));
+                    }
                 }
             }
-        }
         
-        return movements;
+            return movements;
+        });
     }
 
     /**
      * Find movements by movement type
      */
     public List<InventoryMovement> findByMovementType(InventoryMovement.MovementType movementType) throws SQLException {
-        List<InventoryMovement> movements = new ArrayList<>();
+        return DaoMetrics.time("InventoryMovementDAO.findByMovementType", () -> {
+            List<InventoryMovement> movements = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_MOVEMENT_TYPE)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_MOVEMENT_TYPE)) {
             
-            statement.setString(1, movementType.name());
+                statement.setString(1, movementType.name());
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    movements.add(mapResultSetToMovement(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        movements.add(mapResultSetToMovement(resultSet));
+                    }
                 }
             }
-        }
         
-        return movements;
+            return movements;
+        });
     }
 
     /**
-     * Find movements by date range
+     * Find movements recorded in [startDate, endDate)
      */
     public List<InventoryMovement> findByDateRange(LocalDateTime startDate, LocalDateTime endDate) throws SQLException {
-        List<InventoryMovement> movements = new ArrayList<>();
+        return DaoMetrics.time("InventoryMovementDAO.findByDateRange", () -> {
+            List<InventoryMovement> movements = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_DATE_RANGE)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_DATE_RANGE)) {
             
-            statement.setDate(1, Date.valueOf(startDate.toLocalDate()));
-            statement.setDate(2, Date.valueOf(endDate.toLocalDate()));
+                statement.setTimestamp(1, Timestamp.valueOf(startDate));
+                statement.setTimestamp(2, Timestamp.valueOf(endDate));
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    movements.add(mapResultSetToMovement(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        movements.add(mapResultSetToMovement(resultSet));
+                    }
                 }
             }
-        }
         
-        return movements;
+            return movements;
+        });
     }
 
     /**
      * Find all movements
      */
     public List<InventoryMovement> findAll() throws SQLException {
-        List<InventoryMovement> movements = new ArrayList<>();
+        return DaoMetrics.time("InventoryMovementDAO.findAll", () -> {
+            List<InventoryMovement> movements = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_ALL);
-             ResultSet resultSet = statement.executeQuery()) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_ALL);
+                 ResultSet resultSet = statement.executeQuery()) {
             
-            while (resultSet.next()) {
-                movements.add(mapResultSetToMovement(resultSet));
+                while (resultSet.next()) {
+                    movements.add(mapResultSetToMovement(resultSet));
+                }
             }
-        }
         
-        return movements;
+            return movements;
+        });
     }
 
     /**
      * Find movements by reference
      */
     public List<InventoryMovement> findByReference(int referenceId, InventoryMovement.ReferenceType referenceType) throws SQLException {
-        List<InventoryMovement> movements = new ArrayList<>();
+        return DaoMetrics.time("InventoryMovementDAO.findByReference", () -> {
+            List<InventoryMovement> movements = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_REFERENCE)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_REFERENCE)) {
             
-            statement.setInt(1, referenceId);
-            statement.setString(2, referenceType.name());
+                statement.setInt(1, referenceId);
+                statement.setString(2, referenceType.name());
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    movements.add(mapResultSetToMovement(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        movements.add(mapResultSetToMovement(resultSet));
+                    }
                 }
             }
-        }
         
-        return movements;
+            return movements;
+        });
     }
 
     /**
-     * Record a stock movement (helper method)
+     * Record a stock movement (helper method). The row is written in the background by
+     * MovementWriter, batched with other movements; this only waits when its queue is full.
      */
     public void recordStockMovement(int itemId, InventoryMovement.MovementType movementType, 
                                   int quantityChange, int previousStock, int newStock, 
@@ -207,7 +287,7 @@ public class InventoryMovementDAO {
         movement.setNotes(notes);
         movement.setUserId(userId);
         
-        insert(movement);
+        MovementWriter.getInstance().submit(movement);
     }
 
     /**
@@ -0,0 +1,456 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.model.Item;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resident copy of the active item catalog, indexed by barcode, id and name search terms.
+ * Loaded once at startup, kept current by ItemDAO writes and refreshed in the
+ * background from items.updated_at so changes made on other terminals show up.
+ * Callers always receive copies, so the cached items are never mutated.
+ * Units sold per item over the last catalog.velocityDays days are kept alongside,
+ * reloaded daily and bumped at checkout, to rank fuzzy search suggestions.
+ */
+public class ItemCatalog {
+    private static final ItemCatalog INSTANCE = new ItemCatalog();
+
+    private final Map<String, Item> byBarcode = new ConcurrentHashMap<>();
+    private final Map<Integer, Item> byId = new ConcurrentHashMap<>();
+    private final ItemSearchIndex searchIndex = new ItemSearchIndex();
+    private final FuzzyItemIndex fuzzyIndex = new FuzzyItemIndex();
+    private final Map<Integer, Integer> unitsSold = new ConcurrentHashMap<>();
+    private final ItemDAO itemDAO = new ItemDAO();
+    private final BillDAO billDAO = new BillDAO();
+    private volatile LocalDate velocityDate;
+    private volatile boolean loaded;
+    private volatile Timestamp watermark;
+    private volatile long lastRefreshMillis;
+    private ScheduledExecutorService refresher;
+
+    // Metrics
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fullLoads = new AtomicLong();
+    private final AtomicLong deltaRefreshes = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+    private final AtomicLong failedRefreshes = new AtomicLong();
+
+    private ItemCatalog() {
+    }
+
+    public static ItemCatalog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Load the full catalog and start the background delta refresh
+     */
+    public synchronized void load() throws SQLException {
+        List<Item> items = itemDAO.loadActiveItems();
+        byBarcode.clear();
+        byId.clear();
+        Timestamp newest = null;
+        for (Item item : items) {
+            putMaps(item);
+            newest = later(newest, item.getUpdatedAt());
+        }
+        searchIndex.rebuild(items);
+        fuzzyIndex.rebuild(items);
+        loadVelocity();
+        watermark = newest;
+        lastRefreshMillis = System.currentTimeMillis();
+        loaded = true;
+        fullLoads.incrementAndGet();
+        startRefresher();
+        System.out.println("Item catalog loaded: " + byId.size() + " items");
+    }
+
+    /**
+     * Pull rows changed since the last refresh (including deactivated ones)
+     */
+    public synchronized void refresh() throws SQLException {
+        if (!loaded || watermark == null) {
+            load();
+            return;
+        }
+        List<Item> changed = itemDAO.findChangedSince(watermark);
+        Timestamp newest = watermark;
+        for (Item item : changed) {
+            Item cached = byId.get(item.getId());
+            if (cached != null && !sameContent(cached, item)) {
+                staleEntries.incrementAndGet();
+            }
+            if (item.isActive()) {
+                putInternal(item);
+            } else {
+                removeInternal(item.getId());
+            }
+            newest = later(newest, item.getUpdatedAt());
+        }
+        watermark = newest;
+        if (!LocalDate.now().equals(velocityDate)) {
+            loadVelocity();
+        }
+        lastRefreshMillis = System.currentTimeMillis();
+        deltaRefreshes.incrementAndGet();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Cached item for this barcode, or null when it is not in the catalog
+     */
+    Item getByBarcode(String barcode) {
+        if (!loaded || barcode == null) {
+            return null;
+        }
+        Item item = byBarcode.get(barcode);
+        if (item == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new Item(item);
+    }
+
+    /**
+     * Cached item for this id, or null when it is not in the catalog
+     */
+    Item getById(int id) {
+        if (!loaded) {
+            return null;
+        }
+        Item item = byId.get(id);
+        if (item == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new Item(item);
+    }
+
+    /**
+     * Copies of the best matches for a name, category or barcode search, best first;
+     * null when the catalog is not loaded so callers can fall back to the database
+     */
+    List<Item> search(String query, int limit) {
+        if (!loaded) {
+            return null;
+        }
+        List<Item> items = new ArrayList<>();
+        for (ItemSearchIndex.Hit hit : searchIndex.search(query, limit)) {
+            Item item = byId.get(hit.getId());
+            if (item != null) {
+                items.add(new Item(item));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Copies of the closest typo-tolerant matches, closest and best selling first;
+     * null when the catalog is not loaded
+     */
+    List<Item> fuzzySearch(String query, int limit) {
+        if (!loaded) {
+            return null;
+        }
+        List<Item> items = new ArrayList<>();
+        for (int id : fuzzyIndex.search(query, limit, itemId -> unitsSold.getOrDefault(itemId, 0))) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(new Item(item));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Copies of all cached items
+     */
+    public List<Item> getAll() {
+        Collection<Item> items = byId.values();
+        List<Item> copies = new ArrayList<>(items.size());
+        for (Item item : items) {
+            copies.add(new Item(item));
+        }
+        return copies;
+    }
+
+    void put(Item item) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (item.isActive()) {
+                putInternal(new Item(item));
+            } else {
+                removeInternal(item.getId());
+            }
+        }
+    }
+
+    void remove(int id) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            removeInternal(id);
+        }
+    }
+
+    /**
+     * Record a committed stock change
+     */
+    public void updateStock(int id, int newStock) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            Item cached = byId.get(id);
+            if (cached != null) {
+                // Replace rather than mutate so concurrent readers never see a half-updated item
+                Item updated = new Item(cached);
+                updated.setStockQuantity(newStock);
+                putInternal(updated);
+            }
+        }
+    }
+
+    /**
+     * Apply a stock change that is not in the database yet (a journaled sale);
+     * the next refresh of the item from the database replaces it
+     */
+    public void adjustStock(int id, int delta) {
+        if (!loaded) {
+            return;
+        }
+        synchronized (this) {
+            Item cached = byId.get(id);
+            if (cached != null) {
+                Item updated = new Item(cached);
+                updated.setStockQuantity(cached.getStockQuantity() + delta);
+                putInternal(updated);
+            }
+        }
+    }
+
+    /**
+     * Record units sold by a committed checkout
+     */
+    public void recordSale(int id, int quantity) {
+        if (loaded) {
+            unitsSold.merge(id, quantity, Integer::sum);
+        }
+    }
+
+    /**
+     * Snapshot of the catalog counters
+     */
+    public CatalogStats getStats() {
+        long age = lastRefreshMillis == 0 ? -1 : System.currentTimeMillis() - lastRefreshMillis;
+        return new CatalogStats(byId.size(), hits.get(), misses.get(), fullLoads.get(),
+            deltaRefreshes.get(), staleEntries.get(), failedRefreshes.get(), age);
+    }
+
+    /**
+     * Stop the background refresh
+     */
+    public synchronized void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    private void putInternal(Item item) {
+        putMaps(item);
+        searchIndex.put(item);
+        fuzzyIndex.put(item);
+    }
+
+    private void putMaps(Item item) {
+        Item previous = byId.put(item.getId(), item);
+        if (previous != null && previous.getBarcode() != null && !previous.getBarcode().equals(item.getBarcode())) {
+            byBarcode.remove(previous.getBarcode(), previous);
+        }
+        if (item.getBarcode() != null) {
+            byBarcode.put(item.getBarcode(), item);
+        }
+    }
+
+    private void removeInternal(int id) {
+        Item previous = byId.remove(id);
+        if (previous != null && previous.getBarcode() != null) {
+            byBarcode.remove(previous.getBarcode(), previous);
+        }
+        searchIndex.remove(id);
+        fuzzyIndex.remove(id);
+    }
+
+    /**
+     * Reload recent units sold; on failure the old figures stay and the next refresh retries
+     */
+    private void loadVelocity() {
+        int days = DBUtil.getIntProperty("catalog.velocityDays", 30);
+        LocalDate today = LocalDate.now();
+        try {
+            Map<Integer, Integer> sold = billDAO.findUnitsSoldSince(today.minusDays(days).atStartOfDay());
+            unitsSold.clear();
+            unitsSold.putAll(sold);
+            velocityDate = today;
+        } catch (SQLException e) {
+            System.err.println("Failed to load item sales velocity: " + e.getMessage());
+        }
+    }
+
+    private void startRefresher() {
+        int intervalSeconds = DBUtil.getIntProperty("catalog.refreshInterval", 30);
+        if (refresher != null || intervalSeconds <= 0) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "item-catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(() -> {
+            // Anything escaping this task would cancel every later run and leave the catalog stale
+            try {
+                refresh();
+            } catch (SQLException e) {
+                failedRefreshes.incrementAndGet();
+                System.err.println("Item catalog refresh failed: " + e.getMessage());
+            } catch (RuntimeException e) {
+                failedRefreshes.incrementAndGet();
+                System.err.println("Item catalog refresh failed: " + e);
+                e.printStackTrace();
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private static Timestamp later(Timestamp current, LocalDateTime candidate) {
+        if (candidate == null) {
+            return current;
+        }
+        Timestamp timestamp = Timestamp.valueOf(candidate);
+        return current == null || timestamp.after(current) ? timestamp : current;
+    }
+
+    private static boolean sameContent(Item a, Item b) {
+        return a.getStockQuantity() == b.getStockQuantity()
+            && a.isActive() == b.isActive()
+            && equal(a.getBarcode(), b.getBarcode())
+            && equal(a.getName(), b.getName())
+            && a.getPrice().compareTo(b.getPrice()) == 0
+            && a.getGstPercentage().compareTo(b.getGstPercentage()) == 0
+            && equal(a.getCategory(), b.getCategory());
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    /**
+     * Immutable snapshot of catalog metrics
+     */
+    public static final class CatalogStats {
+        private final int size;
+        private final long hits;
+        private final long misses;
+        private final long fullLoads;
+        private final long deltaRefreshes;
+        private final long staleEntries;
+        private final long failedRefreshes;
+        private final long millisSinceRefresh;
+
+        CatalogStats(int size, long hits, long misses, long fullLoads, long deltaRefreshes,
+                     long staleEntries, long failedRefreshes, long millisSinceRefresh) {
+            this.size = size;
+            this.hits = hits;
+            this.misses = misses;
+            this.fullLoads = fullLoads;
+            this.deltaRefreshes = deltaRefreshes;
+            this.staleEntries = staleEntries;
+            this.failedRefreshes = failedRefreshes;
+            this.millisSinceRefresh = millisSinceRefresh;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getFullLoads() {
+            return fullLoads;
+        }
+
+        public long getDeltaRefreshes() {
+            return deltaRefreshes;
+        }
+
+        /**
+         * Cached entries found out of date by a background refresh
+         */
+        public long getStaleEntries() {
+            return staleEntries;
+        }
+
+        /**
+         * Background refreshes that threw; the catalog keeps its last good data and the next run retries
+         */
+        public long getFailedRefreshes() {
+            return failedRefreshes;
+        }
+
+        /**
+         * Age of the catalog data in milliseconds, -1 before the first load
+         */
+        public long getMillisSinceRefresh() {
+            return millisSinceRefresh;
+        }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return "CatalogStats{" +
+                    "size=" + size +
+                    ", hits=" + hits +
+                    ", misses=" + misses +
+                    ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                    ", fullLoads=" + fullLoads +
+                    ", deltaRefreshes=" + deltaRefreshes +
+                    ", staleEntries=" + staleEntries +
+                    ", failedRefreshes=" + failedRefreshes +
+                    ", msSinceRefresh=" + millisSinceRefresh +
+                    '}';
+        }
+    }
+}
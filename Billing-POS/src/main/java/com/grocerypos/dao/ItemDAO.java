@@ -1,313 +1,683 @@
 package com.grocerypos.dao;
 
 import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+import com.grocerypos.metrics.DaoMetrics;
 import com.grocerypos.model.Item;
 
 import java.math.BigDecimal;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Data Access Object for Item entity
  */
 public class ItemDAO {
+
+    /**
+     * Position of a row in (name, id) order; a page starts after the key of the previous page's last row
+     */
+    public static final class PageKey {
+        private final String name;
+        private final int id;
+
+        public PageKey(String name, int id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        public static PageKey of(Item item) {
+            return new PageKey(item.getName(), item.getId());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
     
     private static final String INSERT_ITEM = 
         "INSERT INTO items (barcode, name, description, price, cost_price, gst_percentage, " +
         "stock_quantity, min_stock_level, unit, category, is_active) " +
         "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
     
+    // Stock is left out: it only moves by a change, so sales made while an item is being edited are kept
     private static final String UPDATE_ITEM = 
         "UPDATE items SET barcode=?, name=?, description=?, price=?, cost_price=?, " +
-        "gst_percentage=?, stock_quantity=?, min_stock_level=?, unit=?, category=?, " +
+        "gst_percentage=?, min_stock_level=?, unit=?, category=?, " +
         "is_active=?, updated_at=CURRENT_TIMESTAMP WHERE id=?";
     
     private static final String DELETE_ITEM = "UPDATE items SET is_active=false WHERE id=?";
     
-    private static final String FIND_BY_ID = "SELECT * FROM items WHERE id=? AND is_active=true";
+    // Projections: scan rows feed the catalog, search rows feed lists and autocomplete, stock rows the
+    // low-stock alert; only the edit dialog needs the full detail with the description TEXT column
+    private static final String SCAN_COLUMNS =
+        "id, barcode, name, price, cost_price, gst_percentage, stock_quantity, min_stock_level, unit, category, " +
+        "is_active, created_at, updated_at";
+    
+    private static final String SEARCH_ROW_COLUMNS =
+        "id, barcode, name, price, gst_percentage, stock_quantity, min_stock_level, unit, category";
+    
+    private static final String STOCK_ROW_COLUMNS = "id, name, stock_quantity, min_stock_level, category";
+    
+    private static final String DETAIL_COLUMNS = SCAN_COLUMNS + ", description";
     
-    private static final String FIND_BY_BARCODE = "SELECT * FROM items WHERE barcode=? AND is_active=true";
+    private static final String FIND_BY_ID = "SELECT " + SCAN_COLUMNS + " FROM items WHERE id=? AND is_active=true";
     
-    private static final String FIND_ALL = "SELECT * FROM items WHERE is_active=true ORDER BY name";
+    private static final String FIND_DETAIL_BY_ID = "SELECT " + DETAIL_COLUMNS + " FROM items WHERE id=? AND is_active=true";
     
-    private static final String FIND_BY_CATEGORY = "SELECT * FROM items WHERE category=? AND is_active=true ORDER BY name";
+    private static final String FIND_BY_BARCODE = "SELECT " + SCAN_COLUMNS + " FROM items WHERE barcode=? AND is_active=true";
     
-    private static final String SEARCH_BY_NAME = "SELECT * FROM items WHERE name LIKE ? AND is_active=true ORDER BY name";
+    private static final String FIND_ALL = "SELECT " + SCAN_COLUMNS + " FROM items WHERE is_active=true ORDER BY name";
     
-    private static final String FIND_LOW_STOCK = "SELECT * FROM items WHERE stock_quantity <= min_stock_level AND is_active=true ORDER BY stock_quantity";
+    private static final String FIND_BY_CATEGORY = "SELECT " + SCAN_COLUMNS + " FROM items WHERE category=? AND is_active=true ORDER BY name";
+    
+    private static final String SEARCH_BY_NAME = "SELECT " + SEARCH_ROW_COLUMNS + " FROM items WHERE name LIKE ? AND is_active=true ORDER BY name";
+    
+    private static final String FIND_LOW_STOCK = "SELECT " + STOCK_ROW_COLUMNS + " FROM items WHERE stock_quantity <= min_stock_level AND is_active=true ORDER BY stock_quantity";
+    
+    private static final String COUNT_STOCK_STATUS = 
+        "SELECT COUNT(*) as total_items, " +
+        "COALESCE(SUM(CASE WHEN stock_quantity <= min_stock_level THEN 1 ELSE 0 END), 0) as low_stock_items " +
+        "FROM items WHERE is_active=true";
     
     private static final String UPDATE_STOCK = "UPDATE items SET stock_quantity=? WHERE id=?";
     
-    private static final String FIND_BY_NAME_PATTERN = "SELECT * FROM items WHERE name LIKE ? AND is_active=true ORDER BY name LIMIT 10";
+    private static final int AUTOCOMPLETE_LIMIT = 10;
+    
+    private static final String FIND_BY_NAME_PATTERN = "SELECT " + SEARCH_ROW_COLUMNS + " FROM items WHERE name LIKE ? AND is_active=true ORDER BY name LIMIT " + AUTOCOMPLETE_LIMIT;
+    
+    private static final String LOAD_CATALOG = "SELECT " + SCAN_COLUMNS + " FROM items WHERE is_active=true";
+    
+    private static final String FIND_CHANGED_SINCE = "SELECT " + SCAN_COLUMNS + " FROM items WHERE updated_at >= ?";
+    
+    // Keyset pages in (name, id) order, served by idx_active_name; the OR form keeps the range sargable on MySQL
+    private static final String FIND_FIRST_PAGE = "SELECT " + SEARCH_ROW_COLUMNS + " FROM items WHERE is_active=true ORDER BY name, id LIMIT ?";
+    
+    private static final String FIND_PAGE =
+        "SELECT " + SEARCH_ROW_COLUMNS + " FROM items WHERE is_active=true AND (name > ? OR (name = ? AND id > ?)) ORDER BY name, id LIMIT ?";
+    
+    private static final String SEEK_FIRST_PAGE_KEY =
+        "SELECT name, id FROM items WHERE is_active=true ORDER BY name, id LIMIT 1 OFFSET ?";
+    
+    private static final String SEEK_PAGE_KEY =
+        "SELECT name, id FROM items WHERE is_active=true AND (name > ? OR (name = ? AND id > ?)) ORDER BY name, id LIMIT 1 OFFSET ?";
+    
+    private static final String COUNT_ACTIVE = "SELECT COUNT(*) FROM items WHERE is_active=true";
+    
+    private static final String LOCK_STOCK = "SELECT id, stock_quantity FROM items WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    
+    private static final String DECREMENT_STOCK = "UPDATE items SET stock_quantity = stock_quantity - ? WHERE id=?";
+
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.registerReturningKeys(INSERT_ITEM);
+        StatementCache.register(UPDATE_ITEM, DELETE_ITEM, FIND_BY_ID, FIND_DETAIL_BY_ID, FIND_BY_BARCODE, FIND_ALL,
+            FIND_BY_CATEGORY, SEARCH_BY_NAME, FIND_LOW_STOCK, UPDATE_STOCK, FIND_BY_NAME_PATTERN, FIND_CHANGED_SINCE, DECREMENT_STOCK,
+            COUNT_STOCK_STATUS, FIND_FIRST_PAGE, FIND_PAGE, SEEK_FIRST_PAGE_KEY, SEEK_PAGE_KEY, COUNT_ACTIVE);
+    }
 
     /**
      * Insert a new item
      */
     public int insert(Item item) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
-            
-            statement.setString(1, item.getBarcode());
-            statement.setString(2, item.getName());
-            statement.setString(3, item.getDescription());
-            statement.setBigDecimal(4, item.getPrice());
-            statement.setBigDecimal(5, item.getCostPrice());
-            statement.setBigDecimal(6, item.getGstPercentage());
-            statement.setInt(7, item.getStockQuantity());
-            statement.setInt(8, item.getMinStockLevel());
-            statement.setString(9, item.getUnit());
-            statement.setString(10, item.getCategory());
-            statement.setBoolean(11, item.isActive());
-            
-            int affectedRows = statement.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating item failed, no rows affected.");
-            }
+        return DaoMetrics.time("ItemDAO.insert", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INSERT_ITEM, Statement.RETURN_GENERATED_KEYS)) {
             
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating item failed, no ID obtained.");
+                statement.setString(1, item.getBarcode());
+                statement.setString(2, item.getName());
+                statement.setString(3, item.getDescription());
+                statement.setBigDecimal(4, item.getPrice());
+                statement.setBigDecimal(5, item.getCostPrice());
+                statement.setBigDecimal(6, item.getGstPercentage());
+                statement.setInt(7, item.getStockQuantity());
+                statement.setInt(8, item.getMinStockLevel());
+                statement.setString(9, item.getUnit());
+                statement.setString(10, item.getCategory());
+                statement.setBoolean(11, item.isActive());
+            
+                int affectedRows = statement.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating item failed, no rows affected.");
+                }
+            
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        int id = generatedKeys.getInt(1);
+                        Item cached = new Item(item);
+                        cached.setId(id);
+                        ItemCatalog.getInstance().put(cached);
+                        return id;
+                    } else {
+                        throw new SQLException("Creating item failed, no ID obtained.");
+                    }
                 }
             }
-        }
+        });
     }
 
     /**
-     * Update an existing item
+     * Update an existing item and add stockChange to the stock the row holds now. The row is locked
+     * first, so the change lands on top of any sale made meanwhile; on return the item holds the new stock.
      */
-    public boolean update(Item item) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_ITEM)) {
-            
-            statement.setString(1, item.getBarcode());
-            statement.setString(2, item.getName());
-            statement.setString(3, item.getDescription());
-            statement.setBigDecimal(4, item.getPrice());
-            statement.setBigDecimal(5, item.getCostPrice());
-            statement.setBigDecimal(6, item.getGstPercentage());
-            statement.setInt(7, item.getStockQuantity());
-            statement.setInt(8, item.getMinStockLevel());
-            statement.setString(9, item.getUnit());
-            statement.setString(10, item.getCategory());
-            statement.setBoolean(11, item.isActive());
-            statement.setInt(12, item.getId());
-            
-            return statement.executeUpdate() > 0;
-        }
+    public boolean update(Item item, int stockChange) throws SQLException {
+        return DaoMetrics.time("ItemDAO.update", () -> {
+            Connection connection = DBUtil.getConnection(false);
+            try {
+                Integer stock = lockStock(Collections.singleton(item.getId()), connection).get(item.getId());
+                if (stock == null) {
+                    connection.rollback();
+                    return false;
+                }
+
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_ITEM)) {
+                    statement.setString(1, item.getBarcode());
+                    statement.setString(2, item.getName());
+                    statement.setString(3, item.getDescription());
+                    statement.setBigDecimal(4, item.getPrice());
+                    statement.setBigDecimal(5, item.getCostPrice());
+                    statement.setBigDecimal(6, item.getGstPercentage());
+                    statement.setInt(7, item.getMinStockLevel());
+                    statement.setString(8, item.getUnit());
+                    statement.setString(9, item.getCategory());
+                    statement.setBoolean(10, item.isActive());
+                    statement.setInt(11, item.getId());
+                    statement.executeUpdate();
+                }
+                if (stockChange != 0) {
+                    decrementStock(Collections.singletonMap(item.getId(), -stockChange), connection);
+                }
+
+                connection.commit();
+                item.setStockQuantity(stock + stockChange);
+                ItemCatalog.getInstance().put(item);
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                DBUtil.rollback(connection, e);
+                throw e;
+            } finally {
+                DBUtil.endTransaction(connection);
+            }
+        });
     }
 
     /**
      * Delete an item (soft delete)
      */
     public boolean delete(int id) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(DELETE_ITEM)) {
+        return DaoMetrics.time("ItemDAO.delete", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(DELETE_ITEM)) {
             
-            statement.setInt(1, id);
-            return statement.executeUpdate() > 0;
-        }
+                statement.setInt(1, id);
+                boolean deleted = statement.executeUpdate() > 0;
+                if (deleted) {
+                    ItemCatalog.getInstance().remove(id);
+                }
+                return deleted;
+            }
+        });
     }
 
     /**
-     * Find item by ID
+     * Find item by ID, served from the catalog when it is loaded; the description may be left out, see findDetailById
      */
     public Item findById(int id) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
+        return DaoMetrics.time("ItemDAO.findById", () -> {
+            Item cached = ItemCatalog.getInstance().getById(id);
+            if (cached != null) {
+                return cached;
+            }
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
             
-            statement.setInt(1, id);
+                statement.setInt(1, id);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return mapResultSetToItem(resultSet);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        Item item = new ItemMapper(resultSet).map(resultSet);
+                        ItemCatalog.getInstance().put(item);
+                        return item;
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
+    }
+
+    /**
+     * Find item by ID with every column, including the description the catalog and list queries leave out.
+     * Always read from the database; use this before editing an item.
+     */
+    public Item findDetailById(int id) throws SQLException {
+        return DaoMetrics.time("ItemDAO.findDetailById", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_DETAIL_BY_ID)) {
+            
+                statement.setInt(1, id);
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? new ItemMapper(resultSet).map(resultSet) : null;
+                }
+            }
+        });
     }
 
     /**
-     * Find item by barcode
+     * Find item by barcode, served from the catalog when it is loaded
      */
     public Item findByBarcode(String barcode) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_BARCODE)) {
+        return DaoMetrics.time("ItemDAO.findByBarcode", () -> {
+            Item cached = ItemCatalog.getInstance().getByBarcode(barcode);
+            if (cached != null) {
+                return cached;
+            }
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_BARCODE)) {
             
-            statement.setString(1, barcode);
+                statement.setString(1, barcode);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return mapResultSetToItem(resultSet);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        // Added since the last refresh, e.g. on another terminal
+                        Item item = new ItemMapper(resultSet).map(resultSet);
+                        ItemCatalog.getInstance().put(item);
+                        return item;
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
     }
 
     /**
      * Find all items
      */
     public List<Item> findAll() throws SQLException {
-        List<Item> items = new ArrayList<>();
+        return DaoMetrics.time("ItemDAO.findAll", () -> {
+            List<Item> items = new ArrayList<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_ALL);
+                 ResultSet resultSet = statement.executeQuery()) {
+            
+                ItemMapper mapper = new ItemMapper(resultSet);
+                while (resultSet.next()) {
+                    items.add(mapper.map(resultSet));
+                }
+            }
+        
+            return items;
+        });
+    }
+
+    /**
+     * Find up to limit active items in (name, id) order, starting after the given key;
+     * a null afterName starts from the first item
+     */
+    public List<Item> findPage(String afterName, int afterId, int limit) throws SQLException {
+        return DaoMetrics.time("ItemDAO.findPage", () -> {
+            List<Item> items = new ArrayList<>(limit);
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_ALL);
-             ResultSet resultSet = statement.executeQuery()) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(afterName == null ? FIND_FIRST_PAGE : FIND_PAGE)) {
+            
+                if (afterName == null) {
+                    statement.setInt(1, limit);
+                } else {
+                    statement.setString(1, afterName);
+                    statement.setString(2, afterName);
+                    statement.setInt(3, afterId);
+                    statement.setInt(4, limit);
+                }
             
-            while (resultSet.next()) {
-                items.add(mapResultSetToItem(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ItemMapper mapper = new ItemMapper(resultSet);
+                    while (resultSet.next()) {
+                        items.add(mapper.map(resultSet));
+                    }
+                }
             }
-        }
         
-        return items;
+            return items;
+        });
+    }
+
+    /**
+     * Key of the row skip rows past the given key (a null afterName counts from the first item),
+     * read from the index alone; null when there are not that many rows. Lets a page be reached
+     * without fetching the pages before it.
+     */
+    public PageKey seekPageKey(String afterName, int afterId, int skip) throws SQLException {
+        return DaoMetrics.time("ItemDAO.seekPageKey", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(afterName == null ? SEEK_FIRST_PAGE_KEY : SEEK_PAGE_KEY)) {
+            
+                if (afterName == null) {
+                    statement.setInt(1, skip);
+                } else {
+                    statement.setString(1, afterName);
+                    statement.setString(2, afterName);
+                    statement.setInt(3, afterId);
+                    statement.setInt(4, skip);
+                }
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() ? new PageKey(resultSet.getString("name"), resultSet.getInt("id")) : null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Count active items
+     */
+    public int countActive() throws SQLException {
+        return DaoMetrics.time("ItemDAO.countActive", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(COUNT_ACTIVE);
+                 ResultSet resultSet = statement.executeQuery()) {
+            
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        });
     }
 
     /**
      * Find items by category
      */
     public List<Item> findByCategory(String category) throws SQLException {
-        List<Item> items = new ArrayList<>();
+        return DaoMetrics.time("ItemDAO.findByCategory", () -> {
+            List<Item> items = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_CATEGORY)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_CATEGORY)) {
             
-            statement.setString(1, category);
+                statement.setString(1, category);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    items.add(mapResultSetToItem(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ItemMapper mapper = new ItemMapper(resultSet);
+                    while (resultSet.next()) {
+                        items.add(mapper.map(resultSet));
+                    }
                 }
             }
-        }
         
-        return items;
+            return items;
+        });
     }
 
     /**
-     * Search items by name
+     * Search items by name, served from the catalog's search index when it is loaded
      */
     public List<Item> searchByName(String namePattern) throws SQLException {
-        List<Item> items = new ArrayList<>();
+        return DaoMetrics.time("ItemDAO.searchByName", () -> {
+            List<Item> cached = ItemCatalog.getInstance().search(namePattern, Integer.MAX_VALUE);
+            if (cached != null) {
+                return cached;
+            }
+        
+            List<Item> items = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(SEARCH_BY_NAME)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(SEARCH_BY_NAME)) {
             
-            statement.setString(1, "%" + namePattern + "%");
+                statement.setString(1, "%" + namePattern + "%");
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    items.add(mapResultSetToItem(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ItemMapper mapper = new ItemMapper(resultSet);
+                    while (resultSet.next()) {
+                        items.add(mapper.map(resultSet));
+                    }
                 }
             }
-        }
         
-        return items;
+            return items;
+        });
     }
 
     /**
-     * Find items with low stock
+     * Find items with low stock; only id, name, stock levels and category are loaded
      */
     public List<Item> findLowStockItems() throws SQLException {
-        List<Item> items = new ArrayList<>();
+        return DaoMetrics.time("ItemDAO.findLowStockItems", () -> {
+            List<Item> items = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_LOW_STOCK);
-             ResultSet resultSet = statement.executeQuery()) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_LOW_STOCK);
+                 ResultSet resultSet = statement.executeQuery()) {
             
-            while (resultSet.next()) {
-                items.add(mapResultSetToItem(resultSet));
+                ItemMapper mapper = new ItemMapper(resultSet);
+                while (resultSet.next()) {
+                    items.add(mapper.map(resultSet));
+                }
             }
-        }
         
-        return items;
+            return items;
+        });
+    }
+
+    /**
+     * Count active items and how many of them are at or below their minimum stock, as {total, low}
+     */
+    public int[] countStockStatus() throws SQLException {
+        return DaoMetrics.time("ItemDAO.countStockStatus", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(COUNT_STOCK_STATUS);
+                 ResultSet resultSet = statement.executeQuery()) {
+            
+                resultSet.next();
+                return new int[]{resultSet.getInt("total_items"), resultSet.getInt("low_stock_items")};
+            }
+        });
     }
 
     /**
      * Update stock quantity
      */
     public boolean updateStock(int itemId, int newStock) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_STOCK)) {
+        return DaoMetrics.time("ItemDAO.updateStock", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(UPDATE_STOCK)) {
             
-            statement.setInt(1, newStock);
-            statement.setInt(2, itemId);
+                statement.setInt(1, newStock);
+                statement.setInt(2, itemId);
             
-            return statement.executeUpdate() > 0;
-        }
+                boolean updated = statement.executeUpdate() > 0;
+                if (updated) {
+                    ItemCatalog.getInstance().updateStock(itemId, newStock);
+                }
+                return updated;
+            }
+        });
     }
 
     /**
-     * Find items by name pattern (for autocomplete)
+     * Lock the given items' rows (in id order, so concurrent checkouts cannot deadlock on each other)
+     * and return their current stock by id. Must run inside a transaction.
      */
-    public List<Item> findByNamePattern(String pattern) throws SQLException {
-        List<Item> items = new ArrayList<>();
+    public Map<Integer, Integer> lockStock(Collection<Integer> itemIds, Connection connection) throws SQLException {
+        return DaoMetrics.time("ItemDAO.lockStock", () -> {
+            List<Integer> ids = new ArrayList<>(new TreeSet<>(itemIds));
+            Map<Integer, Integer> stockById = new HashMap<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_NAME_PATTERN)) {
+            for (int from = 0; from < ids.size(); from += InLists.MAX_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + InLists.MAX_SIZE, ids.size()));
+                int size = InLists.size(chunk.size());
             
-            statement.setString(1, "%" + pattern + "%");
-            
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    items.add(mapResultSetToItem(resultSet));
+                try (PreparedStatement statement = connection.prepareStatement(String.format(LOCK_STOCK, InLists.placeholders(size)))) {
+                    for (int i = 0; i < size; i++) {
+                        statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                    }
+                
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            stockById.put(resultSet.getInt("id"), resultSet.getInt("stock_quantity"));
+                        }
+                    }
                 }
             }
-        }
         
-        return items;
+            return stockById;
+        });
+    }
+
+    /**
+     * Subtract quantities from stock in one batch on the caller's connection.
+     * The catalog is not touched; call ItemCatalog.updateStock once the transaction commits.
+     */
+    public void decrementStock(Map<Integer, Integer> quantityById, Connection connection) throws SQLException {
+        DaoMetrics.run("ItemDAO.decrementStock", () -> {
+            if (quantityById.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement statement = connection.prepareStatement(DECREMENT_STOCK)) {
+                for (Map.Entry<Integer, Integer> entry : quantityById.entrySet()) {
+                    statement.setInt(1, entry.getValue());
+                    statement.setInt(2, entry.getKey());
+                    statement.addBatch();
+                }
+            
+                statement.executeBatch();
+            }
+        });
     }
 
     /**
-     * Map ResultSet to Item object
+     * Find the best ten items for a name pattern (for autocomplete), from the search index when the catalog is loaded
      */
-    private Item mapResultSetToItem(ResultSet resultSet) throws SQLException {
-        Item item = new Item();
-        item.setId(resultSet.getInt("id"));
-        item.setBarcode(resultSet.getString("barcode"));
-        item.setName(resultSet.getString("name"));
-        item.setDescription(resultSet.getString("description"));
+    public List<Item> findByNamePattern(String pattern) throws SQLException {
+        return DaoMetrics.time("ItemDAO.findByNamePattern", () -> {
+            List<Item> cached = ItemCatalog.getInstance().search(pattern, AUTOCOMPLETE_LIMIT);
+            if (cached != null) {
+                return cached;
+            }
         
-        // Null-safe BigDecimal mapping with defaults
-        item.setPrice(resultSet.getBigDecimal("price") != null ? resultSet.getBigDecimal("price") : BigDecimal.ZERO);
-        item.setCostPrice(resultSet.getBigDecimal("cost_price") != null ? resultSet.getBigDecimal("cost_price") : BigDecimal.ZERO);
-        item.setGstPercentage(resultSet.getBigDecimal("gst_percentage") != null ? resultSet.getBigDecimal("gst_percentage") : BigDecimal.ZERO);
+            List<Item> items = new ArrayList<>();
         
-        item.setStockQuantity(resultSet.getInt("stock_quantity"));
-        item.setMinStockLevel(resultSet.getInt("min_stock_level"));
-        item.setUnit(resultSet.getString("unit") != null ? resultSet.getString("unit") : "pcs");
-        item.setCategory(resultSet.getString("category"));
-        item.setActive(resultSet.getBoolean("is_active"));
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_NAME_PATTERN)) {
+            
+                statement.setString(1, "%" + pattern + "%");
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ItemMapper mapper = new ItemMapper(resultSet);
+                    while (resultSet.next()) {
+                        items.add(mapper.map(resultSet));
+                    }
+                }
+            }
         
-        Timestamp createdAt = resultSet.getTimestamp("created_at");
-        if (createdAt != null) {
-            item.setCreatedAt(createdAt.toLocalDateTime());
+            return items;
+        });
+    }
+
+    /**
+     * Typo-tolerant search (close spellings and sound-alikes, best sellers first), served
+     * only from the catalog; empty when the catalog is not loaded
+     */
+    public List<Item> searchFuzzy(String query, int limit) {
+        List<Item> cached = ItemCatalog.getInstance().fuzzySearch(query, limit);
+        return cached != null ? cached : new ArrayList<>();
+    }
+
+    /**
+     * Typeahead suggestions: exact matches first, topped up with fuzzy ones. Served only
+     * from the catalog, so it is safe to call on the Event Dispatch Thread; empty when the catalog is not loaded
+     */
+    public List<Item> findSuggestions(String query, int limit) {
+        List<Item> suggestions = ItemCatalog.getInstance().search(query, limit);
+        if (suggestions == null) {
+            return new ArrayList<>();
         }
-        
-        Timestamp updatedAt = resultSet.getTimestamp("updated_at");
-        if (updatedAt != null) {
-            item.setUpdatedAt(updatedAt.toLocalDateTime());
+        if (suggestions.size() < limit) {
+            Set<Integer> seen = new HashSet<>();
+            for (Item item : suggestions) {
+                seen.add(item.getId());
+            }
+            for (Item item : searchFuzzy(query, limit)) {
+                if (suggestions.size() < limit && seen.add(item.getId())) {
+                    suggestions.add(item);
+                }
+            }
         }
+        return suggestions;
+    }
+
+    /**
+     * Load all active items for the catalog
+     */
+    List<Item> loadActiveItems() throws SQLException {
+        return DaoMetrics.time("ItemDAO.loadActiveItems", () -> {
+            List<Item> items = new ArrayList<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(LOAD_CATALOG);
+                 ResultSet resultSet = statement.executeQuery()) {
+            
+                ItemMapper mapper = new ItemMapper(resultSet);
+                while (resultSet.next()) {
+                    items.add(mapper.map(resultSet));
+                }
+            }
         
-        return item;
+            return items;
+        });
     }
-    
+
+    /**
+     * Find items (active or not) changed at or after the given time
+     */
+    List<Item> findChangedSince(Timestamp since) throws SQLException {
+        return DaoMetrics.time("ItemDAO.findChangedSince", () -> {
+            List<Item> items = new ArrayList<>();
+        
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_CHANGED_SINCE)) {
+            
+                statement.setTimestamp(1, since);
+            
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    ItemMapper mapper = new ItemMapper(resultSet);
+                    while (resultSet.next()) {
+                        items.add(mapper.map(resultSet));
+                    }
+                }
+            }
+        
+            return items;
+        });
+    }
+
     /**
      * Get all unique categories
      */
     public List<String> getAllCategories() throws SQLException {
-        List<String> categories = new ArrayList<>();
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement("SELECT DISTINCT category FROM items WHERE category IS NOT NULL AND category != '' ORDER BY category")) {
+        return DaoMetrics.time("ItemDAO.getAllCategories", () -> {
+            List<String> categories = new ArrayList<>();
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("SELECT DISTINCT category FROM items WHERE category IS NOT NULL AND category != '' ORDER BY category")) {
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    categories.add(resultSet.getString("category"));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        categories.add(resultSet.getString("category"));
+                    }
                 }
             }
-        }
-        return categories;
+            return categories;
+        });
     }
 }
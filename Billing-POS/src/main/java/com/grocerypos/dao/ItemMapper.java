@@ -0,0 +1,120 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.model.Item;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Maps rows of an items projection to Item objects. Column positions are resolved once
+ * from the result set's metadata; columns the projection leaves out keep Item's defaults.
+ * Create one per result set.
+ */
+public final class ItemMapper {
+    private static final int ABSENT = 0;
+
+    private int id = ABSENT;
+    private int barcode = ABSENT;
+    private int name = ABSENT;
+    private int description = ABSENT;
+    private int price = ABSENT;
+    private int costPrice = ABSENT;
+    private int gstPercentage = ABSENT;
+    private int stockQuantity = ABSENT;
+    private int minStockLevel = ABSENT;
+    private int unit = ABSENT;
+    private int category = ABSENT;
+    private int active = ABSENT;
+    private int createdAt = ABSENT;
+    private int updatedAt = ABSENT;
+
+    public ItemMapper(ResultSet resultSet) throws SQLException {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            switch (metaData.getColumnLabel(column).toLowerCase()) {
+                case "id": id = column; break;
+                case "barcode": barcode = column; break;
+                case "name": name = column; break;
+                case "description": description = column; break;
+                case "price": price = column; break;
+                case "cost_price": costPrice = column; break;
+                case "gst_percentage": gstPercentage = column; break;
+                case "stock_quantity": stockQuantity = column; break;
+                case "min_stock_level": minStockLevel = column; break;
+                case "unit": unit = column; break;
+                case "category": category = column; break;
+                case "is_active": active = column; break;
+                case "created_at": createdAt = column; break;
+                case "updated_at": updatedAt = column; break;
+                default: break;
+            }
+        }
+    }
+
+    /**
+     * Map the current row
+     */
+    public Item map(ResultSet resultSet) throws SQLException {
+        Item item = new Item();
+        if (id != ABSENT) {
+            item.setId(resultSet.getInt(id));
+        }
+        if (barcode != ABSENT) {
+            item.setBarcode(resultSet.getString(barcode));
+        }
+        if (name != ABSENT) {
+            item.setName(resultSet.getString(name));
+        }
+        if (description != ABSENT) {
+            item.setDescription(resultSet.getString(description));
+        }
+
+        // Null-safe BigDecimal mapping with defaults
+        if (price != ABSENT) {
+            item.setPrice(orZero(resultSet.getBigDecimal(price)));
+        }
+        if (costPrice != ABSENT) {
+            item.setCostPrice(orZero(resultSet.getBigDecimal(costPrice)));
+        }
+        if (gstPercentage != ABSENT) {
+            item.setGstPercentage(orZero(resultSet.getBigDecimal(gstPercentage)));
+        }
+
+        if (stockQuantity != ABSENT) {
+            item.setStockQuantity(resultSet.getInt(stockQuantity));
+        }
+        if (minStockLevel != ABSENT) {
+            item.setMinStockLevel(resultSet.getInt(minStockLevel));
+        }
+        if (unit != ABSENT) {
+            String value = resultSet.getString(unit);
+            item.setUnit(value != null ? value : "pcs");
+        }
+        if (category != ABSENT) {
+            item.setCategory(resultSet.getString(category));
+        }
+        if (active != ABSENT) {
+            item.setActive(resultSet.getBoolean(active));
+        }
+        if (createdAt != ABSENT) {
+            Timestamp value = resultSet.getTimestamp(createdAt);
+            if (value != null) {
+                item.setCreatedAt(value.toLocalDateTime());
+            }
+        }
+        if (updatedAt != ABSENT) {
+            Timestamp value = resultSet.getTimestamp(updatedAt);
+            if (value != null) {
+                item.setUpdatedAt(value.toLocalDateTime());
+            }
+        }
+        return item;
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,469 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory search index over item names, categories and barcodes.
+ * Every term of a query must match; results are ranked exact name, name prefix,
+ * word prefix, name substring, then category or barcode, and by name within a rank.
+ * Terms of three or more characters match anywhere in a word, like LIKE '%term%' did;
+ * shorter terms match the start of a name or category word.
+ * <p>
+ * Each rank has its own posting lists, sorted by name, so a search walks the lists
+ * best rank first and stops as soon as it has enough hits; a one-letter query costs
+ * about as much as a full word. Posting lists are immutable arrays replaced on write,
+ * so readers need no locking; writers are expected to be serialised by the owner (ItemCatalog).
+ */
+public class ItemSearchIndex {
+    private static final int GRAM = 3;
+
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_OTHER_FIELD = 4;
+
+    private static final Entry[] NONE = new Entry[0];
+
+    private static final Comparator<Entry> BY_NAME = Comparator.comparing((Entry entry) -> entry.name)
+        .thenComparingInt(entry -> entry.id);
+
+    /**
+     * Posting list families; the ordinal of the first four is the rank of a term found through them
+     */
+    private enum Postings {
+        // Never looked up directly: exact names are found inside the name-prefix lists
+        EXACT,
+        // One- to three-character prefixes of the name
+        NAME_PREFIX,
+        // One- to three-character prefixes of the second and later name words
+        WORD_PREFIX,
+        // Trigrams of every name word
+        NAME_TRIGRAM,
+        // Trigrams of category and barcode words
+        OTHER_TRIGRAM,
+        // One- and two-character prefixes of category words (a barcode is only useful from three digits on)
+        CATEGORY_PREFIX
+    }
+
+    private volatile Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private volatile Map<Postings, Map<String, Entry[]>> postings = emptyPostings();
+
+    /**
+     * A scored match; ids are resolved to items by the caller
+     */
+    public static final class Hit {
+        private final Entry entry;
+        private final int rank;
+
+        Hit(Entry entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+
+        public int getId() {
+            return entry.id;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+    }
+
+    private static final Comparator<Hit> BEST_FIRST = Comparator.comparingInt((Hit hit) -> hit.rank)
+        .thenComparing(hit -> hit.entry, BY_NAME);
+
+    /**
+     * Normalised text of one item, as indexed
+     */
+    private static final class Entry {
+        final int id;
+        final String name;
+        final String category;
+        final String barcode;
+
+        Entry(Item item) {
+            this.id = item.getId();
+            this.name = normalize(item.getName());
+            this.category = normalize(item.getCategory());
+            this.barcode = normalize(item.getBarcode());
+        }
+
+        boolean sameText(Entry other) {
+            return name.equals(other.name) && category.equals(other.category) && barcode.equals(other.barcode);
+        }
+    }
+
+    /**
+     * A normalised query term and its word-start form, built once per search
+     */
+    private static final class Term {
+        final String text;
+        final String wordStart;
+
+        Term(String text) {
+            this.text = text;
+            this.wordStart = " " + text;
+        }
+    }
+
+    private interface KeyConsumer {
+        void accept(Postings family, String key);
+    }
+
+    /**
+     * Replace the whole index; used for the initial catalog load, where per-item puts would copy every posting list
+     */
+    public void rebuild(Collection<Item> items) {
+        Map<Integer, Entry> newEntries = new ConcurrentHashMap<>();
+        List<Entry> sorted = new ArrayList<>(items.size());
+        for (Item item : items) {
+            Entry entry = new Entry(item);
+            newEntries.put(entry.id, entry);
+            sorted.add(entry);
+        }
+        // Posting in name order leaves every list already sorted
+        sorted.sort(BY_NAME);
+
+        Map<Postings, Map<String, List<Entry>>> lists = new EnumMap<>(Postings.class);
+        for (Postings family : Postings.values()) {
+            lists.put(family, new HashMap<>());
+        }
+        for (Entry entry : sorted) {
+            forEachKey(entry, (family, key) -> {
+                List<Entry> list = lists.get(family).computeIfAbsent(key, k -> new ArrayList<>());
+                // A key repeated within one item is posted once
+                if (list.isEmpty() || list.get(list.size() - 1) != entry) {
+                    list.add(entry);
+                }
+            });
+        }
+
+        Map<Postings, Map<String, Entry[]>> newPostings = new EnumMap<>(Postings.class);
+        for (Map.Entry<Postings, Map<String, List<Entry>>> family : lists.entrySet()) {
+            Map<String, Entry[]> arrays = new ConcurrentHashMap<>(family.getValue().size() * 2);
+            for (Map.Entry<String, List<Entry>> list : family.getValue().entrySet()) {
+                arrays.put(list.getKey(), list.getValue().toArray(NONE));
+            }
+            newPostings.put(family.getKey(), arrays);
+        }
+
+        entries = newEntries;
+        postings = newPostings;
+    }
+
+    /**
+     * Index or re-index an item; a no-op when its searchable text has not changed
+     */
+    public void put(Item item) {
+        Entry entry = new Entry(item);
+        Entry previous = entries.get(entry.id);
+        if (previous != null && previous.sameText(entry)) {
+            return;
+        }
+        if (previous != null) {
+            unpost(previous);
+        }
+        forEachKey(entry, (family, key) -> postings.get(family).compute(key, (k, current) -> insert(current, entry)));
+        entries.put(entry.id, entry);
+    }
+
+    public void remove(int id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unpost(previous);
+        }
+    }
+
+    public void clear() {
+        rebuild(Collections.emptyList());
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Best matches for the query, best first; an empty query matches nothing
+     */
+    public List<Hit> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String[] words = normalized.split(" ");
+        Term[] terms = new Term[words.length];
+        for (int i = 0; i < words.length; i++) {
+            terms[i] = new Term(words[i]);
+        }
+        Map<Postings, Map<String, Entry[]>> postings = this.postings;
+
+        // Keep the worst of the current best hits on top so it can be evicted
+        PriorityQueue<Hit> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        for (Entry entry : exactMatches(postings, normalized, terms[0])) {
+            offer(best, new Hit(entry, RANK_EXACT), limit);
+        }
+
+        // Walk the postings of the most selective term; every other term only needs verifying
+        Term driver = terms[0];
+        Entry[][] driverLists = rankLists(postings, driver);
+        for (int i = 1; i < terms.length; i++) {
+            Entry[][] lists = rankLists(postings, terms[i]);
+            if (total(lists) < total(driverLists)) {
+                driver = terms[i];
+                driverLists = lists;
+            }
+        }
+
+        for (int listRank = 1; listRank < driverLists.length; listRank++) {
+            for (Entry entry : driverLists[listRank]) {
+                // Everything from here on ranks no better than this list and sorts after this
+                // entry by name, so once the worst kept hit beats the entry, the search is done
+                if (best.size() == limit && beats(best.peek(), listRank, entry)) {
+                    break;
+                }
+                // Entries reachable through a better list were already seen there
+                if (rankTerm(entry, driver) != listRank || entry.name.equals(normalized)) {
+                    continue;
+                }
+                int rank = rank(entry, terms);
+                if (rank >= 0 && (best.size() < limit || !beats(best.peek(), rank, entry))) {
+                    offer(best, new Hit(entry, rank), limit);
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        return hits;
+    }
+
+    private static boolean beats(Hit hit, int rank, Entry entry) {
+        return hit.rank != rank ? hit.rank < rank : BY_NAME.compare(hit.entry, entry) < 0;
+    }
+
+    private static void offer(PriorityQueue<Hit> best, Hit hit, int limit) {
+        if (best.size() < limit) {
+            best.add(hit);
+        } else if (BEST_FIRST.compare(hit, best.peek()) < 0) {
+            best.poll();
+            best.add(hit);
+        }
+    }
+
+    /**
+     * Items named exactly as the query, found by binary search in the first term's name-prefix list
+     */
+    private static List<Entry> exactMatches(Map<Postings, Map<String, Entry[]>> postings, String normalized, Term first) {
+        Entry[] list = postings.get(Postings.NAME_PREFIX).getOrDefault(prefixKey(first.text), NONE);
+        int low = 0;
+        int high = list.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (list[middle].name.compareTo(normalized) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<Entry> matches = new ArrayList<>(1);
+        for (int i = low; i < list.length && list[i].name.equals(normalized); i++) {
+            matches.add(list[i]);
+        }
+        return matches;
+    }
+
+    /**
+     * The posting list to walk for each rank of this term, indexed by rank (slot 0 unused)
+     */
+    private static Entry[][] rankLists(Map<Postings, Map<String, Entry[]>> postings, Term term) {
+        String text = term.text;
+        Entry[][] lists = new Entry[RANK_OTHER_FIELD + 1][];
+        lists[RANK_EXACT] = NONE;
+        lists[Postings.NAME_PREFIX.ordinal()] = postings.get(Postings.NAME_PREFIX).getOrDefault(prefixKey(text), NONE);
+        lists[Postings.WORD_PREFIX.ordinal()] = postings.get(Postings.WORD_PREFIX).getOrDefault(prefixKey(text), NONE);
+        if (text.length() >= GRAM) {
+            lists[Postings.NAME_TRIGRAM.ordinal()] = smallestTrigramList(postings.get(Postings.NAME_TRIGRAM), text);
+            lists[RANK_OTHER_FIELD] = smallestTrigramList(postings.get(Postings.OTHER_TRIGRAM), text);
+        } else {
+            lists[Postings.NAME_TRIGRAM.ordinal()] = NONE;
+            lists[RANK_OTHER_FIELD] = postings.get(Postings.CATEGORY_PREFIX).getOrDefault(text, NONE);
+        }
+        return lists;
+    }
+
+    private static Entry[] smallestTrigramList(Map<String, Entry[]> trigrams, String text) {
+        Entry[] smallest = null;
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            Entry[] list = trigrams.get(text.substring(i, i + GRAM));
+            if (list == null) {
+                return NONE;
+            }
+            if (smallest == null || list.length < smallest.length) {
+                smallest = list;
+            }
+        }
+        return smallest;
+    }
+
+    private static int total(Entry[][] lists) {
+        int total = 0;
+        for (Entry[] list : lists) {
+            total += list.length;
+        }
+        return total;
+    }
+
+    /**
+     * Rank of the entry for all terms (the worst term decides), or -1 when a term does not match
+     */
+    private static int rank(Entry entry, Term[] terms) {
+        int worst = RANK_EXACT;
+        for (Term term : terms) {
+            int rank = rankTerm(entry, term);
+            if (rank < 0) {
+                return -1;
+            }
+            worst = Math.max(worst, rank);
+        }
+        return worst;
+    }
+
+    /**
+     * Rank of one term against the entry, matching the posting family it would be found through, or -1
+     */
+    private static int rankTerm(Entry entry, Term term) {
+        String name = entry.name;
+        if (name.startsWith(term.text)) {
+            return Postings.NAME_PREFIX.ordinal();
+        }
+        if (name.contains(term.wordStart)) {
+            return Postings.WORD_PREFIX.ordinal();
+        }
+        if (term.text.length() >= GRAM) {
+            if (name.contains(term.text)) {
+                return Postings.NAME_TRIGRAM.ordinal();
+            }
+            return entry.category.contains(term.text) || entry.barcode.contains(term.text) ? RANK_OTHER_FIELD : -1;
+        }
+        return entry.category.startsWith(term.text) || entry.category.contains(term.wordStart) ? RANK_OTHER_FIELD : -1;
+    }
+
+    /**
+     * Every posting key for the entry
+     */
+    private static void forEachKey(Entry entry, KeyConsumer consumer) {
+        String[] nameWords = words(entry.name);
+        for (int w = 0; w < nameWords.length; w++) {
+            String word = nameWords[w];
+            for (int length = 1; length <= GRAM && length <= word.length(); length++) {
+                consumer.accept(w == 0 ? Postings.NAME_PREFIX : Postings.WORD_PREFIX, word.substring(0, length));
+            }
+            forEachTrigram(word, Postings.NAME_TRIGRAM, consumer);
+        }
+        for (String word : words(entry.category)) {
+            for (int length = 1; length < GRAM && length <= word.length(); length++) {
+                consumer.accept(Postings.CATEGORY_PREFIX, word.substring(0, length));
+            }
+            forEachTrigram(word, Postings.OTHER_TRIGRAM, consumer);
+        }
+        for (String word : words(entry.barcode)) {
+            forEachTrigram(word, Postings.OTHER_TRIGRAM, consumer);
+        }
+    }
+
+    private static void forEachTrigram(String word, Postings family, KeyConsumer consumer) {
+        for (int i = 0; i + GRAM <= word.length(); i++) {
+            consumer.accept(family, word.substring(i, i + GRAM));
+        }
+    }
+
+    private static String[] words(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private static String prefixKey(String text) {
+        return text.length() > GRAM ? text.substring(0, GRAM) : text;
+    }
+
+    private void unpost(Entry entry) {
+        forEachKey(entry, (family, key) -> postings.get(family).computeIfPresent(key, (k, current) -> without(current, entry)));
+    }
+
+    private static Map<Postings, Map<String, Entry[]>> emptyPostings() {
+        Map<Postings, Map<String, Entry[]>> empty = new EnumMap<>(Postings.class);
+        for (Postings family : Postings.values()) {
+            empty.put(family, new ConcurrentHashMap<>());
+        }
+        return empty;
+    }
+
+    private static Entry[] insert(Entry[] current, Entry entry) {
+        if (current == null) {
+            return new Entry[]{entry};
+        }
+        int position = Arrays.binarySearch(current, entry, BY_NAME);
+        if (position >= 0) {
+            // A word repeated within the item posts the same key twice
+            return current;
+        }
+        position = -position - 1;
+        Entry[] updated = new Entry[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, position);
+        updated[position] = entry;
+        System.arraycopy(current, position, updated, position + 1, current.length - position);
+        return updated;
+    }
+
+    /**
+     * The posting list without this entry, or null (dropping the key) when it was the last one
+     */
+    private static Entry[] without(Entry[] current, Entry entry) {
+        int position = Arrays.binarySearch(current, entry, BY_NAME);
+        if (position < 0) {
+            return current;
+        }
+        if (current.length == 1) {
+            return null;
+        }
+        Entry[] updated = new Entry[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, position);
+        System.arraycopy(current, position + 1, updated, position, current.length - position - 1);
+        return updated;
+    }
+
+    /**
+     * Lower case, with anything other than letters and digits collapsed to single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+}
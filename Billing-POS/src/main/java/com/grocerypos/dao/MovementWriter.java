@@ -0,0 +1,312 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.SqlErrors;
+import com.grocerypos.model.InventoryMovement;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer for inventory movements that nobody needs the id of. Movements are queued
+ * and written by one thread as a single transaction per batch, flushed when movements.batchSize
+ * rows are waiting or movements.flushInterval ms after the first one arrived. The queue is
+ * bounded: when the database falls behind, {@link #submit} blocks instead of growing without
+ * limit. A batch is retried while the database is unreachable or loses a lock conflict. Any other
+ * failure is narrowed down row by row, and the rows the database refuses (e.g. an item deleted
+ * since) are written to movements.deadletter.log in movements.dir instead, as are rows still
+ * unwritten when the shutdown hook's final flush fails.
+ */
+public final class MovementWriter {
+    private static MovementWriter instance;
+
+    private final InventoryMovementDAO inventoryMovementDAO;
+    private final BlockingQueue<InventoryMovement> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Path deadLetterLog;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Submitted and handled (written or dead-lettered) counts; flush() waits for the second to catch up with the first
+    private final Object progress = new Object();
+    private long submitted;
+    private long handled;
+
+    // Metrics
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    MovementWriter(InventoryMovementDAO inventoryMovementDAO, int queueSize, int batchSize, long flushIntervalMillis,
+                   Path deadLetterLog) {
+        this.inventoryMovementDAO = inventoryMovementDAO;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.deadLetterLog = deadLetterLog;
+        this.thread = new Thread(this::run, "movement-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * The process-wide writer, started on first use
+     */
+    public static synchronized MovementWriter getInstance() {
+        if (instance == null) {
+            String configured = DBUtil.getProperty("movements.dir", "");
+            Path directory = configured.trim().isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".grocerypos", "movements")
+                : Paths.get(configured.trim());
+            instance = new MovementWriter(new InventoryMovementDAO(),
+                DBUtil.getIntProperty("movements.queueSize", 10000),
+                DBUtil.getIntProperty("movements.batchSize", 500),
+                DBUtil.getIntProperty("movements.flushInterval", 200),
+                directory.resolve("movements.deadletter.log"));
+        }
+        return instance;
+    }
+
+    /**
+     * Write what the process-wide writer still holds, if it was started. Called by {@link DBUtil#shutdown()}
+     * before the pool closes, so the last movements still get a connection.
+     */
+    public static synchronized void shutdownShared() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+
+    /**
+     * Queue a movement; blocks while the queue is full
+     */
+    public void submit(InventoryMovement movement) throws SQLException {
+        if (!running) {
+            throw new SQLException("Movement writer is shut down");
+        }
+        synchronized (progress) {
+            submitted++;
+        }
+        try {
+            queue.put(movement);
+        } catch (InterruptedException e) {
+            synchronized (progress) {
+                submitted--;
+            }
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the movement writer", e);
+        }
+    }
+
+    /**
+     * Queue many movements, e.g. the whole of a stock take
+     */
+    public void submitAll(List<InventoryMovement> movements) throws SQLException {
+        for (InventoryMovement movement : movements) {
+            submit(movement);
+        }
+    }
+
+    /**
+     * Wait until everything submitted before this call is in the database or the dead-letter log
+     * @return false if it was not handled within the timeout
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            long target = submitted;
+            while (handled < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getFailedBatchCount() {
+        return failedBatches.get();
+    }
+
+    /**
+     * Movements the database refused, or that were still unwritten at shutdown, logged instead of written
+     */
+    public long getDeadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    public Path getDeadLetterLog() {
+        return deadLetterLog;
+    }
+
+    /**
+     * Stop taking movements and write what is queued, waiting up to ten seconds
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            thread.join(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty()) {
+            System.err.println("Movement writer stopped with " + queue.size() + " inventory movements not written");
+        }
+    }
+
+    private void run() {
+        List<InventoryMovement> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                InventoryMovement first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // Only shutdown interrupts us; the loop drains whatever is left
+                running = false;
+            } catch (Throwable e) {
+                // Keep the thread alive whatever happened: without it every submit() blocks once the queue is full
+                System.err.println("Movement writer failed on a batch of " + batch.size() + ": " + e);
+                e.printStackTrace();
+                deadLetter(batch, e.toString());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Fill the batch until it is full or the flush interval since its first movement has passed
+     */
+    private void collect(List<InventoryMovement> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            InventoryMovement next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<InventoryMovement> batch) throws InterruptedException {
+        long backOffMillis = 100;
+        while (true) {
+            try {
+                inventoryMovementDAO.insertAll(batch);
+                batches.incrementAndGet();
+                written.addAndGet(batch.size());
+                completed(batch.size());
+                return;
+            } catch (SQLException e) {
+                failedBatches.incrementAndGet();
+                if (!SqlErrors.isTransient(e)) {
+                    writeEach(batch, "SQLState " + e.getSQLState() + ", error " + e.getErrorCode() + ": " + e.getMessage());
+                    return;
+                }
+                if (!running) {
+                    deadLetter(batch, "database unavailable at shutdown: " + e.getMessage());
+                    return;
+                }
+                System.err.println("Failed to write " + batch.size() + " inventory movements, retrying in "
+                    + backOffMillis + " ms: " + e.getMessage());
+                Thread.sleep(backOffMillis);
+                backOffMillis = Math.min(backOffMillis * 2, 5000);
+            } catch (RuntimeException e) {
+                failedBatches.incrementAndGet();
+                writeEach(batch, e.toString());
+                return;
+            }
+        }
+    }
+
+    /**
+     * A batch failed in a way retrying will not fix: write its rows one at a time, so only the ones at fault are set aside
+     */
+    private void writeEach(List<InventoryMovement> batch, String reason) throws InterruptedException {
+        if (batch.size() == 1) {
+            deadLetter(batch, reason);
+            return;
+        }
+        for (InventoryMovement movement : batch) {
+            write(Collections.singletonList(movement));
+        }
+    }
+
+    /**
+     * Append the movements to the dead-letter log, one line each with the reason, so they can be entered by hand
+     */
+    private void deadLetter(List<InventoryMovement> movements, String reason) {
+        StringBuilder lines = new StringBuilder();
+        String cause = reason.replaceAll("\\s*\\R\\s*", " ");
+        for (InventoryMovement movement : movements) {
+            lines.append(LocalDateTime.now())
+                .append(" item=").append(movement.getItemId())
+                .append(" type=").append(movement.getMovementType())
+                .append(" change=").append(movement.getQuantityChange())
+                .append(" previous=").append(movement.getPreviousStock())
+                .append(" new=").append(movement.getNewStock())
+                .append(" reference=").append(movement.getReferenceType()).append(':').append(movement.getReferenceId())
+                .append(" user=").append(movement.getUserId())
+                .append(" notes=\"").append(movement.getNotes()).append('"')
+                .append(" reason=").append(cause)
+                .append(System.lineSeparator());
+        }
+        try {
+            Files.createDirectories(deadLetterLog.getParent());
+            Files.write(deadLetterLog, lines.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            System.err.println("Set aside " + movements.size() + " inventory movements in " + deadLetterLog + ": " + cause);
+        } catch (IOException e) {
+            System.err.print("Could not write the movement dead-letter log " + deadLetterLog + " (" + e.getMessage()
+                + "), lost movements:" + System.lineSeparator() + lines);
+        }
+        deadLettered.addAndGet(movements.size());
+        completed(movements.size());
+    }
+
+    private void completed(int count) {
+        synchronized (progress) {
+            handled += count;
+            progress.notifyAll();
+        }
+    }
+}
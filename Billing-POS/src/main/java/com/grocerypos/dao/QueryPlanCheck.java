@@ -0,0 +1,117 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Regression check for the time-window queries against the configured MySQL database.
+ * Each query is EXPLAINed with a one-day window; a full table scan (type ALL) with no
+ * usable index means a predicate stopped being sargable, and the check exits with status 1.
+ * Usage: QueryPlanCheck
+ */
+public class QueryPlanCheck {
+
+    private static final LocalDate DAY = LocalDate.now().minusDays(1);
+    private static final Timestamp START = Timestamp.valueOf(DAY.atStartOfDay());
+    private static final Timestamp END = Timestamp.valueOf(DAY.plusDays(1).atStartOfDay());
+
+    /**
+     * A query to EXPLAIN and how to bind its parameters
+     */
+    private interface Binder {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    private static final class PlannedQuery {
+        final String name;
+        final String sql;
+        final Binder binder;
+
+        PlannedQuery(String name, String sql, Binder binder) {
+            this.name = name;
+            this.sql = sql;
+            this.binder = binder;
+        }
+    }
+
+    public static void main(String[] args) {
+        List<PlannedQuery> queries = new ArrayList<>();
+        queries.add(new PlannedQuery("BillDAO.findByDateRange", BillDAO.FIND_BY_DATE_RANGE, QueryPlanCheck::bindRange));
+        queries.add(new PlannedQuery("BillDAO.findHeadersByDateRange", BillDAO.FIND_HEADERS_BY_DATE_RANGE, QueryPlanCheck::bindRange));
+        queries.add(new PlannedQuery("BillDAO.getMonthlySales", BillDAO.GET_SALES_BY_MONTH, QueryPlanCheck::bindRange));
+        queries.add(new PlannedQuery("BillDAO.findTopSellingItems", BillDAO.FIND_TOP_SELLING_ITEMS, statement -> {
+            bindRange(statement);
+            statement.setInt(3, 5);
+        }));
+        queries.add(new PlannedQuery("BillDAO.findUnitsSoldSince", BillDAO.FIND_UNITS_SOLD_SINCE,
+            statement -> statement.setTimestamp(1, START)));
+        queries.add(new PlannedQuery("InventoryMovementDAO.findByDateRange", InventoryMovementDAO.FIND_BY_DATE_RANGE, QueryPlanCheck::bindRange));
+        queries.add(new PlannedQuery("ReportExportDAO.openSales", ReportExportDAO.STREAM_SALES, QueryPlanCheck::bindRange));
+        queries.add(new PlannedQuery("SalesRollupDAO.findDailyTotals", SalesRollupDAO.FIND_DAILY_TOTALS, statement -> {
+            statement.setDate(1, Date.valueOf(DAY));
+            statement.setDate(2, Date.valueOf(DAY));
+        }));
+
+        int failures = 0;
+        try (Connection connection = DBUtil.getConnection()) {
+            System.out.println(String.format("%-40s %-22s %-8s %-24s %s", "query", "table", "type", "key", "verdict"));
+            for (PlannedQuery query : queries) {
+                failures += explain(connection, query);
+            }
+        } catch (SQLException e) {
+            System.err.println("Database error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(2);
+        }
+
+        if (failures > 0) {
+            System.err.println(failures + " full table scan(s) without a usable index");
+            System.exit(1);
+        }
+        System.out.println("All time-window queries use an index");
+        System.exit(0);
+    }
+
+    private static int explain(Connection connection, PlannedQuery query) throws SQLException {
+        int failures = 0;
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.sql)) {
+            query.binder.bind(statement);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    String table = resultSet.getString("table");
+                    String type = resultSet.getString("type");
+                    String possibleKeys = resultSet.getString("possible_keys");
+                    String key = resultSet.getString("key");
+
+                    String verdict = "ok";
+                    if ("ALL".equals(type)) {
+                        // A scan the optimiser chose over a usable index (tiny lookup tables) is not a regression
+                        if (possibleKeys == null) {
+                            verdict = "FULL SCAN";
+                            failures++;
+                        } else {
+                            verdict = "scan, could use " + possibleKeys;
+                        }
+                    }
+                    System.out.println(String.format("%-40s %-22s %-8s %-24s %s",
+                        query.name, table, type, key != null ? key : "-", verdict));
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static void bindRange(PreparedStatement statement) throws SQLException {
+        statement.setTimestamp(1, START);
+        statement.setTimestamp(2, END);
+    }
+}
@@ -0,0 +1,128 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+/**
+ * Forward-only cursors for report exports. Rows are read from the server as they are
+ * consumed instead of being loaded into a list, so an export of any size holds one row at a time.
+ */
+public class ReportExportDAO {
+
+    // Column order is part of the contract: ReportExporter reads these by position
+    static final String STREAM_SALES =
+        "SELECT b.created_at, b.bill_number, b.customer_name, " +
+        "(SELECT COALESCE(SUM(bi.quantity), 0) FROM bill_items bi WHERE bi.bill_id = b.id), " +
+        "b.subtotal, b.gst_amount, b.total_amount, b.payment_method " +
+        "FROM bills b WHERE b.created_at >= ? AND b.created_at < ? ORDER BY b.created_at";
+
+    private static final String COUNT_SALES =
+        "SELECT COUNT(*) FROM bills WHERE created_at >= ? AND created_at < ?";
+
+    // Walks idx_active_name
+    private static final String STREAM_STOCK =
+        "SELECT name, barcode, stock_quantity, min_stock_level, category " +
+        "FROM items WHERE is_active = TRUE ORDER BY name, id";
+
+    // Rows per round-trip for drivers that do not stream row by row
+    private static final int FETCH_SIZE = 1000;
+
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.register(COUNT_SALES);
+    }
+
+    /**
+     * An open result set and the connection it streams on; close it to release both
+     */
+    public static final class Cursor implements AutoCloseable {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final ResultSet resultSet;
+        private boolean exhausted;
+
+        Cursor(Connection connection, PreparedStatement statement, ResultSet resultSet) {
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        public boolean next() throws SQLException {
+            boolean hasRow = resultSet.next();
+            exhausted = !hasRow;
+            return hasRow;
+        }
+
+        /**
+         * The current row
+         */
+        public ResultSet row() {
+            return resultSet;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (!exhausted) {
+                    // Closing a MySQL stream early reads the rest of it; cancelling the query skips that
+                    statement.cancel();
+                }
+                resultSet.close();
+                statement.close();
+            } finally {
+                connection.close();
+            }
+        }
+    }
+
+    /**
+     * Bills created in [start, end), oldest first: created_at, bill_number, customer_name,
+     * total quantity, subtotal, gst_amount, total_amount, payment_method
+     */
+    public Cursor openSales(LocalDateTime start, LocalDateTime end) throws SQLException {
+        return open(STREAM_SALES, Timestamp.valueOf(start), Timestamp.valueOf(end));
+    }
+
+    public int countSales(LocalDateTime start, LocalDateTime end) throws SQLException {
+        try (Connection connection = DBUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement(COUNT_SALES)) {
+            statement.setTimestamp(1, Timestamp.valueOf(start));
+            statement.setTimestamp(2, Timestamp.valueOf(end));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Active items by name: name, barcode, stock_quantity, min_stock_level, category
+     */
+    public Cursor openStock() throws SQLException {
+        return open(STREAM_STOCK);
+    }
+
+    private Cursor open(String sql, Object... parameters) throws SQLException {
+        Connection connection = DBUtil.getConnection();
+        PreparedStatement statement = null;
+        try {
+            // Not through the statement cache: the fetch size and streaming state belong to this export only
+            statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams row by row only for Integer.MIN_VALUE; other drivers reject it
+            boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+            statement.setFetchSize(mysql ? Integer.MIN_VALUE : FETCH_SIZE);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return new Cursor(connection, statement, statement.executeQuery());
+        } catch (SQLException | RuntimeException e) {
+            if (statement != null) {
+                statement.close();
+            }
+            connection.close();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.grocerypos.dao;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.DailySales;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for the daily_sales_rollup table.
+ * Checkout adds each bill to its (day, cashier, payment method) row in the same
+ * transaction, so sales summaries read a row per day instead of scanning bills.
+ */
+public class SalesRollupDAO {
+
+    private static final String ADD_BILL =
+        "INSERT INTO daily_sales_rollup (sale_date, cashier_id, payment_method, bill_count, " +
+        "gross_amount, gst_amount, discount_amount) VALUES (?, ?, ?, 1, ?, ?, ?) " +
+        "ON DUPLICATE KEY UPDATE bill_count = bill_count + 1, " +
+        "gross_amount = gross_amount + VALUES(gross_amount), " +
+        "gst_amount = gst_amount + VALUES(gst_amount), " +
+        "discount_amount = discount_amount + VALUES(discount_amount)";
+
+    // Package-private so QueryPlanCheck can EXPLAIN it
+    static final String FIND_DAILY_TOTALS =
+        "SELECT sale_date, SUM(bill_count) as bill_count, SUM(gross_amount) as gross_amount, " +
+        "SUM(gst_amount) as gst_amount, SUM(discount_amount) as discount_amount " +
+        "FROM daily_sales_rollup WHERE sale_date BETWEEN ? AND ? GROUP BY sale_date ORDER BY sale_date";
+
+    private static final String FIND_PAYMENT_METHOD_COUNTS =
+        "SELECT payment_method, SUM(bill_count) as bill_count " +
+        "FROM daily_sales_rollup WHERE sale_date BETWEEN ? AND ? GROUP BY payment_method";
+
+    private static final String DELETE_RANGE =
+        "DELETE FROM daily_sales_rollup WHERE sale_date BETWEEN ? AND ?";
+
+    // One local day at a time, so sale_date matches the till's calendar rather than the server's time zone
+    private static final String REBUILD_DAY =
+        "INSERT INTO daily_sales_rollup (sale_date, cashier_id, payment_method, bill_count, " +
+        "gross_amount, gst_amount, discount_amount) " +
+        "SELECT ?, cashier_id, payment_method, COUNT(*), SUM(total_amount), " +
+        "COALESCE(SUM(gst_amount), 0), COALESCE(SUM(discount_amount), 0) " +
+        "FROM bills WHERE created_at >= ? AND created_at < ? GROUP BY cashier_id, payment_method";
+
+    private static final String FIND_BILL_DATE_RANGE =
+        "SELECT MIN(created_at) as first_bill, MAX(created_at) as last_bill FROM bills";
+
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.register(ADD_BILL, FIND_DAILY_TOTALS, FIND_PAYMENT_METHOD_COUNTS);
+    }
+
+    /**
+     * Add a bill to its rollup row on the caller's connection; the caller owns the transaction
+     */
+    public void addBill(Bill bill, Connection connection) throws SQLException {
+        LocalDate saleDate = bill.getCreatedAt() != null ? bill.getCreatedAt().toLocalDate() : LocalDate.now();
+
+        try (PreparedStatement statement = connection.prepareStatement(ADD_BILL)) {
+            statement.setDate(1, Date.valueOf(saleDate));
+            statement.setInt(2, bill.getCashierId());
+            statement.setString(3, bill.getPaymentMethod().name());
+            statement.setBigDecimal(4, bill.getTotalAmount());
+            statement.setBigDecimal(5, orZero(bill.getGstAmount()));
+            statement.setBigDecimal(6, orZero(bill.getDiscountAmount()));
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Totals per day across all cashiers and payment methods, for the inclusive date range; days without sales are omitted
+     */
+    public List<DailySales> findDailyTotals(LocalDate startDate, LocalDate endDate) throws SQLException {
+        List<DailySales> days = new ArrayList<>();
+        try (Connection connection = DBUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_DAILY_TOTALS)) {
+
+            statement.setDate(1, Date.valueOf(startDate));
+            statement.setDate(2, Date.valueOf(endDate));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    days.add(new DailySales(
+                        resultSet.getDate("sale_date").toLocalDate(),
+                        resultSet.getInt("bill_count"),
+                        resultSet.getBigDecimal("gross_amount"),
+                        resultSet.getBigDecimal("gst_amount"),
+                        resultSet.getBigDecimal("discount_amount")));
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Totals for a single day
+     */
+    public DailySales findDailyTotals(LocalDate date) throws SQLException {
+        List<DailySales> days = findDailyTotals(date, date);
+        return days.isEmpty() ? DailySales.empty(date) : days.get(0);
+    }
+
+    /**
+     * Bills per payment method for the inclusive date range; every method is present, unused ones with 0
+     */
+    public Map<Bill.PaymentMethod, Integer> findPaymentMethodCounts(LocalDate startDate, LocalDate endDate) throws SQLException {
+        Map<Bill.PaymentMethod, Integer> counts = new EnumMap<>(Bill.PaymentMethod.class);
+        for (Bill.PaymentMethod method : Bill.PaymentMethod.values()) {
+            counts.put(method, 0);
+        }
+
+        try (Connection connection = DBUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_PAYMENT_METHOD_COUNTS)) {
+
+            statement.setDate(1, Date.valueOf(startDate));
+            statement.setDate(2, Date.valueOf(endDate));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    counts.put(Bill.PaymentMethod.valueOf(resultSet.getString("payment_method")), resultSet.getInt("bill_count"));
+                }
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Recompute the rollup rows for the inclusive date range from the bills table
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) throws SQLException {
+        int rows = 0;
+        try (Connection connection = DBUtil.getConnection(false)) {
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(DELETE_RANGE)) {
+                    statement.setDate(1, Date.valueOf(startDate));
+                    statement.setDate(2, Date.valueOf(endDate));
+                    statement.executeUpdate();
+                }
+
+                try (PreparedStatement statement = connection.prepareStatement(REBUILD_DAY)) {
+                    for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                        statement.setDate(1, Date.valueOf(day));
+                        statement.setTimestamp(2, Timestamp.valueOf(day.atStartOfDay()));
+                        statement.setTimestamp(3, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+                        rows += statement.executeUpdate();
+                    }
+                }
+
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Recompute the rollup for every day that has bills
+     */
+    public int rebuildAll() throws SQLException {
+        Timestamp firstBill;
+        Timestamp lastBill;
+        try (Connection connection = DBUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BILL_DATE_RANGE);
+             ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            firstBill = resultSet.getTimestamp("first_bill");
+            lastBill = resultSet.getTimestamp("last_bill");
+        }
+
+        if (firstBill == null) {
+            return 0;
+        }
+        return rebuild(firstBill.toLocalDateTime().toLocalDate(), lastBill.toLocalDateTime().toLocalDate());
+    }
+
+    private static BigDecimal orZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+}
@@ -1,6 +1,8 @@
 package com.grocerypos.dao;
 
 import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.StatementCache;
+import com.grocerypos.metrics.DaoMetrics;
 import com.grocerypos.model.User;
 
 import java.sql.*;
@@ -37,195 +39,224 @@ public class UserDAO {
     
     private static final String FIND_ACTIVE_USERS = "SELECT * FROM users WHERE is_active=true ORDER BY full_name";
 
+    // Prepared up front on every pooled connection
+    static {
+        StatementCache.registerReturningKeys(INSERT_USER);
+        StatementCache.register(UPDATE_USER, DELETE_USER, FIND_BY_ID, FIND_BY_USERNAME, FIND_ALL,
+            FIND_BY_ROLE, AUTHENTICATE, UPDATE_PASSWORD, FIND_ACTIVE_USERS);
+    }
+
     /**
      * Insert a new user
      */
     public int insert(User user) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
-            
-            statement.setString(1, user.getUsername());
-            statement.setString(2, user.getPasswordHash());
-            statement.setString(3, user.getFullName());
-            statement.setString(4, user.getRole().name());
-            statement.setBoolean(5, user.isActive());
-            
-            int affectedRows = statement.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating user failed, no rows affected.");
-            }
+        return DaoMetrics.time("UserDAO.insert", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(INSERT_USER, Statement.RETURN_GENERATED_KEYS)) {
+            
+                statement.setString(1, user.getUsername());
+                statement.setString(2, user.getPasswordHash());
+                statement.setString(3, user.getFullName());
+                statement.setString(4, user.getRole().name());
+                statement.setBoolean(5, user.isActive());
             
-            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating user failed, no ID obtained.");
+                int affectedRows = statement.executeUpdate();
+                if (affectedRows == 0) {
+                    throw new SQLException("Creating user failed, no rows affected.");
+                }
+            
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getInt(1);
+                    } else {
+                        throw new SQLException("Creating user failed, no ID obtained.");
+                    }
                 }
             }
-        }
+        });
     }
 
     /**
      * Update an existing user
      */
     public boolean update(User user) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_USER)) {
+        return DaoMetrics.time("UserDAO.update", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(UPDATE_USER)) {
             
-            statement.setString(1, user.getUsername());
-            statement.setString(2, user.getPasswordHash());
-            statement.setString(3, user.getFullName());
-            statement.setString(4, user.getRole().name());
-            statement.setBoolean(5, user.isActive());
-            statement.setInt(6, user.getId());
+                statement.setString(1, user.getUsername());
+                statement.setString(2, user.getPasswordHash());
+                statement.setString(3, user.getFullName());
+                statement.setString(4, user.getRole().name());
+                statement.setBoolean(5, user.isActive());
+                statement.setInt(6, user.getId());
             
-            return statement.executeUpdate() > 0;
-        }
+                return statement.executeUpdate() > 0;
+            }
+        });
     }
 
     /**
      * Delete a user (soft delete)
      */
     public boolean delete(int id) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(DELETE_USER)) {
+        return DaoMetrics.time("UserDAO.delete", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(DELETE_USER)) {
             
-            statement.setInt(1, id);
-            return statement.executeUpdate() > 0;
-        }
+                statement.setInt(1, id);
+                return statement.executeUpdate() > 0;
+            }
+        });
     }
 
     /**
      * Find user by ID
      */
     public User findById(int id) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
+        return DaoMetrics.time("UserDAO.findById", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ID)) {
             
-            statement.setInt(1, id);
+                statement.setInt(1, id);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return mapResultSetToUser(resultSet);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return mapResultSetToUser(resultSet);
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
     }
 
     /**
      * Find user by username
      */
     public User findByUsername(String username) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_USERNAME)) {
+        return DaoMetrics.time("UserDAO.findByUsername", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_USERNAME)) {
             
-            statement.setString(1, username);
+                statement.setString(1, username);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return mapResultSetToUser(resultSet);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return mapResultSetToUser(resultSet);
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
     }
 
     /**
      * Find all users
      */
     public List<User> findAll() throws SQLException {
-        List<User> users = new ArrayList<>();
+        return DaoMetrics.time("UserDAO.findAll", () -> {
+            List<User> users = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_ALL);
-             ResultSet resultSet = statement.executeQuery()) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_ALL);
+                 ResultSet resultSet = statement.executeQuery()) {
             
-            while (resultSet.next()) {
-                users.add(mapResultSetToUser(resultSet));
+                while (resultSet.next()) {
+                    users.add(mapResultSetToUser(resultSet));
+                }
             }
-        }
         
-        return users;
+            return users;
+        });
     }
 
     /**
      * Find users by role
      */
     public List<User> findByRole(User.Role role) throws SQLException {
-        List<User> users = new ArrayList<>();
+        return DaoMetrics.time("UserDAO.findByRole", () -> {
+            List<User> users = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_BY_ROLE)) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_BY_ROLE)) {
             
-            statement.setString(1, role.name());
+                statement.setString(1, role.name());
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                while (resultSet.next()) {
-                    users.add(mapResultSetToUser(resultSet));
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        users.add(mapResultSetToUser(resultSet));
+                    }
                 }
             }
-        }
         
-        return users;
+            return users;
+        });
     }
 
     /**
      * Authenticate user with username and password
      */
     public User authenticate(String username, String passwordHash) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(AUTHENTICATE)) {
+        return DaoMetrics.time("UserDAO.authenticate", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(AUTHENTICATE)) {
             
-            statement.setString(1, username);
-            statement.setString(2, passwordHash);
+                statement.setString(1, username);
+                statement.setString(2, passwordHash);
             
-            try (ResultSet resultSet = statement.executeQuery()) {
-                if (resultSet.next()) {
-                    return mapResultSetToUser(resultSet);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return mapResultSetToUser(resultSet);
+                    }
+                    return null;
                 }
-                return null;
             }
-        }
+        });
     }
 
     /**
      * Update user password
      */
     public boolean updatePassword(int userId, String newPasswordHash) throws SQLException {
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(UPDATE_PASSWORD)) {
+        return DaoMetrics.time("UserDAO.updatePassword", () -> {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(UPDATE_PASSWORD)) {
             
-            statement.setString(1, newPasswordHash);
-            statement.setInt(2, userId);
+                statement.setString(1, newPasswordHash);
+                statement.setInt(2, userId);
             
-            return statement.executeUpdate() > 0;
-        }
+                return statement.executeUpdate() > 0;
+            }
+        });
     }
 
     /**
      * Find all active users
      */
     public List<User> findActiveUsers() throws SQLException {
-        List<User> users = new ArrayList<>();
+        return DaoMetrics.time("UserDAO.findActiveUsers", () -> {
+            List<User> users = new ArrayList<>();
         
-        try (Connection connection = DBUtil.getConnection();
-             PreparedStatement statement = connection.prepareStatement(FIND_ACTIVE_USERS);
-             ResultSet resultSet = statement.executeQuery()) {
+            try (Connection connection = DBUtil.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(FIND_ACTIVE_USERS);
+                 ResultSet resultSet = statement.executeQuery()) {
             
-            while (resultSet.next()) {
-                users.add(mapResultSetToUser(resultSet));
+                while (resultSet.next()) {
+                    users.add(mapResultSetToUser(resultSet));
+                }
             }
-        }
         
-        return users;
+            return users;
+        });
     }
 
     /**
      * Check if username exists
      */
     public boolean usernameExists(String username) throws SQLException {
-        return findByUsername(username) != null;
+        return DaoMetrics.time("UserDAO.usernameExists", () -> {
+            return findByUsername(username) != null;
+        });
     }
 
     /**
@@ -0,0 +1,535 @@
+package com.grocerypos.database;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Lightweight JDBC connection pool used behind {@link DBUtil#getConnection()}.
+ * Connections handed out are proxies whose close() returns the physical
+ * connection to the pool instead of closing the socket.
+ */
+public class ConnectionPool implements DataSource {
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxActive;
+    private final int maxIdle;
+    private final int minIdle;
+    private final long maxWaitMillis;
+    private final int validationTimeoutSeconds;
+    private final long validationIntervalMillis;
+    private final long leakDetectionThresholdMillis;
+    private final int statementCacheSize;
+
+    private final LinkedBlockingDeque<PooledConnection> idleConnections = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowedConnections = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+
+    public ConnectionPool(String url, Properties connectionProperties, int initialSize, int maxActive,
+                          int maxIdle, int minIdle, long maxWaitMillis, int validationTimeoutSeconds,
+                          long validationIntervalMillis, long leakDetectionThresholdMillis, int statementCacheSize) {
+        if (maxActive <= 0) {
+            throw new IllegalArgumentException("maxActive must be positive");
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.maxActive = maxActive;
+        this.maxIdle = Math.max(0, Math.min(maxIdle, maxActive));
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxIdle));
+        this.maxWaitMillis = maxWaitMillis;
+        this.validationTimeoutSeconds = Math.max(1, validationTimeoutSeconds);
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxActive, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 5, 5, TimeUnit.SECONDS);
+
+        // Best effort: the application still starts if MySQL is not reachable yet
+        try {
+            fill(Math.min(Math.max(initialSize, this.minIdle), this.maxIdle));
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not open initial connections: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Borrow a connection, waiting up to maxWait for one to become available
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            // 08003, connection does not exist: a connection error, not one of the statement
+            throw new SQLNonTransientConnectionException("Connection pool is closed", "08003");
+        }
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLTimeoutException("Timed out after " + maxWaitMillis + " ms waiting for a database connection ("
+                + borrowedConnections.size() + " of " + maxActive + " in use)");
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = createConnection();
+            }
+            pooled.markBorrowed(leakDetectionThresholdMillis > 0);
+            borrowedConnections.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    /**
+     * Snapshot of the pool counters
+     */
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        return new PoolStats(
+            borrowedConnections.size(),
+            idleConnections.size(),
+            totalConnections.get(),
+            maxActive,
+            borrows,
+            timeoutCount.get(),
+            borrows == 0 ? 0.0 : totalWaitNanos.get() / (double) borrows / 1_000_000.0,
+            maxWaitNanos.get() / 1_000_000.0,
+            validationFailures.get(),
+            leakCount.get(),
+            createdCount.get(),
+            destroyedCount.get()
+        );
+    }
+
+    /**
+     * Close all idle connections and refuse further borrows
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.poll()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Prepare the registered statements on every idle connection
+     */
+    public void warmUpStatements() {
+        List<PooledConnection> warmed = new ArrayList<>();
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollLast()) != null) {
+            pooled.statementCache.warmUp();
+            warmed.add(pooled);
+        }
+        // Re-queue in the original order so the LIFO rotation is unchanged
+        for (PooledConnection connection : warmed) {
+            idleConnections.offerFirst(connection);
+        }
+    }
+
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idleConnections.pollFirst()) != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            validationFailures.incrementAndGet();
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsedAt < validationIntervalMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection createConnection() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        totalConnections.incrementAndGet();
+        createdCount.incrementAndGet();
+        PooledConnection pooled = new PooledConnection(physical);
+        pooled.statementCache.warmUp();
+        return pooled;
+    }
+
+    private void release(PooledConnection pooled) {
+        borrowedConnections.remove(pooled);
+        try {
+            if (closed || pooled.broken || !pooled.resetState() || idleConnections.size() >= maxIdle) {
+                destroy(pooled);
+            } else {
+                // LIFO keeps the most recently used (warmest) connections in rotation
+                idleConnections.offerFirst(pooled);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.incrementAndGet();
+        pooled.statementCache.closeAll();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Connection is being discarded anyway
+        }
+    }
+
+    private void fill(int targetIdle) throws SQLException {
+        while (!closed && idleConnections.size() < targetIdle && totalConnections.get() < maxActive) {
+            PooledConnection pooled = createConnection();
+            pooled.lastUsedAt = System.currentTimeMillis();
+            idleConnections.offerLast(pooled);
+        }
+    }
+
+    private void housekeep() {
+        detectLeaks();
+        try {
+            fill(minIdle);
+        } catch (SQLException e) {
+            // Database unavailable; retried on the next run
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakDetectionThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : borrowedConnections) {
+            if (!pooled.leakReported && now - pooled.borrowedAt > leakDetectionThresholdMillis) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for " + (now - pooled.borrowedAt)
+                    + " ms by thread " + pooled.borrowerThread);
+                if (pooled.borrowTrace != null) {
+                    pooled.borrowTrace.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    // DataSource boilerplate
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return DriverManager.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        DriverManager.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection plus the proxy handed to callers
+     */
+    private final class PooledConnection implements InvocationHandler {
+        private final Connection physical;
+        private final Connection proxy;
+        private final StatementCache statementCache;
+        private volatile long lastUsedAt;
+        private volatile long borrowedAt;
+        private volatile String borrowerThread;
+        private volatile Throwable borrowTrace;
+        private volatile boolean leakReported;
+        private volatile boolean logicallyClosed = true;
+        private volatile boolean broken;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+            this.statementCache = new StatementCache(physical, proxy, statementCacheSize);
+        }
+
+        void markBorrowed(boolean captureTrace) {
+            borrowedAt = System.currentTimeMillis();
+            borrowerThread = Thread.currentThread().getName();
+            borrowTrace = captureTrace ? new Throwable("Connection borrowed here") : null;
+            leakReported = false;
+            logicallyClosed = false;
+        }
+
+        /**
+         * Undo per-borrow state so the next borrower gets a clean connection
+         */
+        boolean resetState() {
+            try {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                physical.clearWarnings();
+                lastUsedAt = System.currentTimeMillis();
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!logicallyClosed) {
+                        logicallyClosed = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return logicallyClosed || physical.isClosed();
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "PooledConnection[" + physical + "]";
+                default:
+                    break;
+            }
+
+            if (logicallyClosed) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                if (isCacheablePrepare(method)) {
+                    int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                    return statementCache.prepare((String) args[0], autoGeneratedKeys);
+                }
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException) {
+                    String state = ((SQLException) cause).getSQLState();
+                    if (state != null && state.startsWith("08")) {
+                        broken = true; // connection exception class
+                    }
+                }
+                throw cause;
+            } catch (SQLException e) {
+                String state = e.getSQLState();
+                if (state != null && state.startsWith("08")) {
+                    broken = true;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * prepareStatement(String) and prepareStatement(String, int autoGeneratedKeys) go through the cache;
+         * the cursor-type overloads stay uncached so callers can tune them freely
+         */
+        private boolean isCacheablePrepare(Method method) {
+            if (!"prepareStatement".equals(method.getName())) {
+                return false;
+            }
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || (types.length == 2 && types[1] == int.class);
+        }
+    }
+
+    /**
+     * Immutable snapshot of pool metrics
+     */
+    public static final class PoolStats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final int maxActive;
+        private final long borrowCount;
+        private final long timeoutCount;
+        private final double averageWaitMillis;
+        private final double maxWaitMillis;
+        private final long validationFailures;
+        private final long leakCount;
+        private final long createdCount;
+        private final long destroyedCount;
+
+        PoolStats(int active, int idle, int total, int maxActive, long borrowCount, long timeoutCount,
+                  double averageWaitMillis, double maxWaitMillis, long validationFailures, long leakCount,
+                  long createdCount, long destroyedCount) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.maxActive = maxActive;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.averageWaitMillis = averageWaitMillis;
+            this.maxWaitMillis = maxWaitMillis;
+            this.validationFailures = validationFailures;
+            this.leakCount = leakCount;
+            this.createdCount = createdCount;
+            this.destroyedCount = destroyedCount;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public long getTimeoutCount() {
+            return timeoutCount;
+        }
+
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        public long getLeakCount() {
+            return leakCount;
+        }
+
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        public long getDestroyedCount() {
+            return destroyedCount;
+        }
+
+        @Override
+        public String toString() {
+            return "PoolStats{" +
+                    "active=" + active +
+                    ", idle=" + idle +
+                    ", total=" + total +
+                    ", maxActive=" + maxActive +
+                    ", borrows=" + borrowCount +
+                    ", timeouts=" + timeoutCount +
+                    ", avgWaitMs=" + String.format("%.3f", averageWaitMillis) +
+                    ", maxWaitMs=" + String.format("%.3f", maxWaitMillis) +
+                    ", validationFailures=" + validationFailures +
+                    ", leaks=" + leakCount +
+                    ", created=" + createdCount +
+                    ", destroyed=" + destroyedCount +
+                    '}';
+        }
+    }
+}
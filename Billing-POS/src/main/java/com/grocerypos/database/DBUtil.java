@@ -1,12 +1,19 @@
 package com.grocerypos.database;
 
+import com.grocerypos.dao.MovementWriter;
+import com.grocerypos.service.JournalReplayer;
+import com.grocerypos.service.SalesJournal;
+
+import javax.sql.DataSource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.*;
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 /**
- * Database utility class for managing MySQL connections
+ * Database utility class for managing pooled MySQL connections
  */
 public class DBUtil {
     private static final String PROPERTIES_FILE = "database.properties";
@@ -15,9 +22,11 @@ public class DBUtil {
     private static String username;
     private static String password;
     private static String driver;
+    private static ConnectionPool pool;
 
     static {
         loadProperties();
+        initializePool();
     }
 
     /**
@@ -30,7 +39,8 @@ public class DBUtil {
                 throw new RuntimeException("Unable to find " + PROPERTIES_FILE);
             }
             properties.load(input);
-            
+            applySystemOverrides(properties);
+
             url = properties.getProperty("db.url");
             username = properties.getProperty("db.username");
             password = properties.getProperty("db.password");
@@ -44,10 +54,69 @@ public class DBUtil {
     }
 
     /**
-     * Get a database connection
+     * Let -Dkey=value override a setting, e.g. to point a test harness at another database.
+     * Only keys in a section the file already uses (db.*, journal.*, ...) are taken, so
+     * unrelated JVM properties such as java.* or user.* never leak in.
+     */
+    private static void applySystemOverrides(Properties settings) {
+        Set<String> sections = new HashSet<>();
+        for (String key : settings.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot > 0) {
+                sections.add(key.substring(0, dot + 1));
+            }
+        }
+        Properties system = System.getProperties();
+        for (String key : system.stringPropertyNames()) {
+            int dot = key.indexOf('.');
+            if (dot > 0 && sections.contains(key.substring(0, dot + 1))) {
+                settings.setProperty(key, system.getProperty(key));
+            }
+        }
+    }
+
+    /**
+     * Create the connection pool from the db.pool.* settings
+     */
+    private static void initializePool() {
+        Properties connectionProperties = new Properties();
+        if (username != null) {
+            connectionProperties.setProperty("user", username);
+        }
+        if (password != null) {
+            connectionProperties.setProperty("password", password);
+        }
+        if (Boolean.parseBoolean(getProperty("db.statementCache.serverPrepare", "true"))) {
+            // Prepare on the server so cached statements skip re-parsing, not just client-side escaping
+            connectionProperties.setProperty("useServerPrepStmts", "true");
+        }
+        if (Boolean.parseBoolean(getProperty("db.rewriteBatchedStatements", "true"))) {
+            // Let the driver send JDBC batches as multi-row INSERTs instead of one round-trip per row
+            connectionProperties.setProperty("rewriteBatchedStatements", "true");
+        }
+
+        pool = new ConnectionPool(
+            url,
+            connectionProperties,
+            getIntProperty("db.pool.initialSize", 5),
+            getIntProperty("db.pool.maxActive", 20),
+            getIntProperty("db.pool.maxIdle", 10),
+            getIntProperty("db.pool.minIdle", 5),
+            getIntProperty("db.pool.maxWait", 60000),
+            getIntProperty("db.pool.validationTimeout", 2),
+            getIntProperty("db.pool.validationInterval", 5000),
+            getIntProperty("db.pool.leakDetectionThreshold", 0),
+            getIntProperty("db.statementCache.size", 64)
+        );
+
+        Runtime.getRuntime().addShutdownHook(new Thread(DBUtil::shutdown, "db-pool-shutdown"));
+    }
+
+    /**
+     * Get a pooled database connection; closing it returns it to the pool
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, username, password);
+        return pool.getConnection();
     }
 
     /**
@@ -55,10 +124,94 @@ public class DBUtil {
      */
     public static Connection getConnection(boolean autoCommit) throws SQLException {
         Connection connection = getConnection();
-        connection.setAutoCommit(autoCommit);
+        try {
+            connection.setAutoCommit(autoCommit);
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
         return connection;
     }
 
+    /**
+     * Get the pooled DataSource
+     */
+    public static DataSource getDataSource() {
+        return pool;
+    }
+
+    /**
+     * Get a snapshot of connection pool metrics
+     */
+    public static ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    /**
+     * Get a snapshot of prepared statement cache metrics
+     */
+    public static StatementCache.CacheStats getStatementCacheStats() {
+        return StatementCache.getStats();
+    }
+
+    /**
+     * Load the given DAO classes so their SQL is registered, then prepare it on the idle connections
+     */
+    public static void warmUpStatementCache(Class<?>... daoClasses) {
+        for (Class<?> daoClass : daoClasses) {
+            try {
+                Class.forName(daoClass.getName(), true, daoClass.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                System.err.println("Could not load " + daoClass.getName() + ": " + e.getMessage());
+            }
+        }
+        pool.warmUpStatements();
+    }
+
+    /**
+     * Shut down everything that writes through the pool, then close the pool. One hook in a fixed order:
+     * separate hooks run in any order, and a pool closed first would turn the last queued movements into
+     * dead letters.
+     */
+    public static void shutdown() {
+        JournalReplayer.shutdownShared();
+        MovementWriter.shutdownShared();
+        SalesJournal.closeShared();
+        if (pool != null && !pool.isClosed()) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Roll back a failed transaction. A rollback that fails as well (the connection broke) is attached to
+     * the original error as suppressed, so callers still see, and retry on, what went wrong first.
+     */
+    public static void rollback(Connection connection, Throwable cause) {
+        try {
+            connection.rollback();
+        } catch (SQLException | RuntimeException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * End a transaction opened with getConnection(false): restore auto-commit and return the connection.
+     * The connection is closed even when the reset fails; the pool drops one it cannot reset.
+     */
+    public static void endTransaction(Connection connection) {
+        try {
+            connection.setAutoCommit(true);
+        } catch (SQLException e) {
+            // Broken connection; the pool discards it on close
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.err.println("Error closing database connection: " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Close database resources
      */
@@ -109,11 +262,13 @@ public class DBUtil {
             for (String statement : statements) {
                 statement = statement.trim();
                 if (!statement.isEmpty() && !statement.startsWith("--")) {
-                    try (PreparedStatement ps = connection.prepareStatement(statement)) {
-                        ps.execute();
+                    // Plain statements keep one-off DDL out of the prepared statement cache
+                    try (Statement ddl = connection.createStatement()) {
+                        ddl.execute(statement);
                     }
                 }
             }
+            SchemaMigrations.apply(connection);
             System.out.println("Database schema initialized successfully");
         } catch (SQLException e) {
             System.err.println("Failed to initialize database: " + e.getMessage());
@@ -162,4 +317,20 @@ public class DBUtil {
     public static String getProperty(String key, String defaultValue) {
         return properties.getProperty(key, defaultValue);
     }
+
+    /**
+     * Get integer property value with default
+     */
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
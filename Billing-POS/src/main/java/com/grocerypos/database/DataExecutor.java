@@ -0,0 +1,110 @@
+package com.grocerypos.database;
+
+import javax.swing.SwingUtilities;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded background executor for database work.
+ * UI code submits DAO calls here and continues on {@link #EDT}, so a slow
+ * query never blocks the Event Dispatch Thread.
+ */
+public final class DataExecutor {
+
+    /**
+     * Runs continuations on the Swing Event Dispatch Thread
+     */
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    /**
+     * A database call that may throw SQLException
+     */
+    @FunctionalInterface
+    public interface SqlTask<T> {
+        T call() throws SQLException;
+    }
+
+    private DataExecutor() {
+    }
+
+    /**
+     * Run the task on the data executor; SQLExceptions complete the future exceptionally
+     */
+    public static <T> CompletableFuture<T> supply(SqlTask<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.call();
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                new SQLTransientException("Database is busy, " + EXECUTOR.getQueue().size() + " requests already queued", e));
+        }
+    }
+
+    /**
+     * The underlying cause of a failed future, without CompletionException wrappers
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    /**
+     * Number of database requests waiting for a worker
+     */
+    public static int getQueuedCount() {
+        return EXECUTOR.getQueue().size();
+    }
+
+    /**
+     * Number of database requests currently running
+     */
+    public static int getActiveCount() {
+        return EXECUTOR.getActiveCount();
+    }
+
+    /**
+     * Stop accepting work and wait briefly for running requests to finish
+     */
+    public static void shutdown() {
+        EXECUTOR.shutdown();
+        try {
+            EXECUTOR.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        int threads = Math.max(1, DBUtil.getIntProperty("db.executor.threads", 4));
+        int queueSize = Math.max(1, DBUtil.getIntProperty("db.executor.queueSize", 200));
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize), r -> {
+                Thread thread = new Thread(r, "db-worker-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,88 @@
+package com.grocerypos.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Idempotent schema changes for databases created by an older schema.sql.
+ * initializeDatabase skips comment-led statements in schema.sql, so tables and
+ * indexes added after the first release are created here instead.
+ */
+final class SchemaMigrations {
+
+    private static final String CREATE_SALES_ROLLUP =
+        "CREATE TABLE IF NOT EXISTS daily_sales_rollup (" +
+        "sale_date DATE NOT NULL, " +
+        "cashier_id INT NOT NULL, " +
+        "payment_method ENUM('CASH', 'CARD', 'UPI', 'ONLINE') NOT NULL, " +
+        "bill_count INT NOT NULL DEFAULT 0, " +
+        "gross_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00, " +
+        "gst_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00, " +
+        "discount_amount DECIMAL(14,2) NOT NULL DEFAULT 0.00, " +
+        "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+        "PRIMARY KEY (sale_date, cashier_id, payment_method), " +
+        "FOREIGN KEY (cashier_id) REFERENCES users(id))";
+
+    private static final String CREATE_BILL_SEQUENCES =
+        "CREATE TABLE IF NOT EXISTS bill_sequences (" +
+        "store_code VARCHAR(6) NOT NULL, " +
+        "terminal_id VARCHAR(6) NOT NULL, " +
+        "sale_date DATE NOT NULL, " +
+        "next_value INT NOT NULL, " +
+        "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP, " +
+        "PRIMARY KEY (store_code, terminal_id, sale_date))";
+
+    private static final String FIND_INDEX =
+        "SELECT 1 FROM information_schema.statistics " +
+        "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1";
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Apply every migration; a failed migration is logged and the rest still run
+     */
+    static void apply(Connection connection) {
+        ensureTable(connection, "daily_sales_rollup", CREATE_SALES_ROLLUP);
+        ensureTable(connection, "bill_sequences", CREATE_BILL_SEQUENCES);
+
+        // Time-window reports filter on created_at and then group or filter by cashier / payment method
+        ensureIndex(connection, "bills", "idx_created_cashier", "created_at, cashier_id");
+        ensureIndex(connection, "bills", "idx_created_payment", "created_at, payment_method");
+
+        // Keyset paging of the item tables walks active items in (name, id) order; InnoDB appends id to the key
+        ensureIndex(connection, "items", "idx_active_name", "is_active, name");
+    }
+
+    private static void ensureTable(Connection connection, String table, String createSql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(createSql);
+        } catch (SQLException e) {
+            System.err.println("Could not create table " + table + ": " + e.getMessage());
+        }
+    }
+
+    private static void ensureIndex(Connection connection, String table, String index, String columns) {
+        try {
+            try (PreparedStatement statement = connection.prepareStatement(FIND_INDEX)) {
+                statement.setString(1, table);
+                statement.setString(2, index);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        return;
+                    }
+                }
+            }
+
+            System.out.println("Creating index " + index + " on " + table + " (" + columns + ")");
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE INDEX " + index + " ON " + table + " (" + columns + ")");
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not create index " + index + " on " + table + ": " + e.getMessage());
+        }
+    }
+}
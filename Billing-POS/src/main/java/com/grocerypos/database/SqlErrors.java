@@ -0,0 +1,77 @@
+package com.grocerypos.database;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * Sorts SQL errors for background writers that retry: a lock conflict or an unreachable database
+ * may clear up on its own, anything else (a constraint, data too long, a missing column) fails
+ * the same way every time and has to be set aside instead.
+ */
+public final class SqlErrors {
+    private static final String SQLSTATE_CONNECTION_PREFIX = "08";
+    private static final String SQLSTATE_DEADLOCK = "40001";
+    private static final int MYSQL_DEADLOCK = 1213;
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+
+    private SqlErrors() {
+    }
+
+    /**
+     * A deadlock or lock wait timeout anywhere in the cause chain
+     */
+    public static boolean isLockConflict(SQLException e) {
+        return isDeadlock(e) || isLockWaitTimeout(e);
+    }
+
+    /**
+     * The transaction was chosen as a deadlock victim
+     */
+    public static boolean isDeadlock(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if (SQLSTATE_DEADLOCK.equals(sqlException.getSQLState()) || sqlException.getErrorCode() == MYSQL_DEADLOCK) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The statement gave up waiting for a row lock
+     */
+    public static boolean isLockWaitTimeout(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException && ((SQLException) cause).getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Worth retrying: the database was unreachable (SQLState 08xxx, or a transient exception type, which
+     * is also how the pool reports it cannot hand out a connection) or the statement lost a lock conflict.
+     * An error without SQLState was raised by the application itself and fails the same way again.
+     */
+    public static boolean isTransient(SQLException e) {
+        if (isLockConflict(e)) {
+            return true;
+        }
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith(SQLSTATE_CONNECTION_PREFIX)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
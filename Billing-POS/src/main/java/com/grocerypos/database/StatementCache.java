@@ -0,0 +1,292 @@
+package com.grocerypos.database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-connection cache of prepared statements.
+ * DAOs register their SQL constants once; every pooled connection prepares them
+ * on creation and hands the same PreparedStatement back on each call, so the
+ * hot path skips the parse/prepare round-trip. Closing a cached statement only
+ * clears its parameters and any unexecuted batch and returns it to the cache.
+ */
+public class StatementCache {
+    private static final Set<StatementKey> REGISTERED = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+    private static final AtomicLong PREPARED = new AtomicLong();
+
+    private final Connection physical;
+    private final Connection logical;
+    private final int maxSize;
+    private final LinkedHashMap<StatementKey, CachedStatement> statements;
+
+    StatementCache(Connection physical, Connection logical, int maxSize) {
+        this.physical = physical;
+        this.logical = logical;
+        this.maxSize = maxSize;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Register SQL that should be prepared on every pooled connection
+     */
+    public static void register(String... sql) {
+        for (String s : sql) {
+            REGISTERED.add(new StatementKey(s, Statement.NO_GENERATED_KEYS));
+        }
+    }
+
+    /**
+     * Register INSERT SQL that is prepared with RETURN_GENERATED_KEYS
+     */
+    public static void registerReturningKeys(String... sql) {
+        for (String s : sql) {
+            REGISTERED.add(new StatementKey(s, Statement.RETURN_GENERATED_KEYS));
+        }
+    }
+
+    /**
+     * Snapshot of the cache counters across all connections
+     */
+    public static CacheStats getStats() {
+        return new CacheStats(HITS.get(), MISSES.get(), EVICTIONS.get(), PREPARED.get(), REGISTERED.size());
+    }
+
+    /**
+     * Prepare every registered statement that is not cached yet
+     */
+    void warmUp() {
+        if (maxSize <= 0) {
+            return;
+        }
+        for (StatementKey key : REGISTERED) {
+            synchronized (this) {
+                if (statements.containsKey(key) || statements.size() >= maxSize) {
+                    continue;
+                }
+                try {
+                    statements.put(key, new CachedStatement(key, prepareRaw(key)));
+                } catch (SQLException e) {
+                    System.err.println("Could not prepare statement during warm-up: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Return the cached statement for this SQL, preparing it on first use
+     */
+    synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+        CachedStatement cached = statements.get(key);
+        if (cached != null && !cached.inUse) {
+            HITS.incrementAndGet();
+            cached.inUse = true;
+            return cached.proxy;
+        }
+
+        MISSES.incrementAndGet();
+        if (cached != null || maxSize <= 0) {
+            // Same SQL already open on this connection (or caching disabled): hand out a plain statement
+            return prepareRaw(key);
+        }
+
+        cached = new CachedStatement(key, prepareRaw(key));
+        cached.inUse = true;
+        statements.put(key, cached);
+        evictIfNeeded();
+        return cached.proxy;
+    }
+
+    /**
+     * Close every cached statement; used when the physical connection is discarded
+     */
+    synchronized void closeAll() {
+        for (CachedStatement cached : statements.values()) {
+            closeQuietly(cached.delegate);
+        }
+        statements.clear();
+    }
+
+    private PreparedStatement prepareRaw(StatementKey key) throws SQLException {
+        PREPARED.incrementAndGet();
+        return physical.prepareStatement(key.sql, key.autoGeneratedKeys);
+    }
+
+    private void evictIfNeeded() {
+        Iterator<CachedStatement> iterator = statements.values().iterator();
+        while (statements.size() > maxSize && iterator.hasNext()) {
+            CachedStatement eldest = iterator.next();
+            if (!eldest.inUse) {
+                iterator.remove();
+                closeQuietly(eldest.delegate);
+                EVICTIONS.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void release(CachedStatement cached) {
+        try {
+            // A caller that threw between addBatch and executeBatch leaves rows queued; they must not
+            // run in the next borrower's transaction
+            cached.delegate.clearBatch();
+            cached.delegate.clearParameters();
+            cached.delegate.clearWarnings();
+            cached.inUse = false;
+        } catch (SQLException e) {
+            // Statement is unusable; drop it so the next call prepares a fresh one
+            statements.remove(cached.key);
+            closeQuietly(cached.delegate);
+        }
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            // Ignored; the statement is being discarded
+        }
+    }
+
+    private static final class StatementKey {
+        private final String sql;
+        private final int autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey other = (StatementKey) o;
+            return autoGeneratedKeys == other.autoGeneratedKeys && sql.equals(other.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + autoGeneratedKeys;
+        }
+    }
+
+    /**
+     * A cached PreparedStatement plus the proxy handed to callers
+     */
+    private final class CachedStatement implements InvocationHandler {
+        private final StatementKey key;
+        private final PreparedStatement delegate;
+        private final PreparedStatement proxy;
+        private boolean inUse;
+
+        CachedStatement(StatementKey key, PreparedStatement delegate) {
+            this.key = key;
+            this.delegate = delegate;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                StatementCache.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxyInstance, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !inUse || delegate.isClosed();
+                case "getConnection":
+                    return logical;
+                case "equals":
+                    return proxyInstance == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxyInstance);
+                case "toString":
+                    return "CachedStatement[" + key.sql + "]";
+                default:
+                    break;
+            }
+
+            if (!inUse) {
+                throw new SQLException("Statement has already been closed");
+            }
+            try {
+                return method.invoke(delegate, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Immutable snapshot of statement cache metrics
+     */
+    public static final class CacheStats {
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long prepared;
+        private final int registered;
+
+        CacheStats(long hits, long misses, long evictions, long prepared, int registered) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.prepared = prepared;
+            this.registered = registered;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public long getEvictions() {
+            return evictions;
+        }
+
+        public long getPrepared() {
+            return prepared;
+        }
+
+        public int getRegistered() {
+            return registered;
+        }
+
+        public double getHitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0.0 : hits / (double) total;
+        }
+
+        @Override
+        public String toString() {
+            return "StatementCacheStats{" +
+                    "hits=" + hits +
+                    ", misses=" + misses +
+                    ", hitRatio=" + String.format("%.3f", getHitRatio()) +
+                    ", evictions=" + evictions +
+                    ", prepared=" + prepared +
+                    ", registered=" + registered +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.grocerypos.metrics;
+
+import com.grocerypos.model.Bill;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event from a paid bill being submitted until the till shows the outcome; the
+ * database work inside it is broken down by {@link CheckoutPhaseEvent}
+ */
+@Name("com.grocerypos.Checkout")
+@Label("Checkout")
+@Category({"Grocery POS", "Billing"})
+@Description("Saving a paid bill, from submit to the result on screen")
+@StackTrace(false)
+public final class CheckoutEvent extends Event {
+    @Label("Bill Number")
+    String billNumber;
+
+    @Label("Lines")
+    int lineCount;
+
+    @Label("Attempts")
+    @Description("Transaction attempts, more than one after a deadlock or lock wait timeout")
+    int attempts;
+
+    @Label("Journaled")
+    @Description("Saved to the local sales journal, to be copied to the database later")
+    boolean journaled;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static CheckoutEvent start(Bill bill) {
+        CheckoutEvent event = new CheckoutEvent();
+        event.billNumber = bill.getBillNumber();
+        event.lineCount = bill.getBillItems().size();
+        event.begin();
+        return event;
+    }
+
+    public void finish(int attempts, boolean journaled, Throwable error) {
+        this.attempts = attempts;
+        this.journaled = journaled;
+        succeeded = error == null;
+        commit();
+    }
+}
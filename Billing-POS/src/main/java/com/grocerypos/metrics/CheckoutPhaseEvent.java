@@ -0,0 +1,71 @@
+package com.grocerypos.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for one step of the checkout transaction: lock, bill, stock, movements,
+ * rollup or commit. A step that throws is still recorded, marked as failed, so a lock wait that
+ * ends in a deadlock shows up with its full duration.
+ */
+@Name("com.grocerypos.CheckoutPhase")
+@Label("Checkout Phase")
+@Category({"Grocery POS", "Billing"})
+@Description("One database step of the checkout transaction")
+@StackTrace(false)
+public final class CheckoutPhaseEvent extends Event {
+    @Label("Bill Number")
+    String billNumber;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Attempt")
+    int attempt;
+
+    @Label("Rows")
+    @Description("Rows locked, inserted or updated by the step")
+    int rows;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    private transient long startNanos;
+    private transient boolean finished;
+
+    public static CheckoutPhaseEvent start(String billNumber, int attempt, String phase) {
+        CheckoutPhaseEvent event = new CheckoutPhaseEvent();
+        event.billNumber = billNumber;
+        event.attempt = attempt;
+        event.phase = phase;
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Record the step as done; returns how long it took in nanoseconds
+     */
+    public long finish(int rows) {
+        long elapsed = System.nanoTime() - startNanos;
+        this.rows = rows;
+        succeeded = true;
+        finished = true;
+        commit();
+        return elapsed;
+    }
+
+    /**
+     * Record the step as failed, unless it already finished
+     */
+    public void fail() {
+        if (!finished) {
+            finished = true;
+            commit();
+        }
+    }
+}
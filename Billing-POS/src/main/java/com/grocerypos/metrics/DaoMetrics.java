@@ -0,0 +1,107 @@
+package com.grocerypos.metrics;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Times DAO calls into the shared registry as dao.&lt;Class.method&gt;{outcome=...}, where the
+ * outcome is ok, empty (null, false, or an empty list or map: nothing matched) or error (threw).
+ * Usage: return DaoMetrics.time("ItemDAO.findById", () -> { ...query... });
+ */
+public final class DaoMetrics {
+    private static final ConcurrentMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+
+    private DaoMetrics() {
+    }
+
+    /**
+     * A DAO call body that returns a value
+     */
+    @FunctionalInterface
+    public interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * A DAO call body with no result
+     */
+    @FunctionalInterface
+    public interface SqlRun {
+        void run() throws SQLException;
+    }
+
+    public static <T> T time(String method, SqlCall<T> body) throws SQLException {
+        Timer timer = timer(method);
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = body.call();
+        } catch (SQLException | RuntimeException e) {
+            timer.error().recordNanos(System.nanoTime() - start);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        (isEmpty(result) ? timer.empty() : timer.ok()).recordNanos(elapsed);
+        return result;
+    }
+
+    public static void run(String method, SqlRun body) throws SQLException {
+        Timer timer = timer(method);
+        long start = System.nanoTime();
+        try {
+            body.run();
+        } catch (SQLException | RuntimeException e) {
+            timer.error().recordNanos(System.nanoTime() - start);
+            throw e;
+        }
+        timer.ok().recordNanos(System.nanoTime() - start);
+    }
+
+    private static Timer timer(String method) {
+        Timer timer = TIMERS.get(method);
+        return timer != null ? timer : TIMERS.computeIfAbsent(method, Timer::new);
+    }
+
+    private static boolean isEmpty(Object result) {
+        return result == null
+            || Boolean.FALSE.equals(result)
+            || result instanceof Collection && ((Collection<?>) result).isEmpty()
+            || result instanceof Map && ((Map<?, ?>) result).isEmpty();
+    }
+
+    /**
+     * The three outcome histograms of one method, looked up in the registry once each
+     */
+    private static final class Timer {
+        private final String name;
+        private volatile Histogram ok;
+        private volatile Histogram empty;
+        private volatile Histogram error;
+
+        Timer(String method) {
+            this.name = "dao." + method;
+        }
+
+        Histogram ok() {
+            Histogram histogram = ok;
+            return histogram != null ? histogram : (ok = lookup("ok"));
+        }
+
+        Histogram empty() {
+            Histogram histogram = empty;
+            return histogram != null ? histogram : (empty = lookup("empty"));
+        }
+
+        Histogram error() {
+            Histogram histogram = error;
+            return histogram != null ? histogram : (error = lookup("error"));
+        }
+
+        private Histogram lookup(String outcome) {
+            return MetricsRegistry.shared().histogram(name + "{outcome=" + outcome + "}");
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.grocerypos.metrics;
+
+import com.grocerypos.model.DashboardSnapshot;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight Recorder event from a dashboard refresh being requested until its charts are built
+ */
+@Name("com.grocerypos.DashboardRefresh")
+@Label("Dashboard Refresh")
+@Category({"Grocery POS", "Reports"})
+@Description("Dashboard queries and chart rendering")
+@StackTrace(false)
+public final class DashboardRefreshEvent extends Event {
+    @Label("Query Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long queryMillis;
+
+    @Label("Days")
+    @Description("Days of sales in the trend chart")
+    int dayCount;
+
+    @Label("Top Products")
+    int topProductCount;
+
+    @Label("Items")
+    int itemCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static DashboardRefreshEvent start() {
+        DashboardRefreshEvent event = new DashboardRefreshEvent();
+        event.begin();
+        return event;
+    }
+
+    public void finish(DashboardSnapshot snapshot, Throwable error) {
+        if (snapshot != null) {
+            queryMillis = snapshot.getLoadMillis();
+            dayCount = snapshot.getDailySales().size();
+            topProductCount = snapshot.getTopProducts().size();
+            itemCount = snapshot.getItemCount();
+        }
+        succeeded = error == null;
+        commit();
+    }
+}
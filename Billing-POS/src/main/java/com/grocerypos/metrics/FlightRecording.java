@@ -0,0 +1,84 @@
+package com.grocerypos.metrics;
+
+import com.grocerypos.database.DBUtil;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Continuous Flight Recorder recording, kept in a rolling buffer on disk (jfr.maxAge, jfr.maxSize)
+ * with the JDK's low-overhead "default" settings plus the POS events. When a lane stalls,
+ * {@link #dump()} (Ctrl+Shift+J) or "jcmd &lt;pid&gt; JFR.dump name=grocerypos" saves the buffer for
+ * JDK Mission Control.
+ */
+public final class FlightRecording {
+    private static final String NAME = "grocerypos";
+
+    private static Recording recording;
+
+    private FlightRecording() {
+    }
+
+    /**
+     * Start the recording if jfr.continuous is set; safe to call more than once
+     */
+    public static synchronized void start() {
+        if (recording != null || !Boolean.parseBoolean(DBUtil.getProperty("jfr.continuous", "false"))) {
+            return;
+        }
+        if (!FlightRecorder.isAvailable()) {
+            System.err.println("Flight Recorder is not available in this JVM, continuous recording is off");
+            return;
+        }
+        try {
+            Recording started = new Recording(Configuration.getConfiguration("default"));
+            started.setName(NAME);
+            started.setToDisk(true);
+            started.setMaxAge(Duration.ofMinutes(DBUtil.getIntProperty("jfr.maxAge", 30)));
+            started.setMaxSize(DBUtil.getIntProperty("jfr.maxSize", 64 << 20));
+            started.start();
+            recording = started;
+            System.out.println("Continuous flight recording started, keeping the last "
+                + DBUtil.getIntProperty("jfr.maxAge", 30) + " minutes");
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Failed to start flight recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Save what every running recording holds (this one or one started with -XX:StartFlightRecording)
+     * to a new file in jfr.dir
+     */
+    public static Path dump() throws IOException {
+        if (!FlightRecorder.isAvailable()) {
+            throw new IOException("Flight Recorder is not available in this JVM");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            if (snapshot.getSize() == 0) {
+                throw new IOException("No flight recording is running; set jfr.continuous=true");
+            }
+            Path directory = directory();
+            Files.createDirectories(directory);
+            Path file = directory.resolve("grocerypos-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".jfr");
+            snapshot.dump(file);
+            return file;
+        }
+    }
+
+    private static Path directory() {
+        String configured = DBUtil.getProperty("jfr.dir", "");
+        return configured.trim().isEmpty()
+            ? Paths.get(System.getProperty("user.home"), ".grocerypos", "recordings")
+            : Paths.get(configured.trim());
+    }
+}
@@ -0,0 +1,155 @@
+package com.grocerypos.metrics;
+
+import com.grocerypos.database.DBUtil;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide set of named latency histograms. Histograms are created on first use and live
+ * for the life of the process, so figures are cumulative since start-up.
+ * {@link #dump()} appends a table of every histogram to metrics.log, rolled over to
+ * metrics.log.1, .2, ... once it passes metrics.maxFileBytes; {@link #start()} also does so
+ * every metrics.dumpInterval seconds and once more at exit.
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry SHARED = new MetricsRegistry();
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Object dumpLock = new Object();
+    private ScheduledExecutorService dumper;
+
+    public static MetricsRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * The histogram with this name, created empty on first use
+     */
+    public Histogram histogram(String name) {
+        Histogram histogram = histograms.get(name);
+        return histogram != null ? histogram : histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Snapshots of every histogram that has recorded something, by name
+     */
+    public List<Histogram.Snapshot> snapshot() {
+        List<Histogram.Snapshot> snapshots = new ArrayList<>();
+        for (Histogram histogram : histograms.values()) {
+            Histogram.Snapshot snapshot = histogram.snapshot();
+            if (snapshot.getCount() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(Histogram.Snapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Write the current figures as a table, latencies in milliseconds
+     */
+    public void dump(Appendable out) throws IOException {
+        List<Histogram.Snapshot> snapshots = snapshot();
+        int width = "metric".length();
+        for (Histogram.Snapshot snapshot : snapshots) {
+            width = Math.max(width, snapshot.getName().length());
+        }
+        String row = "%-" + width + "s %10s %9s %9s %9s %9s %9s %9s%n";
+        out.append("# ").append(LocalDateTime.now().format(TIMESTAMP)).append(System.lineSeparator());
+        out.append(String.format(row, "metric", "count", "mean", "p50", "p90", "p99", "p99.9", "max"));
+        for (Histogram.Snapshot snapshot : snapshots) {
+            out.append(String.format(row, snapshot.getName(), snapshot.getCount(),
+                millis(snapshot.getMeanMillis()), millis(snapshot.getPercentileMillis(0.50)),
+                millis(snapshot.getPercentileMillis(0.90)), millis(snapshot.getPercentileMillis(0.99)),
+                millis(snapshot.getPercentileMillis(0.999)), millis(snapshot.getMaxMillis())));
+        }
+        out.append(System.lineSeparator());
+    }
+
+    /**
+     * Append the current figures to the metrics file, rolling it over first if it is full
+     */
+    public Path dump() throws IOException {
+        Path directory = directory();
+        Path file = directory.resolve("metrics.log");
+        synchronized (dumpLock) {
+            Files.createDirectories(directory);
+            if (Files.exists(file) && Files.size(file) >= DBUtil.getIntProperty("metrics.maxFileBytes", 1 << 20)) {
+                roll(directory, Math.max(1, DBUtil.getIntProperty("metrics.maxFiles", 5)));
+            }
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                dump(writer);
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Start the periodic dump if metrics.dumpInterval is set; safe to call more than once
+     */
+    public synchronized void start() {
+        int intervalSeconds = DBUtil.getIntProperty("metrics.dumpInterval", 300);
+        if (dumper != null || intervalSeconds <= 0) {
+            return;
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumper.scheduleWithFixedDelay(this::dumpQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::dumpQuietly, "metrics-dump-shutdown"));
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * metrics.log becomes metrics.log.1, .1 becomes .2, and so on; the oldest beyond maxFiles is dropped
+     */
+    private static void roll(Path directory, int maxFiles) throws IOException {
+        Files.deleteIfExists(directory.resolve("metrics.log." + maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path older = directory.resolve("metrics.log." + i);
+            if (Files.exists(older)) {
+                Files.move(older, directory.resolve("metrics.log." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(directory.resolve("metrics.log"), directory.resolve("metrics.log.1"), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static Path directory() {
+        String configured = DBUtil.getProperty("metrics.dir", "");
+        return configured.trim().isEmpty()
+            ? Paths.get(System.getProperty("user.home"), ".grocerypos", "metrics")
+            : Paths.get(configured.trim());
+    }
+
+    private static String millis(double value) {
+        return String.format("%.3f", value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.grocerypos.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event for sending a receipt to the printer, after the print dialog is confirmed
+ */
+@Name("com.grocerypos.ReceiptPrint")
+@Label("Receipt Print")
+@Category({"Grocery POS", "Billing"})
+@Description("Rendering and spooling a receipt")
+@StackTrace(false)
+public final class ReceiptPrintEvent extends Event {
+    @Label("Bill Number")
+    String billNumber;
+
+    @Label("Lines")
+    @Description("Lines of receipt text")
+    int lineCount;
+
+    @Label("Printed")
+    boolean printed;
+
+    public static ReceiptPrintEvent start(String billNumber, int lineCount) {
+        ReceiptPrintEvent event = new ReceiptPrintEvent();
+        event.billNumber = billNumber;
+        event.lineCount = lineCount;
+        event.begin();
+        return event;
+    }
+
+    public void finish(boolean printed) {
+        this.printed = printed;
+        commit();
+    }
+}
@@ -0,0 +1,46 @@
+package com.grocerypos.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.time.LocalDate;
+
+/**
+ * Flight Recorder event from a sales report being requested until its table is filled
+ */
+@Name("com.grocerypos.SalesReport")
+@Label("Sales Report")
+@Category({"Grocery POS", "Reports"})
+@Description("Sales report query and table fill")
+@StackTrace(false)
+public final class SalesReportEvent extends Event {
+    @Label("From")
+    String startDate;
+
+    @Label("To")
+    String endDate;
+
+    @Label("Rows")
+    int rowCount;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static SalesReportEvent start(LocalDate startDate, LocalDate endDate) {
+        SalesReportEvent event = new SalesReportEvent();
+        event.startDate = startDate.toString();
+        event.endDate = endDate.toString();
+        event.begin();
+        return event;
+    }
+
+    public void finish(int rowCount, Throwable error) {
+        this.rowCount = rowCount;
+        succeeded = error == null;
+        commit();
+    }
+}
@@ -0,0 +1,46 @@
+package com.grocerypos.metrics;
+
+import com.grocerypos.model.Item;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event from a barcode being entered until its lookup is answered on the EDT,
+ * including any wait behind the previous scan
+ */
+@Name("com.grocerypos.Scan")
+@Label("Barcode Scan")
+@Category({"Grocery POS", "Billing"})
+@Description("Barcode lookup, from entry to the answer on the Event Dispatch Thread")
+@StackTrace(false)
+public final class ScanEvent extends Event {
+    @Label("Barcode")
+    String barcode;
+
+    @Label("Item Id")
+    int itemId;
+
+    @Label("Found")
+    boolean found;
+
+    @Label("Succeeded")
+    boolean succeeded;
+
+    public static ScanEvent start(String barcode) {
+        ScanEvent event = new ScanEvent();
+        event.barcode = barcode;
+        event.begin();
+        return event;
+    }
+
+    public void finish(Item item, Throwable error) {
+        found = item != null;
+        itemId = item != null ? item.getId() : 0;
+        succeeded = error == null;
+        commit();
+    }
+}
@@ -24,6 +24,7 @@ public class Bill {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<BillItem> billItems;
+    private Integer totalItems; // Set by header-only queries that do not load billItems
 
     public enum PaymentMethod {
         CASH, CARD, UPI, ONLINE
@@ -182,22 +183,45 @@ public class Bill {
         recalculateTotals();
     }
 
+    /**
+     * Recompute subtotal (taxable value after line discounts), GST and total from the lines, in paise;
+     * the bill-level discountAmount is kept and taken off the total
+     */
     public void recalculateTotals() {
-        this.subtotal = BigDecimal.ZERO;
-        this.gstAmount = BigDecimal.ZERO;
+        long subtotalPaise = 0;
+        long gstPaise = 0;
         
         for (BillItem item : billItems) {
-            this.subtotal = this.subtotal.add(item.getLineTotal());
-            this.gstAmount = this.gstAmount.add(item.getGstAmount());
+            subtotalPaise += item.getTaxablePaise();
+            gstPaise += item.getGstPaise();
         }
         
-        this.totalAmount = this.subtotal.add(this.gstAmount).subtract(this.discountAmount);
+        this.subtotal = Money.toRupees(subtotalPaise);
+        this.gstAmount = Money.toRupees(gstPaise);
+        this.totalAmount = Money.toRupees(subtotalPaise + gstPaise - Money.toPaise(this.discountAmount));
+    }
+
+    /**
+     * Take subtotal, GST, bill discount and total from a cart's running totals
+     */
+    public void setTotals(CartTotals totals) {
+        this.subtotal = totals.getSubtotal();
+        this.gstAmount = totals.getGstAmount();
+        this.discountAmount = totals.getBillDiscountAmount();
+        this.totalAmount = totals.getTotal();
     }
 
     public int getTotalItems() {
+        if (totalItems != null && billItems.isEmpty()) {
+            return totalItems;
+        }
         return billItems.stream().mapToInt(BillItem::getQuantity).sum();
     }
 
+    public void setTotalItems(int totalItems) {
+        this.totalItems = totalItems;
+    }
+
     @Override
     public String toString() {
         return "Bill{" +
@@ -13,12 +13,13 @@ public class BillItem {
     private String itemName;
     private String itemBarcode;
     private int quantity;
-    private BigDecimal unitPrice;
-    private BigDecimal discountPercentage;
-    private BigDecimal discountAmount;
-    private BigDecimal gstPercentage;
-    private BigDecimal gstAmount;
-    private BigDecimal lineTotal;
+    // Amounts in paise and rates in basis points; see Money for the rounding rules
+    private long unitPricePaise;
+    private int discountBasisPoints;
+    private long discountPaise;
+    private int gstBasisPoints;
+    private long gstPaise;
+    private long lineTotalPaise;
     private LocalDateTime createdAt;
 
     // Constructors
@@ -28,13 +29,30 @@ public class BillItem {
         this.billId = billId;
         this.itemId = itemId;
         this.quantity = quantity;
-        this.unitPrice = unitPrice;
-        this.gstPercentage = gstPercentage;
-        this.discountPercentage = BigDecimal.ZERO;
-        this.discountAmount = BigDecimal.ZERO;
+        this.unitPricePaise = Money.toPaise(unitPrice);
+        this.gstBasisPoints = Money.toBasisPoints(gstPercentage);
         calculateTotals();
     }
 
+    /**
+     * Independent copy of a line, so a bill can keep its lines while the cart they came from changes
+     */
+    public BillItem(BillItem other) {
+        this.id = other.id;
+        this.billId = other.billId;
+        this.itemId = other.itemId;
+        this.itemName = other.itemName;
+        this.itemBarcode = other.itemBarcode;
+        this.quantity = other.quantity;
+        this.unitPricePaise = other.unitPricePaise;
+        this.discountBasisPoints = other.discountBasisPoints;
+        this.discountPaise = other.discountPaise;
+        this.gstBasisPoints = other.gstBasisPoints;
+        this.gstPaise = other.gstPaise;
+        this.lineTotalPaise = other.lineTotalPaise;
+        this.createdAt = other.createdAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
@@ -85,51 +103,90 @@ public class BillItem {
     }
 
     public BigDecimal getUnitPrice() {
-        return unitPrice;
+        return Money.toRupees(unitPricePaise);
     }
 
     public void setUnitPrice(BigDecimal unitPrice) {
-        this.unitPrice = unitPrice;
+        this.unitPricePaise = Money.toPaise(unitPrice);
     }
 
     public BigDecimal getDiscountPercentage() {
-        return discountPercentage;
+        return Money.toPercent(discountBasisPoints);
     }
 
     public void setDiscountPercentage(BigDecimal discountPercentage) {
-        this.discountPercentage = discountPercentage;
+        this.discountBasisPoints = Money.toBasisPoints(discountPercentage);
     }
 
     public BigDecimal getDiscountAmount() {
-        return discountAmount;
+        return Money.toRupees(discountPaise);
     }
 
     public void setDiscountAmount(BigDecimal discountAmount) {
-        this.discountAmount = discountAmount;
+        this.discountPaise = Money.toPaise(discountAmount);
     }
 
     public BigDecimal getGstPercentage() {
-        return gstPercentage;
+        return Money.toPercent(gstBasisPoints);
     }
 
     public void setGstPercentage(BigDecimal gstPercentage) {
-        this.gstPercentage = gstPercentage;
+        this.gstBasisPoints = Money.toBasisPoints(gstPercentage);
     }
 
     public BigDecimal getGstAmount() {
-        return gstAmount;
+        return Money.toRupees(gstPaise);
     }
 
     public void setGstAmount(BigDecimal gstAmount) {
-        this.gstAmount = gstAmount;
+        this.gstPaise = Money.toPaise(gstAmount);
     }
 
     public BigDecimal getLineTotal() {
-        return lineTotal;
+        return Money.toRupees(lineTotalPaise);
     }
 
     public void setLineTotal(BigDecimal lineTotal) {
-        this.lineTotal = lineTotal;
+        this.lineTotalPaise = Money.toPaise(lineTotal);
+    }
+
+    public long getUnitPricePaise() {
+        return unitPricePaise;
+    }
+
+    public void setUnitPricePaise(long unitPricePaise) {
+        this.unitPricePaise = unitPricePaise;
+    }
+
+    public int getDiscountBasisPoints() {
+        return discountBasisPoints;
+    }
+
+    public long getDiscountPaise() {
+        return discountPaise;
+    }
+
+    public int getGstBasisPoints() {
+        return gstBasisPoints;
+    }
+
+    public void setGstBasisPoints(int gstBasisPoints) {
+        this.gstBasisPoints = gstBasisPoints;
+    }
+
+    public long getGstPaise() {
+        return gstPaise;
+    }
+
+    public long getLineTotalPaise() {
+        return lineTotalPaise;
+    }
+
+    /**
+     * Value the GST is charged on: quantity x unit price less the line discount
+     */
+    public long getTaxablePaise() {
+        return lineTotalPaise - gstPaise;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -141,41 +198,25 @@ public class BillItem {
     }
 
     // Helper methods
+
+    /**
+     * Recompute discount, GST and line total from quantity, unit price and rates, without allocating.
+     * The discount is taken off quantity x unit price, GST is charged on what remains, and each is
+     * rounded HALF_UP to the paisa on its own.
+     */
     public void calculateTotals() {
-        // Initialize null fields with safe defaults
-        if (unitPrice == null) unitPrice = BigDecimal.ZERO;
-        if (gstPercentage == null) gstPercentage = BigDecimal.ZERO;
-        if (discountPercentage == null) discountPercentage = BigDecimal.ZERO;
-        if (discountAmount == null) discountAmount = BigDecimal.ZERO;
-        
         if (quantity <= 0) {
-            lineTotal = BigDecimal.ZERO;
-            gstAmount = BigDecimal.ZERO;
+            discountPaise = 0;
+            gstPaise = 0;
+            lineTotalPaise = 0;
             return;
         }
 
-        // Calculate subtotal before discount
-        BigDecimal subtotal = unitPrice.multiply(BigDecimal.valueOf(quantity));
-        
-        // Calculate discount amount
-        if (discountPercentage.compareTo(BigDecimal.ZERO) > 0) {
-            discountAmount = subtotal.multiply(discountPercentage).divide(BigDecimal.valueOf(100));
-        } else {
-            discountAmount = BigDecimal.ZERO;
-        }
-        
-        // Calculate subtotal after discount
-        BigDecimal subtotalAfterDiscount = subtotal.subtract(discountAmount);
-        
-        // Calculate GST amount
-        if (gstPercentage.compareTo(BigDecimal.ZERO) > 0) {
-            gstAmount = subtotalAfterDiscount.multiply(gstPercentage).divide(BigDecimal.valueOf(100));
-        } else {
-            gstAmount = BigDecimal.ZERO;
-        }
-        
-        // Calculate line total
-        lineTotal = subtotalAfterDiscount.add(gstAmount);
+        long grossPaise = Math.multiplyExact(unitPricePaise, (long) quantity);
+        discountPaise = Money.percentOf(grossPaise, discountBasisPoints);
+        long taxablePaise = grossPaise - discountPaise;
+        gstPaise = Money.percentOf(taxablePaise, gstBasisPoints);
+        lineTotalPaise = taxablePaise + gstPaise;
     }
 
     public void setQuantityAndRecalculate(int quantity) {
@@ -184,7 +225,7 @@ public class BillItem {
     }
 
     public void setDiscountPercentageAndRecalculate(BigDecimal discountPercentage) {
-        this.discountPercentage = discountPercentage;
+        setDiscountPercentage(discountPercentage);
         calculateTotals();
     }
 
@@ -196,8 +237,8 @@ public class BillItem {
                 ", itemId=" + itemId +
                 ", itemName='" + itemName + '\'' +
                 ", quantity=" + quantity +
-                ", unitPrice=" + unitPrice +
-                ", lineTotal=" + lineTotal +
+                ", unitPrice=" + Money.format(unitPricePaise) +
+                ", lineTotal=" + Money.format(lineTotalPaise) +
                 '}';
     }
 }
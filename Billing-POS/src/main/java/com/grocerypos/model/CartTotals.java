@@ -0,0 +1,121 @@
+package com.grocerypos.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Running totals of a cart, kept in paise and updated line by line, so a change costs the same
+ * however many lines the cart has. Every change to a line that is in the cart must go through
+ * this class (or be bracketed by remove and add) for the sums to stay right.
+ */
+public class CartTotals {
+    private long subtotalPaise;
+    private long lineDiscountPaise;
+    private long gstPaise;
+    private int lineCount;
+    private int billDiscountBasisPoints;
+
+    /**
+     * Add a line whose totals are already calculated
+     */
+    public void add(BillItem line) {
+        subtotalPaise += line.getTaxablePaise();
+        lineDiscountPaise += line.getDiscountPaise();
+        gstPaise += line.getGstPaise();
+        lineCount++;
+    }
+
+    public void remove(BillItem line) {
+        subtotalPaise -= line.getTaxablePaise();
+        lineDiscountPaise -= line.getDiscountPaise();
+        gstPaise -= line.getGstPaise();
+        lineCount--;
+    }
+
+    public void clear() {
+        subtotalPaise = 0;
+        lineDiscountPaise = 0;
+        gstPaise = 0;
+        lineCount = 0;
+    }
+
+    /**
+     * Change a line's quantity and recalculate it, keeping the totals in step
+     */
+    public void setQuantity(BillItem line, int quantity) {
+        remove(line);
+        line.setQuantityAndRecalculate(quantity);
+        add(line);
+    }
+
+    /**
+     * Change a line's discount and recalculate it, keeping the totals in step
+     */
+    public void setDiscountPercentage(BillItem line, BigDecimal discountPercentage) {
+        remove(line);
+        line.setDiscountPercentageAndRecalculate(discountPercentage);
+        add(line);
+    }
+
+    /**
+     * Totals of the given lines with this cart's bill discount, for a bill built from copies of the cart lines
+     */
+    public CartTotals forLines(List<BillItem> lines) {
+        CartTotals totals = new CartTotals();
+        totals.billDiscountBasisPoints = billDiscountBasisPoints;
+        for (BillItem line : lines) {
+            totals.add(line);
+        }
+        return totals;
+    }
+
+    /**
+     * Discount on the whole bill (after GST), as a percentage
+     */
+    public void setBillDiscountPercentage(BigDecimal percent) {
+        billDiscountBasisPoints = Money.toBasisPoints(percent);
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Sum of the lines' taxable values, after line discounts and before GST
+     */
+    public long getSubtotalPaise() {
+        return subtotalPaise;
+    }
+
+    public long getLineDiscountPaise() {
+        return lineDiscountPaise;
+    }
+
+    public long getGstPaise() {
+        return gstPaise;
+    }
+
+    public long getBillDiscountPaise() {
+        return Money.percentOf(subtotalPaise + gstPaise, billDiscountBasisPoints);
+    }
+
+    public long getTotalPaise() {
+        return subtotalPaise + gstPaise - getBillDiscountPaise();
+    }
+
+    public BigDecimal getSubtotal() {
+        return Money.toRupees(subtotalPaise);
+    }
+
+    public BigDecimal getGstAmount() {
+        return Money.toRupees(gstPaise);
+    }
+
+    public BigDecimal getBillDiscountAmount() {
+        return Money.toRupees(getBillDiscountPaise());
+    }
+
+    public BigDecimal getTotal() {
+        return Money.toRupees(getTotalPaise());
+    }
+}
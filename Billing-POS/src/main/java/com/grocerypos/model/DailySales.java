@@ -0,0 +1,86 @@
+package com.grocerypos.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DailySales model class for one day's totals from the sales rollup
+ */
+public class DailySales {
+    private LocalDate saleDate;
+    private int billCount;
+    private BigDecimal grossAmount;
+    private BigDecimal gstAmount;
+    private BigDecimal discountAmount;
+
+    // Constructors
+    public DailySales() {}
+
+    public DailySales(LocalDate saleDate, int billCount, BigDecimal grossAmount,
+                      BigDecimal gstAmount, BigDecimal discountAmount) {
+        this.saleDate = saleDate;
+        this.billCount = billCount;
+        this.grossAmount = grossAmount;
+        this.gstAmount = gstAmount;
+        this.discountAmount = discountAmount;
+    }
+
+    /**
+     * A day with no sales
+     */
+    public static DailySales empty(LocalDate saleDate) {
+        return new DailySales(saleDate, 0, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    // Getters and Setters
+    public LocalDate getSaleDate() {
+        return saleDate;
+    }
+
+    public void setSaleDate(LocalDate saleDate) {
+        this.saleDate = saleDate;
+    }
+
+    public int getBillCount() {
+        return billCount;
+    }
+
+    public void setBillCount(int billCount) {
+        this.billCount = billCount;
+    }
+
+    public BigDecimal getGrossAmount() {
+        return grossAmount;
+    }
+
+    public void setGrossAmount(BigDecimal grossAmount) {
+        this.grossAmount = grossAmount;
+    }
+
+    public BigDecimal getGstAmount() {
+        return gstAmount;
+    }
+
+    public void setGstAmount(BigDecimal gstAmount) {
+        this.gstAmount = gstAmount;
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    @Override
+    public String toString() {
+        return "DailySales{" +
+                "saleDate=" + saleDate +
+                ", billCount=" + billCount +
+                ", grossAmount=" + grossAmount +
+                ", gstAmount=" + gstAmount +
+                ", discountAmount=" + discountAmount +
+                '}';
+    }
+}
@@ -0,0 +1,87 @@
+package com.grocerypos.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DashboardSnapshot model class holding everything the dashboard shows, read in one refresh
+ */
+public class DashboardSnapshot {
+    private final DailySales todaySales;
+    private final List<DailySales> dailySales;
+    private final String topProductToday;
+    private final Map<String, Integer> topProducts;
+    private final int itemCount;
+    private final int lowStockCount;
+    private final Map<Bill.PaymentMethod, Integer> paymentMethodCounts;
+    private final long loadMillis;
+
+    public DashboardSnapshot(DailySales todaySales, List<DailySales> dailySales, String topProductToday,
+                             Map<String, Integer> topProducts, int itemCount, int lowStockCount,
+                             Map<Bill.PaymentMethod, Integer> paymentMethodCounts, long loadMillis) {
+        this.todaySales = todaySales;
+        this.dailySales = dailySales;
+        this.topProductToday = topProductToday;
+        this.topProducts = topProducts;
+        this.itemCount = itemCount;
+        this.lowStockCount = lowStockCount;
+        this.paymentMethodCounts = paymentMethodCounts;
+        this.loadMillis = loadMillis;
+    }
+
+    // Getters
+    public DailySales getTodaySales() {
+        return todaySales;
+    }
+
+    /**
+     * One entry per day of the trend window, oldest first; days without sales are zero
+     */
+    public List<DailySales> getDailySales() {
+        return dailySales;
+    }
+
+    /**
+     * Name of today's best seller by quantity, or null before the first sale
+     */
+    public String getTopProductToday() {
+        return topProductToday;
+    }
+
+    /**
+     * Best sellers over the trend window by quantity, most sold first
+     */
+    public Map<String, Integer> getTopProducts() {
+        return topProducts;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getLowStockCount() {
+        return lowStockCount;
+    }
+
+    /**
+     * Bills per payment method over the trend window
+     */
+    public Map<Bill.PaymentMethod, Integer> getPaymentMethodCounts() {
+        return paymentMethodCounts;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "DashboardSnapshot{" +
+                "todaySales=" + todaySales +
+                ", topProductToday='" + topProductToday + '\'' +
+                ", itemCount=" + itemCount +
+                ", lowStockCount=" + lowStockCount +
+                ", loadMillis=" + loadMillis +
+                '}';
+    }
+}
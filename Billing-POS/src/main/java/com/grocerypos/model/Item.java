@@ -46,6 +46,23 @@ public class Item {
         this.isActive = true;
     }
 
+    public Item(Item other) {
+        this.id = other.id;
+        this.barcode = other.barcode;
+        this.name = other.name;
+        this.description = other.description;
+        this.price = other.price;
+        this.costPrice = other.costPrice;
+        this.gstPercentage = other.gstPercentage;
+        this.stockQuantity = other.stockQuantity;
+        this.minStockLevel = other.minStockLevel;
+        this.unit = other.unit;
+        this.category = other.category;
+        this.isActive = other.isActive;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getters and Setters
     public int getId() {
         return id;
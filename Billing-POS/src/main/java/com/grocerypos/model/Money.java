@@ -0,0 +1,93 @@
+package com.grocerypos.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on long paise (1 rupee = 100 paise) and rates in basis points
+ * (1% = 100 bp), so bill totals are computed without allocating.
+ *
+ * Rounding rules: a percentage of an amount (line discount, GST, bill discount) is rounded to
+ * the nearest paisa, halves away from zero (HALF_UP), once per line; totals are exact sums of
+ * the rounded lines. Conversions to and from the DECIMAL(10,2) / DECIMAL(5,2) columns are exact.
+ */
+public final class Money {
+    public static final long PAISE_PER_RUPEE = 100;
+    public static final int BASIS_POINTS_PER_PERCENT = 100;
+    public static final int FULL_RATE = 100 * BASIS_POINTS_PER_PERCENT;
+
+    private Money() {
+    }
+
+    /**
+     * Exact paise for a rupee amount with at most two decimals; null is zero
+     * @throws ArithmeticException if the amount has fractions of a paisa or does not fit a long
+     */
+    public static long toPaise(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0;
+        }
+        return rupees.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * Paise for a rupee amount, rounding fractions of a paisa HALF_UP; for amounts typed by a user
+     */
+    public static long toPaiseRounded(BigDecimal rupees) {
+        if (rupees == null) {
+            return 0;
+        }
+        return rupees.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    /**
+     * The amount in rupees with scale 2, as the DECIMAL(10,2) columns store it
+     */
+    public static BigDecimal toRupees(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /**
+     * Exact basis points for a percentage with at most two decimals (5.00% is 500); null is zero
+     * @throws ArithmeticException if the rate has more than two decimals
+     */
+    public static int toBasisPoints(BigDecimal percent) {
+        if (percent == null) {
+            return 0;
+        }
+        return percent.movePointRight(2).intValueExact();
+    }
+
+    /**
+     * The rate as a percentage with scale 2
+     */
+    public static BigDecimal toPercent(int basisPoints) {
+        return BigDecimal.valueOf(basisPoints, 2);
+    }
+
+    /**
+     * basisPoints of amount, rounded to the nearest paisa with halves away from zero
+     */
+    public static long percentOf(long paise, int basisPoints) {
+        long product = Math.multiplyExact(paise, (long) basisPoints);
+        long half = FULL_RATE / 2;
+        return product >= 0 ? (product + half) / FULL_RATE : -((-product + half) / FULL_RATE);
+    }
+
+    /**
+     * Rupees with two decimals and no currency sign, e.g. 1234.50
+     */
+    public static String format(long paise) {
+        StringBuilder text = new StringBuilder(16);
+        if (paise < 0) {
+            text.append('-');
+        }
+        long absolute = Math.abs(paise);
+        long fraction = absolute % PAISE_PER_RUPEE;
+        text.append(absolute / PAISE_PER_RUPEE).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
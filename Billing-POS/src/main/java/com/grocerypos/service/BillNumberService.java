@@ -0,0 +1,259 @@
+package com.grocerypos.service;
+
+import com.grocerypos.dao.BillSequenceDAO;
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.DataExecutor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out bill numbers such as S01-T02-261018-00042 (store, terminal, day, sequence).
+ * Sequence values come from the terminal's bill_sequences row in blocks, so most numbers are
+ * handed out from memory; the next block is fetched in the background once half of the current
+ * one is used. Numbers left in a block at shutdown or at midnight are skipped, never reused.
+ *
+ * While the database cannot hand out a block, numbers come from the terminal's offline range
+ * (sequence 90000 and up, which blocks never reach), counted in a local file that is written
+ * before each number is handed out, so a restart mid-outage does not reuse one. The database is
+ * tried again in the background and takes over as soon as it answers.
+ */
+public final class BillNumberService {
+    private static final int MAX_SEQUENCE = 99999;
+    private static final int OFFLINE_FIRST = 90000;
+    private static final int BILL_NUMBER_LENGTH = 20;
+    // Three dashes, yyMMdd and five sequence digits
+    private static final int FIXED_LENGTH = 14;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
+
+    private static BillNumberService instance;
+
+    private final BillSequenceDAO billSequenceDAO;
+    private final String storeCode;
+    private final String terminalId;
+    private final int blockSize;
+    private final Path offlineFile;
+    // Not a monitor, so the EDT can back off with tryLock while a data thread waits for a block
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Guarded by lock
+    private LocalDate blockDay;
+    private int nextValue;
+    private int blockEnd;
+    private CompletableFuture<Integer> prefetch;
+    private boolean offline;
+
+    // Metrics
+    private final AtomicLong offlineNumbers = new AtomicLong();
+
+    public BillNumberService(BillSequenceDAO billSequenceDAO, String storeCode, String terminalId, int blockSize) {
+        this(billSequenceDAO, storeCode, terminalId, blockSize, null);
+    }
+
+    /**
+     * With a null offlineFile there is no offline range and {@link #next()} fails while the database is down
+     */
+    public BillNumberService(BillSequenceDAO billSequenceDAO, String storeCode, String terminalId, int blockSize,
+                             Path offlineFile) {
+        if (storeCode.length() + terminalId.length() + FIXED_LENGTH > BILL_NUMBER_LENGTH) {
+            throw new IllegalArgumentException("store.code and terminal.id together may have at most "
+                + (BILL_NUMBER_LENGTH - FIXED_LENGTH) + " characters");
+        }
+        this.billSequenceDAO = billSequenceDAO;
+        this.storeCode = storeCode;
+        this.terminalId = terminalId;
+        this.blockSize = Math.max(1, Math.min(blockSize, OFFLINE_FIRST - 1));
+        this.offlineFile = offlineFile;
+    }
+
+    /**
+     * The service for this till, configured by store.code, terminal.id, billNumber.blockSize and billNumber.dir
+     */
+    public static synchronized BillNumberService getInstance() {
+        if (instance == null) {
+            String storeCode = DBUtil.getProperty("store.code", "S01").trim();
+            String terminalId = DBUtil.getProperty("terminal.id", "T01").trim();
+            String configured = DBUtil.getProperty("billNumber.dir", "");
+            Path directory = configured.trim().isEmpty()
+                ? Paths.get(System.getProperty("user.home"), ".grocerypos", "billnumbers")
+                : Paths.get(configured.trim());
+            instance = new BillNumberService(new BillSequenceDAO(), storeCode, terminalId,
+                DBUtil.getIntProperty("billNumber.blockSize", 50),
+                directory.resolve(storeCode + "-" + terminalId + ".offline"));
+        }
+        return instance;
+    }
+
+    /**
+     * The next bill number; only waits for the database when no block is ready and it has not just failed
+     */
+    public String next() throws SQLException {
+        lock.lock();
+        try {
+            LocalDate today = LocalDate.now();
+            if (!today.equals(blockDay)) {
+                // New day, new sequence; whatever was left of yesterday's block is dropped
+                blockDay = today;
+                nextValue = 0;
+                blockEnd = 0;
+                prefetch = null;
+            }
+            if (nextValue >= blockEnd && !takeBlock(today)) {
+                return nextOffline(today);
+            }
+            int value = nextValue++;
+            if (value >= OFFLINE_FIRST) {
+                throw new SQLException("Bill numbers for " + today + " on terminal " + terminalId + " are used up");
+            }
+            if (prefetch == null && blockEnd - nextValue <= blockSize / 2) {
+                prefetch = DataExecutor.supply(() -> billSequenceDAO.allocateBlock(storeCode, terminalId, today, blockSize));
+            }
+            return format(today, value);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@link #next()} without a background hop when the number can be handed out from memory.
+     * Never waits for the lock, so a caller on the EDT is not held up by a block being fetched.
+     */
+    public CompletableFuture<String> nextAsync() {
+        if (lock.tryLock()) {
+            try {
+                boolean blockReady = LocalDate.now().equals(blockDay)
+                    && (nextValue < blockEnd || (prefetch != null && prefetch.isDone() && !prefetch.isCompletedExceptionally()));
+                if (blockReady) {
+                    return CompletableFuture.completedFuture(next());
+                }
+            } catch (SQLException e) {
+                return CompletableFuture.failedFuture(e);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return DataExecutor.supply(this::next);
+    }
+
+    /**
+     * Numbers handed out from the offline range since start-up
+     */
+    public long getOfflineCount() {
+        return offlineNumbers.get();
+    }
+
+    /**
+     * Make the next block current; false when the database cannot provide one right now
+     */
+    private boolean takeBlock(LocalDate day) throws SQLException {
+        int first;
+        if (prefetch != null && prefetch.isDone() && !prefetch.isCompletedExceptionally()) {
+            first = prefetch.join();
+            prefetch = null;
+        } else {
+            // Never wait for the prefetch: it may be queued behind this very call on the data executor.
+            // A prefetch still running is kept for the following block; a failed one is retried later.
+            if (prefetch != null && prefetch.isCompletedExceptionally()) {
+                prefetch = null;
+            }
+            if (offline && offlineFile != null) {
+                // Probe in the background rather than making every sale wait for the outage to time out
+                if (prefetch == null) {
+                    prefetch = DataExecutor.supply(() -> billSequenceDAO.allocateBlock(storeCode, terminalId, day, blockSize));
+                }
+                return false;
+            }
+            try {
+                first = billSequenceDAO.allocateBlock(storeCode, terminalId, day, blockSize);
+            } catch (SQLException e) {
+                if (offlineFile == null) {
+                    throw e;
+                }
+                System.err.println("Could not reserve bill numbers, using the offline range of terminal "
+                    + terminalId + ": " + e.getMessage());
+                offline = true;
+                return false;
+            }
+        }
+        if (offline) {
+            offline = false;
+            System.out.println("Bill numbers for terminal " + terminalId + " come from the database again");
+        }
+        nextValue = first;
+        blockEnd = first + blockSize;
+        return true;
+    }
+
+    /**
+     * Next number of the offline range; the file is read every time, as it is the only record of what was handed out
+     */
+    private String nextOffline(LocalDate day) throws SQLException {
+        try {
+            int value = readOfflineValue(day);
+            if (value > MAX_SEQUENCE) {
+                throw new SQLException("Offline bill numbers for " + day + " on terminal " + terminalId + " are used up");
+            }
+            writeOfflineValue(day, value + 1);
+            offlineNumbers.incrementAndGet();
+            return format(day, value);
+        } catch (IOException e) {
+            throw new SQLException("Database unreachable and the offline bill number file " + offlineFile
+                + " could not be updated: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Next free offline value for the day, from a file holding "yyMMdd value"
+     */
+    private int readOfflineValue(LocalDate day) throws IOException {
+        if (!Files.exists(offlineFile)) {
+            return OFFLINE_FIRST;
+        }
+        String[] fields = new String(Files.readAllBytes(offlineFile), StandardCharsets.UTF_8).trim().split(" ");
+        if (fields.length != 2 || !fields[0].equals(DAY_FORMAT.format(day))) {
+            return OFFLINE_FIRST;
+        }
+        try {
+            return Math.max(OFFLINE_FIRST, Integer.parseInt(fields[1]));
+        } catch (NumberFormatException e) {
+            throw new IOException("Offline bill number file " + offlineFile + " is damaged: " + e.getMessage(), e);
+        }
+    }
+
+    private void writeOfflineValue(LocalDate day, int value) throws IOException {
+        Files.createDirectories(offlineFile.getParent());
+        Path temporary = offlineFile.resolveSibling(offlineFile.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap((DAY_FORMAT.format(day) + " " + value).getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, offlineFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private String format(LocalDate day, int value) {
+        StringBuilder number = new StringBuilder(BILL_NUMBER_LENGTH);
+        number.append(storeCode).append('-').append(terminalId).append('-').append(DAY_FORMAT.format(day)).append('-');
+        String sequence = Integer.toString(value);
+        for (int i = sequence.length(); i < 5; i++) {
+            number.append('0');
+        }
+        return number.append(sequence).toString();
+    }
+}
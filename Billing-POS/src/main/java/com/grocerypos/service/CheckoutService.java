@@ -0,0 +1,437 @@
+package com.grocerypos.service;
+
+import com.grocerypos.dao.BillDAO;
+import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.dao.ItemCatalog;
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.SalesRollupDAO;
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.database.SqlErrors;
+import com.grocerypos.metrics.CheckoutPhaseEvent;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.InventoryMovement;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Commits a sale atomically: the bill, its lines, the stock decrements, the
+ * inventory movements and the daily sales rollup are written in one transaction on one connection.
+ * Item rows are locked in id order before anything else is written, so two
+ * lanes selling the same SKUs serialise on the row locks instead of deadlocking.
+ *
+ * When the sales journal is enabled a checkout only appends the bill to the local journal and
+ * adjusts the cached stock; {@link JournalReplayer} commits it to the database in the background.
+ */
+public class CheckoutService {
+    private final BillDAO billDAO;
+    private final ItemDAO itemDAO;
+    private final InventoryMovementDAO inventoryMovementDAO;
+    private final SalesRollupDAO salesRollupDAO;
+    private final SalesJournal journal;
+    private final JournalReplayer replayer;
+    private final int maxAttempts;
+
+    // Metrics
+    private static final AtomicLong checkouts = new AtomicLong();
+    private static final AtomicLong retries = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static final AtomicLong journaled = new AtomicLong();
+    private static final AtomicLong deadlocks = new AtomicLong();
+    private static final AtomicLong lockWaitTimeouts = new AtomicLong();
+
+    public CheckoutService() {
+        this(new BillDAO(), new ItemDAO(), new InventoryMovementDAO());
+    }
+
+    public CheckoutService(BillDAO billDAO, ItemDAO itemDAO, InventoryMovementDAO inventoryMovementDAO) {
+        this(billDAO, itemDAO, inventoryMovementDAO, new SalesRollupDAO());
+    }
+
+    public CheckoutService(BillDAO billDAO, ItemDAO itemDAO, InventoryMovementDAO inventoryMovementDAO,
+                           SalesRollupDAO salesRollupDAO) {
+        this(billDAO, itemDAO, inventoryMovementDAO, salesRollupDAO, SalesJournal.shared());
+    }
+
+    /**
+     * With a null journal every checkout goes straight to the database
+     */
+    CheckoutService(BillDAO billDAO, ItemDAO itemDAO, InventoryMovementDAO inventoryMovementDAO,
+                    SalesRollupDAO salesRollupDAO, SalesJournal journal) {
+        this.billDAO = billDAO;
+        this.itemDAO = itemDAO;
+        this.inventoryMovementDAO = inventoryMovementDAO;
+        this.salesRollupDAO = salesRollupDAO;
+        this.journal = journal;
+        this.replayer = journal != null ? JournalReplayer.start(journal) : null;
+        this.maxAttempts = Math.max(1, DBUtil.getIntProperty("checkout.maxAttempts", 3));
+    }
+
+    /**
+     * Record the sale: in the journal when it is enabled, otherwise straight in the database
+     */
+    public CheckoutResult checkout(Bill bill) throws SQLException {
+        if (journal != null) {
+            try {
+                return checkoutToJournal(bill);
+            } catch (IOException e) {
+                System.err.println("Failed to journal " + bill.getBillNumber()
+                    + ", committing it to the database directly: " + e.getMessage());
+            }
+        }
+        return commit(bill, true);
+    }
+
+    /**
+     * Commit a journaled bill; the catalog already reflects it
+     */
+    CheckoutResult replay(Bill bill) throws SQLException {
+        return commit(bill, false);
+    }
+
+    /**
+     * Save the bill and apply its stock changes; retried when the transaction is chosen as a deadlock victim
+     */
+    private CheckoutResult commit(Bill bill, boolean updateCatalog) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                CheckoutResult result = checkoutOnce(bill, attempt, updateCatalog);
+                checkouts.incrementAndGet();
+                return result;
+            } catch (SQLException e) {
+                boolean lockConflict = recordLockConflict(e);
+                if (attempt < maxAttempts && lockConflict) {
+                    retries.incrementAndGet();
+                    System.err.println("Checkout of " + bill.getBillNumber() + " hit a lock conflict, retrying (attempt "
+                        + (attempt + 1) + " of " + maxAttempts + ")");
+                    backOff(attempt);
+                    continue;
+                }
+                failures.incrementAndGet();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Run {@link #checkout(Bill)} in the background: on the journal writer when journaling, so the
+     * checkout does not queue behind slow queries, otherwise on the data executor
+     */
+    public CompletableFuture<CheckoutResult> checkoutAsync(Bill bill) {
+        if (journal != null) {
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return checkout(bill);
+                    } catch (SQLException e) {
+                        throw new CompletionException(e);
+                    }
+                }, journal.getWriter());
+            } catch (RejectedExecutionException e) {
+                // Journal closed by a shutdown in progress
+                return DataExecutor.supply(() -> commit(bill, true));
+            }
+        }
+        return DataExecutor.supply(() -> checkout(bill));
+    }
+
+    private CheckoutResult checkoutToJournal(Bill bill) throws IOException {
+        long start = System.nanoTime();
+        if (bill.getCreatedAt() == null) {
+            // Replay may run much later; the bill keeps the time of sale
+            bill.setCreatedAt(LocalDateTime.now());
+        }
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.start(bill.getBillNumber(), 1, "journal");
+        try {
+            journal.append(bill);
+        } catch (IOException e) {
+            phase.fail();
+            throw e;
+        }
+        long journalNanos = System.nanoTime() - start;
+        phase.finish(bill.getBillItems().size());
+
+        for (Map.Entry<Integer, Integer> entry : quantityByItem(bill).entrySet()) {
+            ItemCatalog.getInstance().adjustStock(entry.getKey(), -entry.getValue());
+            ItemCatalog.getInstance().recordSale(entry.getKey(), entry.getValue());
+        }
+        journaled.incrementAndGet();
+        replayer.wakeUp();
+
+        return new CheckoutResult(0, bill.getBillNumber(), bill.getBillItems().size(), 1, true,
+            0, journalNanos, 0, 0, 0, 0, System.nanoTime() - start);
+    }
+
+    /**
+     * Same SKU scanned on several lines is one stock change; TreeMap keeps id order
+     */
+    private static Map<Integer, Integer> quantityByItem(Bill bill) {
+        Map<Integer, Integer> quantityById = new TreeMap<>();
+        for (BillItem billItem : bill.getBillItems()) {
+            quantityById.merge(billItem.getItemId(), billItem.getQuantity(), Integer::sum);
+        }
+        return quantityById;
+    }
+
+    private CheckoutResult checkoutOnce(Bill bill, int attempt, boolean updateCatalog) throws SQLException {
+        Map<Integer, Integer> quantityById = quantityByItem(bill);
+
+        long start = System.nanoTime();
+        long lockNanos;
+        long billNanos;
+        long stockNanos;
+        long movementNanos;
+        long rollupNanos;
+        long commitNanos;
+        Map<Integer, Integer> stockById;
+
+        String billNumber = bill.getBillNumber();
+        Connection connection = DBUtil.getConnection(false);
+        CheckoutPhaseEvent phase = null;
+        try {
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "lock");
+            stockById = itemDAO.lockStock(quantityById.keySet(), connection);
+            lockNanos = phase.finish(stockById.size());
+
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "bill");
+            billDAO.insertBill(bill, connection);
+            billNanos = phase.finish(1 + bill.getBillItems().size());
+
+            // Items deleted outright have no row to decrement; the bill line still records the sale
+            quantityById.keySet().retainAll(stockById.keySet());
+
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "stock");
+            itemDAO.decrementStock(quantityById, connection);
+            stockNanos = phase.finish(quantityById.size());
+
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "movements");
+            inventoryMovementDAO.insertAll(createMovements(bill, quantityById, stockById), connection);
+            movementNanos = phase.finish(quantityById.size());
+
+            // Last before commit: the rollup row is shared by every sale of this cashier today
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "rollup");
+            salesRollupDAO.addBill(bill, connection);
+            rollupNanos = phase.finish(1);
+
+            phase = CheckoutPhaseEvent.start(billNumber, attempt, "commit");
+            connection.commit();
+            commitNanos = phase.finish(0);
+        } catch (SQLException | RuntimeException e) {
+            if (phase != null) {
+                phase.fail();
+            }
+            bill.setId(0);
+            DBUtil.rollback(connection, e);
+            throw e;
+        } finally {
+            DBUtil.endTransaction(connection);
+        }
+
+        if (updateCatalog) {
+            for (Map.Entry<Integer, Integer> entry : quantityById.entrySet()) {
+                ItemCatalog.getInstance().updateStock(entry.getKey(), stockById.get(entry.getKey()) - entry.getValue());
+                ItemCatalog.getInstance().recordSale(entry.getKey(), entry.getValue());
+            }
+        }
+
+        return new CheckoutResult(bill.getId(), bill.getBillNumber(), bill.getBillItems().size(), attempt, false,
+            lockNanos, billNanos, stockNanos, movementNanos, rollupNanos, commitNanos, System.nanoTime() - start);
+    }
+
+    private List<InventoryMovement> createMovements(Bill bill, Map<Integer, Integer> quantityById,
+                                                    Map<Integer, Integer> stockById) {
+        List<InventoryMovement> movements = new ArrayList<>(quantityById.size());
+        for (Map.Entry<Integer, Integer> entry : quantityById.entrySet()) {
+            int previousStock = stockById.get(entry.getKey());
+            InventoryMovement movement = new InventoryMovement();
+            movement.setItemId(entry.getKey());
+            movement.setMovementType(InventoryMovement.MovementType.SALE);
+            movement.setQuantityChange(-entry.getValue());
+            movement.setPreviousStock(previousStock);
+            movement.setNewStock(previousStock - entry.getValue());
+            movement.setReferenceId(bill.getId());
+            movement.setReferenceType(InventoryMovement.ReferenceType.BILL);
+            movement.setNotes("Sale - Bill " + bill.getBillNumber());
+            movement.setUserId(bill.getCashierId());
+            movements.add(movement);
+        }
+        return movements;
+    }
+
+    /**
+     * Count a deadlock or lock wait timeout; true if the exception is one, and so worth retrying
+     */
+    private static boolean recordLockConflict(SQLException e) {
+        if (SqlErrors.isDeadlock(e)) {
+            deadlocks.incrementAndGet();
+            return true;
+        }
+        if (SqlErrors.isLockWaitTimeout(e)) {
+            lockWaitTimeouts.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private static void backOff(int attempt) throws SQLException {
+        try {
+            // Small randomised delay so the competing lanes do not collide again in lockstep
+            Thread.sleep(10L * attempt + (long) (Math.random() * 20));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while retrying checkout", e);
+        }
+    }
+
+    public static long getCheckoutCount() {
+        return checkouts.get();
+    }
+
+    public static long getRetryCount() {
+        return retries.get();
+    }
+
+    public static long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Checkout attempts that lost a deadlock, whether or not a retry then succeeded
+     */
+    public static long getDeadlockCount() {
+        return deadlocks.get();
+    }
+
+    /**
+     * Checkout attempts that gave up waiting for a row lock
+     */
+    public static long getLockWaitTimeoutCount() {
+        return lockWaitTimeouts.get();
+    }
+
+    /**
+     * Checkouts written to the journal rather than straight to the database
+     */
+    public static long getJournaledCount() {
+        return journaled.get();
+    }
+
+    /**
+     * Outcome of a committed checkout with per-phase timings
+     */
+    public static final class CheckoutResult {
+        private final int billId;
+        private final String billNumber;
+        private final int lineCount;
+        private final int attempts;
+        private final boolean journaled;
+        private final long lockNanos;
+        private final long billNanos;
+        private final long stockNanos;
+        private final long movementNanos;
+        private final long rollupNanos;
+        private final long commitNanos;
+        private final long totalNanos;
+
+        CheckoutResult(int billId, String billNumber, int lineCount, int attempts, boolean journaled, long lockNanos,
+                       long billNanos, long stockNanos, long movementNanos, long rollupNanos, long commitNanos,
+                       long totalNanos) {
+            this.billId = billId;
+            this.billNumber = billNumber;
+            this.lineCount = lineCount;
+            this.attempts = attempts;
+            this.journaled = journaled;
+            this.lockNanos = lockNanos;
+            this.billNanos = billNanos;
+            this.stockNanos = stockNanos;
+            this.movementNanos = movementNanos;
+            this.rollupNanos = rollupNanos;
+            this.commitNanos = commitNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * 0 for a journaled checkout, whose bill row is written later
+         */
+        public int getBillId() {
+            return billId;
+        }
+
+        public String getBillNumber() {
+            return billNumber;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        /**
+         * True when the sale was written to the local journal and is not yet in the database;
+         * the bill timing is then the journal append
+         */
+        public boolean isJournaled() {
+            return journaled;
+        }
+
+        public double getLockMillis() {
+            return lockNanos / 1_000_000.0;
+        }
+
+        public double getBillMillis() {
+            return billNanos / 1_000_000.0;
+        }
+
+        public double getStockMillis() {
+            return stockNanos / 1_000_000.0;
+        }
+
+        public double getMovementMillis() {
+            return movementNanos / 1_000_000.0;
+        }
+
+        public double getRollupMillis() {
+            return rollupNanos / 1_000_000.0;
+        }
+
+        public double getCommitMillis() {
+            return commitNanos / 1_000_000.0;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return "CheckoutResult{" +
+                    "bill=" + billNumber +
+                    ", lines=" + lineCount +
+                    ", attempts=" + attempts +
+                    ", journaled=" + journaled +
+                    ", lockMs=" + String.format("%.2f", getLockMillis()) +
+                    ", billMs=" + String.format("%.2f", getBillMillis()) +
+                    ", stockMs=" + String.format("%.2f", getStockMillis()) +
+                    ", movementMs=" + String.format("%.2f", getMovementMillis()) +
+                    ", rollupMs=" + String.format("%.2f", getRollupMillis()) +
+                    ", commitMs=" + String.format("%.2f", getCommitMillis()) +
+                    ", totalMs=" + String.format("%.2f", getTotalMillis()) +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.grocerypos.service;
+
+import com.grocerypos.dao.BillDAO;
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.SalesRollupDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.DailySales;
+import com.grocerypos.model.DashboardSnapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Loads the dashboard in one pass: a handful of aggregate queries run side by side on the
+ * data executor, so a refresh costs one round of GROUP BYs instead of a query per day and per chart.
+ */
+public class DashboardService {
+    private static final int TREND_DAYS = 7;
+    private static final int TOP_PRODUCTS = 5;
+
+    private final BillDAO billDAO;
+    private final ItemDAO itemDAO;
+    private final SalesRollupDAO salesRollupDAO;
+
+    public DashboardService() {
+        this(new BillDAO(), new ItemDAO(), new SalesRollupDAO());
+    }
+
+    public DashboardService(BillDAO billDAO, ItemDAO itemDAO, SalesRollupDAO salesRollupDAO) {
+        this.billDAO = billDAO;
+        this.itemDAO = itemDAO;
+        this.salesRollupDAO = salesRollupDAO;
+    }
+
+    /**
+     * Start loading a snapshot for today and the trend window ending today
+     */
+    public CompletableFuture<DashboardSnapshot> loadSnapshot() {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now();
+        LocalDate firstDay = today.minusDays(TREND_DAYS - 1);
+
+        CompletableFuture<List<DailySales>> dailySales =
+            DataExecutor.supply(() -> salesRollupDAO.findDailyTotals(firstDay, today));
+        CompletableFuture<Map<String, Integer>> topProducts =
+            DataExecutor.supply(() -> billDAO.findTopSellingItems(firstDay.atStartOfDay(), today.plusDays(1).atStartOfDay(), TOP_PRODUCTS));
+        CompletableFuture<Map<String, Integer>> topProductToday =
+            DataExecutor.supply(() -> billDAO.findTopSellingItems(today.atStartOfDay(), today.plusDays(1).atStartOfDay(), 1));
+        CompletableFuture<int[]> stockStatus =
+            DataExecutor.supply(itemDAO::countStockStatus);
+        CompletableFuture<Map<Bill.PaymentMethod, Integer>> paymentMethods =
+            DataExecutor.supply(() -> salesRollupDAO.findPaymentMethodCounts(firstDay, today));
+
+        return CompletableFuture.allOf(dailySales, topProducts, topProductToday, stockStatus, paymentMethods)
+            .thenApply(ignored -> {
+                List<DailySales> trend = fillDays(firstDay, today, dailySales.join());
+                int[] stock = stockStatus.join();
+                String topToday = topProductToday.join().keySet().stream().findFirst().orElse(null);
+                return new DashboardSnapshot(trend.get(trend.size() - 1), trend, topToday, topProducts.join(),
+                    stock[0], stock[1], paymentMethods.join(), (System.nanoTime() - start) / 1_000_000);
+            });
+    }
+
+    private static List<DailySales> fillDays(LocalDate firstDay, LocalDate lastDay, List<DailySales> daysWithSales) {
+        List<DailySales> days = new ArrayList<>(TREND_DAYS);
+        int next = 0;
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            if (next < daysWithSales.size() && daysWithSales.get(next).getSaleDate().equals(day)) {
+                days.add(daysWithSales.get(next++));
+            } else {
+                days.add(DailySales.empty(day));
+            }
+        }
+        return days;
+    }
+}
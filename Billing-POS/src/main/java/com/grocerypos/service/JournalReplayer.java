@@ -0,0 +1,225 @@
+package com.grocerypos.service;
+
+import com.grocerypos.dao.BillDAO;
+import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.SalesRollupDAO;
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.database.SqlErrors;
+import com.grocerypos.metrics.Histogram;
+import com.grocerypos.metrics.MetricsRegistry;
+import com.grocerypos.model.Bill;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Copies journaled sales into bills, bill_items and inventory_movements in journal order,
+ * on one background thread. Replay is idempotent: a bill whose number is already in the
+ * database is skipped, so records replayed twice (after a crash before the checkpoint was
+ * written) are harmless. While the database is unreachable, or a bill loses a lock conflict, the
+ * replayer keeps its place and tries again on the next tick. A bill the database refuses for any
+ * other reason (a constraint, data too long, a bug in the mapping) would block every later sale,
+ * so it is dead-lettered (see {@link SalesJournal#deadLetter}) and replay moves on, as is a record
+ * that cannot be read back from the journal.
+ * Each bill is timed into journal.replay{outcome=ok|skipped|deadLetter}.
+ */
+public final class JournalReplayer {
+    private static final int BATCH_SIZE = 50;
+    private static final String SQLSTATE_INTEGRITY_PREFIX = "23";
+
+    private static JournalReplayer instance;
+
+    private final SalesJournal journal;
+    private final CheckoutService checkoutService;
+    private final BillDAO billDAO;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    // Metrics
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final Histogram replayedTimes = MetricsRegistry.shared().histogram("journal.replay{outcome=ok}");
+    private final Histogram skippedTimes = MetricsRegistry.shared().histogram("journal.replay{outcome=skipped}");
+    private final Histogram deadLetterTimes = MetricsRegistry.shared().histogram("journal.replay{outcome=deadLetter}");
+
+    private JournalReplayer(SalesJournal journal) {
+        this.journal = journal;
+        this.billDAO = new BillDAO();
+        this.checkoutService = new CheckoutService(billDAO, new ItemDAO(), new InventoryMovementDAO(),
+            new SalesRollupDAO(), null);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sales-journal-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int intervalMillis = Math.max(100, DBUtil.getIntProperty("journal.replayInterval", 2000));
+        executor.scheduleWithFixedDelay(this::drain, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Start replaying the journal, once per process
+     */
+    public static synchronized JournalReplayer start(SalesJournal journal) {
+        if (instance == null) {
+            instance = new JournalReplayer(journal);
+        }
+        return instance;
+    }
+
+    /**
+     * Start replaying the shared journal at application start-up, so sales journaled before a restart
+     * reach the database whichever screens are opened; null when the journal is off
+     */
+    public static JournalReplayer startShared() {
+        SalesJournal journal = SalesJournal.shared();
+        return journal != null ? start(journal) : null;
+    }
+
+    /**
+     * Replay soon rather than on the next tick, e.g. right after a sale was journaled
+     */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                wakeUpPending.set(false);
+                drain();
+            });
+        }
+    }
+
+    public long getReplayedCount() {
+        return replayed.get();
+    }
+
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    public long getFailedAttemptCount() {
+        return failedAttempts.get();
+    }
+
+    /**
+     * Bills set aside because the database refused them for good, since start-up
+     */
+    public long getDeadLetteredCount() {
+        return deadLettered.get();
+    }
+
+    public Path getDeadLetterLog() {
+        return journal.getDeadLetterLog();
+    }
+
+    /**
+     * Stop replaying; anything left stays in the journal for the next start
+     */
+    public void shutdown() {
+        // No interrupt: one arriving inside a journal read would close the journal's channel
+        executor.shutdown();
+    }
+
+    /**
+     * Stop the process-wide replayer, if it was started, and wait briefly for the batch in flight; called
+     * by {@link DBUtil#shutdown()} before the pool closes
+     */
+    public static synchronized void shutdownShared() {
+        if (instance == null) {
+            return;
+        }
+        instance.shutdown();
+        try {
+            instance.executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!executor.isShutdown()) {
+                List<SalesJournal.Entry> entries = journal.read(journal.getCheckpoint(), BATCH_SIZE);
+                if (entries.isEmpty()) {
+                    return;
+                }
+                long applied = journal.getCheckpoint();
+                try {
+                    for (SalesJournal.Entry entry : entries) {
+                        long start = System.nanoTime();
+                        if (entry.getBill() == null) {
+                            deadLetter(entry, entry.getError(), start);
+                            applied = entry.getEnd();
+                            continue;
+                        }
+                        try {
+                            apply(entry.getBill(), start);
+                        } catch (SQLException e) {
+                            if (SqlErrors.isTransient(e)) {
+                                throw e;
+                            }
+                            deadLetter(entry, describe(e), start);
+                        } catch (RuntimeException e) {
+                            deadLetter(entry, e.toString(), start);
+                        }
+                        applied = entry.getEnd();
+                    }
+                } finally {
+                    // Keep what has been applied even when a later bill fails
+                    if (applied > journal.getCheckpoint()) {
+                        journal.checkpoint(applied);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            failedAttempts.incrementAndGet();
+            System.err.println("Sales journal replay paused, " + journal.getPendingBytes()
+                + " bytes waiting for the database: " + e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            failedAttempts.incrementAndGet();
+            System.err.println("Sales journal replay failed: " + e.getMessage());
+        }
+    }
+
+    private void apply(Bill bill, long start) throws SQLException {
+        if (billDAO.existsByBillNumber(bill.getBillNumber())) {
+            skipped.incrementAndGet();
+            skippedTimes.recordNanos(System.nanoTime() - start);
+            return;
+        }
+        try {
+            checkoutService.replay(bill);
+            replayed.incrementAndGet();
+            replayedTimes.recordNanos(System.nanoTime() - start);
+        } catch (SQLException e) {
+            // Another replay (or a direct checkout) got there first: the unique bill_number says it is already in
+            if (e.getSQLState() != null && e.getSQLState().startsWith(SQLSTATE_INTEGRITY_PREFIX)
+                    && billDAO.existsByBillNumber(bill.getBillNumber())) {
+                skipped.incrementAndGet();
+                skippedTimes.recordNanos(System.nanoTime() - start);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    private void deadLetter(SalesJournal.Entry entry, String reason, long start) throws IOException {
+        journal.deadLetter(entry, reason);
+        deadLettered.incrementAndGet();
+        deadLetterTimes.recordNanos(System.nanoTime() - start);
+        System.err.println("Sales journal could not replay " + entry.describe() + " at offset " + entry.getStart()
+            + ", set aside in " + journal.getDeadLetterLog() + ": " + reason);
+    }
+
+    private static String describe(SQLException e) {
+        return "SQLState " + e.getSQLState() + ", error " + e.getErrorCode() + ": " + e.getMessage();
+    }
+}
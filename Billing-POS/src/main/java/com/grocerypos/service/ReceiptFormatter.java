@@ -0,0 +1,49 @@
+package com.grocerypos.service;
+
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.CartTotals;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Lays out the 32-column text receipt shown and printed at the till
+ */
+public final class ReceiptFormatter {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private ReceiptFormatter() {
+    }
+
+    public static String format(String billNumber, LocalDateTime printedAt, String cashierName,
+                                List<BillItem> lines, CartTotals totals) {
+        StringBuilder receipt = new StringBuilder(512 + lines.size() * 80);
+        receipt.append("================================\n");
+        receipt.append("        GROCERY STORE\n");
+        receipt.append("    123 Main Street, City\n");
+        receipt.append("    Phone: +91-9876543210\n");
+        receipt.append("================================\n");
+        receipt.append("Bill No: ").append(billNumber).append("\n");
+        receipt.append("Date: ").append(printedAt.format(DATE_FORMAT)).append("\n");
+        receipt.append("Cashier: ").append(cashierName).append("\n");
+        receipt.append("--------------------------------\n");
+
+        for (BillItem item : lines) {
+            receipt.append(String.format("%-20s %2d x ₹%6.2f\n",
+                item.getItemName().substring(0, Math.min(item.getItemName().length(), 20)),
+                item.getQuantity(),
+                item.getUnitPrice()));
+            receipt.append(String.format("                    ₹%6.2f\n", item.getLineTotal()));
+        }
+
+        receipt.append("--------------------------------\n");
+        receipt.append(String.format("Subtotal:           ₹%6.2f\n", totals.getSubtotal()));
+        receipt.append(String.format("GST:                ₹%6.2f\n", totals.getGstAmount()));
+        receipt.append(String.format("Total:              ₹%6.2f\n", totals.getTotal()));
+        receipt.append("================================\n");
+        receipt.append("    Thank you for shopping!\n");
+        receipt.append("================================\n");
+        return receipt.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package com.grocerypos.service;
+
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.ReportExportDAO;
+import com.grocerypos.util.CsvFileWriter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Streams sales and stock reports from the database straight into CSV files.
+ * Rows go from a forward-only cursor to a fixed-size write buffer one at a time, so exporting
+ * a year of bills needs no more memory than exporting a day.
+ */
+public class ReportExporter {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+    private static final int PROGRESS_EVERY = 1000;
+
+    private final ReportExportDAO reportExportDAO;
+    private final ItemDAO itemDAO;
+
+    /**
+     * Told how far the export has got; asked whether to stop
+     */
+    public interface Progress {
+        void update(long rowsWritten, long totalRows);
+
+        boolean isCancelled();
+    }
+
+    public ReportExporter() {
+        this(new ReportExportDAO(), new ItemDAO());
+    }
+
+    public ReportExporter(ReportExportDAO reportExportDAO, ItemDAO itemDAO) {
+        this.reportExportDAO = reportExportDAO;
+        this.itemDAO = itemDAO;
+    }
+
+    /**
+     * Write the bills of the inclusive date range; returns the number of bills written
+     * @throws CancellationException if cancelled, after deleting the partial file
+     */
+    public long exportSales(LocalDate startDate, LocalDate endDate, Path file, boolean compress, Progress progress)
+            throws SQLException, IOException {
+        long total = reportExportDAO.countSales(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        long rows = 0;
+        try (CsvFileWriter csv = new CsvFileWriter(file, compress);
+             ReportExportDAO.Cursor cursor = reportExportDAO.openSales(startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())) {
+            csv.header("Date", "Bill No", "Customer", "Items", "Subtotal", "GST", "Total", "Payment");
+            while (cursor.next()) {
+                ResultSet row = cursor.row();
+                Timestamp createdAt = row.getTimestamp(1);
+                String customer = row.getString(3);
+                csv.field(createdAt != null ? DATE_FORMAT.format(createdAt.toLocalDateTime()) : null)
+                    .field(row.getString(2))
+                    .field(customer != null ? customer : "Walk-in")
+                    .field(row.getLong(4))
+                    .field(plain(row.getBigDecimal(5)))
+                    .field(plain(row.getBigDecimal(6)))
+                    .field(plain(row.getBigDecimal(7)))
+                    .field(row.getString(8));
+                csv.endRow();
+                if (++rows % PROGRESS_EVERY == 0 && checkpoint(progress, rows, total)) {
+                    break;
+                }
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return finish(file, progress, rows, total);
+    }
+
+    /**
+     * Write every active item with its stock status; returns the number of items written
+     * @throws CancellationException if cancelled, after deleting the partial file
+     */
+    public long exportStock(Path file, boolean compress, Progress progress) throws SQLException, IOException {
+        long total = itemDAO.countActive();
+        long rows = 0;
+        try (CsvFileWriter csv = new CsvFileWriter(file, compress);
+             ReportExportDAO.Cursor cursor = reportExportDAO.openStock()) {
+            csv.header("Name", "Barcode", "Stock", "Min Stock", "Status", "Category");
+            while (cursor.next()) {
+                ResultSet row = cursor.row();
+                int stock = row.getInt(3);
+                int minStock = row.getInt(4);
+                csv.field(row.getString(1))
+                    .field(row.getString(2))
+                    .field(stock)
+                    .field(minStock)
+                    .field(stock <= minStock ? "LOW STOCK" : "OK")
+                    .field(row.getString(5));
+                csv.endRow();
+                if (++rows % PROGRESS_EVERY == 0 && checkpoint(progress, rows, total)) {
+                    break;
+                }
+            }
+        } catch (SQLException | IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return finish(file, progress, rows, total);
+    }
+
+    /**
+     * Report progress; true when the export should stop
+     */
+    private static boolean checkpoint(Progress progress, long rows, long total) {
+        progress.update(rows, Math.max(rows, total));
+        return progress.isCancelled();
+    }
+
+    private static long finish(Path file, Progress progress, long rows, long total) throws IOException {
+        if (progress.isCancelled()) {
+            Files.deleteIfExists(file);
+            throw new CancellationException("Export cancelled after " + rows + " rows");
+        }
+        progress.update(rows, Math.max(rows, total));
+        return rows;
+    }
+
+    private static String plain(BigDecimal amount) {
+        return amount != null ? amount.toPlainString() : null;
+    }
+}
@@ -0,0 +1,493 @@
+package com.grocerypos.service;
+
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.Money;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only local journal of completed sales, written before the database so a checkout
+ * only waits for the local disk. Each record is [length][CRC32][bill]; a record is durable once
+ * {@link #append(Bill)} returns. Concurrent appenders share fsyncs: whoever syncs first covers
+ * every record written before it, and the others return without syncing again.
+ *
+ * A separate checkpoint file holds the offset of the first record not yet in the database;
+ * {@link JournalReplayer} advances it. A torn record at the tail (a crash mid-append) is cut
+ * off when the journal is opened. Records the database refuses for good are copied, in the
+ * same format, to sales.deadletter, with the reason in sales.deadletter.log; so are records that
+ * cannot be read back (a failed checksum, a format the code no longer understands).
+ */
+public final class SalesJournal {
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final byte FORMAT_VERSION = 1;
+
+    private static SalesJournal shared;
+    private static boolean sharedOpened;
+
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final Path deadLetterFile;
+    private final Path deadLetterLog;
+    private final FileChannel channel;
+    private final long compactThreshold;
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final ExecutorService writer;
+
+    private long writePosition;             // guarded by appendLock
+    private volatile long syncedPosition;
+    private volatile long checkpoint;
+
+    // Metrics
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    /**
+     * A bill read back from the journal, with the offsets of its record. A record that could not be
+     * read has no bill, only the error; it still has offsets, so it can be dead-lettered and skipped.
+     */
+    public static final class Entry {
+        private final Bill bill;
+        private final String error;
+        private final long start;
+        private final long end;
+
+        Entry(Bill bill, String error, long start, long end) {
+            this.bill = bill;
+            this.error = error;
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * The journaled bill; null when the record could not be read
+         */
+        public Bill getBill() {
+            return bill;
+        }
+
+        /**
+         * Why the record could not be read; null for a readable one
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * The bill number, for logs
+         */
+        public String describe() {
+            return bill != null ? bill.getBillNumber() : "unreadable record";
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+    }
+
+    public SalesJournal(Path directory, long compactThreshold) throws IOException {
+        Files.createDirectories(directory);
+        this.journalFile = directory.resolve("sales.journal");
+        this.checkpointFile = directory.resolve("sales.checkpoint");
+        this.deadLetterFile = directory.resolve("sales.deadletter");
+        this.deadLetterLog = directory.resolve("sales.deadletter.log");
+        this.compactThreshold = compactThreshold;
+        this.channel = FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long size = channel.size();
+        checkpoint = Math.min(readCheckpoint(), size);
+        long validEnd = scan(checkpoint);
+        if (validEnd < size) {
+            System.err.println("Sales journal " + journalFile + " has a torn record at " + validEnd
+                + ", discarding the last " + (size - validEnd) + " bytes");
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        writePosition = validEnd;
+        syncedPosition = validEnd;
+
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "sales-journal-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The process-wide journal when journal.enabled is set; null when it is off or cannot be opened
+     */
+    public static synchronized SalesJournal shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            if (Boolean.parseBoolean(DBUtil.getProperty("journal.enabled", "true"))) {
+                String configured = DBUtil.getProperty("journal.dir", "");
+                Path directory = configured.trim().isEmpty()
+                    ? Paths.get(System.getProperty("user.home"), ".grocerypos", "journal")
+                    : Paths.get(configured.trim());
+                try {
+                    shared = new SalesJournal(directory, DBUtil.getIntProperty("journal.compactThreshold", 1 << 20));
+                    System.out.println("Sales journal opened at " + directory + ", " + shared.getPendingBytes()
+                        + " bytes awaiting replay");
+                } catch (IOException e) {
+                    System.err.println("Failed to open sales journal in " + directory
+                        + ", checkouts will go straight to the database: " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Single thread for checkouts that only touch the journal, kept apart from the data executor
+     */
+    public ExecutorService getWriter() {
+        return writer;
+    }
+
+    /**
+     * Append the bill and wait until it is on disk
+     */
+    public void append(Bill bill) throws IOException {
+        ByteBuffer record = encode(bill);
+        long end;
+        synchronized (appendLock) {
+            long position = writePosition;
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            writePosition = position;
+            end = position;
+        }
+        appends.incrementAndGet();
+
+        // Group commit: one fsync covers every record written before it started
+        synchronized (syncLock) {
+            if (syncedPosition < end) {
+                long target;
+                synchronized (appendLock) {
+                    target = writePosition;
+                }
+                channel.force(false);
+                syncedPosition = target;
+                syncs.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Up to maxEntries durable records starting at the given offset. A record that fails its checksum
+     * or cannot be decoded comes back as an entry without a bill rather than failing the whole read,
+     * so one bad record cannot hold up the ones behind it.
+     */
+    public List<Entry> read(long from, int maxEntries) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        long limit = syncedPosition;
+        long position = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (entries.size() < maxEntries && position + HEADER_BYTES <= limit) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            long start = position;
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > limit) {
+                // The length is garbage, so there is no telling where the next record starts; the rest of
+                // what is synced goes as one entry, and appends made after it are read normally
+                entries.add(new Entry(null, "record length " + length + " is invalid, set aside "
+                    + (limit - start) + " bytes up to offset " + limit, start, limit));
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            position += HEADER_BYTES + length;
+            if (crc(payload.array()) != header.getInt(4)) {
+                entries.add(new Entry(null, "record failed its checksum", start, position));
+                continue;
+            }
+            try {
+                entries.add(new Entry(decode(payload.array()), null, start, position));
+            } catch (IOException | RuntimeException e) {
+                entries.add(new Entry(null, "record could not be decoded: " + e, start, position));
+            }
+        }
+        return entries;
+    }
+
+    public long getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Record that everything before this offset is in the database; compacts the journal once it is fully replayed
+     */
+    public void checkpoint(long position) throws IOException {
+        writeCheckpoint(position);
+        checkpoint = position;
+        if (position >= compactThreshold) {
+            compactIfDrained();
+        }
+    }
+
+    /**
+     * Set aside a record the database will never accept, so the caller can checkpoint past it:
+     * the record is appended to sales.deadletter as it was journaled, and the reason to sales.deadletter.log
+     */
+    public void deadLetter(Entry entry, String reason) throws IOException {
+        try (FileChannel out = FileChannel.open(deadLetterFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Copied straight across: an entry for an unreadable stretch of the journal may be large
+            long position = entry.start;
+            while (position < entry.end) {
+                long copied = channel.transferTo(position, entry.end - position, out);
+                if (copied <= 0) {
+                    throw new EOFException("Sales journal ended inside a record at " + position);
+                }
+                position += copied;
+            }
+            out.force(true);
+        }
+        String line = LocalDateTime.now() + " " + entry.describe() + " (journal offset " + entry.start
+            + "): " + reason.replaceAll("\\s*\\R\\s*", " ") + System.lineSeparator();
+        Files.write(deadLetterLog, line.getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public Path getDeadLetterLog() {
+        return deadLetterLog;
+    }
+
+    /**
+     * Bytes of durable records not yet replayed
+     */
+    public long getPendingBytes() {
+        return syncedPosition - checkpoint;
+    }
+
+    public long getAppendCount() {
+        return appends.get();
+    }
+
+    public long getSyncCount() {
+        return syncs.get();
+    }
+
+    /**
+     * Close the process-wide journal if it was opened; called by {@link DBUtil#shutdown()}
+     */
+    public static synchronized void closeShared() {
+        if (shared != null) {
+            shared.close();
+        }
+    }
+
+    public void close() {
+        writer.shutdown();
+        try {
+            synchronized (syncLock) {
+                if (channel.isOpen()) {
+                    channel.force(false);
+                    channel.close();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing sales journal: " + e.getMessage());
+        }
+    }
+
+    private void compactIfDrained() throws IOException {
+        synchronized (syncLock) {
+            synchronized (appendLock) {
+                if (checkpoint != writePosition) {
+                    return;
+                }
+                // A crash before the checkpoint is rewritten leaves it past the end, which open() clamps to 0
+                channel.truncate(0);
+                channel.force(true);
+                writeCheckpoint(0);
+                writePosition = 0;
+                syncedPosition = 0;
+                checkpoint = 0;
+            }
+        }
+    }
+
+    /**
+     * Offset just past the last intact record at or after the given offset, ignoring damaged records
+     * that are followed by intact ones
+     */
+    private long scan(long from) throws IOException {
+        long size = channel.size();
+        long position = from;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            int length = header.getInt(0);
+            if (length <= 0 || length > MAX_RECORD_BYTES || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(payload, position + HEADER_BYTES);
+            if (crc(payload.array()) != header.getInt(4) && position + HEADER_BYTES + length == size) {
+                // A bad last record is a torn append; one with intact records behind it is left for
+                // read() to hand out as unreadable, rather than cutting off every sale after it
+                break;
+            }
+            position += HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("Sales journal ended inside a record at " + position);
+            }
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(checkpointFile);
+        return bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+    }
+
+    private void writeCheckpoint(long position) throws IOException {
+        Path temporary = checkpointFile.resolveSibling("sales.checkpoint.tmp");
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(0, position);
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ByteBuffer encode(Bill bill) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(FORMAT_VERSION);
+        out.writeUTF(bill.getBillNumber());
+        writeNullable(out, bill.getCustomerName());
+        writeNullable(out, bill.getCustomerPhone());
+        out.writeLong(Money.toPaise(bill.getSubtotal()));
+        out.writeLong(Money.toPaise(bill.getDiscountAmount()));
+        out.writeLong(Money.toPaise(bill.getGstAmount()));
+        out.writeLong(Money.toPaise(bill.getTotalAmount()));
+        out.writeUTF(bill.getPaymentMethod().name());
+        out.writeUTF(bill.getPaymentStatus().name());
+        out.writeInt(bill.getCashierId());
+        out.writeLong(bill.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        out.writeInt(bill.getBillItems().size());
+        for (BillItem line : bill.getBillItems()) {
+            out.writeInt(line.getItemId());
+            writeNullable(out, line.getItemName());
+            writeNullable(out, line.getItemBarcode());
+            out.writeInt(line.getQuantity());
+            out.writeLong(line.getUnitPricePaise());
+            out.writeInt(line.getDiscountBasisPoints());
+            out.writeLong(line.getDiscountPaise());
+            out.writeInt(line.getGstBasisPoints());
+            out.writeLong(line.getGstPaise());
+            out.writeLong(line.getLineTotalPaise());
+        }
+        out.flush();
+
+        byte[] payload = bytes.toByteArray();
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IOException("Bill " + bill.getBillNumber() + " is too large for the sales journal");
+        }
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt(crc(payload)).put(payload).flip();
+        return record;
+    }
+
+    private static Bill decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported sales journal record version " + version);
+        }
+        Bill bill = new Bill();
+        bill.setBillNumber(in.readUTF());
+        bill.setCustomerName(readNullable(in));
+        bill.setCustomerPhone(readNullable(in));
+        bill.setSubtotal(Money.toRupees(in.readLong()));
+        bill.setDiscountAmount(Money.toRupees(in.readLong()));
+        bill.setGstAmount(Money.toRupees(in.readLong()));
+        bill.setTotalAmount(Money.toRupees(in.readLong()));
+        bill.setPaymentMethod(Bill.PaymentMethod.valueOf(in.readUTF()));
+        bill.setPaymentStatus(Bill.PaymentStatus.valueOf(in.readUTF()));
+        bill.setCashierId(in.readInt());
+        bill.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(in.readLong()), ZoneId.systemDefault()));
+        int lineCount = in.readInt();
+        List<BillItem> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            BillItem line = new BillItem();
+            line.setItemId(in.readInt());
+            line.setItemName(readNullable(in));
+            line.setItemBarcode(readNullable(in));
+            line.setQuantity(in.readInt());
+            line.setUnitPricePaise(in.readLong());
+            line.setDiscountPercentage(Money.toPercent(in.readInt()));
+            line.setDiscountAmount(Money.toRupees(in.readLong()));
+            line.setGstBasisPoints(in.readInt());
+            line.setGstAmount(Money.toRupees(in.readLong()));
+            line.setLineTotal(Money.toRupees(in.readLong()));
+            lines.add(line);
+        }
+        bill.setBillItems(lines);
+        return bill;
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+}
@@ -1,12 +1,20 @@
 package com.grocerypos.ui;
 
+import com.grocerypos.dao.AsyncItemDAO;
 import com.grocerypos.dao.ItemDAO;
 import com.grocerypos.dao.BillDAO;
 import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.metrics.CheckoutEvent;
+import com.grocerypos.metrics.ReceiptPrintEvent;
+import com.grocerypos.metrics.ScanEvent;
 import com.grocerypos.model.Item;
 import com.grocerypos.model.Bill;
 import com.grocerypos.model.BillItem;
-import com.grocerypos.model.InventoryMovement;
+import com.grocerypos.model.CartTotals;
+import com.grocerypos.service.BillNumberService;
+import com.grocerypos.service.CheckoutService;
+import com.grocerypos.service.ReceiptFormatter;
 import com.grocerypos.util.SessionManager;
 import com.grocerypos.ui.components.*;
 import com.grocerypos.util.SoundUtils;
@@ -19,21 +27,23 @@ import java.awt.print.PrinterJob;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
 import java.math.BigDecimal;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Modern futuristic macOS-inspired billing panel with glass morphism effects
  */
 public class BillingWindow extends JPanel {
+    // Product names shown in the search popup and the "Did you mean?" dialog
+    private static final int SUGGESTION_LIMIT = 8;
+    
     // Modern components
     private ModernSearchField barcodeField;
     private ModernSearchField searchField;
     private ModernTable cartTable;
-    private DefaultTableModel cartModel;
+    private CartTableModel cartModel;
     private InvoiceSummaryCard summaryCard;
     private ProductSidebar productSidebar;
     
@@ -46,16 +56,20 @@ public class BillingWindow extends JPanel {
     private JPopupMenu cartContextMenu;
     
     // Data
-    private List<BillItem> cartItems;
-    private BigDecimal subtotal;
-    private BigDecimal gstAmount;
-    private BigDecimal finalTotal;
+    private final List<BillItem> cartItems = new ArrayList<>();
+    private final CartTotals cartTotals = new CartTotals();
     private BigDecimal discountPercent = BigDecimal.ZERO;
     
     // DAOs
     private ItemDAO itemDAO;
+    private AsyncItemDAO asyncItemDAO;
     private BillDAO billDAO;
-    private InventoryMovementDAO inventoryMovementDAO;
+    private CheckoutService checkoutService;
+    // Scans are looked up one after another so the cart keeps scan order
+    private CompletableFuture<?> pendingScan = CompletableFuture.completedFuture(null);
+    private boolean checkoutInProgress;
+    // The customer is being shown the total; the cart must not change until they have paid it
+    private boolean takingPayment;
     
     private String currentBillNumber;
 
@@ -66,15 +80,11 @@ public class BillingWindow extends JPanel {
         setupEventHandlers();
         setupWindow();
         
-        cartItems = new ArrayList<>();
-        subtotal = BigDecimal.ZERO;
-        gstAmount = BigDecimal.ZERO;
-        finalTotal = BigDecimal.ZERO;
-        
         try {
             itemDAO = new ItemDAO();
+            asyncItemDAO = new AsyncItemDAO(itemDAO);
             billDAO = new BillDAO();
-            inventoryMovementDAO = new InventoryMovementDAO();
+            checkoutService = new CheckoutService(billDAO, itemDAO, new InventoryMovementDAO());
         } catch (Exception e) {
             ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database connection error: " + e.getMessage());
         }
@@ -92,14 +102,9 @@ public class BillingWindow extends JPanel {
         barcodeField.setPreferredSize(new Dimension(260, 40));
         
         // Cart table with modern styling
-        String[] columnNames = {"Item", "Barcode", "Qty", "Price", "GST%", "GST Amt", "Total"};
-        cartModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 2; // Only quantity is editable
-            }
-        };
+        cartModel = new CartTableModel(cartItems);
         cartTable = new ModernTable(cartModel);
+        CurrencyCellRenderer.install(cartTable, CartTableModel.PRICE_COLUMN, CartTableModel.GST_AMOUNT_COLUMN, CartTableModel.TOTAL_COLUMN);
         
         // Set column widths
         cartTable.getColumnModel().getColumn(0).setPreferredWidth(200);
@@ -236,14 +241,18 @@ public class BillingWindow extends JPanel {
             }
         });
         
-        // Search field enter key
-        searchField.addKeyListener(new KeyAdapter() {
-            @Override
-            public void keyPressed(KeyEvent e) {
-                if (e.getKeyCode() == KeyEvent.VK_ENTER) {
-                    searchAndAddItem();
+        // Search field enter key, or a suggestion picked from its popup
+        searchField.addActionListener(e -> searchAndAddItem());
+        
+        // Suggestions come from the in-memory catalog, typos included, so typing never waits on the database
+        searchField.setSuggestionProvider(query -> {
+            List<String> names = new ArrayList<>();
+            if (itemDAO != null) {
+                for (Item item : itemDAO.findSuggestions(query, SUGGESTION_LIMIT)) {
+                    names.add(item.getName());
                 }
             }
+            return names;
         });
         
         // Button actions
@@ -261,11 +270,7 @@ public class BillingWindow extends JPanel {
         });
         
         // Cart table cell editing
-        cartTable.getModel().addTableModelListener(e -> {
-            if (e.getColumn() == 2) { // Quantity column
-                updateItemQuantity(cartTable.getSelectedRow());
-            }
-        });
+        cartModel.setQuantityEditListener(this::updateItemQuantity);
 
         // Context menu trigger
         cartTable.addMouseListener(new java.awt.event.MouseAdapter() {
@@ -340,7 +345,15 @@ public class BillingWindow extends JPanel {
     }
 
     private void generateNewBillNumber() {
-        currentBillNumber = "BILL-" + System.currentTimeMillis();
+        // Usually handed out from memory; only the first bill of a block waits for the database
+        currentBillNumber = null;
+        BillNumberService.getInstance().nextAsync().whenCompleteAsync((number, error) -> {
+            if (error != null) {
+                System.err.println("Failed to allocate a bill number: " + DataExecutor.unwrap(error).getMessage());
+                return;
+            }
+            currentBillNumber = number;
+        }, DataExecutor.EDT);
     }
 
     private void addItemByBarcode() {
@@ -350,23 +363,25 @@ public class BillingWindow extends JPanel {
             return;
         }
         
-        try {
-            Item item = itemDAO.findByBarcode(barcode);
-            if (item != null) {
-                addItemToCart(item, 1);
-                barcodeField.setText("");
-                barcodeField.requestFocus();
-                ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Item added: " + item.getName());
-                // Play scanner beep
-                SoundUtils.playBeep();
-            } else {
-                ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Item not found with barcode: " + barcode);
-                barcodeField.setText("");
-                barcodeField.requestFocus();
-            }
-        } catch (SQLException e) {
-            ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + e.getMessage());
-        }
+        barcodeField.setText("");
+        barcodeField.requestFocus();
+        ScanEvent scanEvent = ScanEvent.start(barcode);
+        pendingScan = pendingScan
+            .handle((ignored, error) -> null)
+            .thenCompose(ignored -> asyncItemDAO.findByBarcode(barcode))
+            .whenCompleteAsync((item, error) -> {
+                scanEvent.finish(item, error);
+                if (error != null) {
+                    ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + DataExecutor.unwrap(error).getMessage());
+                } else if (item != null) {
+                    addItemToCart(item, 1);
+                    ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Item added: " + item.getName());
+                    // Play scanner beep
+                    SoundUtils.playBeep();
+                } else {
+                    ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Item not found with barcode: " + barcode);
+                }
+            }, DataExecutor.EDT);
     }
 
     private void searchAndAddItem() {
@@ -376,24 +391,29 @@ public class BillingWindow extends JPanel {
             return;
         }
         
-        try {
-            List<Item> items = itemDAO.searchByName(searchTerm);
-            if (items.isEmpty()) {
-                ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "No items found matching: " + searchTerm);
-            } else if (items.size() == 1) {
+        asyncItemDAO.searchByName(searchTerm).whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + DataExecutor.unwrap(error).getMessage());
+            } else if (items.isEmpty()) {
+                // Probably a typo; offer close spellings and sound-alikes from the catalog
+                List<Item> closeMatches = itemDAO.searchFuzzy(searchTerm, SUGGESTION_LIMIT);
+                if (closeMatches.isEmpty()) {
+                    ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "No items found matching: " + searchTerm);
+                } else {
+                    showItemSelectionDialog(closeMatches, "Did you mean?");
+                }
+            } else if (items.size() == 1 || items.get(0).getName().equalsIgnoreCase(searchTerm)) {
                 addItemToCart(items.get(0), 1);
                 searchField.setText("");
                 searchField.requestFocus();
                 ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Item added: " + items.get(0).getName());
             } else {
-                showItemSelectionDialog(items);
+                showItemSelectionDialog(items, "Select Item");
             }
-        } catch (SQLException e) {
-            ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + e.getMessage());
-        }
+        }, DataExecutor.EDT);
     }
 
-    private void showItemSelectionDialog(List<Item> items) {
+    private void showItemSelectionDialog(List<Item> items, String title) {
         String[] columnNames = {"Name", "Barcode", "Price", "Stock"};
         Object[][] data = new Object[items.size()][4];
         
@@ -411,7 +431,11 @@ public class BillingWindow extends JPanel {
         JScrollPane scrollPane = new JScrollPane(selectionTable);
         scrollPane.setPreferredSize(new Dimension(500, 200));
         
-        int result = JOptionPane.showConfirmDialog(this, scrollPane, "Select Item", JOptionPane.OK_CANCEL_OPTION);
+        if (!items.isEmpty()) {
+            selectionTable.setRowSelectionInterval(0, 0);
+        }
+        
+        int result = JOptionPane.showConfirmDialog(this, scrollPane, title, JOptionPane.OK_CANCEL_OPTION);
         if (result == JOptionPane.OK_OPTION) {
             int selectedRow = selectionTable.getSelectedRow();
             if (selectedRow != -1) {
@@ -424,19 +448,24 @@ public class BillingWindow extends JPanel {
     }
 
     private void addItemToCart(Item item, int quantity) {
+        if (takingPayment) {
+            ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this),
+                item.getName() + " was not added while payment is taken; add it again afterwards");
+            return;
+        }
         if (item.getStockQuantity() < quantity) {
             ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Insufficient stock. Available: " + item.getStockQuantity());
             return;
         }
         
         // Check if item already exists in cart
-        for (BillItem cartItem : cartItems) {
-            if (cartItem.getItemId() == item.getId()) {
-                cartItem.setQuantityAndRecalculate(cartItem.getQuantity() + quantity);
-                updateCartTable();
-                updateTotals();
-                return;
-            }
+        int existingRow = cartModel.indexOfItem(item.getId());
+        if (existingRow >= 0) {
+            BillItem cartItem = cartModel.getLine(existingRow);
+            cartTotals.setQuantity(cartItem, cartItem.getQuantity() + quantity);
+            cartModel.lineChanged(existingRow);
+            updateTotals();
+            return;
         }
         
         // Add new item to cart
@@ -449,8 +478,8 @@ public class BillingWindow extends JPanel {
         billItem.setGstPercentage(item.getGstPercentage());
         billItem.calculateTotals();
         
-        cartItems.add(billItem);
-        updateCartTable();
+        cartModel.addLine(billItem);
+        cartTotals.add(billItem);
         updateTotals();
         // Animate cart update and ensure the last row is visible
         int lastRow = cartModel.getRowCount() - 1;
@@ -461,35 +490,15 @@ public class BillingWindow extends JPanel {
         AnimationUtils.slideIn(cartTable, 220, AnimationUtils.SlideDirection.FROM_RIGHT);
     }
 
-    private void updateCartTable() {
-        cartModel.setRowCount(0);
-        for (BillItem item : cartItems) {
-            Object[] row = {
-                item.getItemName(),
-                item.getItemBarcode(),
-                item.getQuantity(),
-                "₹" + item.getUnitPrice(),
-                item.getGstPercentage() + "%",
-                "₹" + item.getGstAmount(),
-                "₹" + item.getLineTotal()
-            };
-            cartModel.addRow(row);
-        }
-    }
-
-    private void updateItemQuantity(int row) {
+    private void updateItemQuantity(int row, int newQuantity) {
         if (row >= 0 && row < cartItems.size()) {
-            try {
-                int newQuantity = Integer.parseInt(cartTable.getValueAt(row, 2).toString());
-                if (newQuantity > 0) {
-                    cartItems.get(row).setQuantityAndRecalculate(newQuantity);
-                    updateCartTable();
-                    updateTotals();
-                }
-            } catch (NumberFormatException e) {
+            if (newQuantity > 0) {
+                cartTotals.setQuantity(cartItems.get(row), newQuantity);
+                updateTotals();
+            } else {
                 ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Invalid quantity");
-                updateCartTable(); // Refresh table
             }
+            cartModel.lineChanged(row);
         }
     }
 
@@ -504,8 +513,12 @@ public class BillingWindow extends JPanel {
                 ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Discount must be between 0 and 100");
                 return;
             }
-            cartItems.get(row).setDiscountPercentageAndRecalculate(percent);
-            updateCartTable();
+            if (percent.stripTrailingZeros().scale() > 2) {
+                ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Discount can have at most two decimals");
+                return;
+            }
+            cartTotals.setDiscountPercentage(cartItems.get(row), percent);
+            cartModel.lineChanged(row);
             updateTotals();
             ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Discount applied to item");
         } catch (NumberFormatException ex) {
@@ -516,8 +529,8 @@ public class BillingWindow extends JPanel {
     private void clearSelectedItemDiscount() {
         int row = cartTable.getSelectedRow();
         if (row < 0 || row >= cartItems.size()) return;
-        cartItems.get(row).setDiscountPercentageAndRecalculate(BigDecimal.ZERO);
-        updateCartTable();
+        cartTotals.setDiscountPercentage(cartItems.get(row), BigDecimal.ZERO);
+        cartModel.lineChanged(row);
         updateTotals();
         ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "Item discount cleared");
     }
@@ -525,8 +538,7 @@ public class BillingWindow extends JPanel {
     private void removeSelectedItem() {
         int selectedRow = cartTable.getSelectedRow();
         if (selectedRow != -1 && selectedRow < cartItems.size()) {
-            cartItems.remove(selectedRow);
-            updateCartTable();
+            cartTotals.remove(cartModel.removeLine(selectedRow));
             updateTotals();
             ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "Item removed from cart");
             AnimationUtils.slideIn(cartTable, 200, AnimationUtils.SlideDirection.FROM_LEFT);
@@ -537,29 +549,17 @@ public class BillingWindow extends JPanel {
         int result = JOptionPane.showConfirmDialog(this, "Are you sure you want to clear the cart?", 
             "Clear Cart", JOptionPane.YES_NO_OPTION);
         if (result == JOptionPane.YES_OPTION) {
-            cartItems.clear();
-            updateCartTable();
+            cartModel.clear();
+            cartTotals.clear();
             updateTotals();
             ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "Cart cleared");
         }
     }
 
     private void updateTotals() {
-        subtotal = BigDecimal.ZERO;
-        gstAmount = BigDecimal.ZERO;
-        
-        for (BillItem item : cartItems) {
-            subtotal = subtotal.add(item.getLineTotal().subtract(item.getGstAmount()));
-            gstAmount = gstAmount.add(item.getGstAmount());
-        }
-        
-        BigDecimal gross = subtotal.add(gstAmount);
-        BigDecimal discountAmount = gross.multiply(discountPercent).divide(new BigDecimal("100"));
-        finalTotal = gross.subtract(discountAmount);
-        
-        // Update summary card
-        summaryCard.updateSummary(subtotal, gstAmount, discountPercent, finalTotal, cartItems.size());
-        summaryCard.setCheckoutEnabled(!cartItems.isEmpty());
+        // Running totals are kept up to date by every cart change; this only renders them
+        summaryCard.updateSummary(cartTotals.getSubtotal(), cartTotals.getGstAmount(), discountPercent, cartTotals.getTotal(), cartItems.size());
+        summaryCard.setCheckoutEnabled(!cartItems.isEmpty() && !checkoutInProgress);
     }
 
     private void promptDiscount() {
@@ -573,7 +573,12 @@ public class BillingWindow extends JPanel {
                 ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Discount must be between 0 and 100");
                 return;
             }
+            if (v.stripTrailingZeros().scale() > 2) {
+                ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Discount can have at most two decimals");
+                return;
+            }
             discountPercent = v;
+            cartTotals.setBillDiscountPercentage(v);
             updateTotals();
             ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Discount applied: " + v + "%");
         } catch (NumberFormatException ex) {
@@ -582,55 +587,84 @@ public class BillingWindow extends JPanel {
     }
 
     private void processCheckout() {
+        if (checkoutInProgress) {
+            return;
+        }
         if (cartItems.isEmpty()) {
             ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Cart is empty");
             return;
         }
+        if (currentBillNumber == null) {
+            ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "No bill number yet, please try again in a moment");
+            generateNewBillNumber();
+            return;
+        }
+        if (!pendingScan.isDone()) {
+            // A scan still looking up its item belongs on this bill; check out once it is in the cart
+            checkoutInProgress = true;
+            summaryCard.setCheckoutEnabled(false);
+            pendingScan.handle((ignored, error) -> null).thenRunAsync(() -> {
+                checkoutInProgress = false;
+                summaryCard.setCheckoutEnabled(!cartItems.isEmpty());
+                processCheckout();
+            }, DataExecutor.EDT);
+            return;
+        }
+        
+        // The bill gets its own copies of the lines and totals, taken before the customer is shown the
+        // total, so neither a late lookup nor scans for the next customer can change what is charged
+        List<BillItem> billedItems = new ArrayList<>(cartItems.size());
+        for (BillItem line : cartItems) {
+            billedItems.add(new BillItem(line));
+        }
+        CartTotals billTotals = cartTotals.forLines(billedItems);
         
         // Show payment dialog
+        checkoutInProgress = true;
+        takingPayment = true;
+        summaryCard.setCheckoutEnabled(false);
+        barcodeField.setEnabled(false);
         Window parentWindow = SwingUtilities.getWindowAncestor(this);
-        PaymentDialog paymentDialog = new PaymentDialog(parentWindow instanceof JFrame ? (JFrame) parentWindow : null, finalTotal);
+        PaymentDialog paymentDialog = new PaymentDialog(parentWindow instanceof JFrame ? (JFrame) parentWindow : null, billTotals.getTotal());
         paymentDialog.setVisible(true);
+        takingPayment = false;
+        barcodeField.setEnabled(true);
         
-        if (paymentDialog.isPaymentSuccessful()) {
-            try {
-                // Create bill
-                Bill bill = new Bill();
-                bill.setBillNumber(currentBillNumber);
-                bill.setSubtotal(subtotal);
-                bill.setGstAmount(gstAmount);
-                bill.setTotalAmount(finalTotal);
-                bill.setPaymentMethod(paymentDialog.getPaymentMethod());
-                bill.setCashierId(SessionManager.getCurrentUserId());
-                bill.setBillItems(cartItems);
-                
-                // Save bill to database
-                int billId = billDAO.insertBill(bill);
-                bill.setId(billId);
-                
-                // Update stock
-                for (BillItem item : cartItems) {
-                    Item dbItem = itemDAO.findById(item.getItemId());
-                    if (dbItem != null) {
-                        int newStock = dbItem.getStockQuantity() - item.getQuantity();
-                        itemDAO.updateStock(item.getItemId(), newStock);
-                        
-                        // Record inventory movement
-                        inventoryMovementDAO.recordStockMovement(
-                            item.getItemId(),
-                            InventoryMovement.MovementType.SALE,
-                            -item.getQuantity(),
-                            dbItem.getStockQuantity(),
-                            newStock,
-                            billId,
-                            InventoryMovement.ReferenceType.BILL,
-                            "Sale - Bill " + currentBillNumber,
-                            SessionManager.getCurrentUserId()
-                        );
+        if (!paymentDialog.isPaymentSuccessful()) {
+            checkoutInProgress = false;
+            summaryCard.setCheckoutEnabled(!cartItems.isEmpty());
+            barcodeField.requestFocus();
+        } else {
+            Bill bill = new Bill();
+            bill.setBillNumber(currentBillNumber);
+            bill.setTotals(billTotals);
+            bill.setPaymentMethod(paymentDialog.getPaymentMethod());
+            bill.setCashierId(SessionManager.getCurrentUserId());
+            bill.setBillItems(billedItems);
+            
+            // Fresh cart and bill number for the next customer straight away
+            cartModel.clear();
+            cartTotals.clear();
+            updateTotals();
+            generateNewBillNumber();
+            
+            // Save bill, stock decrements and inventory movements in one transaction
+            CheckoutEvent checkoutEvent = CheckoutEvent.start(bill);
+            checkoutService.checkoutAsync(bill).whenCompleteAsync((result, error) -> {
+                checkoutEvent.finish(result != null ? result.getAttempts() : 0, result != null && result.isJournaled(), error);
+                checkoutInProgress = false;
+                summaryCard.setCheckoutEnabled(!cartItems.isEmpty());
+                if (error != null) {
+                    String message = "Error processing bill: " + DataExecutor.unwrap(error).getMessage();
+                    if (restoreCart(billedItems)) {
+                        message += "\nIts items are back in the cart, please check out again.";
+                    } else {
+                        message += "\nThe cart is already in use; scan its items again after this sale.";
                     }
+                    ToastNotification.showError(SwingUtilities.getWindowAncestor(this), message);
+                    return;
                 }
-                
-                ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Bill processed successfully!\nBill Number: " + currentBillNumber);
+                ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Bill processed successfully!\nBill Number: " + bill.getBillNumber());
 
                 // Offer to print the receipt immediately after successful payment
                 int option = JOptionPane.showConfirmDialog(this,
@@ -639,57 +673,43 @@ public class BillingWindow extends JPanel {
                     JOptionPane.YES_NO_OPTION,
                     JOptionPane.QUESTION_MESSAGE);
                 if (option == JOptionPane.YES_OPTION) {
-                    printReceipt();
+                    showReceipt(bill.getBillNumber(), billedItems, billTotals);
                 }
-                
-                // Clear cart and generate new bill number
-                cartItems.clear();
-                updateCartTable();
-                updateTotals();
-                generateNewBillNumber();
-                
-            } catch (SQLException e) {
-                ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Error processing bill: " + e.getMessage());
-            }
+            }, DataExecutor.EDT);
         }
     }
 
+    /**
+     * Put the lines of a bill that failed to save back into the cart, unless the next customer's
+     * items are already in it
+     */
+    private boolean restoreCart(List<BillItem> lines) {
+        if (!cartItems.isEmpty()) {
+            return false;
+        }
+        for (BillItem line : lines) {
+            BillItem copy = new BillItem(line);
+            cartModel.addLine(copy);
+            cartTotals.add(copy);
+        }
+        updateTotals();
+        return true;
+    }
+
     private void printReceipt() {
         if (cartItems.isEmpty()) {
             ToastNotification.showWarning(SwingUtilities.getWindowAncestor(this), "Cart is empty");
             return;
         }
-        
-        // Create receipt content
-        StringBuilder receipt = new StringBuilder();
-        receipt.append("================================\n");
-        receipt.append("        GROCERY STORE\n");
-        receipt.append("    123 Main Street, City\n");
-        receipt.append("    Phone: +91-9876543210\n");
-        receipt.append("================================\n");
-        receipt.append("Bill No: ").append(currentBillNumber).append("\n");
-        receipt.append("Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))).append("\n");
-        receipt.append("Cashier: ").append(SessionManager.getCurrentUserName()).append("\n");
-        receipt.append("--------------------------------\n");
-        
-        for (BillItem item : cartItems) {
-            receipt.append(String.format("%-20s %2d x ₹%6.2f\n", 
-                item.getItemName().substring(0, Math.min(item.getItemName().length(), 20)), 
-                item.getQuantity(), 
-                item.getUnitPrice()));
-            receipt.append(String.format("                    ₹%6.2f\n", item.getLineTotal()));
-        }
-        
-        receipt.append("--------------------------------\n");
-        receipt.append(String.format("Subtotal:           ₹%6.2f\n", subtotal));
-        receipt.append(String.format("GST:                ₹%6.2f\n", gstAmount));
-        receipt.append(String.format("Total:              ₹%6.2f\n", finalTotal));
-        receipt.append("================================\n");
-        receipt.append("    Thank you for shopping!\n");
-        receipt.append("================================\n");
+        showReceipt(currentBillNumber, cartItems, cartTotals);
+    }
+
+    private void showReceipt(String billNumber, List<BillItem> lines, CartTotals totals) {
+        String receipt = ReceiptFormatter.format(billNumber, LocalDateTime.now(),
+            SessionManager.getCurrentUserName(), lines, totals);
         
         // Show receipt dialog with Print option
-        JTextArea receiptArea = new JTextArea(receipt.toString());
+        JTextArea receiptArea = new JTextArea(receipt);
         receiptArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
         receiptArea.setEditable(false);
 
@@ -700,7 +720,7 @@ public class BillingWindow extends JPanel {
         int choice = JOptionPane.showOptionDialog(
             this,
             scrollPane,
-            "Receipt - " + currentBillNumber,
+            "Receipt - " + billNumber,
             JOptionPane.YES_NO_OPTION,
             JOptionPane.INFORMATION_MESSAGE,
             null,
@@ -710,7 +730,7 @@ public class BillingWindow extends JPanel {
 
         if (choice == JOptionPane.YES_OPTION) {
             try {
-                printReceiptToPrinter(receipt.toString());
+                printReceiptToPrinter(billNumber, receipt);
                 ToastNotification.showSuccess(SwingUtilities.getWindowAncestor(this), "Receipt sent to printer");
             } catch (Exception e) {
                 ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Print failed: " + e.getMessage());
@@ -718,9 +738,9 @@ public class BillingWindow extends JPanel {
         }
     }
 
-    private void printReceiptToPrinter(String receiptContent) throws Exception {
+    private void printReceiptToPrinter(String billNumber, String receiptContent) throws Exception {
         PrinterJob printerJob = PrinterJob.getPrinterJob();
-        printerJob.setJobName("Grocery POS Receipt - " + currentBillNumber);
+        printerJob.setJobName("Grocery POS Receipt - " + billNumber);
 
         printerJob.setPrintable((graphics, pageFormat, pageIndex) -> {
             if (pageIndex > 0) return Printable.NO_SUCH_PAGE;
@@ -741,7 +761,14 @@ public class BillingWindow extends JPanel {
         });
 
         if (printerJob.printDialog()) {
-            printerJob.print();
+            ReceiptPrintEvent printEvent = ReceiptPrintEvent.start(billNumber, receiptContent.split("\n").length);
+            boolean printed = false;
+            try {
+                printerJob.print();
+                printed = true;
+            } finally {
+                printEvent.finish(printed);
+            }
         } else {
             throw new Exception("User cancelled print dialog");
         }
@@ -1,25 +1,24 @@
 package com.grocerypos.ui;
 
-import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.AsyncItemDAO;
 import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.database.DataExecutor;
 import com.grocerypos.model.Item;
 import com.grocerypos.model.InventoryMovement;
+import com.grocerypos.ui.components.PagedItemTableModel;
 import com.grocerypos.util.SessionManager;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.math.BigDecimal;
-import java.sql.SQLException;
-import java.util.List;
 
 /**
  * Inventory management window
  */
 public class InventoryWindow extends JFrame {
     private JTable itemsTable;
-    private DefaultTableModel itemsModel;
+    private PagedItemTableModel itemsModel;
     private JTextField searchField;
     private JButton addItemButton;
     private JButton editItemButton;
@@ -27,7 +26,7 @@ public class InventoryWindow extends JFrame {
     private JButton refreshButton;
     private JButton lowStockButton;
     
-    private ItemDAO itemDAO;
+    private AsyncItemDAO itemDAO;
     private InventoryMovementDAO inventoryMovementDAO;
 
     public InventoryWindow() {
@@ -37,7 +36,7 @@ public class InventoryWindow extends JFrame {
         setupWindow();
         
         try {
-            itemDAO = new ItemDAO();
+            itemDAO = new AsyncItemDAO();
             inventoryMovementDAO = new InventoryMovementDAO();
             loadItems();
         } catch (Exception e) {
@@ -47,13 +46,7 @@ public class InventoryWindow extends JFrame {
 
     private void initializeComponents() {
         // Items table
-        String[] columnNames = {"ID", "Name", "Barcode", "Price", "Stock", "Min Stock", "Category", "GST%"};
-        itemsModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        itemsModel = new PagedItemTableModel();
         itemsTable = new JTable(itemsModel);
         itemsTable.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         itemsTable.setRowHeight(25);
@@ -184,26 +177,11 @@ public class InventoryWindow extends JFrame {
     }
 
     private void loadItems() {
-        try {
-            List<Item> items = itemDAO.findAll();
-            itemsModel.setRowCount(0);
-            
-            for (Item item : items) {
-                Object[] row = {
-                    item.getId(),
-                    item.getName(),
-                    item.getBarcode(),
-                    "₹" + item.getPrice(),
-                    item.getStockQuantity(),
-                    item.getMinStockLevel(),
-                    item.getCategory(),
-                    item.getGstPercentage() + "%"
-                };
-                itemsModel.addRow(row);
+        itemsModel.reload().whenCompleteAsync((count, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
 
     private void searchItems() {
@@ -213,26 +191,13 @@ public class InventoryWindow extends JFrame {
             return;
         }
         
-        try {
-            List<Item> items = itemDAO.searchByName(searchTerm);
-            itemsModel.setRowCount(0);
-            
-            for (Item item : items) {
-                Object[] row = {
-                    item.getId(),
-                    item.getName(),
-                    item.getBarcode(),
-                    "₹" + item.getPrice(),
-                    item.getStockQuantity(),
-                    item.getMinStockLevel(),
-                    item.getCategory(),
-                    item.getGstPercentage() + "%"
-                };
-                itemsModel.addRow(row);
+        itemDAO.searchByName(searchTerm).whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error searching items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            itemsModel.showItems(items);
+        }, DataExecutor.EDT);
     }
 
     private void addItem() {
@@ -251,9 +216,16 @@ public class InventoryWindow extends JFrame {
             return;
         }
         
-        try {
-            int itemId = (Integer) itemsTable.getValueAt(selectedRow, 0);
-            Item item = itemDAO.findById(itemId);
+        Item selected = itemsModel.getItemAt(selectedRow);
+        if (selected == null) {
+            return;
+        }
+        int itemId = selected.getId();
+        itemDAO.findDetailById(itemId).whenCompleteAsync((item, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading item: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             if (item != null) {
                 ItemDialog dialog = new ItemDialog(this, item);
@@ -263,9 +235,7 @@ public class InventoryWindow extends JFrame {
                     loadItems();
                 }
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading item: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
 
     private void deleteItem() {
@@ -281,25 +251,30 @@ public class InventoryWindow extends JFrame {
             JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            try {
-                int itemId = (Integer) itemsTable.getValueAt(selectedRow, 0);
-                boolean deleted = itemDAO.delete(itemId);
-                
-                if (deleted) {
+            Item selected = itemsModel.getItemAt(selectedRow);
+        if (selected == null) {
+            return;
+        }
+        int itemId = selected.getId();
+            itemDAO.delete(itemId).whenCompleteAsync((deleted, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Error deleting item: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                } else if (deleted) {
                     JOptionPane.showMessageDialog(this, "Item deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
                     loadItems();
                 } else {
                     JOptionPane.showMessageDialog(this, "Failed to delete item", "Error", JOptionPane.ERROR_MESSAGE);
                 }
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, "Error deleting item: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            }
+            }, DataExecutor.EDT);
         }
     }
 
     private void showLowStockItems() {
-        try {
-            List<Item> lowStockItems = itemDAO.findLowStockItems();
+        itemDAO.findLowStockItems().whenCompleteAsync((lowStockItems, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading low stock items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             if (lowStockItems.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "No items with low stock", "Low Stock Alert", JOptionPane.INFORMATION_MESSAGE);
@@ -326,9 +301,6 @@ public class InventoryWindow extends JFrame {
             scrollPane.setPreferredSize(new Dimension(500, 200));
             
             JOptionPane.showMessageDialog(this, scrollPane, "Low Stock Items", JOptionPane.WARNING_MESSAGE);
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading low stock items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
 }
@@ -1,12 +1,17 @@
 package com.grocerypos.ui;
 
+import com.grocerypos.dao.InventoryMovementDAO;
 import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.model.InventoryMovement;
 import com.grocerypos.model.Item;
+import com.grocerypos.util.SessionManager;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.SQLException;
 
 /**
@@ -201,7 +206,8 @@ public class ItemDialog extends JDialog {
     }
 
     private void saveItem() {
-        if (!validateInput()) {
+        if (!saveButton.isEnabled() || !validateInput()) {
+            // Already saving
             return;
         }
         
@@ -210,37 +216,51 @@ public class ItemDialog extends JDialog {
                 // Create new item
                 item = new Item();
             }
+            int shownStock = item.getId() == 0 ? 0 : item.getStockQuantity();
             
             item.setName(nameField.getText().trim());
             item.setBarcode(barcodeField.getText().trim());
             item.setDescription(descriptionField.getText().trim());
-            item.setPrice(new BigDecimal(priceField.getText().trim()));
+            item.setPrice(new BigDecimal(priceField.getText().trim()).setScale(2, RoundingMode.HALF_UP));
             
             if (!costPriceField.getText().trim().isEmpty()) {
-                item.setCostPrice(new BigDecimal(costPriceField.getText().trim()));
+                item.setCostPrice(new BigDecimal(costPriceField.getText().trim()).setScale(2, RoundingMode.HALF_UP));
             }
             
-            item.setGstPercentage(new BigDecimal(gstField.getText().trim()));
+            item.setGstPercentage(new BigDecimal(gstField.getText().trim()).setScale(2, RoundingMode.HALF_UP));
             item.setStockQuantity(Integer.parseInt(stockField.getText().trim()));
+            // What the user changed; the stock itself may have moved since the dialog opened
+            int stockChange = item.getStockQuantity() - shownStock;
             item.setMinStockLevel(Integer.parseInt(minStockField.getText().trim()));
             item.setUnit(unitField.getText().trim());
             item.setCategory(categoryField.getText().trim());
             
-            if (item.getId() == 0) {
-                // Insert new item
-                itemDAO.insert(item);
-                JOptionPane.showMessageDialog(this, "Item added successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                // Update existing item
-                itemDAO.update(item);
-                JOptionPane.showMessageDialog(this, "Item updated successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
-            }
-            
-            itemSaved = true;
-            dispose();
+            boolean adding = item.getId() == 0;
+            saveButton.setEnabled(false);
+            DataExecutor.supply(() -> {
+                if (adding) {
+                    // Insert new item
+                    item.setId(itemDAO.insert(item));
+                    recordStockChange(stockChange, "Opening stock");
+                } else {
+                    // Update existing item
+                    if (!itemDAO.update(item, stockChange)) {
+                        throw new SQLException("Item " + item.getName() + " no longer exists");
+                    }
+                    recordStockChange(stockChange, "Stock edited");
+                }
+                return item;
+            }).whenCompleteAsync((saved, error) -> {
+                saveButton.setEnabled(true);
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Database error: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(this, adding ? "Item added successfully" : "Item updated successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
+                itemSaved = true;
+                dispose();
+            }, DataExecutor.EDT);
             
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(this, "Invalid number format", "Input Error", JOptionPane.ERROR_MESSAGE);
         } catch (Exception e) {
@@ -248,6 +268,20 @@ public class ItemDialog extends JDialog {
         }
     }
 
+    /**
+     * Log a stock change made in this dialog as an adjustment, once the item holds the stock after it;
+     * written in the background by MovementWriter
+     */
+    private void recordStockChange(int change, String notes) throws SQLException {
+        if (change == 0) {
+            return;
+        }
+        int newStock = item.getStockQuantity();
+        new InventoryMovementDAO().recordStockMovement(item.getId(), InventoryMovement.MovementType.ADJUSTMENT,
+            change, newStock - change, newStock, null, InventoryMovement.ReferenceType.ADJUSTMENT, notes,
+            SessionManager.getCurrentUserId());
+    }
+
     private boolean validateInput() {
         if (nameField.getText().trim().isEmpty()) {
             JOptionPane.showMessageDialog(this, "Name is required", "Validation Error", JOptionPane.ERROR_MESSAGE);
@@ -1,18 +1,20 @@
 package com.grocerypos.ui;
 
-import com.grocerypos.dao.BillDAO;
-import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.AsyncBillDAO;
+import com.grocerypos.dao.AsyncItemDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.metrics.SalesReportEvent;
 import com.grocerypos.model.Bill;
+import com.grocerypos.service.ReportExporter;
+import com.grocerypos.ui.components.ExportDialog;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.math.BigDecimal;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * Reports window for sales and inventory reports
@@ -31,8 +33,9 @@ public class ReportsWindow extends JFrame {
     private JLabel totalSalesLabel;
     private JLabel totalBillsLabel;
     
-    private BillDAO billDAO;
-    private ItemDAO itemDAO;
+    private AsyncBillDAO billDAO;
+    private AsyncItemDAO itemDAO;
+    private final ReportExporter reportExporter = new ReportExporter();
 
     public static ReportsWindow getInstance() {
         if (instance == null) {
@@ -49,8 +52,8 @@ public class ReportsWindow extends JFrame {
         setupWindow();
         
         try {
-            billDAO = new BillDAO();
-            itemDAO = new ItemDAO();
+            billDAO = new AsyncBillDAO();
+            itemDAO = new AsyncItemDAO();
             loadDefaultReport();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Database connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -210,11 +213,17 @@ public class ReportsWindow extends JFrame {
     }
 
     private void generateSalesReport(LocalDate startDate, LocalDate endDate) {
-        try {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            
-            List<Bill> bills = billDAO.findByDateRange(startDateTime, endDateTime);
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
+        
+        // Report rows only need bill totals and item counts, not the lines themselves
+        SalesReportEvent reportEvent = SalesReportEvent.start(startDate, endDate);
+        billDAO.findHeadersByDateRange(startDateTime, endDateTime).whenCompleteAsync((bills, error) -> {
+            if (error != null) {
+                reportEvent.finish(0, error);
+                JOptionPane.showMessageDialog(this, "Error loading sales data: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             salesModel.setRowCount(0);
             BigDecimal totalSales = BigDecimal.ZERO;
@@ -236,15 +245,16 @@ public class ReportsWindow extends JFrame {
             
             totalSalesLabel.setText("Total Sales: ₹" + String.format("%.2f", totalSales));
             totalBillsLabel.setText("Total Bills: " + bills.size());
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading sales data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            reportEvent.finish(bills.size(), null);
+        }, DataExecutor.EDT);
     }
 
     private void generateStockReport() {
-        try {
-            List<com.grocerypos.model.Item> items = itemDAO.findAll();
+        itemDAO.findAll().whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading stock data: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             
             stockModel.setRowCount(0);
             
@@ -262,48 +272,24 @@ public class ReportsWindow extends JFrame {
                 };
                 stockModel.addRow(row);
             }
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading stock data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
 
     private void exportReport() {
-        // Export current sales table to CSV
-        JFileChooser chooser = new JFileChooser();
-        chooser.setDialogTitle("Save Sales Report as CSV");
-        chooser.setSelectedFile(new java.io.File("sales.csv"));
-        int result = chooser.showSaveDialog(this);
-        if (result != JFileChooser.APPROVE_OPTION) {
+        // Streams straight from the database, so the export is not limited to the rows on screen
+        if (tabbedPane.getSelectedIndex() == 1) {
+            ExportDialog.export(this, "Save Stock Report as CSV", "stock.csv",
+                (file, compress, progress) -> reportExporter.exportStock(file, compress, progress));
             return;
         }
-        java.io.File file = chooser.getSelectedFile();
-        try (java.io.FileWriter csv = new java.io.FileWriter(file)) {
-            // Header
-            csv.write("Date,Bill No,Customer,Items,Subtotal,GST,Total,Payment\n");
-            // Rows
-            for (int r = 0; r < salesModel.getRowCount(); r++) {
-                StringBuilder line = new StringBuilder();
-                for (int c = 0; c < salesModel.getColumnCount(); c++) {
-                    Object val = salesModel.getValueAt(r, c);
-                    String text = val != null ? val.toString() : "";
-                    // Strip any currency symbols and commas if present visually
-                    text = text.replace("₹", "").replace(",", "");
-                    // Escape quotes
-                    if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
-                        text = '"' + text.replace("\"", "\"\"") + '"';
-                    }
-                    line.append(text);
-                    if (c < salesModel.getColumnCount() - 1) line.append(',');
-                }
-                csv.write(line.toString());
-                csv.write("\n");
-            }
-            csv.flush();
-            JOptionPane.showMessageDialog(this, "Exported to: " + file.getAbsolutePath(), "Export Complete", JOptionPane.INFORMATION_MESSAGE);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to export CSV: " + ex.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
+        LocalDate startDate = startDatePicker.getDate();
+        LocalDate endDate = endDatePicker.getDate();
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            JOptionPane.showMessageDialog(this, "Please select a valid date range to export", "Invalid Date Range", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        ExportDialog.export(this, "Save Sales Report as CSV", "sales.csv",
+            (file, compress, progress) -> reportExporter.exportSales(startDate, endDate, file, compress, progress));
     }
 }
 
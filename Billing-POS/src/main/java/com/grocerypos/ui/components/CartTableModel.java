@@ -0,0 +1,144 @@
+package com.grocerypos.ui.components;
+
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.Money;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.List;
+
+/**
+ * Cart table backed directly by the cart's BillItem list. Changes go through the methods
+ * here so only the affected rows are repainted; money columns hold paise and are formatted
+ * by CurrencyCellRenderer when painted. Only the quantity is editable, and edits are handed
+ * to the QuantityEditListener rather than applied here.
+ */
+public class CartTableModel extends AbstractTableModel {
+    public static final int ITEM_COLUMN = 0;
+    public static final int BARCODE_COLUMN = 1;
+    public static final int QUANTITY_COLUMN = 2;
+    public static final int PRICE_COLUMN = 3;
+    public static final int GST_RATE_COLUMN = 4;
+    public static final int GST_AMOUNT_COLUMN = 5;
+    public static final int TOTAL_COLUMN = 6;
+
+    private static final String[] COLUMN_NAMES = {"Item", "Barcode", "Qty", "Price", "GST%", "GST Amt", "Total"};
+
+    private final List<BillItem> lines;
+    private QuantityEditListener quantityEditListener;
+
+    /**
+     * Receives quantities typed into the Qty column
+     */
+    public interface QuantityEditListener {
+        void onQuantityEdited(int row, int quantity);
+    }
+
+    public CartTableModel(List<BillItem> lines) {
+        this.lines = lines;
+    }
+
+    public void setQuantityEditListener(QuantityEditListener listener) {
+        this.quantityEditListener = listener;
+    }
+
+    public BillItem getLine(int row) {
+        return lines.get(row);
+    }
+
+    /**
+     * Row of the cart line for an item, or -1
+     */
+    public int indexOfItem(int itemId) {
+        for (int row = 0; row < lines.size(); row++) {
+            if (lines.get(row).getItemId() == itemId) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    public void addLine(BillItem line) {
+        lines.add(line);
+        fireTableRowsInserted(lines.size() - 1, lines.size() - 1);
+    }
+
+    public BillItem removeLine(int row) {
+        BillItem line = lines.remove(row);
+        fireTableRowsDeleted(row, row);
+        return line;
+    }
+
+    public void clear() {
+        int size = lines.size();
+        lines.clear();
+        if (size > 0) {
+            fireTableRowsDeleted(0, size - 1);
+        }
+    }
+
+    /**
+     * Repaint one line after its quantity, discount or totals changed
+     */
+    public void lineChanged(int row) {
+        fireTableRowsUpdated(row, row);
+    }
+
+    public void allLinesChanged() {
+        if (!lines.isEmpty()) {
+            fireTableRowsUpdated(0, lines.size() - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return lines.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (column) {
+            case QUANTITY_COLUMN: return Integer.class;
+            case PRICE_COLUMN:
+            case GST_AMOUNT_COLUMN:
+            case TOTAL_COLUMN: return Long.class;
+            default: return String.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == QUANTITY_COLUMN;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        BillItem line = lines.get(row);
+        switch (column) {
+            case ITEM_COLUMN: return line.getItemName();
+            case BARCODE_COLUMN: return line.getItemBarcode();
+            case QUANTITY_COLUMN: return line.getQuantity();
+            case PRICE_COLUMN: return line.getUnitPricePaise();
+            // Basis points print like paise: 500 is 5.00
+            case GST_RATE_COLUMN: return Money.format(line.getGstBasisPoints()) + "%";
+            case GST_AMOUNT_COLUMN: return line.getGstPaise();
+            default: return line.getLineTotalPaise();
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (column == QUANTITY_COLUMN && quantityEditListener != null && value instanceof Integer) {
+            quantityEditListener.onQuantityEdited(row, (Integer) value);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.grocerypos.ui.components;
+
+import com.grocerypos.model.Money;
+
+import javax.swing.*;
+import javax.swing.table.TableCellRenderer;
+import java.awt.*;
+
+/**
+ * Renders a paise amount as rupees (₹12.50) when the cell is painted.
+ * Wraps the table's own renderer so themed tables keep their look.
+ */
+public class CurrencyCellRenderer implements TableCellRenderer {
+    private final TableCellRenderer delegate;
+
+    public CurrencyCellRenderer(TableCellRenderer delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Use for the given columns of the table, on top of its current default renderer
+     */
+    public static void install(JTable table, int... columns) {
+        CurrencyCellRenderer renderer = new CurrencyCellRenderer(table.getDefaultRenderer(Object.class));
+        for (int column : columns) {
+            table.getColumnModel().getColumn(column).setCellRenderer(renderer);
+        }
+    }
+
+    @Override
+    public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                   boolean hasFocus, int row, int column) {
+        Object text = value instanceof Long ? "₹" + Money.format((Long) value) : value;
+        return delegate.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
+    }
+}
@@ -0,0 +1,150 @@
+package com.grocerypos.ui.components;
+
+import com.grocerypos.service.ReportExporter;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Asks where to save a report, then runs the export in the background behind a progress bar
+ * with a Cancel button. Cancelling stops the export at its next progress report and removes the
+ * partial file.
+ */
+public class ExportDialog extends JDialog {
+
+    /**
+     * Writes the report to the file and returns the number of rows written
+     */
+    public interface Export {
+        long write(Path file, boolean compress, ReportExporter.Progress progress) throws Exception;
+    }
+
+    private final JProgressBar progressBar;
+    private final JLabel rowsLabel;
+    private final JButton cancelButton;
+    private volatile boolean cancelled;
+
+    private ExportDialog(Window owner, String title) {
+        super(owner, title, ModalityType.APPLICATION_MODAL);
+        setDefaultCloseOperation(DO_NOTHING_ON_CLOSE);
+
+        progressBar = new JProgressBar(0, 1000);
+        progressBar.setIndeterminate(true);
+        progressBar.setPreferredSize(new Dimension(320, 20));
+        rowsLabel = new JLabel("Starting export...");
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> cancel());
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        content.add(rowsLabel, BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttons.add(cancelButton);
+        content.add(buttons, BorderLayout.SOUTH);
+        setContentPane(content);
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Choose a file and run the export
+     */
+    public static void export(Component parent, String title, String defaultFileName, Export export) {
+        export(parent, title, defaultFileName, export, message -> { });
+    }
+
+    /**
+     * Choose a file and run the export; status receives a one-line summary of the outcome
+     */
+    public static void export(Component parent, String title, String defaultFileName, Export export, Consumer<String> status) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(title);
+        chooser.setSelectedFile(new File(defaultFileName));
+        JCheckBox compressBox = new JCheckBox("Compress (gzip)");
+        chooser.setAccessory(compressBox);
+        if (chooser.showSaveDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        boolean compress = compressBox.isSelected();
+        File file = chooser.getSelectedFile();
+        if (compress && !file.getName().endsWith(".gz")) {
+            file = new File(file.getPath() + ".gz");
+        }
+
+        ExportDialog dialog = new ExportDialog(SwingUtilities.getWindowAncestor(parent), title);
+        Path path = file.toPath();
+        SwingWorker<Long, long[]> worker = new SwingWorker<>() {
+            @Override
+            protected Long doInBackground() throws Exception {
+                return export.write(path, compress, new ReportExporter.Progress() {
+                    @Override
+                    public void update(long rowsWritten, long totalRows) {
+                        publish(new long[] {rowsWritten, totalRows});
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return dialog.cancelled;
+                    }
+                });
+            }
+
+            @Override
+            protected void process(List<long[]> chunks) {
+                long[] latest = chunks.get(chunks.size() - 1);
+                dialog.showProgress(latest[0], latest[1]);
+            }
+
+            @Override
+            protected void done() {
+                dialog.dispose();
+                try {
+                    long rows = get();
+                    JOptionPane.showMessageDialog(parent, "Exported " + rows + " rows to: " + path.toAbsolutePath(),
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                    status.accept("Exported " + rows + " rows to " + path.getFileName());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof CancellationException) {
+                        status.accept("Export cancelled");
+                        return;
+                    }
+                    JOptionPane.showMessageDialog(parent, "Failed to export CSV: " + cause.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE);
+                    status.accept("Export failed: " + cause.getMessage());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        worker.execute();
+        // Modal: returns once done() has disposed the dialog
+        dialog.setVisible(true);
+    }
+
+    private void showProgress(long rowsWritten, long totalRows) {
+        if (cancelled) {
+            return;
+        }
+        if (totalRows > 0) {
+            progressBar.setIndeterminate(false);
+            progressBar.setValue((int) (rowsWritten * 1000 / totalRows));
+            rowsLabel.setText(String.format("%,d of %,d rows", rowsWritten, totalRows));
+        } else {
+            rowsLabel.setText(String.format("%,d rows", rowsWritten));
+        }
+    }
+
+    private void cancel() {
+        cancelled = true;
+        cancelButton.setEnabled(false);
+        rowsLabel.setText("Cancelling...");
+    }
+}
@@ -2,6 +2,7 @@ package com.grocerypos.ui.components;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.List;
 
 /**
  * Modern search field with macOS-inspired styling and live search suggestions
@@ -11,6 +12,14 @@ public class ModernSearchField extends JTextField {
     private String placeholderText = "Search products...";
     private JPopupMenu suggestionMenu;
     private Timer searchTimer;
+    private SuggestionProvider suggestionProvider;
+    
+    /**
+     * Supplies suggestions for the typed text; called on the Event Dispatch Thread, so it must not block
+     */
+    public interface SuggestionProvider {
+        List<String> getSuggestions(String query);
+    }
     
     public ModernSearchField() {
         initializeField();
@@ -113,40 +122,39 @@ public class ModernSearchField extends JTextField {
         }
     }
     
+    /**
+     * Show suggestions from this provider while typing; null turns suggestions off
+     */
+    public void setSuggestionProvider(SuggestionProvider suggestionProvider) {
+        this.suggestionProvider = suggestionProvider;
+    }
+    
     private void performSearch() {
         String query = getText().trim();
-        if (query.length() >= 2) {
-            // This would typically trigger a search in the parent component
-            // For now, we'll just show a placeholder suggestion
-            showSuggestions(query);
+        if (query.length() >= 2 && suggestionProvider != null) {
+            showSuggestions(suggestionProvider.getSuggestions(query));
         } else {
             hideSuggestions();
         }
     }
     
-    private void showSuggestions(String query) {
+    private void showSuggestions(List<String> suggestions) {
         suggestionMenu.removeAll();
         
-        // Add sample suggestions (in real implementation, this would come from search results)
-        String[] suggestions = {
-            "Apple iPhone 15 Pro",
-            "Samsung Galaxy S24",
-            "MacBook Pro M3",
-            "iPad Air 5th Gen"
-        };
-        
         for (String suggestion : suggestions) {
-            if (suggestion.toLowerCase().contains(query.toLowerCase())) {
-                JMenuItem item = new JMenuItem(suggestion);
-                item.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
-                item.setBorder(BorderFactory.createEmptyBorder(8, 16, 8, 16));
-                item.addActionListener(e -> {
-                    setText(suggestion);
-                    hideSuggestions();
-                    transferFocus();
-                });
-                suggestionMenu.add(item);
-            }
+            JMenuItem item = new JMenuItem(suggestion);
+            item.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
+            item.setBorder(BorderFactory.createEmptyBorder(8, 16, 8, 16));
+            item.addActionListener(e -> {
+                setText(suggestion);
+                // Let the owner act on the choice as if Enter had been pressed
+                postActionEvent();
+            });
+            suggestionMenu.add(item);
+        }
+        
+        if (suggestionMenu.getComponentCount() == 0) {
+            hideSuggestions();
         }
         
         if (suggestionMenu.getComponentCount() > 0) {
@@ -161,6 +169,10 @@ public class ModernSearchField extends JTextField {
     @Override
     public void setText(String text) {
         super.setText(text);
+        // Text set by code is not typing; don't pop suggestions up for it
+        if (searchTimer != null) {
+            searchTimer.stop();
+        }
         hideSuggestions();
     }
 }
@@ -2,7 +2,7 @@ package com.grocerypos.ui.components;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
@@ -15,7 +15,7 @@ public class ModernTable extends JTable {
     private int hoveredRow = -1;
     private float hoverProgress = 0.0f;
     
-    public ModernTable(DefaultTableModel model) {
+    public ModernTable(TableModel model) {
         super(model);
         initializeTable();
     }
@@ -28,7 +28,9 @@ public class ModernTable extends JTable {
         setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 13));
         
         // Custom cell renderer for modern styling
-        setDefaultRenderer(Object.class, new ModernCellRenderer());
+        ModernCellRenderer renderer = new ModernCellRenderer();
+        setDefaultRenderer(Object.class, renderer);
+        setDefaultRenderer(Number.class, renderer);
         
         // Header styling
         getTableHeader().setFont(new Font(Font.SANS_SERIF, Font.BOLD, 13));
@@ -0,0 +1,180 @@
+package com.grocerypos.ui.components;
+
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.model.Item;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Read-only item table that fetches active items a page at a time as rows are painted,
+ * using keyset pages in (name, id) order and keeping only the most recently used pages.
+ * Rows whose page is still loading show a placeholder. Must be used on the Event Dispatch Thread.
+ */
+public class PagedItemTableModel extends AbstractTableModel {
+    private static final String[] COLUMN_NAMES = {"ID", "Name", "Barcode", "Price", "Stock", "Min Stock", "Category", "GST%"};
+    private static final int PAGE_SIZE = 100;
+    private static final int MAX_PAGES = 20;
+
+    private final ItemDAO itemDAO;
+
+    // Least recently used page is evicted first
+    private final Map<Integer, List<Item>> pages = new LinkedHashMap<Integer, List<Item>>(MAX_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Item>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+
+    // Key of the last row before each page; kept after the page itself is evicted, so scrolling back is one query
+    private final Map<Integer, ItemDAO.PageKey> pageStarts = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+
+    private List<Item> results;
+    private int rowCount;
+    private int generation;
+
+    public PagedItemTableModel() {
+        this(new ItemDAO());
+    }
+
+    public PagedItemTableModel(ItemDAO itemDAO) {
+        this.itemDAO = itemDAO;
+    }
+
+    /**
+     * Drop every cached page and browse all active items again; completes with the item count
+     */
+    public CompletableFuture<Integer> reload() {
+        int requested = reset();
+        return DataExecutor.supply(itemDAO::countActive).whenCompleteAsync((count, error) -> {
+            if (error == null && requested == generation) {
+                rowCount = count;
+                fireTableDataChanged();
+            }
+        }, DataExecutor.EDT);
+    }
+
+    /**
+     * Show a fixed list (e.g. search results) instead of browsing; reload() goes back to browsing
+     */
+    public void showItems(List<Item> items) {
+        reset();
+        results = items;
+        rowCount = items.size();
+        fireTableDataChanged();
+    }
+
+    /**
+     * The item shown at the given row, or null while its page is loading
+     */
+    public Item getItemAt(int row) {
+        if (results != null) {
+            return results.get(row);
+        }
+        int page = row / PAGE_SIZE;
+        List<Item> items = pages.get(page);
+        if (items == null) {
+            requestPage(page);
+            return null;
+        }
+        int offset = row % PAGE_SIZE;
+        // The table shrank since it was counted; the next reload fixes the row count
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Item item = getItemAt(row);
+        if (item == null) {
+            return column == 1 ? "Loading..." : null;
+        }
+        switch (column) {
+            case 0: return item.getId();
+            case 1: return item.getName();
+            case 2: return item.getBarcode();
+            case 3: return "₹" + String.format("%.2f", item.getPrice());
+            case 4: return item.getStockQuantity();
+            case 5: return item.getMinStockLevel();
+            case 6: return item.getCategory();
+            default: return item.getGstPercentage() + "%";
+        }
+    }
+
+    private int reset() {
+        pages.clear();
+        pageStarts.clear();
+        loading.clear();
+        pageStarts.put(0, null);
+        results = null;
+        rowCount = 0;
+        return ++generation;
+    }
+
+    private void requestPage(int page) {
+        if (!loading.add(page)) {
+            return;
+        }
+        int requested = generation;
+
+        // Start from the nearest page boundary we know; the rest of the way is an index-only seek
+        int known = page;
+        while (!pageStarts.containsKey(known)) {
+            known--;
+        }
+        ItemDAO.PageKey from = pageStarts.get(known);
+        int skip = (page - known) * PAGE_SIZE;
+
+        DataExecutor.supply(() -> {
+            ItemDAO.PageKey after = from;
+            if (skip > 0) {
+                after = itemDAO.seekPageKey(from != null ? from.getName() : null, from != null ? from.getId() : 0, skip - 1);
+                if (after == null) {
+                    return List.<Item>of();
+                }
+            }
+            return itemDAO.findPage(after != null ? after.getName() : null, after != null ? after.getId() : 0, PAGE_SIZE);
+        }).whenCompleteAsync((items, error) -> {
+            if (requested != generation) {
+                return;
+            }
+            if (error != null) {
+                // Left marked as loading so painting does not retry in a loop; the next reload tries again
+                System.err.println("Could not load item page " + page + ": " + DataExecutor.unwrap(error).getMessage());
+                return;
+            }
+            loading.remove(page);
+            pages.put(page, items);
+            if (items.size() == PAGE_SIZE) {
+                pageStarts.put(page + 1, ItemDAO.PageKey.of(items.get(items.size() - 1)));
+            }
+            int first = page * PAGE_SIZE;
+            int last = Math.min(first + PAGE_SIZE, rowCount) - 1;
+            if (first <= last) {
+                fireTableRowsUpdated(first, last);
+            }
+        }, DataExecutor.EDT);
+    }
+}
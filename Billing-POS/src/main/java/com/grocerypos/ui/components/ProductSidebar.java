@@ -1,23 +1,25 @@
 package com.grocerypos.ui.components;
 
-import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.AsyncItemDAO;
+import com.grocerypos.database.DataExecutor;
 import com.grocerypos.model.Item;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Modern product sidebar with quick access buttons and categories
  */
 public class ProductSidebar extends GlassCard {
     private List<ProductButton> productButtons;
-    private ItemDAO itemDAO;
+    private AsyncItemDAO itemDAO;
     private ProductSidebarListener listener;
     
     public interface ProductSidebarListener {
@@ -33,7 +35,7 @@ public class ProductSidebar extends GlassCard {
     private void initializeComponents() {
         productButtons = new ArrayList<>();
         try {
-            itemDAO = new ItemDAO();
+            itemDAO = new AsyncItemDAO();
         } catch (Exception ignored) {}
         reloadFromDatabase();
     }
@@ -80,15 +82,33 @@ public class ProductSidebar extends GlassCard {
     }
 
     public void refreshData() {
-        removeAll();
-        productButtons.clear();
         reloadFromDatabase();
-        revalidate();
-        repaint();
     }
 
+    /**
+     * Load the buttons in the background with one query for all items, grouped by category here;
+     * the sidebar fills in once they arrive
+     */
     private void reloadFromDatabase() {
         if (itemDAO == null) {
+            showProducts(null);
+            return;
+        }
+        itemDAO.findAll().whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                System.err.println("Failed to load the product sidebar: " + DataExecutor.unwrap(error).getMessage());
+            }
+            showProducts(error == null ? items : null);
+        }, DataExecutor.EDT);
+    }
+
+    /**
+     * Replace the buttons; null items shows the fallback list
+     */
+    private void showProducts(List<Item> items) {
+        removeAll();
+        productButtons.clear();
+        if (items == null) {
             // Fallback: minimal sample list
             String[] fallback = {"Quick Picks", "Groceries"};
             String[][] products = {{"Milk", "Bread", "Eggs"}, {"Sugar", "Rice"}};
@@ -97,34 +117,36 @@ public class ProductSidebar extends GlassCard {
                 for (String p : products[i]) addProductButton(p);
                 if (i < fallback.length - 1) addSeparator();
             }
-            return;
-        }
-
-        try {
-            List<String> categories = itemDAO.getAllCategories();
-            if (categories == null) categories = new ArrayList<>();
+        } else {
+            // findAll is in name order, so each category's buttons are too
+            Map<String, List<Item>> itemsByCategory = new TreeMap<>();
+            for (Item item : items) {
+                if (item.getCategory() != null && !item.getCategory().isEmpty()) {
+                    itemsByCategory.computeIfAbsent(item.getCategory(), c -> new ArrayList<>()).add(item);
+                }
+            }
+            List<String> categories = new ArrayList<>(itemsByCategory.keySet());
             // Ensure Quick Picks appear first
             if (categories.contains("Quick Picks")) {
                 categories.remove("Quick Picks");
                 categories.add(0, "Quick Picks");
             }
-            if (categories.isEmpty()) categories = Collections.singletonList("All");
+            if (categories.isEmpty()) {
+                categories = Collections.singletonList("All");
+                itemsByCategory.put("All", items);
+            }
 
             for (int i = 0; i < categories.size(); i++) {
                 String category = categories.get(i);
                 addCategoryHeader(category);
-                List<Item> items = "All".equals(category) ? itemDAO.findAll() : itemDAO.findByCategory(category);
-                for (Item item : items) {
+                for (Item item : itemsByCategory.get(category)) {
                     addProductButton(item.getName());
                 }
                 if (i < categories.size() - 1) addSeparator();
             }
-        } catch (SQLException e) {
-            // Show minimal fallback if DB fails
-            addCategoryHeader("Quick Picks");
-            addProductButton("Milk");
-            addProductButton("Bread");
         }
+        revalidate();
+        repaint();
     }
     
     private static class ProductButton extends JButton {
@@ -1,14 +1,14 @@
 package com.grocerypos.ui.panels;
 
 import com.grocerypos.Application;
+import com.grocerypos.dao.AsyncItemDAO;
 import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.database.DataExecutor;
 import com.grocerypos.model.Item;
+import com.grocerypos.ui.components.PagedItemTableModel;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.sql.SQLException;
-import java.util.List;
 
 /**
  * Admin panel for product management
@@ -16,7 +16,7 @@ import java.util.List;
 public class AdminPanel extends JPanel {
     private Application parent;
     private JTable itemsTable;
-    private DefaultTableModel itemsModel;
+    private PagedItemTableModel itemsModel;
     private JTextField searchField;
     private JButton addItemButton;
     private JButton editItemButton;
@@ -29,6 +29,7 @@ public class AdminPanel extends JPanel {
     private JButton printBarcodeButton;
     
     private ItemDAO itemDAO;
+    private AsyncItemDAO asyncItemDAO;
 
     public AdminPanel(Application parent) {
         this.parent = parent;
@@ -38,6 +39,7 @@ public class AdminPanel extends JPanel {
         
         try {
             itemDAO = new ItemDAO();
+            asyncItemDAO = new AsyncItemDAO(itemDAO);
             loadItems();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Database connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -46,13 +48,7 @@ public class AdminPanel extends JPanel {
 
     private void initializeComponents() {
         // Items table
-        String[] columnNames = {"ID", "Name", "Barcode", "Price", "Stock", "Min Stock", "Category", "GST%"};
-        itemsModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table read-only
-            }
-        };
+        itemsModel = new PagedItemTableModel();
         itemsTable = new JTable(itemsModel);
         itemsTable.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         itemsTable.setRowHeight(30);
@@ -239,29 +235,15 @@ public class AdminPanel extends JPanel {
     }
 
     private void loadItems() {
-        try {
-            List<Item> items = itemDAO.findAll();
-            itemsModel.setRowCount(0);
-            
-            for (Item item : items) {
-                Object[] row = {
-                    item.getId(),
-                    item.getName(),
-                    item.getBarcode(),
-                    "₹" + String.format("%.2f", item.getPrice()),
-                    item.getStockQuantity(),
-                    item.getMinStockLevel(),
-                    item.getCategory(),
-                    item.getGstPercentage() + "%"
-                };
-                itemsModel.addRow(row);
+        itemsModel.reload().whenCompleteAsync((count, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                // parent.setStatus("Error loading items");
+                return;
             }
             
-            // parent.setStatus("Loaded " + items.size() + " items");
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            // parent.setStatus("Error loading items");
-        }
+            // parent.setStatus("Loaded " + count + " items");
+        }, DataExecutor.EDT);
     }
 
     private void searchItems() {
@@ -271,29 +253,16 @@ public class AdminPanel extends JPanel {
             return;
         }
         
-        try {
-            List<Item> items = itemDAO.searchByName(searchTerm);
-            itemsModel.setRowCount(0);
-            
-            for (Item item : items) {
-                Object[] row = {
-                    item.getId(),
-                    item.getName(),
-                    item.getBarcode(),
-                    "₹" + String.format("%.2f", item.getPrice()),
-                    item.getStockQuantity(),
-                    item.getMinStockLevel(),
-                    item.getCategory(),
-                    item.getGstPercentage() + "%"
-                };
-                itemsModel.addRow(row);
+        asyncItemDAO.searchByName(searchTerm).whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error searching items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Error searching items");
+                return;
             }
+            itemsModel.showItems(items);
             
             parent.setStatus("Found " + items.size() + " items matching '" + searchTerm + "'");
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Error searching items");
-        }
+        }, DataExecutor.EDT);
     }
 
     private void addItem() {
@@ -313,9 +282,17 @@ public class AdminPanel extends JPanel {
             return;
         }
         
-        try {
-            int itemId = (Integer) itemsTable.getValueAt(selectedRow, 0);
-            Item item = itemDAO.findById(itemId);
+        Item selected = itemsModel.getItemAt(selectedRow);
+        if (selected == null) {
+            return;
+        }
+        int itemId = selected.getId();
+        asyncItemDAO.findDetailById(itemId).whenCompleteAsync((item, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading item: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Error loading item");
+                return;
+            }
             
             if (item != null) {
                 ItemDialog dialog = new ItemDialog(parent, item, itemDAO);
@@ -326,10 +303,7 @@ public class AdminPanel extends JPanel {
                     parent.setStatus("Item updated successfully");
                 }
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading item: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Error loading item");
-        }
+        }, DataExecutor.EDT);
     }
 
     private void deleteItem() {
@@ -345,11 +319,16 @@ public class AdminPanel extends JPanel {
             JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            try {
-                int itemId = (Integer) itemsTable.getValueAt(selectedRow, 0);
-                boolean deleted = itemDAO.delete(itemId);
-                
-                if (deleted) {
+            Item selected = itemsModel.getItemAt(selectedRow);
+        if (selected == null) {
+            return;
+        }
+        int itemId = selected.getId();
+            asyncItemDAO.delete(itemId).whenCompleteAsync((deleted, error) -> {
+                if (error != null) {
+                    JOptionPane.showMessageDialog(this, "Error deleting item: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    parent.setStatus("Error deleting item");
+                } else if (deleted) {
                     JOptionPane.showMessageDialog(this, "Item deleted successfully", "Success", JOptionPane.INFORMATION_MESSAGE);
                     loadItems();
                     parent.setStatus("Item deleted successfully");
@@ -357,16 +336,17 @@ public class AdminPanel extends JPanel {
                     JOptionPane.showMessageDialog(this, "Failed to delete item", "Error", JOptionPane.ERROR_MESSAGE);
                     parent.setStatus("Failed to delete item");
                 }
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, "Error deleting item: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                parent.setStatus("Error deleting item");
-            }
+            }, DataExecutor.EDT);
         }
     }
 
     private void showLowStockItems() {
-        try {
-            List<Item> lowStockItems = itemDAO.findLowStockItems();
+        asyncItemDAO.findLowStockItems().whenCompleteAsync((lowStockItems, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading low stock items: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Error loading low stock items");
+                return;
+            }
             
             if (lowStockItems.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "No items with low stock", "Low Stock Alert", JOptionPane.INFORMATION_MESSAGE);
@@ -393,11 +373,7 @@ public class AdminPanel extends JPanel {
             scrollPane.setPreferredSize(new Dimension(500, 200));
             
             JOptionPane.showMessageDialog(this, scrollPane, "Low Stock Items", JOptionPane.WARNING_MESSAGE);
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading low stock items: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Error loading low stock items");
-        }
+        }, DataExecutor.EDT);
     }
 
     private void printBarcodesForProduct() {
@@ -407,9 +383,18 @@ public class AdminPanel extends JPanel {
             return;
         }
         int perPage = (Integer) quantityPerPageSpinner.getValue();
+        int productId;
         try {
-            int productId = Integer.parseInt(idText);
-            Item item = itemDAO.findById(productId);
+            productId = Integer.parseInt(idText);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Invalid Product ID", "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        asyncItemDAO.findById(productId).whenCompleteAsync((item, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Database error: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             if (item == null) {
                 JOptionPane.showMessageDialog(this, "Product not found", "Not Found", JOptionPane.WARNING_MESSAGE);
                 return;
@@ -425,10 +410,6 @@ public class AdminPanel extends JPanel {
             gen.setLabelsPerPage(perPage);
             gen.setVisible(true);
             gen.toFront();
-        } catch (NumberFormatException ex) {
-            JOptionPane.showMessageDialog(this, "Invalid Product ID", "Input Error", JOptionPane.ERROR_MESSAGE);
-        } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this, "Database error: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
 }
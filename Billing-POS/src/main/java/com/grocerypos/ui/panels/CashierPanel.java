@@ -1,14 +1,25 @@
 package com.grocerypos.ui.panels;
 
 import com.grocerypos.Application;
+import com.grocerypos.dao.AsyncItemDAO;
 import com.grocerypos.dao.ItemDAO;
 import com.grocerypos.dao.BillDAO;
 import com.grocerypos.dao.InventoryMovementDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.metrics.CheckoutEvent;
+import com.grocerypos.metrics.ReceiptPrintEvent;
+import com.grocerypos.metrics.ScanEvent;
 import com.grocerypos.model.Item;
 import com.grocerypos.model.Bill;
 import com.grocerypos.model.BillItem;
-import com.grocerypos.model.InventoryMovement;
+import com.grocerypos.model.CartTotals;
+import com.grocerypos.model.Money;
+import com.grocerypos.service.BillNumberService;
+import com.grocerypos.service.CheckoutService;
+import com.grocerypos.service.ReceiptFormatter;
 import com.grocerypos.util.SessionManager;
+import com.grocerypos.ui.components.CartTableModel;
+import com.grocerypos.ui.components.CurrencyCellRenderer;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
@@ -21,12 +32,10 @@ import java.awt.print.*;
 import javax.print.*;
 import javax.print.attribute.*;
 import java.math.BigDecimal;
-import java.sql.SQLException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 import com.grocerypos.ui.components.ToastNotification;
 import com.grocerypos.ui.components.LoadingSpinner;
 
@@ -38,7 +47,7 @@ public class CashierPanel extends JPanel {
     private JTextField barcodeField;
     private JTextField searchField;
     private JTable cartTable;
-    private DefaultTableModel cartModel;
+    private CartTableModel cartModel;
     private JTable searchTable;
     private DefaultTableModel searchModel;
     private JLabel totalLabel;
@@ -55,16 +64,19 @@ public class CashierPanel extends JPanel {
     private JButton discountButton;
     private JTextField discountField;
     private JComboBox<String> searchComboBox;
-    private List<Item> allItems;
     
-    private List<BillItem> cartItems;
-    private BigDecimal subtotal;
-    private BigDecimal gstAmount;
-    private BigDecimal finalTotal;
+    private final List<BillItem> cartItems = new ArrayList<>();
+    private final CartTotals cartTotals = new CartTotals();
     
     private ItemDAO itemDAO;
+    private AsyncItemDAO asyncItemDAO;
     private BillDAO billDAO;
-    private InventoryMovementDAO inventoryMovementDAO;
+    private CheckoutService checkoutService;
+    // Scans are looked up one after another so the cart keeps scan order
+    private CompletableFuture<?> pendingScan = CompletableFuture.completedFuture(null);
+    private boolean checkoutInProgress;
+    // The customer is being shown the total; the cart must not change until they have paid it
+    private boolean takingPayment;
     
     private String currentBillNumber;
 
@@ -74,15 +86,11 @@ public class CashierPanel extends JPanel {
         setupLayout();
         setupEventHandlers();
         
-        cartItems = new ArrayList<>();
-        subtotal = BigDecimal.ZERO;
-        gstAmount = BigDecimal.ZERO;
-        finalTotal = BigDecimal.ZERO;
-        
         try {
             itemDAO = new ItemDAO();
+            asyncItemDAO = new AsyncItemDAO(itemDAO);
             billDAO = new BillDAO();
-            inventoryMovementDAO = new InventoryMovementDAO();
+            checkoutService = new CheckoutService(billDAO, itemDAO, new InventoryMovementDAO());
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Database connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
         }
@@ -170,13 +178,7 @@ public class CashierPanel extends JPanel {
         searchTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         
         // Cart table
-        String[] cartColumns = {"Item", "Barcode", "Qty", "Price", "GST%", "GST Amt", "Total"};
-        cartModel = new DefaultTableModel(cartColumns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 2; // Only quantity is editable
-            }
-        };
+        cartModel = new CartTableModel(cartItems);
         cartTable = new JTable(cartModel);
         cartTable.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
         cartTable.setRowHeight(25);
@@ -187,6 +189,7 @@ public class CashierPanel extends JPanel {
         cartTable.getColumnModel().getColumn(4).setPreferredWidth(60);
         cartTable.getColumnModel().getColumn(5).setPreferredWidth(80);
         cartTable.getColumnModel().getColumn(6).setPreferredWidth(100);
+        CurrencyCellRenderer.install(cartTable, CartTableModel.PRICE_COLUMN, CartTableModel.GST_AMOUNT_COLUMN, CartTableModel.TOTAL_COLUMN);
         
         // Buttons
         addItemButton = new JButton("➕ Add Item");
@@ -410,11 +413,7 @@ public class CashierPanel extends JPanel {
         });
         
         // Cart table cell editing
-        cartTable.getModel().addTableModelListener(e -> {
-            if (e.getColumn() == 2) { // Quantity column
-                updateItemQuantity(cartTable.getSelectedRow());
-            }
-        });
+        cartModel.setQuantityEditListener(this::updateItemQuantity);
     }
 
     public void refreshData() {
@@ -423,7 +422,15 @@ public class CashierPanel extends JPanel {
     }
 
     private void generateNewBillNumber() {
-        currentBillNumber = "BILL-" + System.currentTimeMillis();
+        // Usually handed out from memory; only the first bill of a block waits for the database
+        currentBillNumber = null;
+        BillNumberService.getInstance().nextAsync().whenCompleteAsync((number, error) -> {
+            if (error != null) {
+                System.err.println("Failed to allocate a bill number: " + DataExecutor.unwrap(error).getMessage());
+                return;
+            }
+            currentBillNumber = number;
+        }, DataExecutor.EDT);
     }
 
     private void addItemByBarcode() {
@@ -433,22 +440,26 @@ public class CashierPanel extends JPanel {
             return;
         }
         
-        try {
-            Item item = itemDAO.findByBarcode(barcode);
-            if (item != null) {
-                addItemToCart(item, 1);
-                barcodeField.setText("");
-                barcodeField.requestFocus();
-                parent.setStatus("Item added to cart");
-            } else {
-                JOptionPane.showMessageDialog(this, "Item not found with barcode: " + barcode, "Item Not Found", JOptionPane.WARNING_MESSAGE);
-                barcodeField.setText("");
-                barcodeField.requestFocus();
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Database error: " + e.getMessage());
-        }
+        barcodeField.setText("");
+        barcodeField.requestFocus();
+        ScanEvent scanEvent = ScanEvent.start(barcode);
+        pendingScan = pendingScan
+            .handle((ignored, error) -> null)
+            .thenCompose(ignored -> asyncItemDAO.findByBarcode(barcode))
+            .whenCompleteAsync((item, error) -> {
+                scanEvent.finish(item, error);
+                if (error != null) {
+                    Throwable cause = DataExecutor.unwrap(error);
+                    JOptionPane.showMessageDialog(this, "Database error: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                    parent.setStatus("Database error: " + cause.getMessage());
+                } else if (item != null) {
+                    addItemToCart(item, 1);
+                    parent.setStatus("Item added to cart");
+                } else {
+                    JOptionPane.showMessageDialog(this, "Item not found with barcode: " + barcode, "Item Not Found", JOptionPane.WARNING_MESSAGE);
+                    barcodeField.requestFocus();
+                }
+            }, DataExecutor.EDT);
     }
 
     private void searchItems() {
@@ -459,8 +470,13 @@ public class CashierPanel extends JPanel {
             return;
         }
         
-        try {
-            List<Item> items = itemDAO.searchByName(searchTerm);
+        asyncItemDAO.searchByName(searchTerm).whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                Throwable cause = DataExecutor.unwrap(error);
+                ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + cause.getMessage());
+                parent.setStatus("Database error: " + cause.getMessage());
+                return;
+            }
             searchModel.setRowCount(0);
             
             for (Item item : items) {
@@ -476,10 +492,7 @@ public class CashierPanel extends JPanel {
             
             parent.setStatus("Found " + items.size() + " items matching '" + searchTerm + "'");
             ToastNotification.showInfo(SwingUtilities.getWindowAncestor(this), "Found " + items.size() + " items matching '" + searchTerm + "'");
-        } catch (SQLException e) {
-            ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Database error: " + e.getMessage());
-            parent.setStatus("Database error: " + e.getMessage());
-        }
+        }, DataExecutor.EDT);
     }
 
     private void addSelectedSearchItem() {
@@ -489,33 +502,38 @@ public class CashierPanel extends JPanel {
             return;
         }
         
-        try {
-            String barcode = (String) searchTable.getValueAt(selectedRow, 1);
-            Item item = itemDAO.findByBarcode(barcode);
-            if (item != null) {
+        String barcode = (String) searchTable.getValueAt(selectedRow, 1);
+        asyncItemDAO.findByBarcode(barcode).whenCompleteAsync((item, error) -> {
+            if (error != null) {
+                Throwable cause = DataExecutor.unwrap(error);
+                JOptionPane.showMessageDialog(this, "Database error: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Database error: " + cause.getMessage());
+            } else if (item != null) {
                 addItemToCart(item, 1);
                 parent.setStatus("Item added to cart");
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Database error: " + e.getMessage());
-        }
+        }, DataExecutor.EDT);
     }
 
     private void addItemToCart(Item item, int quantity) {
+        if (takingPayment) {
+            JOptionPane.showMessageDialog(this, item.getName() + " was not added while payment is taken; add it again afterwards",
+                "Payment In Progress", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
         if (item.getStockQuantity() < quantity) {
             JOptionPane.showMessageDialog(this, "Insufficient stock. Available: " + item.getStockQuantity(), "Stock Error", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
         // Check if item already exists in cart
-        for (BillItem cartItem : cartItems) {
-            if (cartItem.getItemId() == item.getId()) {
-                cartItem.setQuantityAndRecalculate(cartItem.getQuantity() + quantity);
-                updateCartTable();
-                updateTotals();
-                return;
-            }
+        int row = cartModel.indexOfItem(item.getId());
+        if (row != -1) {
+            BillItem cartItem = cartModel.getLine(row);
+            cartTotals.setQuantity(cartItem, cartItem.getQuantity() + quantity);
+            cartModel.lineChanged(row);
+            updateTotals();
+            return;
         }
         
         // Add new item to cart
@@ -526,149 +544,151 @@ public class CashierPanel extends JPanel {
         billItem.setQuantity(quantity);
         billItem.setUnitPrice(item.getPrice());
         billItem.setGstPercentage(item.getGstPercentage());
-        
-        // Initialize null fields with safe defaults
-        if (billItem.getDiscountPercentage() == null) {
-            billItem.setDiscountPercentage(BigDecimal.ZERO);
-        }
-        if (billItem.getDiscountAmount() == null) {
-            billItem.setDiscountAmount(BigDecimal.ZERO);
-        }
-        
         billItem.calculateTotals();
         
-        cartItems.add(billItem);
-        updateCartTable();
+        cartModel.addLine(billItem);
+        cartTotals.add(billItem);
         updateTotals();
     }
 
-    private void updateCartTable() {
-        cartModel.setRowCount(0);
-        for (BillItem item : cartItems) {
-            Object[] row = {
-                item.getItemName(),
-                item.getItemBarcode(),
-                item.getQuantity(),
-                "₹" + String.format("%.2f", item.getUnitPrice()),
-                item.getGstPercentage() + "%",
-                "₹" + String.format("%.2f", item.getGstAmount()),
-                "₹" + String.format("%.2f", item.getLineTotal())
-            };
-            cartModel.addRow(row);
-        }
-    }
-
-    private void updateItemQuantity(int row) {
+    private void updateItemQuantity(int row, int newQuantity) {
         if (row >= 0 && row < cartItems.size()) {
-            try {
-                int newQuantity = Integer.parseInt(cartTable.getValueAt(row, 2).toString());
-                if (newQuantity > 0) {
-                    cartItems.get(row).setQuantityAndRecalculate(newQuantity);
-                    updateCartTable();
-                    updateTotals();
-                }
-            } catch (NumberFormatException e) {
+            if (newQuantity > 0) {
+                cartTotals.setQuantity(cartItems.get(row), newQuantity);
+                updateTotals();
+            } else {
                 JOptionPane.showMessageDialog(this, "Invalid quantity", "Input Error", JOptionPane.ERROR_MESSAGE);
-                updateCartTable(); // Refresh table
             }
+            cartModel.lineChanged(row);
         }
     }
 
     private void removeSelectedItem() {
         int selectedRow = cartTable.getSelectedRow();
         if (selectedRow != -1 && selectedRow < cartItems.size()) {
-            cartItems.remove(selectedRow);
-            updateCartTable();
+            cartTotals.remove(cartModel.removeLine(selectedRow));
             updateTotals();
             parent.setStatus("Item removed from cart");
         }
     }
 
     private void clearCart() {
-        cartItems.clear();
-        updateCartTable();
+        cartModel.clear();
+        cartTotals.clear();
         updateTotals();
         parent.setStatus("Cart cleared");
     }
 
     private void updateTotals() {
-        subtotal = BigDecimal.ZERO;
-        gstAmount = BigDecimal.ZERO;
-        
-        for (BillItem item : cartItems) {
-            subtotal = subtotal.add(item.getLineTotal().subtract(item.getGstAmount()));
-            gstAmount = gstAmount.add(item.getGstAmount());
-        }
-        
-        finalTotal = subtotal.add(gstAmount);
-        
-        totalLabel.setText("Subtotal: ₹" + String.format("%.2f", subtotal));
-        gstLabel.setText("GST: ₹" + String.format("%.2f", gstAmount));
-        finalTotalLabel.setText("Total: ₹" + String.format("%.2f", finalTotal));
+        // Running totals are kept up to date by every cart change; this only renders them
+        totalLabel.setText("Subtotal: ₹" + Money.format(cartTotals.getSubtotalPaise()));
+        gstLabel.setText("GST: ₹" + Money.format(cartTotals.getGstPaise()));
+        finalTotalLabel.setText("Total: ₹" + Money.format(cartTotals.getTotalPaise()));
     }
 
     private void processCheckout() {
+        if (checkoutInProgress) {
+            return;
+        }
         if (cartItems.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Cart is empty", "No Items", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        if (currentBillNumber == null) {
+            JOptionPane.showMessageDialog(this, "No bill number yet, please try again in a moment", "Bill Number", JOptionPane.WARNING_MESSAGE);
+            generateNewBillNumber();
+            return;
+        }
+        if (!pendingScan.isDone()) {
+            // A scan still looking up its item belongs on this bill; check out once it is in the cart
+            checkoutInProgress = true;
+            checkoutButton.setEnabled(false);
+            parent.setStatus("Waiting for the last scan...");
+            pendingScan.handle((ignored, error) -> null).thenRunAsync(() -> {
+                checkoutInProgress = false;
+                checkoutButton.setEnabled(true);
+                processCheckout();
+            }, DataExecutor.EDT);
+            return;
+        }
+        
+        // The bill gets its own copies of the lines and totals, taken before the customer is shown the
+        // total, so neither a late lookup nor scans for the next customer can change what is charged
+        List<BillItem> billedItems = new ArrayList<>(cartItems.size());
+        for (BillItem line : cartItems) {
+            billedItems.add(new BillItem(line));
+        }
+        CartTotals billTotals = cartTotals.forLines(billedItems);
         
         // Show payment dialog
-        PaymentDialog paymentDialog = new PaymentDialog(parent, finalTotal);
+        checkoutInProgress = true;
+        takingPayment = true;
+        checkoutButton.setEnabled(false);
+        barcodeField.setEnabled(false);
+        PaymentDialog paymentDialog = new PaymentDialog(parent, billTotals.getTotal());
         paymentDialog.setVisible(true);
+        takingPayment = false;
+        barcodeField.setEnabled(true);
         
-        if (paymentDialog.isPaymentSuccessful()) {
-            try {
-                // Create bill
-                Bill bill = new Bill();
-                bill.setBillNumber(currentBillNumber);
-                bill.setSubtotal(subtotal);
-                bill.setGstAmount(gstAmount);
-                bill.setTotalAmount(finalTotal);
-                bill.setPaymentMethod(paymentDialog.getPaymentMethod());
-                bill.setCashierId(SessionManager.getCurrentUserId());
-                bill.setBillItems(cartItems);
-                
-                // Save bill to database
-                int billId = billDAO.insertBill(bill);
-                bill.setId(billId);
-                
-                // Update stock
-                for (BillItem item : cartItems) {
-                    Item dbItem = itemDAO.findById(item.getItemId());
-                    if (dbItem != null) {
-                        int newStock = dbItem.getStockQuantity() - item.getQuantity();
-                        itemDAO.updateStock(item.getItemId(), newStock);
-                        
-                        // Record inventory movement
-                        inventoryMovementDAO.recordStockMovement(
-                            item.getItemId(),
-                            InventoryMovement.MovementType.SALE,
-                            -item.getQuantity(),
-                            dbItem.getStockQuantity(),
-                            newStock,
-                            billId,
-                            InventoryMovement.ReferenceType.BILL,
-                            "Sale - Bill " + currentBillNumber,
-                            SessionManager.getCurrentUserId()
-                        );
+        if (!paymentDialog.isPaymentSuccessful()) {
+            checkoutInProgress = false;
+            checkoutButton.setEnabled(true);
+            barcodeField.requestFocus();
+        } else {
+            Bill bill = new Bill();
+            bill.setBillNumber(currentBillNumber);
+            bill.setTotals(billTotals);
+            bill.setPaymentMethod(paymentDialog.getPaymentMethod());
+            bill.setCashierId(SessionManager.getCurrentUserId());
+            bill.setBillItems(billedItems);
+            
+            parent.setStatus("Processing bill " + bill.getBillNumber() + "...");
+            
+            // Fresh cart and bill number for the next customer straight away
+            cartModel.clear();
+            cartTotals.clear();
+            updateTotals();
+            generateNewBillNumber();
+            
+            // Save bill, stock decrements and inventory movements in one transaction
+            CheckoutEvent checkoutEvent = CheckoutEvent.start(bill);
+            checkoutService.checkoutAsync(bill).whenCompleteAsync((result, error) -> {
+                checkoutEvent.finish(result != null ? result.getAttempts() : 0, result != null && result.isJournaled(), error);
+                checkoutInProgress = false;
+                checkoutButton.setEnabled(true);
+                if (error != null) {
+                    Throwable cause = DataExecutor.unwrap(error);
+                    String message = "Error processing bill: " + cause.getMessage();
+                    if (restoreCart(billedItems)) {
+                        message += "\nIts items are back in the cart, please check out again.";
+                    } else {
+                        message += "\nThe cart is already in use; scan its items again after this sale.";
                     }
+                    JOptionPane.showMessageDialog(this, message, "Error", JOptionPane.ERROR_MESSAGE);
+                    parent.setStatus("Error processing bill: " + cause.getMessage());
+                    return;
                 }
-                
-                JOptionPane.showMessageDialog(this, "Bill processed successfully!\nBill Number: " + currentBillNumber, "Success", JOptionPane.INFORMATION_MESSAGE);
+                JOptionPane.showMessageDialog(this, "Bill processed successfully!\nBill Number: " + bill.getBillNumber(), "Success", JOptionPane.INFORMATION_MESSAGE);
                 parent.setStatus("Bill processed successfully");
-                
-                // Clear cart and generate new bill number
-                cartItems.clear();
-                updateCartTable();
-                updateTotals();
-                generateNewBillNumber();
-                
-            } catch (SQLException e) {
-                JOptionPane.showMessageDialog(this, "Error processing bill: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-                parent.setStatus("Error processing bill: " + e.getMessage());
-            }
+            }, DataExecutor.EDT);
+        }
+    }
+    
+    /**
+     * Put the lines of a bill that failed to save back into the cart, unless the next customer's
+     * items are already in it
+     */
+    private boolean restoreCart(List<BillItem> lines) {
+        if (!cartItems.isEmpty()) {
+            return false;
+        }
+        for (BillItem line : lines) {
+            BillItem copy = new BillItem(line);
+            cartModel.addLine(copy);
+            cartTotals.add(copy);
         }
+        updateTotals();
+        return true;
     }
 
     private void printReceipt() {
@@ -677,36 +697,11 @@ public class CashierPanel extends JPanel {
             return;
         }
         
-        // Create receipt content
-        StringBuilder receipt = new StringBuilder();
-        receipt.append("================================\n");
-        receipt.append("        GROCERY STORE\n");
-        receipt.append("    123 Main Street, City\n");
-        receipt.append("    Phone: +91-9876543210\n");
-        receipt.append("================================\n");
-        receipt.append("Bill No: ").append(currentBillNumber).append("\n");
-        receipt.append("Date: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))).append("\n");
-        receipt.append("Cashier: ").append(SessionManager.getCurrentUserName()).append("\n");
-        receipt.append("--------------------------------\n");
-        
-        for (BillItem item : cartItems) {
-            receipt.append(String.format("%-20s %2d x ₹%6.2f\n", 
-                item.getItemName().substring(0, Math.min(item.getItemName().length(), 20)), 
-                item.getQuantity(), 
-                item.getUnitPrice()));
-            receipt.append(String.format("                    ₹%6.2f\n", item.getLineTotal()));
-        }
-        
-        receipt.append("--------------------------------\n");
-        receipt.append(String.format("Subtotal:           ₹%6.2f\n", subtotal));
-        receipt.append(String.format("GST:                ₹%6.2f\n", gstAmount));
-        receipt.append(String.format("Total:              ₹%6.2f\n", finalTotal));
-        receipt.append("================================\n");
-        receipt.append("    Thank you for shopping!\n");
-        receipt.append("================================\n");
+        String receipt = ReceiptFormatter.format(currentBillNumber, LocalDateTime.now(),
+            SessionManager.getCurrentUserName(), cartItems, cartTotals);
         
         // Show receipt in dialog
-        JTextArea receiptArea = new JTextArea(receipt.toString());
+        JTextArea receiptArea = new JTextArea(receipt);
         receiptArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
         receiptArea.setEditable(false);
         
@@ -726,7 +721,7 @@ public class CashierPanel extends JPanel {
         if (option == 0) {
             // Print receipt
             try {
-                printReceiptToPrinter(receipt.toString());
+                printReceiptToPrinter(receipt);
                 parent.setStatus("Receipt printed successfully");
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this, "Print failed: " + e.getMessage(), "Print Error", JOptionPane.ERROR_MESSAGE);
@@ -783,8 +778,11 @@ public class CashierPanel extends JPanel {
     }
     
     private void showCategoryDialog() {
-        try {
-            List<String> categories = itemDAO.getAllCategories();
+        asyncItemDAO.getAllCategories().whenCompleteAsync((categories, error) -> {
+            if (error != null) {
+                JOptionPane.showMessageDialog(this, "Error loading categories: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
             if (categories.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "No categories found", "No Categories", JOptionPane.INFORMATION_MESSAGE);
                 return;
@@ -803,9 +801,7 @@ public class CashierPanel extends JPanel {
                 searchField.setText(selectedCategory);
                 searchItems();
             }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading categories: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, DataExecutor.EDT);
     }
     
     private void applyDiscount() {
@@ -821,13 +817,17 @@ public class CashierPanel extends JPanel {
                 JOptionPane.showMessageDialog(this, "Discount must be between 0 and 100%", "Invalid Discount", JOptionPane.WARNING_MESSAGE);
                 return;
             }
+            if (discountPercent.stripTrailingZeros().scale() > 2) {
+                JOptionPane.showMessageDialog(this, "Discount can have at most two decimals", "Invalid Discount", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
             
             // Apply discount to all items in cart
             for (BillItem item : cartItems) {
-                item.setDiscountPercentageAndRecalculate(discountPercent);
+                cartTotals.setDiscountPercentage(item, discountPercent);
             }
             
-            updateCartTable();
+            cartModel.allLinesChanged();
             updateTotals();
             
             JOptionPane.showMessageDialog(this, "Discount of " + discountPercent + "% applied to all items", "Discount Applied", JOptionPane.INFORMATION_MESSAGE);
@@ -863,40 +863,37 @@ public class CashierPanel extends JPanel {
                 return Printable.PAGE_EXISTS;
             });
             
-            printerJob.print();
+            ReceiptPrintEvent printEvent = ReceiptPrintEvent.start(currentBillNumber, receiptContent.split("\n").length);
+            boolean printed = false;
+            try {
+                printerJob.print();
+                printed = true;
+            } finally {
+                printEvent.finish(printed);
+            }
         }
     }
     
     private void setupAutocomplete() {
-        try {
-            if (itemDAO != null) {
-                allItems = itemDAO.findAll();
-                updateSearchComboBox();
-            } else {
-                allItems = new ArrayList<>();
-            }
-        } catch (SQLException e) {
-            ToastNotification.showError(SwingUtilities.getWindowAncestor(this), "Error loading items for search: " + e.getMessage());
-        }
-        
-        // Add key listener for autocomplete
+        // Add key listener for autocomplete, answered by the catalog's search index
         JTextField editor = (JTextField) searchComboBox.getEditor().getEditorComponent();
         editor.addKeyListener(new KeyAdapter() {
             @Override
             public void keyReleased(KeyEvent e) {
-                String text = editor.getText().toLowerCase();
-                if (text.length() > 0) {
-                    List<String> matches = allItems.stream()
-                        .filter(item -> item.getName().toLowerCase().contains(text))
-                        .map(Item::getName)
-                        .limit(10)
-                        .collect(Collectors.toList());
-                    
-                    searchComboBox.removeAllItems();
-                    for (String match : matches) {
-                        searchComboBox.addItem(match);
-                    }
-                    searchComboBox.showPopup();
+                String text = editor.getText();
+                if (text.trim().length() > 0 && asyncItemDAO != null) {
+                    asyncItemDAO.findByNamePattern(text).whenCompleteAsync((matches, error) -> {
+                        // Drop answers for text the cashier has already typed past
+                        if (error != null || !text.equals(editor.getText())) {
+                            return;
+                        }
+                        searchComboBox.removeAllItems();
+                        for (Item match : matches) {
+                            searchComboBox.addItem(match.getName());
+                        }
+                        editor.setText(text);
+                        searchComboBox.showPopup();
+                    }, DataExecutor.EDT);
                 }
             }
             
@@ -916,13 +913,6 @@ public class CashierPanel extends JPanel {
         });
     }
     
-    private void updateSearchComboBox() {
-        searchComboBox.removeAllItems();
-        for (Item item : allItems) {
-            searchComboBox.addItem(item.getName());
-        }
-    }
-    
     private void setupKeyboardShortcuts() {
         // F1 - Focus search
         getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke("F1"), "focusSearch");
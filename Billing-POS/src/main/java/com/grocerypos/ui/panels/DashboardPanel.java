@@ -1,10 +1,12 @@
 package com.grocerypos.ui.panels;
 
 import com.grocerypos.Application;
-import com.grocerypos.dao.BillDAO;
-import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.metrics.DashboardRefreshEvent;
 import com.grocerypos.model.Bill;
-import com.grocerypos.model.Item;
+import com.grocerypos.model.DailySales;
+import com.grocerypos.model.DashboardSnapshot;
+import com.grocerypos.service.DashboardService;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartPanel;
 import org.jfree.chart.JFreeChart;
@@ -19,12 +21,8 @@ import org.jfree.data.general.DefaultPieDataset;
 import javax.swing.*;
 import com.grocerypos.ui.components.GlassCard;
 import java.awt.*;
-import java.math.BigDecimal;
-import java.sql.SQLException;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Map;
 // removed unused imports
 
 /**
@@ -33,8 +31,10 @@ import java.util.List;
 public class DashboardPanel extends JPanel {
     @SuppressWarnings("unused")
     private Application parent;
-    private BillDAO billDAO;
-    private ItemDAO itemDAO;
+    // Log refreshes slower than this
+    private static final long SLOW_REFRESH_MILLIS = 200;
+    
+    private DashboardService dashboardService;
     
     private JPanel chartsPanel;
     private JLabel totalSalesLabel;
@@ -51,8 +51,7 @@ public class DashboardPanel extends JPanel {
     
     private void initializeComponents() {
         try {
-            billDAO = new BillDAO();
-            itemDAO = new ItemDAO();
+            dashboardService = new DashboardService();
         } catch (Exception e) {
             System.err.println("Database connection error: " + e.getMessage());
             // Initialize with null - will be handled gracefully
@@ -135,83 +134,61 @@ public class DashboardPanel extends JPanel {
     }
     
     private void loadDashboardData() {
-        try {
+        if (dashboardService == null) {
+            return; // Skip loading if the DAOs are not initialized
+        }
+        
+        // Query on the data executor, then build the labels and charts on the EDT
+        DashboardRefreshEvent refreshEvent = DashboardRefreshEvent.start();
+        dashboardService.loadSnapshot().whenCompleteAsync((snapshot, error) -> {
+            if (error != null) {
+                refreshEvent.finish(null, error);
+                JOptionPane.showMessageDialog(this, "Error loading dashboard data: " + DataExecutor.unwrap(error).getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (snapshot.getLoadMillis() > SLOW_REFRESH_MILLIS) {
+                System.err.println("Dashboard data took " + snapshot.getLoadMillis() + " ms to load");
+            }
             // Load summary data
-            loadSummaryData();
+            loadSummaryData(snapshot);
             
             // Load charts
-            loadCharts();
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading dashboard data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-        }
+            loadCharts(snapshot);
+            refreshEvent.finish(snapshot, null);
+        }, DataExecutor.EDT);
     }
     
-    private void loadSummaryData() throws SQLException {
-        if (billDAO == null || itemDAO == null) {
-            return; // Skip loading if DAOs are not initialized
-        }
-        
-        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
-        LocalDateTime endOfDay = LocalDate.now().atTime(23, 59, 59);
+    private void loadSummaryData(DashboardSnapshot snapshot) {
+        DailySales todaySales = snapshot.getTodaySales();
         
-        List<Bill> todayBills = billDAO.findByDateRange(startOfDay, endOfDay);
-        
-        // Calculate total sales
-        BigDecimal totalSales = todayBills.stream()
-            .map(Bill::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        totalSalesLabel.setText("Total Sales: ₹" + String.format("%.2f", totalSales));
-        totalBillsLabel.setText("Total Bills: " + todayBills.size());
+        totalSalesLabel.setText("Total Sales: ₹" + String.format("%.2f", todaySales.getGrossAmount()));
+        totalBillsLabel.setText("Total Bills: " + todaySales.getBillCount());
         
         // Count low stock items
-        List<Item> lowStockItems = itemDAO.findLowStockItems();
-        lowStockLabel.setText("Low Stock Items: " + lowStockItems.size());
+        lowStockLabel.setText("Low Stock Items: " + snapshot.getLowStockCount());
         
-        // Find top selling product
-        String topProduct = findTopSellingProduct(todayBills);
+        // Top selling product
+        String topProduct = snapshot.getTopProductToday() != null ? snapshot.getTopProductToday() : "N/A";
         topProductLabel.setText("Top Product: " + topProduct);
     }
     
-    private String findTopSellingProduct(List<Bill> bills) {
-        if (bills.isEmpty()) {
-            return "N/A";
-        }
-
-        java.util.Map<String, Integer> nameToQty = new java.util.HashMap<>();
-        for (Bill bill : bills) {
-            if (bill.getBillItems() == null) continue;
-            for (com.grocerypos.model.BillItem item : bill.getBillItems()) {
-                String name = item.getItemName();
-                if (name == null) continue;
-                nameToQty.put(name, nameToQty.getOrDefault(name, 0) + Math.max(0, item.getQuantity()));
-            }
-        }
-
-        return nameToQty.entrySet().stream()
-            .max(java.util.Map.Entry.comparingByValue())
-            .map(java.util.Map.Entry::getKey)
-            .orElse("N/A");
-    }
-    
-    private void loadCharts() throws SQLException {
+    private void loadCharts(DashboardSnapshot snapshot) {
         chartsPanel.removeAll();
         
         // Sales trend chart
-        ChartPanel salesChart = createSalesTrendChart();
+        ChartPanel salesChart = createSalesTrendChart(snapshot);
         chartsPanel.add(wrapChart("Sales Trend", salesChart));
         
         // Top products chart
-        ChartPanel productsChart = createTopProductsChart();
+        ChartPanel productsChart = createTopProductsChart(snapshot);
         chartsPanel.add(wrapChart("Top Products", productsChart));
         
         // Stock status pie chart
-        ChartPanel stockChart = createStockStatusChart();
+        ChartPanel stockChart = createStockStatusChart(snapshot);
         chartsPanel.add(wrapChart("Stock Status", stockChart));
         
         // Payment methods chart
-        ChartPanel paymentChart = createPaymentMethodsChart();
+        ChartPanel paymentChart = createPaymentMethodsChart(snapshot);
         chartsPanel.add(wrapChart("Payment Methods", paymentChart));
         
         chartsPanel.revalidate();
@@ -232,21 +209,12 @@ public class DashboardPanel extends JPanel {
         return card;
     }
     
-    private ChartPanel createSalesTrendChart() throws SQLException {
+    private ChartPanel createSalesTrendChart(DashboardSnapshot snapshot) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
-        // Get sales data for the last 7 days
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            LocalDateTime startOfDay = date.atStartOfDay();
-            LocalDateTime endOfDay = date.atTime(23, 59, 59);
-            
-            List<Bill> dayBills = billDAO.findByDateRange(startOfDay, endOfDay);
-            BigDecimal daySales = dayBills.stream()
-                .map(Bill::getTotalAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            dataset.addValue(daySales.doubleValue(), "Sales", date.format(DateTimeFormatter.ofPattern("MM/dd")));
+        // Sales data for the last 7 days
+        for (DailySales day : snapshot.getDailySales()) {
+            dataset.addValue(day.getGrossAmount().doubleValue(), "Sales", day.getSaleDate().format(DateTimeFormatter.ofPattern("MM/dd")));
         }
         
         JFreeChart chart = ChartFactory.createLineChart(
@@ -273,34 +241,16 @@ public class DashboardPanel extends JPanel {
         return new ChartPanel(chart);
     }
     
-    private ChartPanel createTopProductsChart() throws SQLException {
+    private ChartPanel createTopProductsChart(DashboardSnapshot snapshot) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-        // Calculate top selling products from the last 7 days
-        java.util.Map<String, Integer> nameToQty = new java.util.HashMap<>();
-        for (int i = 0; i < 7; i++) {
-            LocalDate date = LocalDate.now().minusDays(i);
-            List<Bill> dayBills = billDAO.findByDateRange(date.atStartOfDay(), date.atTime(23, 59, 59));
-            for (Bill bill : dayBills) {
-                if (bill.getBillItems() == null) continue;
-                for (com.grocerypos.model.BillItem item : bill.getBillItems()) {
-                    String name = item.getItemName();
-                    if (name == null) continue;
-                    nameToQty.put(name, nameToQty.getOrDefault(name, 0) + Math.max(0, item.getQuantity()));
-                }
-            }
-        }
-
-        // Take top 5
-        java.util.List<java.util.Map.Entry<String, Integer>> top = nameToQty.entrySet().stream()
-            .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
-            .limit(5)
-            .toList();
+        // Take top 5 selling products from the last 7 days
+        Map<String, Integer> top = snapshot.getTopProducts();
 
         if (top.isEmpty()) {
             dataset.addValue(0, "Sales", "No Data");
         } else {
-            for (var e : top) {
+            for (var e : top.entrySet()) {
                 dataset.addValue(e.getValue(), "Sales", e.getKey());
             }
         }
@@ -329,14 +279,11 @@ public class DashboardPanel extends JPanel {
         return new ChartPanel(chart);
     }
     
-    private ChartPanel createStockStatusChart() throws SQLException {
+    private ChartPanel createStockStatusChart(DashboardSnapshot snapshot) {
         DefaultPieDataset<String> dataset = new DefaultPieDataset<>();
         
-        List<Item> allItems = itemDAO.findAll();
-        List<Item> lowStockItems = itemDAO.findLowStockItems();
-        
-        int normalStock = allItems.size() - lowStockItems.size();
-        int lowStock = lowStockItems.size();
+        int normalStock = snapshot.getItemCount() - snapshot.getLowStockCount();
+        int lowStock = snapshot.getLowStockCount();
         
         dataset.setValue("Normal Stock", normalStock);
         dataset.setValue("Low Stock", lowStock);
@@ -354,14 +301,15 @@ public class DashboardPanel extends JPanel {
         return new ChartPanel(chart);
     }
     
-    private ChartPanel createPaymentMethodsChart() throws SQLException {
+    private ChartPanel createPaymentMethodsChart(DashboardSnapshot snapshot) {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
-        // Sample data - in a real app, you'd analyze actual payment methods
-        dataset.addValue(45, "Count", "Cash");
-        dataset.addValue(30, "Count", "Card");
-        dataset.addValue(20, "Count", "UPI");
-        dataset.addValue(5, "Count", "Online");
+        // Bills per payment method over the last 7 days
+        for (Map.Entry<Bill.PaymentMethod, Integer> method : snapshot.getPaymentMethodCounts().entrySet()) {
+            String label = method.getKey() == Bill.PaymentMethod.UPI ? "UPI"
+                : method.getKey().name().charAt(0) + method.getKey().name().substring(1).toLowerCase();
+            dataset.addValue(method.getValue(), "Count", label);
+        }
         
         JFreeChart chart = ChartFactory.createBarChart(
             "💳 Payment Methods",
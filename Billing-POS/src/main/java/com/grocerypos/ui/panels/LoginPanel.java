@@ -246,16 +246,6 @@ public class LoginPanel extends JPanel {
                 UserDAO userDAO = new UserDAO();
                 User user = userDAO.findByUsername(username);
 
-                // Debug output
-                System.out.println("Login attempt for username: " + username);
-                if (user != null) {
-                    System.out.println("User found: " + user.getUsername());
-                    System.out.println("Password hash: " + user.getPasswordHash());
-                    System.out.println("Password verification: " + PasswordUtil.verifyPassword(password, user.getPasswordHash()));
-                } else {
-                    System.out.println("User not found!");
-                }
-
                 if (user != null && PasswordUtil.verifyPassword(password, user.getPasswordHash())) {
                     // Login successful
                     statusLabel.setText("Login successful!");
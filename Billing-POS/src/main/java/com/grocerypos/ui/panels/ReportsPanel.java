@@ -1,21 +1,23 @@
 package com.grocerypos.ui.panels;
 
 import com.grocerypos.Application;
-import com.grocerypos.dao.BillDAO;
-import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.AsyncBillDAO;
+import com.grocerypos.dao.AsyncItemDAO;
+import com.grocerypos.database.DataExecutor;
+import com.grocerypos.metrics.SalesReportEvent;
 import com.grocerypos.model.Bill;
+import com.grocerypos.service.ReportExporter;
 
 import javax.swing.*;
+import com.grocerypos.ui.components.ExportDialog;
 import com.grocerypos.ui.components.GlassCard;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 // removed unused AWT event imports
 import java.math.BigDecimal;
-import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * Reports panel for sales and inventory reports
@@ -34,8 +36,9 @@ public class ReportsPanel extends JPanel {
     private JLabel totalSalesLabel;
     private JLabel totalBillsLabel;
     
-    private BillDAO billDAO;
-    private ItemDAO itemDAO;
+    private AsyncBillDAO billDAO;
+    private AsyncItemDAO itemDAO;
+    private final ReportExporter reportExporter = new ReportExporter();
 
     public ReportsPanel(Application parent) {
         this.parent = parent;
@@ -45,8 +48,8 @@ public class ReportsPanel extends JPanel {
         setupEventHandlers();
         
         try {
-            billDAO = new BillDAO();
-            itemDAO = new ItemDAO();
+            billDAO = new AsyncBillDAO();
+            itemDAO = new AsyncItemDAO();
             loadDefaultReport();
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Database connection error: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -198,7 +201,7 @@ public class ReportsPanel extends JPanel {
             // Generate stock report
             generateStockReport();
             
-            parent.setStatus("Report generated successfully");
+            parent.setStatus("Generating report...");
             
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this, "Error generating report: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
@@ -207,11 +210,19 @@ public class ReportsPanel extends JPanel {
     }
 
     private void generateSalesReport(LocalDate startDate, LocalDate endDate) {
-        try {
-            LocalDateTime startDateTime = startDate.atStartOfDay();
-            LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-            
-            List<Bill> bills = billDAO.findByDateRange(startDateTime, endDateTime);
+        LocalDateTime startDateTime = startDate.atStartOfDay();
+        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
+        
+        // Report rows only need bill totals and item counts, not the lines themselves
+        SalesReportEvent reportEvent = SalesReportEvent.start(startDate, endDate);
+        billDAO.findHeadersByDateRange(startDateTime, endDateTime).whenCompleteAsync((bills, error) -> {
+            if (error != null) {
+                reportEvent.finish(0, error);
+                Throwable cause = DataExecutor.unwrap(error);
+                JOptionPane.showMessageDialog(this, "Error loading sales data: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Error loading sales data: " + cause.getMessage());
+                return;
+            }
             
             salesModel.setRowCount(0);
             BigDecimal totalSales = BigDecimal.ZERO;
@@ -233,16 +244,19 @@ public class ReportsPanel extends JPanel {
             
             totalSalesLabel.setText("Total Sales: ₹" + String.format("%.2f", totalSales));
             totalBillsLabel.setText("Total Bills: " + bills.size());
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading sales data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Error loading sales data: " + e.getMessage());
-        }
+            reportEvent.finish(bills.size(), null);
+            parent.setStatus("Report generated successfully");
+        }, DataExecutor.EDT);
     }
 
     private void generateStockReport() {
-        try {
-            List<com.grocerypos.model.Item> items = itemDAO.findAll();
+        itemDAO.findAll().whenCompleteAsync((items, error) -> {
+            if (error != null) {
+                Throwable cause = DataExecutor.unwrap(error);
+                JOptionPane.showMessageDialog(this, "Error loading stock data: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                parent.setStatus("Error loading stock data: " + cause.getMessage());
+                return;
+            }
             
             stockModel.setRowCount(0);
             
@@ -259,46 +273,24 @@ public class ReportsPanel extends JPanel {
                 };
                 stockModel.addRow(row);
             }
-            
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this, "Error loading stock data: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Error loading stock data: " + e.getMessage());
-        }
+        }, DataExecutor.EDT);
     }
 
     private void exportReport() {
-        JFileChooser chooser = new JFileChooser();
-        chooser.setDialogTitle("Save Sales Report as CSV");
-        chooser.setSelectedFile(new java.io.File("sales.csv"));
-        int result = chooser.showSaveDialog(this);
-        if (result != JFileChooser.APPROVE_OPTION) {
+        // Streams straight from the database, so the export is not limited to the rows on screen
+        if (tabbedPane.getSelectedIndex() == 1) {
+            ExportDialog.export(this, "Save Stock Report as CSV", "stock.csv",
+                (file, compress, progress) -> reportExporter.exportStock(file, compress, progress), parent::setStatus);
             return;
         }
-        java.io.File file = chooser.getSelectedFile();
-        try (java.io.FileWriter csv = new java.io.FileWriter(file)) {
-            csv.write("Date,Bill No,Customer,Items,Subtotal,GST,Total,Payment\n");
-            for (int r = 0; r < salesModel.getRowCount(); r++) {
-                StringBuilder line = new StringBuilder();
-                for (int c = 0; c < salesModel.getColumnCount(); c++) {
-                    Object val = salesModel.getValueAt(r, c);
-                    String text = val != null ? val.toString() : "";
-                    text = text.replace("₹", "").replace(",", "");
-                    if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
-                        text = '"' + text.replace("\"", "\"\"") + '"';
-                    }
-                    line.append(text);
-                    if (c < salesModel.getColumnCount() - 1) line.append(',');
-                }
-                csv.write(line.toString());
-                csv.write("\n");
-            }
-            csv.flush();
-            JOptionPane.showMessageDialog(this, "Exported to: " + file.getAbsolutePath(), "Export Complete", JOptionPane.INFORMATION_MESSAGE);
-            parent.setStatus("Exported report to CSV");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Failed to export CSV: " + ex.getMessage(), "Export Error", JOptionPane.ERROR_MESSAGE);
-            parent.setStatus("Export failed: " + ex.getMessage());
+        LocalDate startDate = startDatePicker.getDate();
+        LocalDate endDate = endDatePicker.getDate();
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            JOptionPane.showMessageDialog(this, "Please select a valid date range to export", "Invalid Date Range", JOptionPane.WARNING_MESSAGE);
+            return;
         }
+        ExportDialog.export(this, "Save Sales Report as CSV", "sales.csv",
+            (file, compress, progress) -> reportExporter.exportSales(startDate, endDate, file, compress, progress), parent::setStatus);
     }
 }
 
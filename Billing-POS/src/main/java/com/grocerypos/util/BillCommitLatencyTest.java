@@ -0,0 +1,110 @@
+package com.grocerypos.util;
+
+import com.grocerypos.dao.BillDAO;
+import com.grocerypos.dao.ItemDAO;
+import com.grocerypos.dao.UserDAO;
+import com.grocerypos.database.DBUtil;
+import com.grocerypos.model.Bill;
+import com.grocerypos.model.BillItem;
+import com.grocerypos.model.Item;
+import com.grocerypos.model.User;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures BillDAO.insertBill commit latency against basket size.
+ * Bills are written against the configured database and deleted again afterwards.
+ * Usage: BillCommitLatencyTest [repetitions]
+ */
+public class BillCommitLatencyTest {
+
+    private static final int[] BASKET_SIZES = {1, 5, 10, 20, 40, 60, 100};
+    private static final int WARMUP_BILLS = 20;
+    private static final String BILL_PREFIX = "LAT-";
+
+    private static int sequence;
+
+    public static void main(String[] args) {
+        int repetitions = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+
+        try {
+            List<User> users = new UserDAO().findActiveUsers();
+            List<Item> items = new ItemDAO().findAll();
+            if (users.isEmpty() || items.isEmpty()) {
+                System.out.println("Need at least one active user and one item in the database");
+                return;
+            }
+            int cashierId = users.get(0).getId();
+            BillDAO billDAO = new BillDAO();
+
+            try {
+                System.out.println("Warming up...");
+                for (int i = 0; i < WARMUP_BILLS; i++) {
+                    billDAO.insertBill(createBill(cashierId, items, 10));
+                }
+
+                System.out.println(String.format("%-8s %10s %10s %10s %10s", "lines", "p50 ms", "p95 ms", "max ms", "ms/line"));
+                for (int basketSize : BASKET_SIZES) {
+                    double[] latencies = new double[repetitions];
+                    for (int i = 0; i < repetitions; i++) {
+                        Bill bill = createBill(cashierId, items, basketSize);
+                        long start = System.nanoTime();
+                        billDAO.insertBill(bill);
+                        latencies[i] = (System.nanoTime() - start) / 1_000_000.0;
+                    }
+                    Arrays.sort(latencies);
+                    double p50 = percentile(latencies, 0.50);
+                    System.out.println(String.format("%-8d %10.2f %10.2f %10.2f %10.3f", basketSize, p50,
+                        percentile(latencies, 0.95), latencies[latencies.length - 1], p50 / basketSize));
+                }
+            } finally {
+                int removed = deleteTestBills();
+                System.out.println("Removed " + removed + " test bills");
+            }
+
+            System.out.println(DBUtil.getPoolStats());
+            System.out.println(DBUtil.getStatementCacheStats());
+
+        } catch (SQLException e) {
+            System.err.println("Database error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static Bill createBill(int cashierId, List<Item> items, int lines) {
+        // bill_number is VARCHAR(20)
+        Bill bill = new Bill(BILL_PREFIX + (System.currentTimeMillis() % 1_000_000) + "-" + (++sequence), cashierId);
+        List<BillItem> billItems = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            Item item = items.get(i % items.size());
+            billItems.add(new BillItem(0, item.getId(), 1 + i % 3, item.getPrice(), item.getGstPercentage()));
+        }
+        bill.setBillItems(billItems);
+        bill.recalculateTotals();
+        return bill;
+    }
+
+    private static double percentile(double[] sorted, double fraction) {
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Delete the bills written by this test; bill_items go with them via ON DELETE CASCADE
+     */
+    private static int deleteTestBills() throws SQLException {
+        try (Connection connection = DBUtil.getConnection();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM bills WHERE bill_number LIKE ?")) {
+            statement.setString(1, BILL_PREFIX + "%");
+            return statement.executeUpdate();
+        }
+    }
+}
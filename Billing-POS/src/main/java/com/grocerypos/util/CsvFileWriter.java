@@ -0,0 +1,158 @@
+package com.grocerypos.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes CSV rows to a file through a fixed 64 KB buffer, optionally gzip-compressed.
+ * Fields are added one at a time and quoted when needed, so memory use does not depend on
+ * how many rows are written.
+ */
+public class CsvFileWriter implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final GZIPOutputStream gzip;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final StringBuilder field = new StringBuilder(64);
+    private boolean rowStarted;
+    private long bytesWritten;
+
+    public CsvFileWriter(Path file, boolean compress) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        GZIPOutputStream stream = null;
+        if (compress) {
+            OutputStream out = Channels.newOutputStream(channel);
+            stream = new GZIPOutputStream(out, BUFFER_BYTES);
+        }
+        this.gzip = stream;
+    }
+
+    /**
+     * Append a field to the current row; null is written as an empty field
+     */
+    public CsvFileWriter field(CharSequence value) throws IOException {
+        if (rowStarted) {
+            put(",");
+        }
+        rowStarted = true;
+        if (value == null) {
+            return this;
+        }
+        if (needsQuotes(value)) {
+            field.setLength(0);
+            field.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    field.append('"');
+                }
+                field.append(c);
+            }
+            field.append('"');
+            put(field);
+        } else {
+            put(value);
+        }
+        return this;
+    }
+
+    public CsvFileWriter field(long value) throws IOException {
+        if (rowStarted) {
+            put(",");
+        }
+        rowStarted = true;
+        field.setLength(0);
+        put(field.append(value));
+        return this;
+    }
+
+    public void endRow() throws IOException {
+        put("\n");
+        rowStarted = false;
+    }
+
+    /**
+     * Write a row of column names
+     */
+    public void header(String... names) throws IOException {
+        for (String name : names) {
+            field(name);
+        }
+        endRow();
+    }
+
+    /**
+     * Bytes handed to the file so far (compressed size excluded)
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+            if (gzip != null) {
+                gzip.finish();
+                gzip.flush();
+            }
+            channel.force(false);
+        } finally {
+            if (gzip != null) {
+                gzip.close();
+            }
+            channel.close();
+        }
+    }
+
+    private void put(CharSequence text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, false);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        bytesWritten += buffer.remaining();
+        if (gzip != null) {
+            gzip.write(buffer.array(), buffer.position(), buffer.remaining());
+        } else {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        buffer.clear();
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,219 @@
+package com.grocerypos.util;
+
+import com.grocerypos.metrics.Histogram;
+import com.grocerypos.metrics.MetricsRegistry;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.event.InputEvent;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures the Event Dispatch Thread and logs tasks that run longer than a threshold.
+ * A replacement EventQueue times every dispatched event into the ui.edt.dispatch histogram,
+ * and records keyboard and mouse input into ui.edt.inputLatency as the time from the OS event
+ * to the end of its handling, which is the lag a cashier feels. The worst input latency of
+ * the last minute is kept for the status bar.
+ *
+ * While an event is still running past the threshold, a daemon thread samples the EDT's stack,
+ * so the log shows where the EDT was stuck rather than where it ended. The first sample is
+ * logged at once; when the event finishes, the log shows where the samples landed.
+ */
+public class EdtWatchdog {
+    private static final int WINDOW_SECONDS = 60;
+    private static final int MAX_SAMPLES = 400;
+    private static final int SUMMARY_FRAMES = 3;
+    private static EdtWatchdog installed;
+
+    private final long thresholdNanos;
+    private final Histogram dispatchTimes = MetricsRegistry.shared().histogram("ui.edt.dispatch");
+    private final Histogram inputLatencies = MetricsRegistry.shared().histogram("ui.edt.inputLatency");
+    // Worst input latency per second of the last minute, slot = second % WINDOW_SECONDS
+    private final AtomicLongArray worstMillis = new AtomicLongArray(WINDOW_SECONDS);
+    private final AtomicLongArray slotSecond = new AtomicLongArray(WINDOW_SECONDS);
+    private final List<StackTraceElement[]> stallSamples = new ArrayList<>(); // guarded by itself
+    private volatile long dispatchStartNanos;
+    private volatile AWTEvent currentEvent;
+    private volatile Thread dispatchThread;
+    private volatile boolean reported;
+    private volatile long dispatchCount;
+
+    private EdtWatchdog(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis * 1_000_000L;
+    }
+
+    /**
+     * Install the watchdog once for the application; a threshold of 0 keeps the
+     * measurements but logs no slow tasks
+     */
+    public static synchronized void install(long thresholdMillis) {
+        if (installed != null) {
+            return;
+        }
+        installed = new EdtWatchdog(Math.max(0, thresholdMillis));
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(installed.new TimedEventQueue());
+
+        if (thresholdMillis > 0) {
+            Thread sampler = new Thread(installed::sample, "edt-watchdog");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    /**
+     * Worst keyboard or mouse input latency of the last minute in ms; -1 with no input or no watchdog
+     */
+    public static long getWorstInputLatencyMillis() {
+        EdtWatchdog watchdog = installed;
+        if (watchdog == null) {
+            return -1;
+        }
+        long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        long worst = -1;
+        for (int slot = 0; slot < WINDOW_SECONDS; slot++) {
+            if (now - watchdog.slotSecond.get(slot) < WINDOW_SECONDS) {
+                worst = Math.max(worst, watchdog.worstMillis.get(slot));
+            }
+        }
+        return worst;
+    }
+
+    private void sample() {
+        long intervalMillis = Math.max(5, thresholdNanos / 2_000_000L);
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long start = dispatchStartNanos;
+            Thread edt = dispatchThread;
+            if (start == 0 || edt == null || System.nanoTime() - start <= thresholdNanos) {
+                continue;
+            }
+            StackTraceElement[] stack = edt.getStackTrace();
+            if (dispatchStartNanos != start) {
+                // The event finished while the stack was taken
+                continue;
+            }
+            synchronized (stallSamples) {
+                if (stallSamples.size() < MAX_SAMPLES) {
+                    stallSamples.add(stack);
+                }
+            }
+            if (!reported) {
+                reported = true;
+                StringBuilder message = new StringBuilder();
+                message.append("EDT blocked for ").append((System.nanoTime() - start) / 1_000_000)
+                    .append(" ms handling ").append(describe(currentEvent)).append('\n');
+                for (StackTraceElement element : stack) {
+                    message.append("\tat ").append(element).append('\n');
+                }
+                System.err.print(message);
+            }
+        }
+    }
+
+    /**
+     * Where the stack samples of a stall landed: the top frame, and the application frame that led
+     * there when the top frame is in the JDK or a library, by share of samples
+     */
+    private static String summarize(List<StackTraceElement[]> samples) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (StackTraceElement[] stack : samples) {
+            if (stack.length == 0) {
+                continue;
+            }
+            String key = stack[0].toString();
+            if (!isApplicationFrame(stack[0])) {
+                for (StackTraceElement element : stack) {
+                    if (isApplicationFrame(element)) {
+                        key += " via " + element;
+                        break;
+                    }
+                }
+            }
+            counts.merge(key, 1, Integer::sum);
+        }
+        StringBuilder summary = new StringBuilder();
+        counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .limit(SUMMARY_FRAMES)
+            .forEach(entry -> summary.append("\n\t").append(entry.getValue() * 100 / samples.size())
+                .append("% at ").append(entry.getKey()));
+        return summary.toString();
+    }
+
+    private static boolean isApplicationFrame(StackTraceElement element) {
+        return element.getClassName().startsWith("com.grocerypos.")
+            && !element.getClassName().startsWith(EdtWatchdog.class.getName());
+    }
+
+    private static String describe(AWTEvent event) {
+        return event == null ? "unknown event" : event.getClass().getSimpleName() + " from " + event.getSource().getClass().getName();
+    }
+
+    private void recordInputLatency(long latencyMillis) {
+        inputLatencies.recordMicros(latencyMillis * 1000);
+        long second = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+        int slot = (int) (second % WINDOW_SECONDS);
+        // Only the EDT writes, so the slot cannot change between the read and the write
+        if (slotSecond.get(slot) != second) {
+            worstMillis.set(slot, latencyMillis);
+            slotSecond.set(slot, second);
+        } else if (latencyMillis > worstMillis.get(slot)) {
+            worstMillis.set(slot, latencyMillis);
+        }
+    }
+
+    /**
+     * Event queue that records when each event starts and how long it took
+     */
+    private class TimedEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            long sequence = ++dispatchCount;
+            long start = System.nanoTime();
+            dispatchThread = Thread.currentThread();
+            currentEvent = event;
+            reported = false;
+            dispatchStartNanos = start;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                dispatchStartNanos = 0;
+                currentEvent = null;
+                long elapsed = System.nanoTime() - start;
+                List<StackTraceElement[]> samples = null;
+                synchronized (stallSamples) {
+                    if (!stallSamples.isEmpty()) {
+                        samples = new ArrayList<>(stallSamples);
+                        stallSamples.clear();
+                    }
+                }
+                // A modal dialog runs a nested event loop inside this event; time spent there is not EDT work
+                boolean nested = dispatchCount != sequence;
+                if (!nested) {
+                    dispatchTimes.recordNanos(elapsed);
+                    if (event instanceof InputEvent) {
+                        long latency = System.currentTimeMillis() - ((InputEvent) event).getWhen();
+                        // Fall back to the handling time when the OS timestamp is on another clock
+                        recordInputLatency(latency >= 0 && latency < TimeUnit.HOURS.toMillis(1)
+                            ? latency : TimeUnit.NANOSECONDS.toMillis(elapsed));
+                    }
+                    if (thresholdNanos > 0 && elapsed > thresholdNanos) {
+                        System.err.println("EDT task took " + elapsed / 1_000_000 + " ms handling " + describe(event)
+                            + (samples != null ? ", " + samples.size() + " stack samples:" + summarize(samples) : ""));
+                    }
+                }
+            }
+        }
+    }
+}
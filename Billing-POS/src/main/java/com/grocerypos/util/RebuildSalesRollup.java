@@ -0,0 +1,48 @@
+package com.grocerypos.util;
+
+import com.grocerypos.dao.SalesRollupDAO;
+import com.grocerypos.model.DailySales;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Utility to backfill or repair the daily_sales_rollup table from the bills table.
+ * Run it once after upgrading an existing database, or after bills are edited by hand.
+ * Usage: RebuildSalesRollup [startDate endDate]   (dates as yyyy-MM-dd, inclusive; default is every day with bills)
+ */
+public class RebuildSalesRollup {
+
+    public static void main(String[] args) {
+        try {
+            SalesRollupDAO salesRollupDAO = new SalesRollupDAO();
+            long start = System.nanoTime();
+            int rows;
+
+            if (args.length >= 2) {
+                LocalDate startDate = LocalDate.parse(args[0]);
+                LocalDate endDate = LocalDate.parse(args[1]);
+                System.out.println("Rebuilding sales rollup from " + startDate + " to " + endDate + "...");
+                rows = salesRollupDAO.rebuild(startDate, endDate);
+            } else {
+                System.out.println("Rebuilding sales rollup for all bills...");
+                rows = salesRollupDAO.rebuildAll();
+            }
+
+            System.out.println(String.format("Wrote %d rollup rows in %.1f ms", rows, (System.nanoTime() - start) / 1_000_000.0));
+
+            DailySales today = salesRollupDAO.findDailyTotals(LocalDate.now());
+            System.out.println("Today: " + today.getBillCount() + " bills, ₹" + today.getGrossAmount());
+
+        } catch (DateTimeParseException e) {
+            System.err.println("Dates must be yyyy-MM-dd: " + e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Database error: " + e.getMessage());
+            e.printStackTrace();
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}